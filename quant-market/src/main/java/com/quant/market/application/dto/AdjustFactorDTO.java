@@ -0,0 +1,58 @@
+package com.quant.market.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.quant.market.domain.model.StockAdjustFactor;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Adjust Factor DTO
+ * 复权因子（请求与响应共用）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdjustFactorDTO {
+
+    @NotBlank(message = "Stock code is required")
+    private String stockCode;
+
+    /**
+     * Ex-rights/ex-dividend date; the factor applies from this date on
+     */
+    @NotNull(message = "Ex-date is required")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate exDate;
+
+    /**
+     * Cumulative backward adjust factor
+     */
+    @NotNull(message = "Back adjust factor is required")
+    @DecimalMin(value = "0", inclusive = false, message = "Back adjust factor must be positive")
+    private BigDecimal backAdjustFactor;
+
+    public StockAdjustFactor toDomain() {
+        return StockAdjustFactor.builder()
+                .stockCode(stockCode)
+                .exDate(exDate)
+                .backAdjustFactor(backAdjustFactor)
+                .build();
+    }
+
+    public static AdjustFactorDTO fromDomain(StockAdjustFactor factor) {
+        return AdjustFactorDTO.builder()
+                .stockCode(factor.getStockCode())
+                .exDate(factor.getExDate())
+                .backAdjustFactor(factor.getBackAdjustFactor())
+                .build();
+    }
+}
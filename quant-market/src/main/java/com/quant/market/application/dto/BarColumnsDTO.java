@@ -0,0 +1,82 @@
+package com.quant.market.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.quant.market.domain.model.BarSeries;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bar Columns DTO
+ * 单只股票日线的列式响应：每个字段一个数组，按交易日升序对齐
+ *
+ * Example:
+ * {
+ *   "stockCode": "600000",
+ *   "adjustFlag": 3,
+ *   "tradeDates": [20240102, 20240103],
+ *   "columns": { "CLOSE": [8.62, 8.75], "VOLUME": [5234567.0, 4876543.0] }
+ * }
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BarColumnsDTO {
+
+    private String stockCode;
+
+    private Short adjustFlag;
+
+    /**
+     * Trade dates as yyyyMMdd integers, ascending
+     */
+    private int[] tradeDates;
+
+    /**
+     * Values per field, aligned with tradeDates (null where the value is missing)
+     */
+    private Map<BarSeries.Field, Double[]> columns;
+
+    /**
+     * Indicator values per column name, e.g. "MACD(12,26,9).DIF", aligned with tradeDates
+     * Only present in indicator responses
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Double[]> indicators;
+
+    /**
+     * Convert a series range [from, to) into columns of the given fields
+     */
+    public static BarColumnsDTO fromSeries(BarSeries series, int from, int to, List<BarSeries.Field> fields) {
+        int size = to - from;
+        int[] tradeDates = new int[size];
+        for (int i = 0; i < size; i++) {
+            LocalDate date = series.getTradeDate(from + i);
+            tradeDates[i] = date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+        }
+
+        Map<BarSeries.Field, Double[]> columns = new LinkedHashMap<>();
+        for (BarSeries.Field field : fields) {
+            Double[] values = new Double[size];
+            for (int i = 0; i < size; i++) {
+                long raw = series.getRaw(field, from + i);
+                values[i] = raw == BarSeries.NULL_VALUE ? null : raw / field.getFactor();
+            }
+            columns.put(field, values);
+        }
+
+        return BarColumnsDTO.builder()
+                .stockCode(series.getStockCode())
+                .adjustFlag(series.getAdjustFlag())
+                .tradeDates(tradeDates)
+                .columns(columns)
+                .build();
+    }
+}
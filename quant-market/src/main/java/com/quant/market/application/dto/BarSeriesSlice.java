@@ -0,0 +1,26 @@
+package com.quant.market.application.dto;
+
+import com.quant.market.domain.model.BarSeries;
+
+/**
+ * Bar Series Slice
+ * 列式序列中 [from, to) 区间的只读视图，用于无需逐行 DTO 的响应编码
+ *
+ * @param series Underlying series (ascending by trade date)
+ * @param from Start index (inclusive)
+ * @param to End index (exclusive)
+ * @param descending Whether bars are emitted newest first
+ */
+public record BarSeriesSlice(BarSeries series, int from, int to, boolean descending) {
+
+    public int size() {
+        return to - from;
+    }
+
+    /**
+     * Series index of the i-th emitted bar
+     */
+    public int indexAt(int i) {
+        return descending ? to - 1 - i : from + i;
+    }
+}
@@ -0,0 +1,70 @@
+package com.quant.market.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.quant.market.domain.model.BarSeries;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Bulk Daily Query Request
+ * 多只股票日线批量查询请求
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDailyQueryRequest {
+
+    /**
+     * Stock codes (required, max 6000)
+     */
+    @NotEmpty(message = "Stock codes are required")
+    @Size(max = 6000, message = "At most 6000 stock codes per request")
+    private List<String> stockCodes;
+
+    /**
+     * Start date (optional)
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate startDate;
+
+    /**
+     * End date (optional)
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate endDate;
+
+    /**
+     * Adjust flag (optional, default 3)
+     * 1 = 后复权 (backward adjusted)
+     * 2 = 前复权 (forward adjusted)
+     * 3 = 不复权 (unadjusted)
+     */
+    @Min(value = 1, message = "Adjust flag must be 1, 2 or 3")
+    @Max(value = 3, message = "Adjust flag must be 1, 2 or 3")
+    @Builder.Default
+    private Integer adjustFlag = 3;
+
+    /**
+     * Keep only the latest N bars per stock within the date range (optional)
+     * Either startDate or lastN is required to bound the result
+     */
+    @Min(value = 1, message = "lastN must be at least 1")
+    @Max(value = 5000, message = "lastN cannot exceed 5000")
+    private Integer lastN;
+
+    /**
+     * Columns to return (optional)
+     * Default: OPEN, HIGH, LOW, CLOSE, PCT_CHANGE, VOLUME, AMOUNT, TURN
+     */
+    private List<BarSeries.Field> fields;
+}
@@ -0,0 +1,70 @@
+package com.quant.market.application.dto;
+
+import com.quant.common.exception.BusinessException;
+import com.quant.common.response.ResultCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Daily Page Cursor
+ * 日线分页游标：记录上一页最后一行的 (trade_date, adjust_flag) 以及查询条件，编码为不透明字符串
+ *
+ * @param stockCode Stock code of the query
+ * @param adjustFlag Adjust flag filter of the query (null = all types)
+ * @param ascending Sort order of the query
+ * @param lastTradeDate Trade date of the last returned row
+ * @param lastAdjustFlag Adjust flag of the last returned row
+ */
+public record DailyPageCursor(String stockCode, Integer adjustFlag, boolean ascending,
+                              LocalDate lastTradeDate, Short lastAdjustFlag) {
+
+    private static final String VERSION = "d1";
+
+    /**
+     * Encode as a URL-safe token
+     */
+    public String encode() {
+        String raw = String.join("|", VERSION, stockCode,
+                adjustFlag != null ? adjustFlag.toString() : "",
+                ascending ? "a" : "d",
+                Long.toString(lastTradeDate.toEpochDay()),
+                lastAdjustFlag != null ? lastAdjustFlag.toString() : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}
+     *
+     * @throws BusinessException if the token is malformed
+     */
+    public static DailyPageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 6 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("unsupported cursor");
+            }
+            return new DailyPageCursor(
+                    parts[1],
+                    parts[2].isEmpty() ? null : Integer.valueOf(parts[2]),
+                    "a".equals(parts[3]),
+                    LocalDate.ofEpochDay(Long.parseLong(parts[4])),
+                    parts[5].isEmpty() ? null : Short.valueOf(parts[5]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(), "Invalid cursor");
+        }
+    }
+
+    /**
+     * Whether this cursor was issued for the same query
+     */
+    public boolean matches(DailyQueryRequest request) {
+        return stockCode.equals(request.getStockCode())
+                && Objects.equals(adjustFlag, request.getAdjustFlag())
+                && ascending == request.isAscending();
+    }
+}
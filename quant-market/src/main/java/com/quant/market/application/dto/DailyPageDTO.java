@@ -0,0 +1,39 @@
+package com.quant.market.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Daily Page DTO
+ * 日线数据游标分页结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyPageDTO {
+
+    /**
+     * Rows of this page
+     */
+    private List<StockDailyDTO> items;
+
+    /**
+     * Page size applied
+     */
+    private int pageSize;
+
+    /**
+     * Whether more rows follow
+     */
+    private boolean hasMore;
+
+    /**
+     * Opaque token for the next page, null on the last page
+     */
+    private String nextCursor;
+}
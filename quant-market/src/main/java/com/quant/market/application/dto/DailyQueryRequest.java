@@ -53,6 +53,17 @@ public class DailyQueryRequest {
      */
     private Integer adjustFlag;
 
+    /**
+     * Page size for paged queries (optional, default 500, max 5000)
+     */
+    private Integer pageSize;
+
+    /**
+     * Continuation token returned as nextCursor by the previous page (optional)
+     * Must be used with the same stockCode, adjustFlag and sortOrder
+     */
+    private String cursor;
+
     /**
      * Check if sort order is ascending
      */
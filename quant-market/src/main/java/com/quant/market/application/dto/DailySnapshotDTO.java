@@ -0,0 +1,68 @@
+package com.quant.market.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.quant.market.domain.model.BarSeries;
+import com.quant.market.domain.model.DailySnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daily Snapshot DTO
+ * 某交易日全市场日线横截面的列式响应：每个字段一个数组，按股票代码升序对齐
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySnapshotDTO {
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate tradeDate;
+
+    private Short adjustFlag;
+
+    /**
+     * Stock codes, ascending
+     */
+    private String[] stockCodes;
+
+    /**
+     * Values per field, aligned with stockCodes (null where the value is missing)
+     */
+    private Map<BarSeries.Field, Double[]> columns;
+
+    /**
+     * Convert a snapshot into columns of the given fields
+     */
+    public static DailySnapshotDTO fromSnapshot(DailySnapshot snapshot, List<BarSeries.Field> fields) {
+        int size = snapshot.size();
+        String[] stockCodes = new String[size];
+        for (int i = 0; i < size; i++) {
+            stockCodes[i] = snapshot.getStockCode(i);
+        }
+
+        Map<BarSeries.Field, Double[]> columns = new LinkedHashMap<>();
+        for (BarSeries.Field field : fields) {
+            Double[] values = new Double[size];
+            for (int i = 0; i < size; i++) {
+                long raw = snapshot.getRaw(field, i);
+                values[i] = raw == BarSeries.NULL_VALUE ? null : raw / field.getFactor();
+            }
+            columns.put(field, values);
+        }
+
+        return DailySnapshotDTO.builder()
+                .tradeDate(snapshot.getTradeDate())
+                .adjustFlag(snapshot.getAdjustFlag())
+                .stockCodes(stockCodes)
+                .columns(columns)
+                .build();
+    }
+}
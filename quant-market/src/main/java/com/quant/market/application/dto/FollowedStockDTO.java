@@ -0,0 +1,45 @@
+package com.quant.market.application.dto;
+
+import com.quant.market.domain.model.FollowedStock;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Followed Stock Data Transfer Object
+ * 用户关注的股票（含关注时间及可选的最新日线）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowedStockDTO {
+
+    /**
+     * Follow time
+     */
+    private LocalDateTime followedAt;
+
+    private StockDTO stock;
+
+    /**
+     * Latest unadjusted bar, null when not requested or when the stock has no bars
+     */
+    private StockDailyDTO latestBar;
+
+    /**
+     * Convert from domain model
+     */
+    public static FollowedStockDTO fromDomain(FollowedStock followed) {
+        StockDTO stock = StockDTO.fromDomain(followed.getStock());
+        stock.setIsFollowed(true);
+        return FollowedStockDTO.builder()
+                .followedAt(followed.getFollowedAt())
+                .stock(stock)
+                .latestBar(followed.getLatestBar() != null ? StockDailyDTO.fromDomain(followed.getLatestBar()) : null)
+                .build();
+    }
+}
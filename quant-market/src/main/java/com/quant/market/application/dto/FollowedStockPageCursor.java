@@ -0,0 +1,47 @@
+package com.quant.market.application.dto;
+
+import com.quant.common.exception.BusinessException;
+import com.quant.common.response.ResultCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Followed Stock Page Cursor
+ * 关注列表分页游标：记录上一页最后一行的 (关注时间, 关联ID)，编码为不透明字符串
+ *
+ * @param lastFollowedAt Follow time of the last returned row
+ * @param lastRelationId Relation ID of the last returned row
+ */
+public record FollowedStockPageCursor(LocalDateTime lastFollowedAt, long lastRelationId) {
+
+    private static final String VERSION = "f1";
+
+    /**
+     * Encode as a URL-safe token
+     */
+    public String encode() {
+        String raw = String.join("|", VERSION, lastFollowedAt.toString(), Long.toString(lastRelationId));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}
+     *
+     * @throws BusinessException if the token is malformed
+     */
+    public static FollowedStockPageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("unsupported cursor");
+            }
+            return new FollowedStockPageCursor(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(), "Invalid cursor");
+        }
+    }
+}
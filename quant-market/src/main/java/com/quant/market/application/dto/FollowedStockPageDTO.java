@@ -0,0 +1,39 @@
+package com.quant.market.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Followed Stock Page DTO
+ * 关注列表游标分页结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowedStockPageDTO {
+
+    /**
+     * Followed stocks of this page, most recently followed first
+     */
+    private List<FollowedStockDTO> items;
+
+    /**
+     * Page size applied
+     */
+    private int pageSize;
+
+    /**
+     * Whether more rows follow
+     */
+    private boolean hasMore;
+
+    /**
+     * Opaque token for the next page, null on the last page
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,71 @@
+package com.quant.market.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.quant.market.domain.model.BarSeries;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Indicator Query Request
+ * 日线技术指标查询请求
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndicatorQueryRequest {
+
+    /**
+     * Stock code (required)
+     */
+    @NotBlank(message = "Stock code is required")
+    private String stockCode;
+
+    /**
+     * Start date of the returned bars (optional)
+     * Indicators are always computed from the first bar, so values do not depend on the start date
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate startDate;
+
+    /**
+     * End date (optional)
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate endDate;
+
+    /**
+     * Adjust flag (optional, default 3)
+     * 1 = 后复权 (backward adjusted)
+     * 2 = 前复权 (forward adjusted)
+     * 3 = 不复权 (unadjusted)
+     */
+    @Min(value = 1, message = "Adjust flag must be 1, 2 or 3")
+    @Max(value = 3, message = "Adjust flag must be 1, 2 or 3")
+    @Builder.Default
+    private Integer adjustFlag = 3;
+
+    /**
+     * Indicators with optional parameters (required, max 20)
+     * SMA(20), EMA(20), MACD(12,26,9), RSI(14), BOLL(20,2), ATR(14); "MACD" uses the defaults
+     */
+    @NotEmpty(message = "Indicators are required")
+    @Size(max = 20, message = "At most 20 indicators per request")
+    private List<String> indicators;
+
+    /**
+     * Bar columns to return next to the indicators (optional)
+     * Default: OPEN, HIGH, LOW, CLOSE, PCT_CHANGE, VOLUME, AMOUNT, TURN
+     */
+    private List<BarSeries.Field> fields;
+}
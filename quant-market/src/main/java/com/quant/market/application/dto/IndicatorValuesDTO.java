@@ -0,0 +1,76 @@
+package com.quant.market.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.quant.market.domain.indicator.IndicatorState;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indicator Values DTO
+ * 单只股票最新一根 K 线的技术指标值
+ *
+ * Example:
+ * {
+ *   "stockCode": "600000",
+ *   "adjustFlag": 3,
+ *   "tradeDate": "2024-12-31",
+ *   "values": { "SMA(20)": 10.12, "MACD(12,26,9).DIF": 0.084, "RSI(14)": 56.3 }
+ * }
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndicatorValuesDTO {
+
+    private String stockCode;
+
+    private Short adjustFlag;
+
+    /**
+     * Trade date of the latest bar folded into the indicators
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate tradeDate;
+
+    /**
+     * Values per indicator column name (null while an indicator is not yet defined)
+     */
+    private Map<String, Double> values;
+
+    /**
+     * Build from the states of one stock
+     *
+     * @param divisor Divides price-scaled outputs (1 for stored states; the latest adjust factor when
+     *                forward-adjusted values are read from backward-adjusted states)
+     */
+    public static IndicatorValuesDTO fromStates(String stockCode, short adjustFlag, List<IndicatorState> states,
+                                                double divisor) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        LocalDate tradeDate = null;
+        for (IndicatorState state : states) {
+            List<String> names = state.getSpec().columnNames();
+            double scale = state.getSpec().getIndicator().isPriceScaled() ? divisor : 1.0;
+            double[] outputs = state.getOutputs();
+            for (int k = 0; k < outputs.length; k++) {
+                values.put(names.get(k), Double.isNaN(outputs[k]) ? null : outputs[k] / scale);
+            }
+            if (tradeDate == null || state.getLastTradeDate().isAfter(tradeDate)) {
+                tradeDate = state.getLastTradeDate();
+            }
+        }
+        return IndicatorValuesDTO.builder()
+                .stockCode(stockCode)
+                .adjustFlag(adjustFlag)
+                .tradeDate(tradeDate)
+                .values(values)
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.quant.market.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Screen Request
+ * 全市场选股请求
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScreenRequest {
+
+    /**
+     * Filter (required), e.g. "close > SMA200 and turn > 3 and pe_ttm < 20 and is_st = 0"
+     */
+    @NotBlank(message = "Filter is required")
+    private String filter;
+
+    /**
+     * Ranking expression (optional), e.g. "pct_change" or "close / SMA(20)"
+     * Matches are ordered by stock code when omitted
+     */
+    private String rankBy;
+
+    /**
+     * Rank highest first (default true)
+     */
+    @Builder.Default
+    private Boolean descending = true;
+
+    /**
+     * Maximum number of matches returned (default 100, max 5000)
+     */
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 5000, message = "Limit cannot exceed 5000")
+    @Builder.Default
+    private Integer limit = 100;
+
+    /**
+     * Adjust flag (optional, default 3)
+     */
+    @Min(value = 1, message = "Adjust flag must be 1, 2 or 3")
+    @Max(value = 3, message = "Adjust flag must be 1, 2 or 3")
+    @Builder.Default
+    private Integer adjustFlag = 3;
+
+    /**
+     * Screen date (optional, default latest trade date)
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate tradeDate;
+}
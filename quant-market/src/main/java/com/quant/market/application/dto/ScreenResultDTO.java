@@ -0,0 +1,79 @@
+package com.quant.market.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Screen Result DTO
+ * 选股结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScreenResultDTO {
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate tradeDate;
+
+    private Short adjustFlag;
+
+    /**
+     * Parsed filter in canonical form
+     */
+    private String filter;
+
+    private String rankBy;
+
+    /**
+     * Listed stocks in t_stock_basic
+     */
+    private int universe;
+
+    /**
+     * Stocks with a bar on the screen date
+     */
+    private int evaluated;
+
+    /**
+     * Stocks matching the filter (before the limit)
+     */
+    private int matched;
+
+    private long processingTimeMs;
+
+    private List<Match> matches;
+
+    /**
+     * Screen Match
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Match {
+
+        private int rank;
+
+        private String stockCode;
+
+        private String stockName;
+
+        /**
+         * Value of the ranking expression (null without rankBy or when missing)
+         */
+        private Double score;
+
+        /**
+         * Values of the columns and indicators used by the filter, by canonical name
+         */
+        private Map<String, Double> values;
+    }
+}
@@ -0,0 +1,98 @@
+package com.quant.market.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.quant.market.domain.model.RollupBar;
+import com.quant.market.domain.model.RollupPeriod;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Stock Bar Rollup DTO
+ * 周/月/季/年线
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBarRollupDTO {
+
+    private String stockCode;
+
+    private RollupPeriod period;
+
+    private Short adjustFlag;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate periodStart;
+
+    /**
+     * Last trading day of the period according to the trading calendar
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate periodEnd;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate lastTradeDate;
+
+    /**
+     * Whether the period has ended; an open period is still updated by new daily bars
+     */
+    private Boolean completed;
+
+    private BigDecimal openPrice;
+
+    private BigDecimal highPrice;
+
+    private BigDecimal lowPrice;
+
+    private BigDecimal closePrice;
+
+    private BigDecimal preClose;
+
+    /**
+     * 周期涨跌幅（%）
+     */
+    private BigDecimal pctChange;
+
+    private BigDecimal volume;
+
+    private BigDecimal amount;
+
+    private BigDecimal turn;
+
+    private Integer barCount;
+
+    public static StockBarRollupDTO fromDomain(RollupBar bar) {
+        BigDecimal pctChange = null;
+        if (bar.getClosePrice() != null && bar.getPreClose() != null && bar.getPreClose().signum() != 0) {
+            pctChange = bar.getClosePrice().subtract(bar.getPreClose())
+                    .multiply(BigDecimal.valueOf(100))
+                    .divide(bar.getPreClose(), 4, RoundingMode.HALF_UP);
+        }
+        return StockBarRollupDTO.builder()
+                .stockCode(bar.getStockCode())
+                .period(bar.getPeriod())
+                .adjustFlag(bar.getAdjustFlag())
+                .periodStart(bar.getPeriodStart())
+                .periodEnd(bar.getPeriodEnd())
+                .lastTradeDate(bar.getLastTradeDate())
+                .completed(bar.isCompleted())
+                .openPrice(bar.getOpenPrice())
+                .highPrice(bar.getHighPrice())
+                .lowPrice(bar.getLowPrice())
+                .closePrice(bar.getClosePrice())
+                .preClose(bar.getPreClose())
+                .pctChange(pctChange)
+                .volume(bar.getVolume())
+                .amount(bar.getAmount())
+                .turn(bar.getTurn())
+                .barCount(bar.getBarCount())
+                .build();
+    }
+}
@@ -1,6 +1,7 @@
 package com.quant.market.application.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.quant.market.domain.model.BarSeries;
 import com.quant.market.domain.model.StockDaily;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -97,6 +98,35 @@ public class StockDailyDTO {
                 .build();
     }
 
+    /**
+     * Convert from one bar of a columnar series
+     * Audit timestamps are not kept in the bar store and are left null
+     */
+    public static StockDailyDTO fromSeries(BarSeries series, int index) {
+        return StockDailyDTO.builder()
+                .id(series.getId(index))
+                .stockCode(series.getStockCode())
+                .tradeDate(series.getTradeDate(index))
+                .openPrice(series.getDecimal(BarSeries.Field.OPEN, index))
+                .highPrice(series.getDecimal(BarSeries.Field.HIGH, index))
+                .lowPrice(series.getDecimal(BarSeries.Field.LOW, index))
+                .closePrice(series.getDecimal(BarSeries.Field.CLOSE, index))
+                .preClose(series.getDecimal(BarSeries.Field.PRE_CLOSE, index))
+                .changeAmount(series.getDecimal(BarSeries.Field.CHANGE, index))
+                .pctChange(series.getDecimal(BarSeries.Field.PCT_CHANGE, index))
+                .volume(series.getDecimal(BarSeries.Field.VOLUME, index))
+                .amount(series.getDecimal(BarSeries.Field.AMOUNT, index))
+                .adjustFlag(series.getAdjustFlag())
+                .turn(series.getDecimal(BarSeries.Field.TURN, index))
+                .tradeStatus(series.getTradeStatus(index))
+                .peTtm(series.getDecimal(BarSeries.Field.PE_TTM, index))
+                .pbMrq(series.getDecimal(BarSeries.Field.PB_MRQ, index))
+                .psTtm(series.getDecimal(BarSeries.Field.PS_TTM, index))
+                .pcfNcfTtm(series.getDecimal(BarSeries.Field.PCF_NCF_TTM, index))
+                .isSt(series.getIsSt(index))
+                .build();
+    }
+
     /**
      * Convert to domain model
      */
@@ -0,0 +1,61 @@
+package com.quant.market.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.quant.market.domain.factor.StockFactor;
+import com.quant.market.domain.model.StockFactorValue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Stock Factor DTO
+ * 因子值
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockFactorDTO {
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate tradeDate;
+
+    private String stockCode;
+
+    private StockFactor factor;
+
+    private StockFactor.Category category;
+
+    private Double rawValue;
+
+    /**
+     * Cross-sectional z-score, clipped to ±3
+     */
+    private Double zScore;
+
+    /**
+     * Cross-sectional rank, 1 = largest raw value
+     */
+    private Integer rankNo;
+
+    /**
+     * Cross-sectional percentile in [0, 1], 1 = largest raw value
+     */
+    private Double percentile;
+
+    public static StockFactorDTO fromDomain(StockFactorValue value) {
+        return StockFactorDTO.builder()
+                .tradeDate(value.getTradeDate())
+                .stockCode(value.getStockCode())
+                .factor(value.getFactor())
+                .category(value.getFactor().getCategory())
+                .rawValue(value.getRawValue())
+                .zScore(value.getZScore())
+                .rankNo(value.getRankNo())
+                .percentile(value.getPercentile())
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.quant.market.application.dto;
+
+import com.quant.market.infrastructure.cache.StockAutocompleteIndex;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stock Suggestion Data Transfer Object
+ * 股票联想搜索结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockSuggestionDTO {
+
+    private String exchange;
+    private String stockCode;
+    private String stockName;
+    private String cnSpell;
+    private String status;
+
+    /**
+     * Matched field: STOCK_CODE, CN_SPELL, STOCK_NAME or EN_NAME
+     */
+    private String matchedField;
+
+    /**
+     * Normalized text of the matched field
+     */
+    private String matchedText;
+
+    /**
+     * Whether the matched text starts with the query (otherwise it contains it)
+     */
+    private Boolean prefixMatch;
+
+    /**
+     * Convert from an index suggestion
+     */
+    public static StockSuggestionDTO fromSuggestion(StockAutocompleteIndex.Suggestion suggestion) {
+        return StockSuggestionDTO.builder()
+                .exchange(suggestion.stock().getExchange().name())
+                .stockCode(suggestion.stock().getStockCode())
+                .stockName(suggestion.stock().getStockName())
+                .cnSpell(suggestion.stock().getCnSpell())
+                .status(suggestion.stock().getStatus().name())
+                .matchedField(suggestion.matchedField().name())
+                .matchedText(suggestion.matchedText())
+                .prefixMatch(suggestion.prefix())
+                .build();
+    }
+}
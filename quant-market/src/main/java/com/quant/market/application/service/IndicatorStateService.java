@@ -0,0 +1,381 @@
+package com.quant.market.application.service;
+
+import com.quant.common.exception.BusinessException;
+import com.quant.common.response.ResultCode;
+import com.quant.market.application.dto.IndicatorValuesDTO;
+import com.quant.market.domain.event.StockAdjustFactorChangedEvent;
+import com.quant.market.domain.event.StockDailyChangedEvent;
+import com.quant.market.domain.indicator.IndicatorSpec;
+import com.quant.market.domain.indicator.IndicatorState;
+import com.quant.market.domain.model.AdjustFactorSeries;
+import com.quant.market.domain.model.BarSeries;
+import com.quant.market.domain.repository.IndicatorStateRepository;
+import com.quant.market.domain.repository.StockDailyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Indicator State Service
+ * 技术指标增量状态维护
+ *
+ * For every stock, adjust flag and tracked indicator ({@code market.indicator.tracked}) the rolling
+ * state is persisted in t_stock_indicator_state. A committed daily batch write steps the states of
+ * the written stocks over the new bars only, so the post-close refresh costs O(1) per stock instead
+ * of O(history). A state is recomputed from the first bar when it is missing or when a written bar is
+ * not after its last bar (a correction or backfill). Stepping holds row locks on the stepped states
+ * and reads bars from each state's last trade date on, so concurrent writes of one stock are applied
+ * one after the other and never skip a bar committed in between.
+ *
+ * Backward-adjusted states of stocks with adjust factors are stepped with derived prices when their
+ * unadjusted bars are written. Forward-adjusted prices of those stocks change with every ex-date, so
+ * their values are read from the backward-adjusted state and divided by the latest factor.
+ */
+@Slf4j
+@Service
+public class IndicatorStateService {
+
+    /**
+     * Stocks whose full history is loaded at once when states are recomputed
+     */
+    private static final int REBUILD_CHUNK_SIZE = 100;
+
+    public static final int MAX_STOCKS_PER_QUERY = 500;
+
+    private final IndicatorStateRepository stateRepository;
+    private final StockDailyRepository dailyRepository;
+    private final StockAdjustFactorService adjustFactorService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final List<IndicatorSpec> trackedSpecs;
+
+    public IndicatorStateService(IndicatorStateRepository stateRepository,
+                                 StockDailyRepository dailyRepository,
+                                 StockAdjustFactorService adjustFactorService,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${market.indicator.state-enabled:true}") boolean enabled,
+                                 @Value("${market.indicator.tracked:SMA(5);SMA(20);MACD(12,26,9);RSI(14);BOLL(20,2);ATR(14)}") String tracked) {
+        this.stateRepository = stateRepository;
+        this.dailyRepository = dailyRepository;
+        this.adjustFactorService = adjustFactorService;
+        // Listeners run after the writing transaction committed, so stepping needs a transaction of its own
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        Set<IndicatorSpec> specs = new LinkedHashSet<>();
+        for (String spec : tracked.split(";")) {
+            if (!spec.isBlank()) {
+                specs.add(IndicatorSpec.parse(spec));
+            }
+        }
+        this.trackedSpecs = List.copyOf(specs);
+        log.info("Indicator state service initialized: enabled={}, tracked={}", enabled, trackedSpecs);
+    }
+
+    public List<IndicatorSpec> getTrackedSpecs() {
+        return trackedSpecs;
+    }
+
+    /**
+     * Get the latest values of the tracked indicators
+     *
+     * Missing states are computed from the full history first and persisted.
+     *
+     * @param stockCodes Stock codes (max 500)
+     * @param adjustFlag Adjust flag (default 3)
+     * @return Latest values per stock, in request order; stocks without bars are omitted
+     */
+    public List<IndicatorValuesDTO> getLatestValues(List<String> stockCodes, Short adjustFlag) {
+        if (!enabled) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(), "Indicator state is disabled");
+        }
+        if (stockCodes == null || stockCodes.isEmpty()) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(), "Stock codes are required");
+        }
+        if (stockCodes.size() > MAX_STOCKS_PER_QUERY) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "At most " + MAX_STOCKS_PER_QUERY + " stock codes per request. Received: " + stockCodes.size());
+        }
+        short flag = adjustFlag != null ? adjustFlag : AdjustFactorSeries.UNADJUSTED;
+        if (flag < AdjustFactorSeries.BACKWARD || flag > AdjustFactorSeries.UNADJUSTED) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(), "Adjust flag must be 1, 2 or 3");
+        }
+        Set<String> codes = new LinkedHashSet<>(stockCodes);
+
+        // Forward-adjusted values of derived stocks are scaled from their backward-adjusted states
+        Map<String, AdjustFactorSeries> factors = adjustFactorService.derives(flag)
+                ? adjustFactorService.getFactorSeries(codes) : Map.of();
+        Set<String> scaledCodes = new LinkedHashSet<>();
+        Set<String> directCodes = new LinkedHashSet<>();
+        for (String code : codes) {
+            boolean scaled = flag == AdjustFactorSeries.FORWARD && factors.containsKey(code) && !factors.get(code).isEmpty();
+            (scaled ? scaledCodes : directCodes).add(code);
+        }
+
+        Map<String, List<IndicatorState>> states = new HashMap<>(loadStates(directCodes, flag));
+        states.putAll(loadStates(scaledCodes, AdjustFactorSeries.BACKWARD));
+
+        List<IndicatorValuesDTO> result = new ArrayList<>(codes.size());
+        for (String code : codes) {
+            List<IndicatorState> stockStates = states.get(code);
+            if (stockStates == null || stockStates.isEmpty() || stockStates.get(0).getLastTradeDate() == null) {
+                continue;
+            }
+            double divisor = scaledCodes.contains(code) ? factors.get(code).latestFactor() : 1.0;
+            result.add(IndicatorValuesDTO.fromStates(code, flag, stockStates, divisor));
+        }
+        return result;
+    }
+
+    /**
+     * Step the states of the written stocks over the new bars
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDailyChanged(StockDailyChangedEvent event) {
+        if (!enabled || trackedSpecs.isEmpty()) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        Map<Short, Map<String, LocalDate>> firstDates = new TreeMap<>();
+        try {
+            Map<String, AdjustFactorSeries> factors = adjustFactorService.getFactorSeries(event.getStockCodes());
+            for (StockDailyChangedEvent.BarKey key : event.getKeys()) {
+                if (key.adjustFlag() == null) {
+                    continue;
+                }
+                short flag = key.adjustFlag();
+                boolean hasFactors = !factors.get(key.stockCode()).isEmpty();
+                if (adjustFactorService.derives(flag) && hasFactors) {
+                    // Stored rows of derived flags are not served, so they do not move the states
+                    continue;
+                }
+                addFirstDate(firstDates, flag, key.stockCode(), key.tradeDate());
+                if (flag == AdjustFactorSeries.UNADJUSTED && hasFactors
+                        && adjustFactorService.derives(AdjustFactorSeries.BACKWARD)) {
+                    addFirstDate(firstDates, AdjustFactorSeries.BACKWARD, key.stockCode(), key.tradeDate());
+                }
+            }
+
+            int states = 0;
+            for (Map.Entry<Short, Map<String, LocalDate>> entry : firstDates.entrySet()) {
+                states += advance(entry.getKey(), entry.getValue());
+            }
+            log.debug("Advanced {} indicator states of {} stocks in {}ms",
+                    states, event.getStockCodes().size(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            // Drop the states so they are recomputed instead of being stepped from a stale position
+            log.error("Failed to advance indicator states of {} stocks, dropping them: {}",
+                    event.getStockCodes().size(), e.getMessage(), e);
+            firstDates.forEach((flag, dates) -> {
+                try {
+                    stateRepository.deleteByStockCodes(dates.keySet(), List.of(flag));
+                } catch (Exception deleteError) {
+                    log.error("Failed to drop indicator states: {}", deleteError.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Drop the adjusted states of stocks whose factors changed; they are recomputed on the next write or read
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAdjustFactorChanged(StockAdjustFactorChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        int deleted = stateRepository.deleteByStockCodes(event.getStockCodes(),
+                List.of(AdjustFactorSeries.BACKWARD, AdjustFactorSeries.FORWARD));
+        log.info("Dropped {} adjusted indicator states of {} stocks after an adjust factor change",
+                deleted, event.getStockCodes().size());
+    }
+
+    private static void addFirstDate(Map<Short, Map<String, LocalDate>> firstDates, short flag,
+                                     String stockCode, LocalDate tradeDate) {
+        firstDates.computeIfAbsent(flag, f -> new HashMap<>())
+                .merge(stockCode, tradeDate, (a, b) -> a.isBefore(b) ? a : b);
+    }
+
+    /**
+     * Load complete states for the stocks, recomputing the missing ones
+     */
+    private Map<String, List<IndicatorState>> loadStates(Collection<String> stockCodes, short adjustFlag) {
+        if (stockCodes.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, List<IndicatorState>> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        Map<String, List<IndicatorState>> stored = stateRepository.findByStockCodes(stockCodes, adjustFlag);
+        for (String code : stockCodes) {
+            Map<IndicatorSpec, IndicatorState> bySpec = indexBySpec(stored.get(code));
+            if (bySpec.size() == trackedSpecs.size()) {
+                result.put(code, new ArrayList<>(bySpec.values()));
+            } else {
+                missing.add(code);
+            }
+        }
+        result.putAll(rebuild(missing, adjustFlag));
+        return result;
+    }
+
+    /**
+     * Step states over the bars after their last trade date, or recompute them when a written bar
+     * is not after it
+     *
+     * @param firstDates First written trade date per stock
+     * @return Number of states written
+     */
+    private int advance(short adjustFlag, Map<String, LocalDate> firstDates) {
+        List<String> rebuildCodes = new ArrayList<>();
+        List<IndicatorState> updated = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status ->
+                updated.addAll(stepLocked(adjustFlag, firstDates, rebuildCodes)));
+
+        Map<String, List<IndicatorState>> rebuilt = rebuild(rebuildCodes, adjustFlag);
+        rebuilt.values().forEach(updated::addAll);
+        if (!rebuildCodes.isEmpty()) {
+            log.info("Recomputed indicator states of {} stocks (adjustFlag={}) from full history",
+                    rebuildCodes.size(), adjustFlag);
+        }
+        return updated.size();
+    }
+
+    /**
+     * Lock the states of the written stocks and step the steppable ones; runs inside a transaction so
+     * a concurrent advance of the same stock waits and then continues from the states written here
+     *
+     * @param rebuildCodes Receives the stocks whose states have to be recomputed instead
+     * @return Stepped states
+     */
+    private List<IndicatorState> stepLocked(short adjustFlag, Map<String, LocalDate> firstDates,
+                                            List<String> rebuildCodes) {
+        Map<String, List<IndicatorState>> stored = stateRepository.lockByStockCodes(firstDates.keySet(), adjustFlag);
+
+        Map<String, Map<IndicatorSpec, IndicatorState>> steppable = new HashMap<>();
+        LocalDate from = null;
+        boolean fromFirstBar = false;
+        for (Map.Entry<String, LocalDate> entry : firstDates.entrySet()) {
+            Map<IndicatorSpec, IndicatorState> bySpec = indexBySpec(stored.get(entry.getKey()));
+            boolean canStep = bySpec.size() == trackedSpecs.size()
+                    && bySpec.values().stream().allMatch(state -> state.canAdvanceTo(entry.getValue()));
+            if (!canStep) {
+                rebuildCodes.add(entry.getKey());
+                continue;
+            }
+            steppable.put(entry.getKey(), bySpec);
+            // Bars are read from the earliest last trade date on, not from the written dates, so bars
+            // committed by another write whose states were not stepped yet are applied too
+            for (IndicatorState state : bySpec.values()) {
+                if (state.getLastTradeDate() == null) {
+                    fromFirstBar = true;
+                } else if (from == null || state.getLastTradeDate().isBefore(from)) {
+                    from = state.getLastTradeDate();
+                }
+            }
+        }
+        if (steppable.isEmpty()) {
+            return List.of();
+        }
+
+        List<IndicatorState> updated = new ArrayList<>();
+        Map<String, BarSeries> bars = loadSeries(steppable.keySet(), adjustFlag,
+                fromFirstBar || from == null ? null : from.plusDays(1));
+        steppable.forEach((code, bySpec) -> {
+            BarSeries series = bars.get(code);
+            if (series != null) {
+                bySpec.values().forEach(state -> stepAll(state, series));
+                updated.addAll(bySpec.values());
+            }
+        });
+        stateRepository.upsert(updated);
+        return updated;
+    }
+
+    /**
+     * Recompute and persist the states of stocks from their first bar
+     */
+    private Map<String, List<IndicatorState>> rebuild(List<String> stockCodes, short adjustFlag) {
+        Map<String, List<IndicatorState>> result = new HashMap<>();
+        for (int from = 0; from < stockCodes.size(); from += REBUILD_CHUNK_SIZE) {
+            List<String> chunk = stockCodes.subList(from, Math.min(from + REBUILD_CHUNK_SIZE, stockCodes.size()));
+            List<IndicatorState> chunkStates = new ArrayList<>();
+            loadSeries(chunk, adjustFlag, null).forEach((code, series) -> {
+                List<IndicatorState> states = new ArrayList<>(trackedSpecs.size());
+                for (IndicatorSpec spec : trackedSpecs) {
+                    IndicatorState state = IndicatorState.initial(code, adjustFlag, spec);
+                    stepAll(state, series);
+                    states.add(state);
+                }
+                chunkStates.addAll(states);
+                result.put(code, states);
+            });
+            stateRepository.upsert(chunkStates);
+        }
+        return result;
+    }
+
+    /**
+     * Load bars from a date on; derived stocks get their bars computed from unadjusted bars
+     */
+    private Map<String, BarSeries> loadSeries(Collection<String> stockCodes, short adjustFlag, LocalDate startDate) {
+        if (!adjustFactorService.derives(adjustFlag)) {
+            return dailyRepository.findSeriesByStockCodes(stockCodes, startDate, null, adjustFlag, null);
+        }
+        Map<String, AdjustFactorSeries> factors = adjustFactorService.getFactorSeries(stockCodes);
+        List<String> derivedCodes = new ArrayList<>();
+        List<String> storedCodes = new ArrayList<>();
+        for (String code : stockCodes) {
+            (factors.get(code).isEmpty() ? storedCodes : derivedCodes).add(code);
+        }
+        Map<String, BarSeries> result = new LinkedHashMap<>(
+                dailyRepository.findSeriesByStockCodes(storedCodes, startDate, null, adjustFlag, null));
+        dailyRepository.findSeriesByStockCodes(derivedCodes, startDate, null, AdjustFactorSeries.UNADJUSTED, null)
+                .forEach((code, series) -> result.put(code, factors.get(code).adjust(series, adjustFlag)));
+        return result;
+    }
+
+    /**
+     * Step a state over the bars of a series that are after its last bar
+     */
+    private static void stepAll(IndicatorState state, BarSeries series) {
+        for (int i = 0; i < series.size(); i++) {
+            LocalDate tradeDate = series.getTradeDate(i);
+            if (state.canAdvanceTo(tradeDate)) {
+                state.step(tradeDate,
+                        series.getDouble(BarSeries.Field.HIGH, i),
+                        series.getDouble(BarSeries.Field.LOW, i),
+                        series.getDouble(BarSeries.Field.CLOSE, i));
+            }
+        }
+    }
+
+    /**
+     * Tracked states of a stock by spec; states of indicators no longer tracked are ignored
+     */
+    private Map<IndicatorSpec, IndicatorState> indexBySpec(List<IndicatorState> states) {
+        Map<IndicatorSpec, IndicatorState> bySpec = new LinkedHashMap<>();
+        if (states != null) {
+            for (IndicatorState state : states) {
+                if (trackedSpecs.contains(state.getSpec())) {
+                    bySpec.put(state.getSpec(), state);
+                }
+            }
+        }
+        return bySpec;
+    }
+}
@@ -0,0 +1,185 @@
+package com.quant.market.application.service;
+
+import com.quant.common.exception.BusinessException;
+import com.quant.common.response.ResultCode;
+import com.quant.market.application.dto.AdjustFactorDTO;
+import com.quant.market.domain.event.StockAdjustFactorChangedEvent;
+import com.quant.market.domain.model.AdjustFactorSeries;
+import com.quant.market.domain.model.BarSeries;
+import com.quant.market.domain.model.StockAdjustFactor;
+import com.quant.market.domain.model.UpsertResult;
+import com.quant.market.domain.repository.StockAdjustFactorRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Stock Adjust Factor Service
+ * 复权因子维护与复权序列计算
+ *
+ * With {@code market.adjust.derive-enabled}, backward (1) and forward (2) adjusted bars are computed
+ * from the unadjusted (3) series and the cumulative factors at query time, so only adjustFlag 3 has
+ * to be stored and ingested. Factor series are cached per stock and dropped when factors are upserted.
+ */
+@Slf4j
+@Service
+public class StockAdjustFactorService {
+
+    public static final int MAX_BATCH_SIZE = 5000;
+
+    private final StockAdjustFactorRepository factorRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean deriveEnabled;
+    private final Map<String, AdjustFactorSeries> factorCache = new ConcurrentHashMap<>();
+
+    /**
+     * Bumped before cached series are dropped after a factor write; a bulk load only caches what it
+     * read if no write was dropped in the meantime
+     */
+    private final AtomicLong factorGeneration = new AtomicLong();
+
+    public StockAdjustFactorService(StockAdjustFactorRepository factorRepository,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${market.adjust.derive-enabled:true}") boolean deriveEnabled) {
+        this.factorRepository = factorRepository;
+        this.eventPublisher = eventPublisher;
+        this.deriveEnabled = deriveEnabled;
+        log.info("Adjust factor service initialized: deriveEnabled={}", deriveEnabled);
+    }
+
+    public boolean isDeriveEnabled() {
+        return deriveEnabled;
+    }
+
+    /**
+     * Whether bars of the given adjust flag are computed from unadjusted bars instead of read from storage
+     */
+    public boolean derives(Short adjustFlag) {
+        return deriveEnabled && adjustFlag != null
+                && (adjustFlag == AdjustFactorSeries.BACKWARD || adjustFlag == AdjustFactorSeries.FORWARD);
+    }
+
+    /**
+     * Batch upsert adjust factors by (stockCode, exDate)
+     *
+     * @param requests Factors (max 5000)
+     * @return Upsert result
+     */
+    public UpsertResult batchUpsertFactors(List<AdjustFactorDTO> requests) {
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Batch size cannot exceed " + MAX_BATCH_SIZE + " items. Received: " + requests.size());
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            AdjustFactorDTO request = requests.get(i);
+            if (request.getStockCode() == null || request.getStockCode().isBlank() || request.getExDate() == null
+                    || request.getBackAdjustFactor() == null || request.getBackAdjustFactor().signum() <= 0) {
+                throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(), String.format(
+                        "Row %d: stockCode, exDate and a positive backAdjustFactor are required", i + 1));
+            }
+        }
+        List<StockAdjustFactor> factors = requests.stream()
+                .map(AdjustFactorDTO::toDomain)
+                .collect(Collectors.toList());
+
+        UpsertResult result = factorRepository.batchUpsert(factors);
+        Set<String> stockCodes = factors.stream().map(StockAdjustFactor::getStockCode).collect(Collectors.toSet());
+        evict(stockCodes);
+        if (result.changed() > 0) {
+            LocalDate earliestExDate = factors.stream().map(StockAdjustFactor::getExDate).min(Comparator.naturalOrder()).orElse(null);
+            eventPublisher.publishEvent(new StockAdjustFactorChangedEvent(stockCodes, earliestExDate));
+        }
+        log.info("Upserted adjust factors of {} stocks: {} inserted, {} updated, {} unchanged",
+                stockCodes.size(), result.inserted(), result.updated(), result.unchanged());
+        return result;
+    }
+
+    /**
+     * Get the factors of a stock, ordered by ex-date
+     */
+    public List<AdjustFactorDTO> getFactors(String stockCode) {
+        return factorRepository.findByStockCode(stockCode).stream()
+                .map(AdjustFactorDTO::fromDomain)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the cached factor series of a stock
+     */
+    public AdjustFactorSeries getFactorSeries(String stockCode) {
+        return factorCache.computeIfAbsent(stockCode,
+                code -> AdjustFactorSeries.of(factorRepository.findByStockCode(code)));
+    }
+
+    /**
+     * Get the factor series of many stocks, loading all cache misses with one query
+     */
+    public Map<String, AdjustFactorSeries> getFactorSeries(Collection<String> stockCodes) {
+        Map<String, AdjustFactorSeries> result = new HashMap<>(stockCodes.size() * 2);
+        Set<String> missing = new LinkedHashSet<>();
+        for (String stockCode : stockCodes) {
+            AdjustFactorSeries cached = factorCache.get(stockCode);
+            if (cached != null) {
+                result.put(stockCode, cached);
+            } else {
+                missing.add(stockCode);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long generation = factorGeneration.get();
+            Map<String, List<StockAdjustFactor>> loaded = factorRepository.findByStockCodes(missing);
+            for (String stockCode : missing) {
+                List<StockAdjustFactor> rows = loaded.get(stockCode);
+                AdjustFactorSeries series = rows != null ? AdjustFactorSeries.of(rows) : AdjustFactorSeries.none();
+                // Checked inside the per-key compute, which a concurrent evict's remove waits for
+                AdjustFactorSeries cached = factorCache.compute(stockCode, (code, current) -> current != null
+                        ? current
+                        : factorGeneration.get() == generation ? series : null);
+                result.put(stockCode, cached != null ? cached : series);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drop the cached series of stocks whose factors were written
+     */
+    private void evict(Collection<String> stockCodes) {
+        factorGeneration.incrementAndGet();
+        stockCodes.forEach(factorCache::remove);
+    }
+
+    /**
+     * Codes of all stocks whose backward and forward bars are derived rather than read from storage
+     * Empty when derivation is disabled
+     */
+    public Set<String> getDerivedStockCodes() {
+        return deriveEnabled ? factorRepository.findStockCodes() : Set.of();
+    }
+
+    /**
+     * Compute the series of an adjust flag from an unadjusted series
+     *
+     * Ids, trade days and non-price columns are shared with the unadjusted series.
+     *
+     * @param unadjusted Unadjusted series (adjustFlag 3)
+     * @param adjustFlag Target adjust flag
+     * @return Adjusted series
+     */
+    public BarSeries adjust(BarSeries unadjusted, short adjustFlag) {
+        return getFactorSeries(unadjusted.getStockCode()).adjust(unadjusted, adjustFlag);
+    }
+}
@@ -0,0 +1,244 @@
+package com.quant.market.application.service;
+
+import com.quant.common.exception.BusinessException;
+import com.quant.common.response.ResultCode;
+import com.quant.market.application.dto.StockBarRollupDTO;
+import com.quant.market.domain.event.StockAdjustFactorChangedEvent;
+import com.quant.market.domain.event.StockDailyChangedEvent;
+import com.quant.market.domain.model.AdjustFactorSeries;
+import com.quant.market.domain.model.RollupBar;
+import com.quant.market.domain.model.RollupPeriod;
+import com.quant.market.domain.repository.StockBarRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Stock Bar Rollup Service
+ * 周/月/季/年线查询与增量维护
+ *
+ * Rollups are refreshed after each committed daily batch write, only for the periods that contain
+ * the written bars, and rebuilt per stock when its adjust factors change. With adjust derivation
+ * enabled, backward-adjusted rollups of stocks with factors are aggregated from unadjusted bars and
+ * forward-adjusted ones are scaled from them at query time, since every forward-adjusted price moves
+ * whenever a new ex-date is added.
+ *
+ * Every refresh and rebuild runs in a transaction of its own that first locks the touched stocks,
+ * so concurrent refreshes of one stock apply one after the other and a rebuild is all or nothing.
+ * Stocks whose refresh or rebuild failed after the daily write committed are remembered until a
+ * rebuild of them succeeds, and can be listed and retried through {@link #rebuildFailed()}.
+ */
+@Slf4j
+@Service
+public class StockBarRollupService {
+
+    /**
+     * Stocks re-aggregated per statement by a rebuild
+     */
+    private static final int REBUILD_CHUNK_SIZE = 50;
+
+    public static final int MAX_REBUILD_STOCKS = 1000;
+
+    private final StockBarRollupRepository rollupRepository;
+    private final StockAdjustFactorService adjustFactorService;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<String> failedStocks = ConcurrentHashMap.newKeySet();
+
+    public StockBarRollupService(StockBarRollupRepository rollupRepository,
+                                 StockAdjustFactorService adjustFactorService,
+                                 PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.adjustFactorService = adjustFactorService;
+        // Listeners run after the writing transaction committed, so maintenance needs a transaction of its own
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Query the rollups of a stock, ascending by period
+     *
+     * @param stockCode Stock code
+     * @param period Rollup period
+     * @param adjustFlag Adjust flag (default 3)
+     * @param startDate Start date (optional; periods ending before it are skipped)
+     * @param endDate End date (optional; periods starting after it are skipped)
+     * @return Rollups
+     */
+    public List<StockBarRollupDTO> queryRollups(String stockCode, RollupPeriod period, Short adjustFlag,
+                                                LocalDate startDate, LocalDate endDate) {
+        if (stockCode == null || stockCode.isBlank() || period == null) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(), "Stock code and period are required");
+        }
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Start date must not be after end date: " + startDate + " > " + endDate);
+        }
+        short flag = adjustFlag != null ? adjustFlag : AdjustFactorSeries.UNADJUSTED;
+        if (flag < AdjustFactorSeries.BACKWARD || flag > AdjustFactorSeries.UNADJUSTED) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(), "Adjust flag must be 1, 2 or 3");
+        }
+
+        UnaryOperator<BigDecimal> scale = UnaryOperator.identity();
+        short storedFlag = flag;
+        if (flag == AdjustFactorSeries.FORWARD && adjustFactorService.derives(flag)) {
+            AdjustFactorSeries factors = adjustFactorService.getFactorSeries(stockCode);
+            if (!factors.isEmpty()) {
+                // Forward-adjusted price = backward-adjusted price / F(latest)
+                BigDecimal latest = BigDecimal.valueOf(factors.latestFactor());
+                storedFlag = AdjustFactorSeries.BACKWARD;
+                scale = price -> price != null ? price.divide(latest, 4, RoundingMode.HALF_UP) : null;
+            }
+        }
+
+        List<RollupBar> rollups = rollupRepository.find(stockCode, period, storedFlag, startDate, endDate);
+        List<StockBarRollupDTO> result = new ArrayList<>(rollups.size());
+        for (RollupBar rollup : rollups) {
+            if (storedFlag != flag) {
+                rollup = rollup.toBuilder()
+                        .adjustFlag(flag)
+                        .openPrice(scale.apply(rollup.getOpenPrice()))
+                        .highPrice(scale.apply(rollup.getHighPrice()))
+                        .lowPrice(scale.apply(rollup.getLowPrice()))
+                        .closePrice(scale.apply(rollup.getClosePrice()))
+                        .preClose(scale.apply(rollup.getPreClose()))
+                        .build();
+            }
+            result.add(StockBarRollupDTO.fromDomain(rollup));
+        }
+        return result;
+    }
+
+    /**
+     * Recompute all rollups of the given stocks
+     *
+     * @param stockCodes Stock codes (max 1000)
+     * @param periods Periods to rebuild (all when empty)
+     * @return Changed rollup rows per period
+     */
+    public Map<RollupPeriod, Integer> rebuild(List<String> stockCodes, List<RollupPeriod> periods) {
+        if (stockCodes == null || stockCodes.isEmpty()) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(), "Stock codes are required");
+        }
+        if (stockCodes.size() > MAX_REBUILD_STOCKS) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Cannot rebuild more than " + MAX_REBUILD_STOCKS + " stocks at once. Received: " + stockCodes.size());
+        }
+        List<RollupPeriod> targets = periods == null || periods.isEmpty() ? List.of(RollupPeriod.values()) : periods;
+        List<String> codes = new ArrayList<>(new LinkedHashSet<>(stockCodes));
+
+        // A full rebuild repairs earlier failures; unmark first so a failure during the rebuild sticks
+        Set<String> repaired = new LinkedHashSet<>();
+        if (targets.containsAll(List.of(RollupPeriod.values()))) {
+            codes.stream().filter(failedStocks::remove).forEach(repaired::add);
+        }
+
+        long startTime = System.currentTimeMillis();
+        Map<RollupPeriod, Integer> changed = new EnumMap<>(RollupPeriod.class);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                rollupRepository.lockStocks(codes);
+                for (RollupPeriod period : targets) {
+                    int total = 0;
+                    for (int from = 0; from < codes.size(); from += REBUILD_CHUNK_SIZE) {
+                        List<String> chunk = codes.subList(from, Math.min(from + REBUILD_CHUNK_SIZE, codes.size()));
+                        total += rollupRepository.rebuild(period, chunk, adjustFactorService.isDeriveEnabled());
+                    }
+                    changed.put(period, total);
+                }
+            });
+        } catch (RuntimeException e) {
+            failedStocks.addAll(repaired);
+            throw e;
+        }
+        log.info("Rebuilt rollups of {} stocks in {}ms: {}", codes.size(), System.currentTimeMillis() - startTime, changed);
+        return changed;
+    }
+
+    /**
+     * Stocks whose rollups may be stale because an incremental refresh or rebuild failed
+     */
+    public Set<String> getFailedStocks() {
+        return new TreeSet<>(failedStocks);
+    }
+
+    /**
+     * Rebuild all rollups of the stocks whose refresh failed
+     *
+     * @return Changed rollup rows per period
+     */
+    public Map<RollupPeriod, Integer> rebuildFailed() {
+        List<String> codes = new ArrayList<>(getFailedStocks());
+        Map<RollupPeriod, Integer> changed = new EnumMap<>(RollupPeriod.class);
+        for (int from = 0; from < codes.size(); from += MAX_REBUILD_STOCKS) {
+            rebuild(codes.subList(from, Math.min(from + MAX_REBUILD_STOCKS, codes.size())), null)
+                    .forEach((period, count) -> changed.merge(period, count, Integer::sum));
+        }
+        return changed;
+    }
+
+    /**
+     * Refresh the periods touched by a committed daily batch write
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDailyChanged(StockDailyChangedEvent event) {
+        if (event.getKeys() == null || event.getKeys().isEmpty()) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            Integer changed = transactionTemplate.execute(status -> {
+                rollupRepository.lockStocks(event.getStockCodes());
+                int total = 0;
+                for (RollupPeriod period : RollupPeriod.values()) {
+                    total += rollupRepository.refresh(period, event.getKeys(), adjustFactorService.isDeriveEnabled());
+                }
+                return total;
+            });
+            log.debug("Refreshed rollups for {} daily bars in {}ms: {} changed",
+                    event.getKeys().size(), System.currentTimeMillis() - startTime, changed);
+        } catch (Exception e) {
+            // The daily write is already committed; a rebuild of the affected stocks repairs the rollups
+            failedStocks.addAll(event.getStockCodes());
+            log.error("Failed to refresh rollups for stocks {}, marked for rebuild: {}",
+                    event.getStockCodes(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rebuild the rollups of stocks whose adjust factors changed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAdjustFactorChanged(StockAdjustFactorChangedEvent event) {
+        if (!adjustFactorService.isDeriveEnabled()) {
+            return;
+        }
+        Set<String> stockCodes = event.getStockCodes();
+        try {
+            List<String> codes = stockCodes.stream().sorted().collect(Collectors.toList());
+            for (int from = 0; from < codes.size(); from += MAX_REBUILD_STOCKS) {
+                rebuild(codes.subList(from, Math.min(from + MAX_REBUILD_STOCKS, codes.size())), null);
+            }
+        } catch (Exception e) {
+            failedStocks.addAll(stockCodes);
+            log.error("Failed to rebuild rollups after adjust factor change of {} stocks, marked for rebuild: {}",
+                    stockCodes.size(), e.getMessage(), e);
+        }
+    }
+}
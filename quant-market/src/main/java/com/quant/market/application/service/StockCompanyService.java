@@ -5,6 +5,7 @@ import com.quant.common.response.ResultCode;
 import com.quant.market.application.dto.BatchUpsertCompanyRequest;
 import com.quant.market.application.dto.StockCompanyDTO;
 import com.quant.market.domain.model.StockCompany;
+import com.quant.market.domain.model.UpsertResult;
 import com.quant.market.domain.repository.StockCompanyRepository;
 import com.quant.market.infrastructure.persistence.entity.StockCompanyEntity;
 import com.quant.market.infrastructure.persistence.repository.StockCompanyBatchRepository;
@@ -91,30 +92,31 @@ public class StockCompanyService {
             }
         }
 
-        // Perform batch upsert using native SQL
-        int affectedRows = 0;
+        // Perform batch upsert using native SQL; unchanged rows are not rewritten
+        UpsertResult upsertResult = UpsertResult.empty();
         if (!validEntities.isEmpty()) {
             try {
-                affectedRows = batchRepository.batchUpsert(validEntities);
-                log.info("Batch upsert affected {} rows", affectedRows);
+                upsertResult = batchRepository.batchUpsert(validEntities);
+                log.info("Batch upsert: {} inserted, {} updated, {} unchanged",
+                        upsertResult.inserted(), upsertResult.updated(), upsertResult.unchanged());
             } catch (Exception e) {
                 log.error("Error during batch upsert", e);
                 errors.add("Batch upsert error: " + e.getMessage());
             }
         }
 
-        // Note: We can't distinguish between inserts and updates with ON CONFLICT
-        // So we report all successful operations as "upserted"
-        result.setInserted(affectedRows); // Actually means "upserted"
-        result.setUpdated(0); // Not tracked separately in batch mode
+        result.setInserted(upsertResult.inserted());
+        result.setUpdated(upsertResult.updated());
+        result.setUnchanged(upsertResult.unchanged());
         result.setFailed(errors.size());
         result.setErrors(errors);
 
         long duration = System.currentTimeMillis() - startTime;
         result.setProcessingTimeMs(duration);
 
-        log.info("Batch upsert completed: total={}, upserted={}, failed={}, time={}ms",
-                result.getTotal(), affectedRows, result.getFailed(), duration);
+        log.info("Batch upsert completed: total={}, inserted={}, updated={}, unchanged={}, failed={}, time={}ms",
+                result.getTotal(), result.getInserted(), result.getUpdated(), result.getUnchanged(),
+                result.getFailed(), duration);
 
         return result;
     }
@@ -159,13 +161,14 @@ public class StockCompanyService {
         private int total;
         private int inserted;
         private int updated;
+        private int unchanged;
         private int failed;
         private List<String> errors = new ArrayList<>();
         private long processingTimeMs;
 
         public String getSummary() {
-            return String.format("Total: %d, Inserted: %d, Updated: %d, Failed: %d, Time: %dms",
-                    total, inserted, updated, failed, processingTimeMs);
+            return String.format("Total: %d, Inserted: %d, Updated: %d, Unchanged: %d, Failed: %d, Time: %dms",
+                    total, inserted, updated, unchanged, failed, processingTimeMs);
         }
     }
 }
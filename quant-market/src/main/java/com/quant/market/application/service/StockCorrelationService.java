@@ -0,0 +1,232 @@
+package com.quant.market.application.service;
+
+import com.quant.common.exception.BusinessException;
+import com.quant.common.response.ResultCode;
+import com.quant.market.domain.event.StockAdjustFactorChangedEvent;
+import com.quant.market.domain.event.StockDailyChangedEvent;
+import com.quant.market.domain.model.AdjustFactorSeries;
+import com.quant.market.domain.model.BarSeries;
+import com.quant.market.domain.model.Stock;
+import com.quant.market.domain.repository.StockDailyRepository;
+import com.quant.market.domain.repository.StockRepository;
+import com.quant.market.domain.risk.CovarianceMatrix;
+import com.quant.market.domain.risk.ReturnMatrix;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Stock Correlation Service
+ * 全市场滚动收益率协方差/相关系数矩阵
+ *
+ * - Returns are computed from backward-adjusted closes on the trading days of t_trading_calendar,
+ *   so ex-rights days do not show up as jumps and suspended days are left unobserved
+ * - The covariance product runs in cache-sized tiles on a dedicated fork-join pool
+ * - Matrices are cached per (window, end trading day) with LRU eviction
+ *   ({@code market.correlation.cache-size}); a committed write touching a day inside a cached
+ *   window, or any adjust factor change, evicts the affected matrices; a matrix built while such a
+ *   write committed is returned but not cached
+ */
+@Slf4j
+@Service
+public class StockCorrelationService {
+
+    private static final int MIN_WINDOW = 5;
+    private static final int LOAD_CHUNK_SIZE = 500;
+
+    private final StockRepository stockRepository;
+    private final StockDailyRepository dailyRepository;
+    private final StockAdjustFactorService adjustFactorService;
+    private final TradingCalendarService calendarService;
+    private final ForkJoinPool correlationPool;
+    private final int maxWindow;
+    private final double minCoverage;
+    private final Map<MatrixKey, CovarianceMatrix> matrices;
+    private final Map<MatrixKey, Object> loadLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Bumped with every eviction; guarded by the monitor of {@link #matrices} together with puts
+     */
+    private long writeGeneration;
+
+    public StockCorrelationService(StockRepository stockRepository,
+                                   StockDailyRepository dailyRepository,
+                                   StockAdjustFactorService adjustFactorService,
+                                   TradingCalendarService calendarService,
+                                   @Qualifier("correlationPool") ForkJoinPool correlationPool,
+                                   @Value("${market.correlation.cache-size:4}") int cacheSize,
+                                   @Value("${market.correlation.max-window:500}") int maxWindow,
+                                   @Value("${market.correlation.min-coverage:0.8}") double minCoverage) {
+        this.stockRepository = stockRepository;
+        this.dailyRepository = dailyRepository;
+        this.adjustFactorService = adjustFactorService;
+        this.calendarService = calendarService;
+        this.correlationPool = correlationPool;
+        this.maxWindow = maxWindow;
+        this.minCoverage = minCoverage;
+        this.matrices = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MatrixKey, CovarianceMatrix> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        log.info("Correlation service initialized: cacheSize={}, maxWindow={}, minCoverage={}",
+                cacheSize, maxWindow, minCoverage);
+    }
+
+    /**
+     * Get the covariance matrix of the listed universe over the window ending at a trade date
+     *
+     * @param window Number of daily returns
+     * @param endDate End date (optional, default latest trade date); a non-trading day means the
+     *                trading day before it
+     * @return Covariance matrix of the stocks observed on at least min-coverage of the window
+     */
+    public CovarianceMatrix getMatrix(int window, LocalDate endDate) {
+        if (window < MIN_WINDOW || window > maxWindow) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Window must be between " + MIN_WINDOW + " and " + maxWindow);
+        }
+        LocalDate requestedEnd = endDate != null ? endDate : dailyRepository.findLatestTradeDate();
+        if (requestedEnd == null) {
+            throw new BusinessException(ResultCode.NOT_FOUND.getCode(), "No daily data found");
+        }
+        List<LocalDate> tradingDays = calendarService.getTradingDaysEndingAt(requestedEnd, window + 1);
+        if (tradingDays.size() < window + 1) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(), "Trading calendar has only "
+                    + tradingDays.size() + " trading days on or before " + requestedEnd + ", " + (window + 1) + " needed");
+        }
+
+        MatrixKey key = new MatrixKey(window, tradingDays.get(window));
+        CovarianceMatrix cached = matrices.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Serialize concurrent builds of the same key so a cold matrix is computed only once
+        Object lock = loadLocks.computeIfAbsent(key, k -> new Object());
+        synchronized (lock) {
+            try {
+                cached = matrices.get(key);
+                if (cached == null) {
+                    long generation;
+                    synchronized (matrices) {
+                        generation = writeGeneration;
+                    }
+                    cached = build(tradingDays);
+                    synchronized (matrices) {
+                        // A write committed during the build may not be reflected in what was loaded
+                        if (writeGeneration == generation) {
+                            matrices.put(key, cached);
+                        }
+                    }
+                }
+                return cached;
+            } finally {
+                loadLocks.remove(key, lock);
+            }
+        }
+    }
+
+    private CovarianceMatrix build(List<LocalDate> tradingDays) {
+        long startTime = System.currentTimeMillis();
+        int window = tradingDays.size() - 1;
+        List<String> codes = new ArrayList<>();
+        for (Stock stock : stockRepository.findByStatus(Stock.StockStatus.L)) {
+            codes.add(stock.getStockCode());
+        }
+        Collections.sort(codes);
+
+        List<BarSeries> series = loadBackwardSeries(codes, tradingDays.get(0), tradingDays.get(window));
+        long loadTime = System.currentTimeMillis() - startTime;
+        int minObservations = (int) Math.ceil(window * minCoverage);
+        ReturnMatrix returns = ReturnMatrix.build(tradingDays, series, Math.max(minObservations, 2));
+        CovarianceMatrix matrix = CovarianceMatrix.compute(returns, correlationPool);
+
+        log.info("Built {}x{} covariance matrix over {} returns ending {}: excluded={}, load={}ms, total={}ms, size={}KB",
+                matrix.size(), matrix.size(), window, matrix.getEndDate(), matrix.getExcluded(), loadTime,
+                System.currentTimeMillis() - startTime, matrix.estimatedBytes() / 1024);
+        return matrix;
+    }
+
+    /**
+     * Load backward-adjusted bars in code order
+     * Stocks with factors are derived from unadjusted bars when configured; the rest read their stored
+     * backward-adjusted rows, never unadjusted closes
+     */
+    private List<BarSeries> loadBackwardSeries(List<String> codes, LocalDate startDate, LocalDate endDate) {
+        short flag = AdjustFactorSeries.BACKWARD;
+        boolean derives = adjustFactorService.derives(flag);
+        List<BarSeries> result = new ArrayList<>(codes.size());
+        for (int from = 0; from < codes.size(); from += LOAD_CHUNK_SIZE) {
+            List<String> chunk = codes.subList(from, Math.min(from + LOAD_CHUNK_SIZE, codes.size()));
+            Map<String, AdjustFactorSeries> factors = derives ? adjustFactorService.getFactorSeries(chunk) : Map.of();
+            List<String> derivedCodes = new ArrayList<>();
+            List<String> storedCodes = new ArrayList<>();
+            for (String code : chunk) {
+                AdjustFactorSeries factorSeries = factors.get(code);
+                (factorSeries != null && !factorSeries.isEmpty() ? derivedCodes : storedCodes).add(code);
+            }
+            Map<String, BarSeries> loaded = new HashMap<>(
+                    dailyRepository.findSeriesByStockCodes(storedCodes, startDate, endDate, flag, null));
+            dailyRepository.findSeriesByStockCodes(derivedCodes, startDate, endDate, AdjustFactorSeries.UNADJUSTED, null)
+                    .forEach((code, series) -> loaded.put(code, factors.get(code).adjust(series, flag)));
+            for (String code : chunk) {
+                BarSeries series = loaded.get(code);
+                if (series != null) {
+                    result.add(series);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of matrices currently cached
+     */
+    public int getCachedMatrixCount() {
+        return matrices.size();
+    }
+
+    /**
+     * Drop matrices whose window contains a trade date touched by a committed batch write
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDailyChanged(StockDailyChangedEvent event) {
+        Set<LocalDate> tradeDates = event.getTradeDates();
+        synchronized (matrices) {
+            writeGeneration++;
+            matrices.values().removeIf(matrix -> tradeDates.stream().anyMatch(date ->
+                    !date.isBefore(matrix.getStartDate()) && !date.isAfter(matrix.getEndDate())));
+        }
+    }
+
+    /**
+     * Drop all matrices after an adjust factor change; backward-adjusted returns around the ex-date change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAdjustFactorChanged(StockAdjustFactorChangedEvent event) {
+        synchronized (matrices) {
+            writeGeneration++;
+            matrices.clear();
+        }
+        log.debug("Evicted all covariance matrices after an adjust factor change of {} stocks",
+                event.getStockCodes().size());
+    }
+
+    private record MatrixKey(int window, LocalDate endDate) {
+    }
+}
@@ -0,0 +1,308 @@
+package com.quant.market.application.service;
+
+import com.quant.common.exception.BusinessException;
+import com.quant.common.response.ResultCode;
+import com.quant.market.domain.model.AdjustFactorSeries;
+import com.quant.market.infrastructure.persistence.repository.StockDailyExportRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stock Daily Export Service
+ * 日线数据全量导出服务
+ *
+ * Rows come from a forward-only JDBC cursor ({@link StockDailyExportRepository}) and are written
+ * column by column from the driver's text values into a buffered writer, so an export of the whole
+ * table runs in constant memory: one fetch batch plus the output buffer.
+ *
+ * With adjust-factor derivation enabled, stored backward/forward rows of stocks with factors are
+ * stale copies of what queries compute, so they are left out of full exports and adjustFlag 1/2
+ * exports are rejected: those bars are reproduced from the exported adjustFlag 3 rows and the factors.
+ */
+@Slf4j
+@Service
+public class StockDailyExportService {
+
+    /**
+     * Output buffer; large enough that socket or disk writes dominate, not per-row calls
+     */
+    private static final int WRITE_BUFFER_CHARS = 64 * 1024;
+
+    private static final LocalDate EARLIEST_TRADE_DATE = LocalDate.of(1990, 1, 1);
+    private static final LocalDate LATEST_TRADE_DATE = LocalDate.of(9999, 12, 31);
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final String[] COLUMNS = StockDailyExportRepository.COLUMNS;
+    private static final String[] JSON_KEYS = new String[COLUMNS.length];
+    private static final int STOCK_CODE_COLUMN = List.of(COLUMNS).indexOf("stock_code") + 1;
+    private static final int ADJUST_FLAG_COLUMN = List.of(COLUMNS).indexOf("adjust_flag") + 1;
+
+    static {
+        // NDJSON keys use the BatchCreateDailyRequest field names, so an export can be re-ingested as is
+        for (int i = 0; i < COLUMNS.length; i++) {
+            StringBuilder key = new StringBuilder(COLUMNS[i].length());
+            boolean upperNext = false;
+            for (char c : COLUMNS[i].toCharArray()) {
+                if (c == '_') {
+                    upperNext = true;
+                } else {
+                    key.append(upperNext ? Character.toUpperCase(c) : c);
+                    upperNext = false;
+                }
+            }
+            JSON_KEYS[i] = key.toString();
+        }
+    }
+
+    private final StockDailyExportRepository exportRepository;
+    private final StockAdjustFactorService adjustFactorService;
+    private final int fetchSize;
+    private final Path exportDirectory;
+
+    public StockDailyExportService(StockDailyExportRepository exportRepository,
+                                   StockAdjustFactorService adjustFactorService,
+                                   @Value("${market.export.fetch-size:10000}") int fetchSize,
+                                   @Value("${market.export.directory:${java.io.tmpdir}/quant-market-export}") String exportDirectory) {
+        this.exportRepository = exportRepository;
+        this.adjustFactorService = adjustFactorService;
+        this.fetchSize = fetchSize;
+        this.exportDirectory = Paths.get(exportDirectory);
+    }
+
+    /**
+     * Check export parameters before any output is produced
+     *
+     * @throws BusinessException if startDate is after endDate, or the adjust flag is derived from factors
+     */
+    public void validateRequest(LocalDate startDate, LocalDate endDate, Short adjustFlag) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Start date must not be after end date: " + startDate + " > " + endDate);
+        }
+        if (adjustFactorService.derives(adjustFlag)) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Adjust flag " + adjustFlag + " is derived from adjust factors and cannot be exported; "
+                            + "export adjustFlag " + AdjustFactorSeries.UNADJUSTED + " together with the factors instead");
+        }
+    }
+
+    /**
+     * Stream daily data into an output stream
+     *
+     * The stream is flushed but not closed. Rows are ordered by (trade_date, adjust_flag, stock_code).
+     *
+     * @param startDate Start date (optional, inclusive)
+     * @param endDate End date (optional, inclusive)
+     * @param adjustFlag Adjust flag (optional, all when null)
+     * @param format Output format
+     * @param outputStream Target stream, e.g. the HTTP response body
+     * @return Export result
+     */
+    public ExportResult export(LocalDate startDate, LocalDate endDate, Short adjustFlag,
+                               ExportFormat format, OutputStream outputStream) {
+        validateRequest(startDate, endDate, adjustFlag);
+        LocalDate from = startDate != null ? startDate : EARLIEST_TRADE_DATE;
+        LocalDate to = endDate != null ? endDate : LATEST_TRADE_DATE;
+        log.info("Starting daily data export: from={}, to={}, adjustFlag={}, format={}, fetchSize={}",
+                from, to, adjustFlag, format, fetchSize);
+
+        long startTime = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                WRITE_BUFFER_CHARS);
+        long[] rows = new long[1];
+        try {
+            if (format == ExportFormat.CSV) {
+                writer.write(String.join(",", COLUMNS));
+                writer.write('\n');
+            }
+            Set<String> derivedCodes = adjustFlag == null ? adjustFactorService.getDerivedStockCodes() : Set.of();
+            RowCallbackHandler rowWriter = rs -> {
+                if (!derivedCodes.isEmpty() && isDerivedRow(rs, derivedCodes)) {
+                    return;
+                }
+                if (format == ExportFormat.CSV) {
+                    writeCsvRow(rs, writer);
+                } else {
+                    writeJsonRow(rs, writer);
+                }
+                rows[0]++;
+            };
+            exportRepository.streamRows(from, to, adjustFlag, fetchSize, rowWriter);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Daily data export failed: " + e.getMessage(), e);
+        }
+
+        ExportResult result = new ExportResult();
+        result.setRows(rows[0]);
+        result.setFormat(format);
+        result.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+        log.info("Daily data export completed: rows={}, time={}ms", rows[0], result.getProcessingTimeMs());
+        return result;
+    }
+
+    /**
+     * Export daily data into a file under {@code market.export.directory}
+     *
+     * The file is written under a temporary name and renamed when complete, so readers never see
+     * a partial export.
+     *
+     * @return Export result including the file path
+     */
+    public ExportResult exportToFile(LocalDate startDate, LocalDate endDate, Short adjustFlag, ExportFormat format) {
+        validateRequest(startDate, endDate, adjustFlag);
+        String fileName = String.format("stock_daily_%s_%s_%s.%s",
+                startDate != null ? startDate : "all",
+                endDate != null ? endDate : "all",
+                FILE_TIMESTAMP.format(LocalDateTime.now()),
+                format.getExtension());
+        Path target = exportDirectory.resolve(fileName);
+        Path partial = exportDirectory.resolve(fileName + ".part");
+
+        try {
+            Files.createDirectories(exportDirectory);
+            ExportResult result;
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                result = export(startDate, endDate, adjustFlag, format, out);
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            result.setFile(target.toAbsolutePath().toString());
+            result.setBytes(Files.size(target));
+            log.info("Daily data exported to {} ({} bytes)", result.getFile(), result.getBytes());
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Daily data export to file failed: " + e.getMessage(), e);
+        } finally {
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException e) {
+                log.warn("Failed to delete partial export file {}", partial, e);
+            }
+        }
+    }
+
+    /**
+     * Whether a row is a stored backward/forward bar of a stock whose adjusted bars are derived
+     */
+    private static boolean isDerivedRow(ResultSet rs, Set<String> derivedCodes) throws SQLException {
+        short adjustFlag = rs.getShort(ADJUST_FLAG_COLUMN);
+        return !rs.wasNull() && adjustFlag != AdjustFactorSeries.UNADJUSTED
+                && derivedCodes.contains(rs.getString(STOCK_CODE_COLUMN));
+    }
+
+    private static void writeCsvRow(ResultSet rs, Writer writer) throws SQLException {
+        try {
+            for (int i = 1; i <= COLUMNS.length; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                String value = rs.getString(i);
+                if (value != null) {
+                    writer.write(value);
+                }
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeJsonRow(ResultSet rs, Writer writer) throws SQLException {
+        try {
+            writer.write('{');
+            for (int i = 1; i <= COLUMNS.length; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                writer.write('"');
+                writer.write(JSON_KEYS[i - 1]);
+                writer.write("\":");
+                String value = rs.getString(i);
+                if (value == null || "NaN".equals(value)) {
+                    writer.write("null");
+                } else if (i <= 2) {
+                    // stock_code and trade_date are strings, the remaining columns are numbers
+                    writeJsonString(value, writer);
+                } else {
+                    writer.write(value);
+                }
+            }
+            writer.write("}\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeJsonString(String value, Writer writer) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+
+    /**
+     * Export output format
+     */
+    public enum ExportFormat {
+        CSV("csv", "text/csv"),
+        NDJSON("ndjson", "application/x-ndjson");
+
+        private final String extension;
+        private final String contentType;
+
+        ExportFormat(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    /**
+     * Export Result DTO
+     */
+    @lombok.Data
+    public static class ExportResult {
+        private long rows;
+        private ExportFormat format;
+        private String file;
+        private long bytes;
+        private long processingTimeMs;
+    }
+}
@@ -2,11 +2,26 @@ package com.quant.market.application.service;
 
 import com.quant.common.exception.BusinessException;
 import com.quant.common.response.ResultCode;
+import com.quant.market.application.dto.BarColumnsDTO;
+import com.quant.market.application.dto.BarSeriesSlice;
 import com.quant.market.application.dto.BatchCreateDailyRequest;
+import com.quant.market.application.dto.BulkDailyQueryRequest;
+import com.quant.market.application.dto.DailyPageCursor;
+import com.quant.market.application.dto.DailyPageDTO;
 import com.quant.market.application.dto.DailyQueryRequest;
+import com.quant.market.application.dto.DailySnapshotDTO;
 import com.quant.market.application.dto.StockDailyDTO;
+import com.quant.market.domain.event.StockDailyChangedEvent;
+import com.quant.market.domain.model.AdjustFactorSeries;
+import com.quant.market.domain.model.BarSeries;
+import com.quant.market.domain.model.DailySnapshot;
 import com.quant.market.domain.model.StockDaily;
+import com.quant.market.domain.model.StockDailyStats;
+import com.quant.market.domain.model.UpsertResult;
 import com.quant.market.domain.repository.StockDailyRepository;
+import com.quant.market.infrastructure.cache.DailySnapshotCache;
+import com.quant.market.infrastructure.cache.StockDailyBarStore;
+import com.quant.market.infrastructure.cache.StockDailyStatsCache;
 import com.quant.market.infrastructure.persistence.entity.StockDailyEntity;
 import com.quant.market.infrastructure.persistence.repository.StockDailyBatchRepository;
 import lombok.RequiredArgsConstructor;
@@ -14,8 +29,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -28,6 +51,17 @@ public class StockDailyService {
 
     private final StockDailyRepository dailyRepository;
     private final StockDailyBatchRepository batchRepository;
+    private final StockDailyBarStore barStore;
+    private final StockDailyStatsCache statsCache;
+    private final DailySnapshotCache snapshotCache;
+    private final StockAdjustFactorService adjustFactorService;
+
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 5000;
+
+    private static final List<BarSeries.Field> DEFAULT_BULK_FIELDS = List.of(
+            BarSeries.Field.OPEN, BarSeries.Field.HIGH, BarSeries.Field.LOW, BarSeries.Field.CLOSE,
+            BarSeries.Field.PCT_CHANGE, BarSeries.Field.VOLUME, BarSeries.Field.AMOUNT, BarSeries.Field.TURN);
 
     /**
      * Query daily data with filters
@@ -41,6 +75,24 @@ public class StockDailyService {
                 request.getStockCode(), request.getStartDate(), request.getEndDate(),
                 request.getAdjustFlag(), request.getSortOrder());
 
+        if (barStore.isEnabled()) {
+            List<StockDailyDTO> dailyData = queryFromBarStore(request);
+            log.info("Found {} daily records for stock code: {} (bar store)", dailyData.size(), request.getStockCode());
+            return dailyData;
+        }
+
+        BarSeries derived = deriveFromDatabase(request);
+        if (derived != null) {
+            List<StockDailyDTO> dailyData = new ArrayList<>(derived.size());
+            BarSeriesSlice slice = new BarSeriesSlice(derived, 0, derived.size(), !request.isAscending());
+            for (int i = 0; i < slice.size(); i++) {
+                dailyData.add(StockDailyDTO.fromSeries(derived, slice.indexAt(i)));
+            }
+            log.info("Found {} daily records for stock code: {} (derived adjustFlag={})",
+                    dailyData.size(), request.getStockCode(), request.getAdjustFlag());
+            return dailyData;
+        }
+
         List<StockDaily> dailyList = dailyRepository.queryDailyData(
                 request.getStockCode(),
                 request.getStartDate(),
@@ -56,13 +108,399 @@ public class StockDailyService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Query one page of daily data with keyset pagination
+     *
+     * Rows are ordered by (trade_date, adjust_flag) and each page continues strictly after the last row
+     * of the previous one, so page latency stays constant however deep the history is (no OFFSET).
+     *
+     * @param request Query request; pageSize (default 500, max 5000) and cursor (from the previous page) are optional
+     * @return Page rows and the continuation token of the next page
+     */
+    @Transactional(readOnly = true)
+    public DailyPageDTO queryDailyDataPage(DailyQueryRequest request) {
+        int pageSize = request.getPageSize() != null ? request.getPageSize() : DEFAULT_PAGE_SIZE;
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Page size must be between 1 and " + MAX_PAGE_SIZE + ". Received: " + pageSize);
+        }
+
+        DailyPageCursor cursor = null;
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            cursor = DailyPageCursor.decode(request.getCursor());
+            if (!cursor.matches(request)) {
+                throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                        "Cursor does not belong to this query (stockCode, adjustFlag and sortOrder must not change)");
+            }
+        }
+        log.info("Querying daily data page: stockCode={}, adjustFlag={}, sortOrder={}, pageSize={}, cursor={}",
+                request.getStockCode(), request.getAdjustFlag(), request.getSortOrder(), pageSize, cursor != null);
+
+        if (request.getAdjustFlag() != null && derivesFor(request.getStockCode(), request.getAdjustFlag().shortValue())) {
+            return queryDerivedPage(request, pageSize, cursor);
+        }
+
+        // Fetch one extra row to learn whether another page follows
+        List<StockDaily> rows = dailyRepository.queryDailyDataPage(
+                request.getStockCode(),
+                request.getStartDate(),
+                request.getEndDate(),
+                request.getAdjustFlag(),
+                request.isAscending(),
+                cursor != null ? cursor.lastTradeDate() : null,
+                cursor != null && request.getAdjustFlag() == null ? cursor.lastAdjustFlag() : null,
+                pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            StockDaily last = rows.get(rows.size() - 1);
+            nextCursor = new DailyPageCursor(request.getStockCode(), request.getAdjustFlag(), request.isAscending(),
+                    last.getTradeDate(), last.getAdjustFlag()).encode();
+        }
+
+        return DailyPageDTO.builder()
+                .items(rows.stream().map(StockDailyDTO::fromDomain).collect(Collectors.toList()))
+                .pageSize(pageSize)
+                .hasMore(hasMore)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Page over the series derived from unadjusted bars, for a stock whose requested flag is not read
+     * from stored rows; the cursor continues strictly after its trade date within that single series
+     */
+    private DailyPageDTO queryDerivedPage(DailyQueryRequest request, int pageSize, DailyPageCursor cursor) {
+        List<StockDailyDTO> items = new ArrayList<>();
+        boolean hasMore = false;
+        for (BarSeriesSlice slice : queryDailySeries(request)) {
+            BarSeries series = slice.series();
+            int from = slice.from();
+            int to = slice.to();
+            if (cursor != null && request.isAscending()) {
+                from = Math.max(from, series.upperBound(cursor.lastTradeDate()));
+            } else if (cursor != null) {
+                to = Math.min(to, series.lowerBound(cursor.lastTradeDate()));
+            }
+            BarSeriesSlice page = new BarSeriesSlice(series, from, Math.max(from, to), !request.isAscending());
+            hasMore = page.size() > pageSize;
+            for (int i = 0; i < Math.min(page.size(), pageSize); i++) {
+                items.add(StockDailyDTO.fromSeries(series, page.indexAt(i)));
+            }
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            StockDailyDTO last = items.get(items.size() - 1);
+            nextCursor = new DailyPageCursor(request.getStockCode(), request.getAdjustFlag(), request.isAscending(),
+                    last.getTradeDate(), last.getAdjustFlag()).encode();
+        }
+
+        return DailyPageDTO.builder()
+                .items(items)
+                .pageSize(pageSize)
+                .hasMore(hasMore)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Answer a daily query from the in-memory columnar bar store
+     * Date filters are resolved by binary search on each series
+     */
+    private List<StockDailyDTO> queryFromBarStore(DailyQueryRequest request) {
+        List<BarSeriesSlice> slices = sliceBarStore(request);
+
+        List<StockDailyDTO> result = new ArrayList<>();
+        for (BarSeriesSlice slice : slices) {
+            // Several adjust flags are merged below, so each slice is read ascending then
+            boolean ascending = request.isAscending() || slices.size() > 1;
+            for (int i = 0; i < slice.size(); i++) {
+                int index = ascending ? slice.from() + i : slice.indexAt(i);
+                result.add(StockDailyDTO.fromSeries(slice.series(), index));
+            }
+        }
+
+        // Several adjust flags are merged by trade date
+        if (slices.size() > 1) {
+            Comparator<StockDailyDTO> byDate = Comparator.comparing(StockDailyDTO::getTradeDate);
+            result.sort(request.isAscending() ? byDate : byDate.reversed());
+        }
+        return result;
+    }
+
+    /**
+     * Resolve a daily query into non-empty series slices of the bar store, one per adjust flag
+     */
+    private List<BarSeriesSlice> sliceBarStore(DailyQueryRequest request) {
+        Map<Short, BarSeries> seriesByFlag = barStore.getStock(request.getStockCode());
+
+        List<BarSeries> selected = new ArrayList<>();
+        if (request.getAdjustFlag() != null) {
+            short flag = request.getAdjustFlag().shortValue();
+            BarSeries series = seriesByFlag.get(flag);
+            BarSeries unadjusted = seriesByFlag.get(AdjustFactorSeries.UNADJUSTED);
+            if (unadjusted != null && derivesFor(request.getStockCode(), flag)) {
+                series = adjustFactorService.adjust(unadjusted, flag);
+            }
+            if (series != null) {
+                selected.add(series);
+            }
+        } else {
+            selected.addAll(seriesByFlag.values());
+        }
+
+        List<BarSeriesSlice> slices = new ArrayList<>(selected.size());
+        for (BarSeries series : selected) {
+            int from = series.lowerBound(request.getStartDate());
+            int to = series.upperBound(request.getEndDate());
+            if (from < to) {
+                slices.add(new BarSeriesSlice(series, from, to, !request.isAscending()));
+            }
+        }
+        return slices;
+    }
+
+    /**
+     * Query daily data as columnar series, one slice per adjust flag
+     * Same filters as {@link #queryDailyData}; used by binary responses that encode columns directly
+     *
+     * @param request Query request
+     * @return Series slices in the requested sort order
+     */
+    @Transactional(readOnly = true)
+    public List<BarSeriesSlice> queryDailySeries(DailyQueryRequest request) {
+        log.info("Querying daily series: stockCode={}, startDate={}, endDate={}, adjustFlag={}, sortOrder={}",
+                request.getStockCode(), request.getStartDate(), request.getEndDate(),
+                request.getAdjustFlag(), request.getSortOrder());
+
+        if (barStore.isEnabled()) {
+            return sliceBarStore(request);
+        }
+
+        BarSeries derived = deriveFromDatabase(request);
+        if (derived != null) {
+            return List.of(new BarSeriesSlice(derived, 0, derived.size(), !request.isAscending()));
+        }
+
+        List<StockDaily> dailyList = dailyRepository.queryDailyData(
+                request.getStockCode(),
+                request.getStartDate(),
+                request.getEndDate(),
+                request.getAdjustFlag(),
+                true
+        );
+
+        Map<Short, BarSeries.Builder> builders = new LinkedHashMap<>();
+        for (StockDaily daily : dailyList) {
+            builders.computeIfAbsent(daily.getAdjustFlag(),
+                    flag -> BarSeries.builder(request.getStockCode(), flag, dailyList.size())).add(daily);
+        }
+
+        List<BarSeriesSlice> slices = new ArrayList<>(builders.size());
+        for (BarSeries.Builder builder : builders.values()) {
+            BarSeries series = builder.build();
+            slices.add(new BarSeriesSlice(series, 0, series.size(), !request.isAscending()));
+        }
+        return slices;
+    }
+
+    /**
+     * Whether bars of an adjust flag are computed from unadjusted bars for this stock
+     * Stocks without factors keep serving their stored rows of that flag
+     */
+    private boolean derivesFor(String stockCode, short adjustFlag) {
+        return adjustFactorService.derives(adjustFlag) && !adjustFactorService.getFactorSeries(stockCode).isEmpty();
+    }
+
+    /**
+     * Compute the requested adjust flag from stored unadjusted bars in the request range
+     *
+     * @return Adjusted series, or null when the stored rows of the requested flag are to be served
+     */
+    private BarSeries deriveFromDatabase(DailyQueryRequest request) {
+        if (request.getAdjustFlag() == null || !derivesFor(request.getStockCode(), request.getAdjustFlag().shortValue())) {
+            return null;
+        }
+        List<StockDaily> unadjusted = dailyRepository.queryDailyData(
+                request.getStockCode(),
+                request.getStartDate(),
+                request.getEndDate(),
+                (int) AdjustFactorSeries.UNADJUSTED,
+                true
+        );
+        if (unadjusted.isEmpty()) {
+            return null;
+        }
+        BarSeries.Builder builder = BarSeries.builder(request.getStockCode(), AdjustFactorSeries.UNADJUSTED, unadjusted.size());
+        unadjusted.forEach(builder::add);
+        return adjustFactorService.adjust(builder.build(), request.getAdjustFlag().shortValue());
+    }
+
+    /**
+     * Query daily bars of many stocks in one call
+     *
+     * All stocks are read with one set-based statement and returned as compact per-stock
+     * columns instead of one DTO per bar. Stocks without bars in the range are omitted.
+     *
+     * @param request Bulk query request (stock codes, date range, adjust flag, optional lastN)
+     * @return Columnar bars per stock, in request order
+     */
+    @Transactional(readOnly = true)
+    public List<BarColumnsDTO> queryDailyDataBulk(BulkDailyQueryRequest request) {
+        List<BarSeries.Field> fields = resolveFields(request.getFields());
+        List<BarColumnsDTO> result = new ArrayList<>();
+        for (BarSeries series : queryDailySeriesBulk(request)) {
+            result.add(BarColumnsDTO.fromSeries(series, 0, series.size(), fields));
+        }
+        log.info("Bulk query returned bars for {} of {} stocks", result.size(), request.getStockCodes().size());
+        return result;
+    }
+
+    /**
+     * Query daily bars of many stocks as columnar series
+     * Same request and validation as {@link #queryDailyDataBulk}; used by binary responses
+     *
+     * @param request Bulk query request
+     * @return Series per stock (ascending by trade date), in request order
+     */
+    @Transactional(readOnly = true)
+    public List<BarSeries> queryDailySeriesBulk(BulkDailyQueryRequest request) {
+        validateBulkRequest(request);
+
+        Set<String> stockCodes = new LinkedHashSet<>(request.getStockCodes());
+        short adjustFlag = request.getAdjustFlag() != null ? request.getAdjustFlag().shortValue() : 3;
+        log.info("Bulk querying daily data: {} stocks, startDate={}, endDate={}, adjustFlag={}, lastN={}",
+                stockCodes.size(), request.getStartDate(), request.getEndDate(), adjustFlag, request.getLastN());
+
+        if (!adjustFactorService.derives(adjustFlag)) {
+            return new ArrayList<>(dailyRepository.findSeriesByStockCodes(
+                    stockCodes, request.getStartDate(), request.getEndDate(), adjustFlag, request.getLastN()).values());
+        }
+
+        // Stocks with factors are computed from their unadjusted bars, the rest read their stored rows
+        Map<String, AdjustFactorSeries> factors = adjustFactorService.getFactorSeries(stockCodes);
+        Set<String> derivedCodes = new LinkedHashSet<>();
+        Set<String> storedCodes = new LinkedHashSet<>();
+        for (String stockCode : stockCodes) {
+            (factors.get(stockCode).isEmpty() ? storedCodes : derivedCodes).add(stockCode);
+        }
+
+        Map<String, BarSeries> seriesByCode = new HashMap<>(stockCodes.size() * 2);
+        dailyRepository.findSeriesByStockCodes(derivedCodes, request.getStartDate(), request.getEndDate(),
+                        AdjustFactorSeries.UNADJUSTED, request.getLastN())
+                .forEach((code, series) -> seriesByCode.put(code, factors.get(code).adjust(series, adjustFlag)));
+        seriesByCode.putAll(dailyRepository.findSeriesByStockCodes(storedCodes, request.getStartDate(),
+                request.getEndDate(), adjustFlag, request.getLastN()));
+
+        List<BarSeries> result = new ArrayList<>(seriesByCode.size());
+        for (String stockCode : stockCodes) {
+            BarSeries series = seriesByCode.get(stockCode);
+            if (series != null) {
+                result.add(series);
+            }
+        }
+        return result;
+    }
+
+    private static void validateBulkRequest(BulkDailyQueryRequest request) {
+        if (request.getStartDate() == null && request.getLastN() == null) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Either startDate or lastN is required for bulk queries");
+        }
+        if (request.getStartDate() != null && request.getEndDate() != null
+                && request.getStartDate().isAfter(request.getEndDate())) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Start date must not be after end date");
+        }
+    }
+
+    /**
+     * Requested columns, or the default bulk query columns when none are given
+     */
+    public static List<BarSeries.Field> resolveFields(List<BarSeries.Field> fields) {
+        return fields != null && !fields.isEmpty() ? fields : DEFAULT_BULK_FIELDS;
+    }
+
+    /**
+     * Get the bars of all stocks on one trade date
+     * Served from the per-date snapshot cache; a snapshot is loaded once and dropped when a write touches its date.
+     * Flags derived from adjust factors are composed per call from the cached unadjusted and stored snapshots
+     *
+     * @param tradeDate Trade date
+     * @param adjustFlag Adjust flag (optional, default 3)
+     * @param fields Columns to return (optional, default bulk query columns)
+     * @return Columnar snapshot sorted by stock code
+     */
+    public DailySnapshotDTO getDailySnapshot(LocalDate tradeDate, Integer adjustFlag, List<BarSeries.Field> fields) {
+        return DailySnapshotDTO.fromSnapshot(getSnapshot(tradeDate, adjustFlag), resolveFields(fields));
+    }
+
+    /**
+     * Get the cached columnar snapshot of one trade date
+     *
+     * @param tradeDate Trade date
+     * @param adjustFlag Adjust flag (optional, default 3)
+     * @return Snapshot sorted by stock code
+     */
+    public DailySnapshot getSnapshot(LocalDate tradeDate, Integer adjustFlag) {
+        short flag = adjustFlag != null ? adjustFlag.shortValue() : 3;
+        if (flag < 1 || flag > 3) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(), "Adjust flag must be 1, 2 or 3");
+        }
+
+        DailySnapshot snapshot = adjustFactorService.derives(flag)
+                ? deriveSnapshot(tradeDate, flag)
+                : snapshotCache.get(tradeDate, flag);
+        log.info("Daily snapshot: tradeDate={}, adjustFlag={}, stocks={}", tradeDate, flag, snapshot.size());
+        return snapshot;
+    }
+
+    /**
+     * Compose a derived-flag snapshot from cached snapshots: stocks with adjust factors are scaled from
+     * their unadjusted bar, the rest keep their stored bar of that flag
+     */
+    private DailySnapshot deriveSnapshot(LocalDate tradeDate, short adjustFlag) {
+        DailySnapshot unadjusted = snapshotCache.get(tradeDate, AdjustFactorSeries.UNADJUSTED);
+        DailySnapshot stored = snapshotCache.get(tradeDate, adjustFlag);
+
+        Set<String> stockCodes = new HashSet<>((unadjusted.size() + stored.size()) * 2);
+        for (int i = 0; i < unadjusted.size(); i++) {
+            stockCodes.add(unadjusted.getStockCode(i));
+        }
+        for (int i = 0; i < stored.size(); i++) {
+            stockCodes.add(stored.getStockCode(i));
+        }
+        Map<String, AdjustFactorSeries> factors = adjustFactorService.getFactorSeries(stockCodes);
+
+        DailySnapshot.Builder builder = DailySnapshot.builder(tradeDate, adjustFlag, stockCodes.size());
+        for (int i = 0; i < unadjusted.size(); i++) {
+            AdjustFactorSeries factor = factors.get(unadjusted.getStockCode(i));
+            if (!factor.isEmpty()) {
+                builder.add(unadjusted, i, factor.ratioAt(tradeDate, adjustFlag));
+            }
+        }
+        for (int i = 0; i < stored.size(); i++) {
+            if (factors.get(stored.getStockCode(i)).isEmpty()) {
+                builder.add(stored, i, 1.0);
+            }
+        }
+        return builder.build();
+    }
+
     /**
      * Batch insert daily data - Optimized Version
      * Maximum 1000 items per batch
      * Duplicates (same stock_code + trade_date) will be skipped automatically by database
      *
      * Uses PostgreSQL ON CONFLICT DO NOTHING for high-performance batch operations:
-     * - Single SQL statement for all records
+     * - Multi-row INSERT statements with RETURNING of the inserted keys
+     * - Skipped duplicates are reported individually in skippedItems
      * - Automatic duplicate detection by database
      * - Much faster than checking existence individually
      *
@@ -71,7 +509,20 @@ public class StockDailyService {
      */
     @Transactional
     public BatchInsertResult batchInsertDailyData(List<BatchCreateDailyRequest> requests) {
-        log.info("Starting batch insert daily data: {} items", requests.size());
+        return batchInsertDailyData(requests, InsertMode.BATCH);
+    }
+
+    /**
+     * Batch insert daily data with the given ingest mode
+     *
+     * @param requests List of daily data to insert
+     * @param mode BATCH = multi-row INSERT ... RETURNING, COPY = PostgreSQL COPY into a staging table,
+     *             UPSERT = overwrite existing rows whose values differ, leave identical rows untouched
+     * @return Batch insert result
+     */
+    @Transactional
+    public BatchInsertResult batchInsertDailyData(List<BatchCreateDailyRequest> requests, InsertMode mode) {
+        log.info("Starting batch insert daily data: {} items, mode={}", requests.size(), mode);
 
 
         long startTime = System.currentTimeMillis();
@@ -96,24 +547,40 @@ public class StockDailyService {
             }
         }
 
-        // Perform batch insert using native SQL
+        // Perform batch insert using native SQL; RETURNING reports exactly which rows were inserted
         int insertedCount = 0;
+        List<String> skippedItems = new ArrayList<>();
         if (!validEntities.isEmpty()) {
             try {
-                insertedCount = batchRepository.batchInsert(validEntities);
-                log.info("Batch inserted {} daily records", insertedCount);
+                if (mode == InsertMode.UPSERT) {
+                    UpsertResult upsertResult = batchRepository.batchUpsert(validEntities);
+                    insertedCount = upsertResult.inserted();
+                    result.setUpdated(upsertResult.updated());
+                    result.setUnchanged(upsertResult.unchanged());
+                    log.info("Batch upserted daily records: {} inserted, {} updated, {} unchanged",
+                            upsertResult.inserted(), upsertResult.updated(), upsertResult.unchanged());
+                } else {
+                    StockDailyBatchRepository.InsertResult insertResult = mode == InsertMode.COPY
+                            ? batchRepository.copyInsert(validEntities)
+                            : batchRepository.batchInsert(validEntities);
+                    insertedCount = insertResult.inserted();
+                    for (StockDailyChangedEvent.BarKey key : insertResult.skippedKeys()) {
+                        skippedItems.add(String.format("%s on %s (adjustFlag=%s)",
+                                key.stockCode(), key.tradeDate(), key.adjustFlag()));
+                    }
+                    log.info("Batch inserted {} daily records", insertedCount);
+                }
             } catch (Exception e) {
                 log.error("Error during batch insert", e);
                 errors.add("Batch insert error: " + e.getMessage());
             }
         }
 
-        int skippedCount = validEntities.size() - insertedCount;
         result.setInserted(insertedCount);
-        result.setSkipped(skippedCount);
+        result.setSkipped(skippedItems.size());
         result.setFailed(errors.size());
         result.setErrors(errors);
-        result.setSkippedItems(new ArrayList<>()); // Not tracked individually in batch mode
+        result.setSkippedItems(skippedItems);
 
         long duration = System.currentTimeMillis() - startTime;
         result.setProcessingTimeMs(duration);
@@ -137,7 +604,16 @@ public class StockDailyService {
      */
     @Transactional(readOnly = true)
     public long getDailyDataCountByStockCode(String stockCode) {
-        return dailyRepository.countByStockCode(stockCode);
+        return statsCache.get(stockCode).getRecordCount();
+    }
+
+    /**
+     * Get daily data statistics by stock code
+     * Served from the in-memory stats cache, refreshed after batch writes
+     */
+    @Transactional(readOnly = true)
+    public StockDailyStats getDailyStatsByStockCode(String stockCode) {
+        return statsCache.get(stockCode);
     }
 
     /**
@@ -162,6 +638,26 @@ public class StockDailyService {
         return dailyRepository.findLatestTradeDate(stockCode, adjustFlag);
     }
 
+    /**
+     * Batch write mode
+     */
+    public enum InsertMode {
+        /**
+         * Multi-row INSERT ... ON CONFLICT DO NOTHING RETURNING statements
+         */
+        BATCH,
+        /**
+         * PostgreSQL COPY into a staging table, then one INSERT ... SELECT ... ON CONFLICT DO NOTHING
+         * Preferred for large backfills
+         */
+        COPY,
+        /**
+         * INSERT ... ON CONFLICT DO UPDATE guarded by IS DISTINCT FROM
+         * Existing rows are rewritten only when a value changed; used for re-syncing recent windows
+         */
+        UPSERT
+    }
+
     /**
      * Batch Insert Result DTO
      */
@@ -170,14 +666,16 @@ public class StockDailyService {
         private int total;
         private int inserted;
         private int skipped;
+        private int updated;
+        private int unchanged;
         private int failed;
         private List<String> errors = new ArrayList<>();
         private List<String> skippedItems = new ArrayList<>();
         private long processingTimeMs;
 
         public String getSummary() {
-            return String.format("Total: %d, Inserted: %d, Skipped: %d, Failed: %d, Time: %dms",
-                    total, inserted, skipped, failed, processingTimeMs);
+            return String.format("Total: %d, Inserted: %d, Skipped: %d, Updated: %d, Unchanged: %d, Failed: %d, Time: %dms",
+                    total, inserted, skipped, updated, unchanged, failed, processingTimeMs);
         }
     }
 }
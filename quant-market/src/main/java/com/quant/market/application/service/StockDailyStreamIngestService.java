@@ -0,0 +1,413 @@
+package com.quant.market.application.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.quant.common.exception.BusinessException;
+import com.quant.common.response.ResultCode;
+import com.quant.market.application.dto.BatchCreateDailyRequest;
+import com.quant.market.domain.model.UpsertResult;
+import com.quant.market.infrastructure.persistence.entity.StockDailyEntity;
+import com.quant.market.infrastructure.persistence.repository.StockDailyBatchRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Stock Daily Stream Ingest Service
+ * 日线数据流式导入服务
+ *
+ * Reads NDJSON or CSV bodies line by line, validates each row and flushes fixed-size chunks
+ * to {@link StockDailyBatchRepository}. Each chunk commits on its own, so heap use is bounded
+ * by the chunk size and the first rows are persisted while the client is still sending.
+ * Lines longer than {@link #MAX_LINE_LENGTH} are rejected without being buffered, and only the
+ * last {@link #MAX_REPORTED_CHUNKS} chunk progress entries are kept next to the running totals.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockDailyStreamIngestService {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    public static final int MAX_CHUNK_SIZE = 10000;
+
+    /**
+     * Upper bound of error messages kept in the result, to keep memory flat on bad uploads
+     */
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    /**
+     * Upper bound of chunk progress entries kept in the result (the most recent ones)
+     */
+    private static final int MAX_REPORTED_CHUNKS = 100;
+
+    /**
+     * Longest accepted line in characters; a daily row is a few hundred at most
+     */
+    public static final int MAX_LINE_LENGTH = 16 * 1024;
+
+    private final StockDailyBatchRepository batchRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    /**
+     * Stream-insert daily data
+     *
+     * @param inputStream Request body
+     * @param format NDJSON (one JSON object per line) or CSV (header line with field or column names)
+     * @param chunkSize Rows per flushed chunk
+     * @param mode Insert mode used for each chunk
+     * @return Ingest result with per-chunk progress
+     */
+    public StreamIngestResult ingest(InputStream inputStream, StreamFormat format, int chunkSize,
+                                     StockDailyService.InsertMode mode) {
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Chunk size must be between 1 and " + MAX_CHUNK_SIZE + ". Received: " + chunkSize);
+        }
+        log.info("Starting stream insert daily data: format={}, chunkSize={}, mode={}", format, chunkSize, mode);
+
+        long startTime = System.currentTimeMillis();
+        StreamIngestResult result = new StreamIngestResult();
+        List<StockDailyEntity> chunk = new ArrayList<>(chunkSize);
+        ObjectReader jsonReader = objectMapper.readerFor(BatchCreateDailyRequest.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+        try (BoundedLineReader reader = new BoundedLineReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String[] csvHeader = null;
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (reader.isTruncated()) {
+                    result.setTotal(result.getTotal() + 1);
+                    result.setFailed(result.getFailed() + 1);
+                    result.addError(String.format("Line %d: exceeds the maximum length of %d characters",
+                            lineNumber, MAX_LINE_LENGTH));
+                    continue;
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == StreamFormat.CSV && csvHeader == null) {
+                    csvHeader = parseCsvHeader(line);
+                    continue;
+                }
+
+                result.setTotal(result.getTotal() + 1);
+                BatchCreateDailyRequest request = null;
+                try {
+                    request = format == StreamFormat.CSV
+                            ? parseCsvRow(csvHeader, line)
+                            : jsonReader.readValue(line);
+                    validate(request);
+                    chunk.add(StockDailyEntity.fromDomain(request.toDomain()));
+                } catch (Exception e) {
+                    String errorMsg = request != null
+                            ? String.format("Line %d: %s on %s - %s", lineNumber,
+                                    request.getStockCode(), request.getTradeDate(), e.getMessage())
+                            : String.format("Line %d: %s", lineNumber, e.getMessage());
+                    result.setFailed(result.getFailed() + 1);
+                    result.addError(errorMsg);
+                    log.debug("Error processing daily data at line {}: {}", lineNumber, e.getMessage());
+                }
+
+                if (chunk.size() >= chunkSize) {
+                    flushChunk(chunk, mode, result);
+                }
+            }
+            flushChunk(chunk, mode, result);
+        } catch (IOException e) {
+            log.error("Error reading daily data stream", e);
+            result.setFailed(result.getFailed() + 1);
+            result.addError("Stream read error: " + e.getMessage());
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        result.setProcessingTimeMs(duration);
+
+        log.info("Stream insert completed: total={}, inserted={}, skipped={}, failed={}, chunks={}, time={}ms",
+                result.getTotal(), result.getInserted(), result.getSkipped(), result.getFailed(),
+                result.getChunkCount(), duration);
+        return result;
+    }
+
+    /**
+     * Persist one chunk in its own transaction and record its progress
+     */
+    private void flushChunk(List<StockDailyEntity> chunk, StockDailyService.InsertMode mode, StreamIngestResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        ChunkProgress progress = new ChunkProgress();
+        progress.setChunk(result.getChunkCount() + 1);
+        progress.setRows(chunk.size());
+
+        try {
+            if (mode == StockDailyService.InsertMode.UPSERT) {
+                UpsertResult upserted = batchRepository.batchUpsert(chunk);
+                progress.setInserted(upserted.inserted());
+                progress.setUpdated(upserted.updated());
+                progress.setUnchanged(upserted.unchanged());
+            } else {
+                StockDailyBatchRepository.InsertResult inserted = mode == StockDailyService.InsertMode.COPY
+                        ? batchRepository.copyInsert(chunk)
+                        : batchRepository.batchInsert(chunk);
+                progress.setInserted(inserted.inserted());
+                progress.setSkipped(inserted.skippedKeys().size());
+            }
+        } catch (Exception e) {
+            log.error("Error inserting chunk {}", progress.getChunk(), e);
+            progress.setFailed(chunk.size());
+            result.setFailed(result.getFailed() + chunk.size());
+            result.addError(String.format("Chunk %d: %s", progress.getChunk(), e.getMessage()));
+        }
+
+        progress.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+        result.addChunk(progress);
+        result.setInserted(result.getInserted() + progress.getInserted());
+        result.setSkipped(result.getSkipped() + progress.getSkipped());
+        result.setUpdated(result.getUpdated() + progress.getUpdated());
+        result.setUnchanged(result.getUnchanged() + progress.getUnchanged());
+
+        log.info("Stream insert chunk {}: rows={}, inserted={}, skipped={}, updated={}, unchanged={}, failed={}, time={}ms",
+                progress.getChunk(), progress.getRows(), progress.getInserted(), progress.getSkipped(),
+                progress.getUpdated(), progress.getUnchanged(), progress.getFailed(), progress.getProcessingTimeMs());
+        chunk.clear();
+    }
+
+    /**
+     * Line reader over its own char buffer that keeps at most {@link #MAX_LINE_LENGTH} characters
+     * of a line; the rest of an over-long line is consumed and dropped
+     */
+    private static final class BoundedLineReader implements Closeable {
+
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder(256);
+        private int position;
+        private int limit;
+        private boolean truncated;
+
+        BoundedLineReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Next line without its terminator, or null at end of stream
+         */
+        String readLine() throws IOException {
+            line.setLength(0);
+            truncated = false;
+            boolean started = false;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(reader.read(buffer, 0, buffer.length), 0);
+                    position = 0;
+                    if (limit == 0) {
+                        return started ? finish() : null;
+                    }
+                }
+                started = true;
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                int count = position - start;
+                int room = MAX_LINE_LENGTH - line.length();
+                if (count > room) {
+                    truncated = true;
+                    count = room;
+                }
+                line.append(buffer, start, count);
+                if (position < limit) {
+                    position++;
+                    return finish();
+                }
+            }
+        }
+
+        /**
+         * Whether the last line returned was cut at {@link #MAX_LINE_LENGTH}
+         */
+        boolean isTruncated() {
+            return truncated;
+        }
+
+        private String finish() {
+            int length = line.length();
+            if (length > 0 && line.charAt(length - 1) == '\r') {
+                line.setLength(length - 1);
+            }
+            return line.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private void validate(BatchCreateDailyRequest request) {
+        Set<ConstraintViolation<BatchCreateDailyRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    /**
+     * Parse the CSV header; snake_case column names are mapped to request field names
+     */
+    private static String[] parseCsvHeader(String line) {
+        List<String> columns = splitCsvLine(line);
+        String[] header = new String[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            header[i] = toCamelCase(columns.get(i).trim());
+        }
+        return header;
+    }
+
+    private BatchCreateDailyRequest parseCsvRow(String[] header, String line) {
+        List<String> values = splitCsvLine(line);
+        if (values.size() > header.length) {
+            throw new IllegalArgumentException("Expected " + header.length + " columns but found " + values.size());
+        }
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i).trim();
+            if (!value.isEmpty()) {
+                row.put(header[i], value);
+            }
+        }
+        return objectMapper.convertValue(row, BatchCreateDailyRequest.class);
+    }
+
+    /**
+     * Split a CSV line, honouring double-quoted fields with "" escapes
+     */
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String toCamelCase(String name) {
+        if (name.indexOf('_') < 0) {
+            return name;
+        }
+        StringBuilder sb = new StringBuilder(name.length());
+        boolean upperNext = false;
+        for (char c : name.toCharArray()) {
+            if (c == '_') {
+                upperNext = true;
+            } else {
+                sb.append(upperNext ? Character.toUpperCase(c) : Character.toLowerCase(c));
+                upperNext = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Stream body format
+     */
+    public enum StreamFormat {
+        NDJSON,
+        CSV
+    }
+
+    /**
+     * Progress of one flushed chunk
+     */
+    @lombok.Data
+    public static class ChunkProgress {
+        private int chunk;
+        private int rows;
+        private int inserted;
+        private int skipped;
+        private int updated;
+        private int unchanged;
+        private int failed;
+        private long processingTimeMs;
+    }
+
+    /**
+     * Stream Ingest Result DTO
+     */
+    @lombok.Data
+    public static class StreamIngestResult {
+        private int total;
+        private int inserted;
+        private int skipped;
+        private int updated;
+        private int unchanged;
+        private int failed;
+        private List<String> errors = new ArrayList<>();
+        private int chunkCount;
+        /**
+         * Progress of the most recent chunks, oldest first
+         */
+        private List<ChunkProgress> chunks = new ArrayList<>();
+        private long processingTimeMs;
+
+        void addError(String error) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        void addChunk(ChunkProgress progress) {
+            chunkCount++;
+            if (chunks.size() >= MAX_REPORTED_CHUNKS) {
+                chunks.remove(0);
+            }
+            chunks.add(progress);
+        }
+
+        public String getSummary() {
+            return String.format("Total: %d, Inserted: %d, Skipped: %d, Updated: %d, Unchanged: %d, Failed: %d, Chunks: %d, Time: %dms",
+                    total, inserted, skipped, updated, unchanged, failed, chunkCount, processingTimeMs);
+        }
+    }
+}
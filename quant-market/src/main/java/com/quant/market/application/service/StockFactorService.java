@@ -0,0 +1,433 @@
+package com.quant.market.application.service;
+
+import com.quant.common.exception.BusinessException;
+import com.quant.common.response.ResultCode;
+import com.quant.market.application.dto.StockFactorDTO;
+import com.quant.market.domain.event.StockAdjustFactorChangedEvent;
+import com.quant.market.domain.event.StockDailyChangedEvent;
+import com.quant.market.domain.factor.FactorCalculator;
+import com.quant.market.domain.factor.FactorCrossSection;
+import com.quant.market.domain.factor.StockFactor;
+import com.quant.market.domain.model.AdjustFactorSeries;
+import com.quant.market.domain.model.BarSeries;
+import com.quant.market.domain.model.Stock;
+import com.quant.market.domain.repository.StockDailyRepository;
+import com.quant.market.domain.repository.StockFactorRepository;
+import com.quant.market.domain.repository.StockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Stock Factor Service
+ * 因子计算流水线：价值、动量、流动性、波动率因子的逐日横截面计算、标准化与落库
+ *
+ * A run over a list of trade dates works in batches of consecutive dates, in two phases:
+ * - Per stock: the bars of the batch plus the longest lookback are loaded once per chunk of stocks
+ *   and the raw values of every date are computed from them; chunks run in parallel
+ * - Per date: each cross section is z-scored, ranked and written over its trade date; dates run in parallel
+ *
+ * Daily writes mark their trade dates dirty; once writes have been quiet for
+ * {@code market.factor.debounce-seconds}, the dirty dates are recomputed, so a day ingested in many
+ * batches is computed once. Corrections of older bars only recompute the corrected dates; use a
+ * backfill to refresh the later dates whose windows include them.
+ *
+ * Adjust factor uploads change backward-adjusted closes from their earliest ex-date on, so the trading
+ * days whose lookback windows contain that ex-date are marked dirty too, limited to the latest
+ * {@code market.factor.max-backfill-days}; windows of older ex-dates need a backfill.
+ *
+ * Stocks with adjust factors are computed from unadjusted bars adjusted on the fly (when derivation
+ * is enabled); stocks without factors use their stored backward-adjusted rows.
+ */
+@Slf4j
+@Service
+public class StockFactorService {
+
+    private static final int LOAD_CHUNK_SIZE = 500;
+
+    private static final int DATES_PER_BATCH = 20;
+
+    /**
+     * Extra trading days loaded before the lookback so stocks with a few suspensions still fill it
+     */
+    private static final int LOOKBACK_MARGIN = 60;
+
+    private static final int MAX_QUERY_STOCKS = 100;
+
+    private static final int MAX_RANK_LIMIT = 5000;
+
+    private static final int FACTOR_COUNT = StockFactor.values().length;
+
+    private final StockRepository stockRepository;
+    private final StockDailyRepository dailyRepository;
+    private final StockAdjustFactorService adjustFactorService;
+    private final TradingCalendarService calendarService;
+    private final StockFactorRepository factorRepository;
+    private final Executor factorExecutor;
+    private final Executor batchExecutor;
+    private final boolean autoCompute;
+    private final long debounceNanos;
+    private final int maxBackfillDays;
+
+    /**
+     * Runs replace whole trade dates and must not interleave
+     */
+    private final Object runLock = new Object();
+    private final Set<LocalDate> dirtyDates = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean runScheduled = new AtomicBoolean();
+    private volatile long lastChangeNanos;
+
+    public StockFactorService(StockRepository stockRepository,
+                              StockDailyRepository dailyRepository,
+                              StockAdjustFactorService adjustFactorService,
+                              TradingCalendarService calendarService,
+                              StockFactorRepository factorRepository,
+                              @Qualifier("factorExecutor") Executor factorExecutor,
+                              @Qualifier("stockBatchExecutor") Executor batchExecutor,
+                              @Value("${market.factor.auto-compute:true}") boolean autoCompute,
+                              @Value("${market.factor.debounce-seconds:30}") long debounceSeconds,
+                              @Value("${market.factor.max-backfill-days:250}") int maxBackfillDays) {
+        this.stockRepository = stockRepository;
+        this.dailyRepository = dailyRepository;
+        this.adjustFactorService = adjustFactorService;
+        this.calendarService = calendarService;
+        this.factorRepository = factorRepository;
+        this.factorExecutor = factorExecutor;
+        this.batchExecutor = batchExecutor;
+        this.autoCompute = autoCompute;
+        this.debounceNanos = TimeUnit.SECONDS.toNanos(debounceSeconds);
+        this.maxBackfillDays = maxBackfillDays;
+        log.info("Factor service initialized: autoCompute={}, debounceSeconds={}, maxBackfillDays={}",
+                autoCompute, debounceSeconds, maxBackfillDays);
+    }
+
+    /**
+     * Compute and store the factors of one trade date
+     *
+     * @param tradeDate Trade date (optional, default latest trade date with daily data)
+     * @return Run result
+     */
+    public FactorRunResult computeTradeDate(LocalDate tradeDate) {
+        LocalDate date = tradeDate != null ? tradeDate : dailyRepository.findLatestTradeDate();
+        if (date == null) {
+            throw new BusinessException(ResultCode.NOT_FOUND.getCode(), "No daily data found");
+        }
+        return run(List.of(date));
+    }
+
+    /**
+     * Compute and store the factors of every trading day in a date range
+     *
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Run result
+     */
+    public FactorRunResult backfill(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Start date and end date are required and start date must not be after end date");
+        }
+        List<LocalDate> tradingDays = calendarService.getTradingDaysEndingAt(endDate, maxBackfillDays + 1).stream()
+                .filter(date -> !date.isBefore(startDate))
+                .collect(Collectors.toList());
+        if (tradingDays.size() > maxBackfillDays) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Backfill range cannot exceed " + maxBackfillDays + " trading days");
+        }
+        return run(tradingDays);
+    }
+
+    /**
+     * Get the values of one factor on a trade date by rank
+     *
+     * @param tradeDate Trade date (optional, default latest computed date)
+     * @param factor Factor
+     * @param fromTop Largest values first (default true)
+     * @param limit Maximum number of rows (max 5000)
+     * @return Values ordered by rank
+     */
+    public List<StockFactorDTO> getCrossSection(LocalDate tradeDate, StockFactor factor, boolean fromTop, int limit) {
+        if (limit < 1 || limit > MAX_RANK_LIMIT) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Limit must be between 1 and " + MAX_RANK_LIMIT);
+        }
+        LocalDate date = tradeDate != null ? tradeDate : factorRepository.findLatestTradeDate();
+        if (date == null) {
+            return List.of();
+        }
+        return factorRepository.findByRank(date, factor, fromTop, limit).stream()
+                .map(StockFactorDTO::fromDomain)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the factor values of stocks over a date range
+     *
+     * @param stockCodes Stock codes (max 100)
+     * @param factors Factors (optional, all by default)
+     * @param startDate Start date (optional)
+     * @param endDate End date (optional)
+     * @return Values ordered by stock code, trade date and factor
+     */
+    public List<StockFactorDTO> getStockFactors(List<String> stockCodes, Collection<StockFactor> factors,
+                                                LocalDate startDate, LocalDate endDate) {
+        if (stockCodes == null || stockCodes.isEmpty()) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(), "Stock codes cannot be empty");
+        }
+        if (stockCodes.size() > MAX_QUERY_STOCKS) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Stock codes cannot exceed " + MAX_QUERY_STOCKS);
+        }
+        return factorRepository.findByStockCodes(stockCodes, factors, startDate, endDate).stream()
+                .map(StockFactorDTO::fromDomain)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Mark the trade dates touched by a committed batch write and schedule an incremental run
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDailyChanged(StockDailyChangedEvent event) {
+        if (!autoCompute) {
+            return;
+        }
+        boolean touched = false;
+        for (StockDailyChangedEvent.BarKey key : event.getKeys()) {
+            if (isSourceFlag(key.adjustFlag())) {
+                dirtyDates.add(key.tradeDate());
+                touched = true;
+            }
+        }
+        if (touched) {
+            scheduleDirty();
+        }
+    }
+
+    /**
+     * Mark the trading days whose lookback windows contain the earliest changed ex-date
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAdjustFactorChanged(StockAdjustFactorChangedEvent event) {
+        if (!autoCompute || event.getEarliestExDate() == null) {
+            return;
+        }
+        LocalDate latest = dailyRepository.findLatestTradeDate();
+        if (latest == null || event.getEarliestExDate().isAfter(latest)) {
+            return;
+        }
+        int lookback = StockFactor.maxLookback();
+        List<LocalDate> days = calendarService.getTradingDaysEndingAt(latest, maxBackfillDays + lookback + 1);
+        int first = 0;
+        while (first < days.size() && days.get(first).isBefore(event.getEarliestExDate())) {
+            first++;
+        }
+        if (first == 0 && !days.isEmpty() && days.get(0).isAfter(event.getEarliestExDate())) {
+            log.warn("Adjust factors from {} changed; factor windows before {} are not recomputed, run a backfill",
+                    event.getEarliestExDate(), days.get(0));
+        }
+        int from = Math.max(first, days.size() - maxBackfillDays);
+        int to = Math.min(first + lookback + 1, days.size());
+        if (from >= to) {
+            return;
+        }
+        dirtyDates.addAll(days.subList(from, to));
+        log.info("Adjust factors of {} stocks changed from {}; marked {} trade dates ({} to {}) for recomputation",
+                event.getStockCodes().size(), event.getEarliestExDate(), to - from, days.get(from), days.get(to - 1));
+        scheduleDirty();
+    }
+
+    private void scheduleDirty() {
+        lastChangeNanos = System.nanoTime();
+        if (runScheduled.compareAndSet(false, true)) {
+            scheduleDirtyRun(debounceNanos);
+        }
+    }
+
+    private void scheduleDirtyRun(long delayNanos) {
+        CompletableFuture.runAsync(this::runDirtyDates,
+                CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS, batchExecutor));
+    }
+
+    /**
+     * Recompute the dirty dates once writes have been quiet for the debounce period
+     */
+    private void runDirtyDates() {
+        long quietNanos = System.nanoTime() - lastChangeNanos;
+        if (quietNanos < debounceNanos) {
+            scheduleDirtyRun(debounceNanos - quietNanos);
+            return;
+        }
+        runScheduled.set(false);
+        List<LocalDate> dates = new ArrayList<>(dirtyDates);
+        dirtyDates.removeAll(dates);
+        if (dates.isEmpty()) {
+            return;
+        }
+        dates.sort(null);
+        try {
+            FactorRunResult result = run(dates);
+            log.info("Incremental factor run completed: {}", result.getSummary());
+        } catch (RuntimeException e) {
+            log.error("Incremental factor run over {} trade dates ({} to {}) failed", dates.size(),
+                    dates.get(0), dates.get(dates.size() - 1), e);
+        }
+    }
+
+    private FactorRunResult run(List<LocalDate> tradeDates) {
+        long startTime = System.currentTimeMillis();
+        FactorRunResult result = new FactorRunResult();
+        if (tradeDates.isEmpty()) {
+            return result;
+        }
+        synchronized (runLock) {
+            List<String> codes = stockRepository.findAll().stream()
+                    .map(Stock::getStockCode)
+                    .sorted()
+                    .collect(Collectors.toList());
+            for (int from = 0; from < tradeDates.size(); from += DATES_PER_BATCH) {
+                List<LocalDate> batch = tradeDates.subList(from, Math.min(from + DATES_PER_BATCH, tradeDates.size()));
+                result.setRowsWritten(result.getRowsWritten() + runBatch(codes, batch));
+                result.setTradeDates(result.getTradeDates() + batch.size());
+            }
+        }
+        result.setStartDate(tradeDates.get(0));
+        result.setEndDate(tradeDates.get(tradeDates.size() - 1));
+        result.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+        log.info("Factor run completed: {}", result.getSummary());
+        return result;
+    }
+
+    private int runBatch(List<String> codes, List<LocalDate> dates) {
+        List<LocalDate> lookbackDays = calendarService.getTradingDaysEndingAt(dates.get(0),
+                StockFactor.maxLookback() + LOOKBACK_MARGIN);
+        LocalDate loadStart = lookbackDays.isEmpty() ? dates.get(0) : lookbackDays.get(0);
+
+        // Phase 1: raw values per chunk of stocks
+        List<CompletableFuture<ChunkValues>> chunks = new ArrayList<>();
+        for (int from = 0; from < codes.size(); from += LOAD_CHUNK_SIZE) {
+            List<String> chunk = codes.subList(from, Math.min(from + LOAD_CHUNK_SIZE, codes.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> computeChunk(chunk, dates, loadStart), factorExecutor));
+        }
+        List<List<String>> dateCodes = new ArrayList<>(dates.size());
+        List<List<double[]>> dateValues = new ArrayList<>(dates.size());
+        for (int k = 0; k < dates.size(); k++) {
+            dateCodes.add(new ArrayList<>(codes.size()));
+            dateValues.add(new ArrayList<>(codes.size()));
+        }
+        for (CompletableFuture<ChunkValues> chunk : chunks) {
+            ChunkValues values = chunk.join();
+            for (int k = 0; k < dates.size(); k++) {
+                dateCodes.get(k).addAll(values.codes.get(k));
+                dateValues.get(k).addAll(values.values.get(k));
+            }
+        }
+
+        // Phase 2: standardize and write each date
+        List<CompletableFuture<Integer>> writes = new ArrayList<>(dates.size());
+        for (int k = 0; k < dates.size(); k++) {
+            LocalDate date = dates.get(k);
+            List<String> sectionCodes = dateCodes.get(k);
+            double[][] raw = dateValues.get(k).toArray(new double[0][]);
+            writes.add(CompletableFuture.supplyAsync(
+                    () -> factorRepository.replaceTradeDate(new FactorCrossSection(date, sectionCodes, raw)), factorExecutor));
+        }
+        int rows = 0;
+        for (CompletableFuture<Integer> write : writes) {
+            rows += write.join();
+        }
+        return rows;
+    }
+
+    /**
+     * Raw values of every date for a chunk of stocks; stocks suspended or without a bar on a date are skipped
+     */
+    private ChunkValues computeChunk(List<String> chunk, List<LocalDate> dates, LocalDate loadStart) {
+        LocalDate endDate = dates.get(dates.size() - 1);
+        Map<String, AdjustFactorSeries> factors = adjustFactorService.derives(AdjustFactorSeries.BACKWARD)
+                ? adjustFactorService.getFactorSeries(chunk) : Map.of();
+        List<String> derivedCodes = new ArrayList<>();
+        List<String> storedCodes = new ArrayList<>();
+        for (String code : chunk) {
+            AdjustFactorSeries factorSeries = factors.get(code);
+            (factorSeries != null && !factorSeries.isEmpty() ? derivedCodes : storedCodes).add(code);
+        }
+        List<BarSeries> loaded = new ArrayList<>(dailyRepository.findSeriesByStockCodes(
+                storedCodes, loadStart, endDate, AdjustFactorSeries.BACKWARD, null).values());
+        dailyRepository.findSeriesByStockCodes(derivedCodes, loadStart, endDate, AdjustFactorSeries.UNADJUSTED, null)
+                .forEach((code, series) -> loaded.add(factors.get(code).adjust(series, AdjustFactorSeries.BACKWARD)));
+
+        ChunkValues result = new ChunkValues(dates.size());
+        for (BarSeries series : loaded) {
+            for (int k = 0; k < dates.size(); k++) {
+                int index = series.indexOf(dates.get(k));
+                if (index < 0) {
+                    continue;
+                }
+                Short tradeStatus = series.getTradeStatus(index);
+                if (tradeStatus != null && tradeStatus == 0) {
+                    continue;
+                }
+                double[] values = new double[FACTOR_COUNT];
+                FactorCalculator.compute(series, index, values);
+                result.codes.get(k).add(series.getStockCode());
+                result.values.get(k).add(values);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether writes of an adjust flag can change factor inputs: stored backward-adjusted rows, plus
+     * unadjusted rows when backward bars are derived from them
+     */
+    private boolean isSourceFlag(Short adjustFlag) {
+        return adjustFlag != null && (adjustFlag == AdjustFactorSeries.BACKWARD
+                || adjustFlag == AdjustFactorSeries.UNADJUSTED && adjustFactorService.derives(AdjustFactorSeries.BACKWARD));
+    }
+
+    private static final class ChunkValues {
+        private final List<List<String>> codes;
+        private final List<List<double[]>> values;
+
+        private ChunkValues(int dates) {
+            this.codes = new ArrayList<>(dates);
+            this.values = new ArrayList<>(dates);
+            for (int k = 0; k < dates; k++) {
+                codes.add(new ArrayList<>());
+                values.add(new ArrayList<>());
+            }
+        }
+    }
+
+    /**
+     * Factor Run Result
+     */
+    @lombok.Data
+    public static class FactorRunResult {
+        private int tradeDates;
+        private int rowsWritten;
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private long processingTimeMs;
+
+        public String getSummary() {
+            return String.format("Computed %d trade dates (%s to %s): %d rows written in %dms",
+                    tradeDates, startDate, endDate, rowsWritten, processingTimeMs);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.quant.market.application.service;
+
+import com.quant.common.exception.BusinessException;
+import com.quant.common.response.ResultCode;
+import com.quant.market.application.dto.BarColumnsDTO;
+import com.quant.market.application.dto.BarSeriesSlice;
+import com.quant.market.application.dto.DailyQueryRequest;
+import com.quant.market.application.dto.IndicatorQueryRequest;
+import com.quant.market.domain.indicator.Indicator;
+import com.quant.market.domain.indicator.IndicatorEngine;
+import com.quant.market.domain.indicator.IndicatorSpec;
+import com.quant.market.domain.indicator.IndicatorWorkspace;
+import com.quant.market.domain.model.BarSeries;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stock Indicator Service
+ * 日线技术指标计算
+ *
+ * Indicators are computed by {@link IndicatorEngine} over the primitive columns of the bar series,
+ * using one reusable {@link IndicatorWorkspace} per request thread; only the returned window is
+ * boxed for the response.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockIndicatorService {
+
+    private static final ThreadLocal<IndicatorWorkspace> WORKSPACE = ThreadLocal.withInitial(IndicatorWorkspace::new);
+
+    /**
+     * Workspace slots: inputs first, then the outputs of the indicator being computed
+     */
+    private static final int CLOSE_SLOT = 0;
+    private static final int HIGH_SLOT = 1;
+    private static final int LOW_SLOT = 2;
+    private static final int OUTPUT_SLOT = 3;
+
+    private final StockDailyService dailyService;
+
+    /**
+     * Compute indicators for the bars of a stock
+     *
+     * Indicators are computed from the first stored bar up to endDate, so the values in the returned
+     * window are the same whatever the start date.
+     *
+     * @param request Stock, date range, adjust flag, indicators and bar columns
+     * @return Bar columns with indicator columns aligned to the same trade dates
+     */
+    public BarColumnsDTO queryIndicators(IndicatorQueryRequest request) {
+        Set<IndicatorSpec> specs = parseSpecs(request.getIndicators());
+        if (request.getStartDate() != null && request.getEndDate() != null
+                && request.getStartDate().isAfter(request.getEndDate())) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Start date must not be after end date");
+        }
+        int adjustFlag = request.getAdjustFlag() != null ? request.getAdjustFlag() : 3;
+        List<BarSeries.Field> fields = StockDailyService.resolveFields(request.getFields());
+
+        List<BarSeriesSlice> slices = dailyService.queryDailySeries(DailyQueryRequest.builder()
+                .stockCode(request.getStockCode())
+                .endDate(request.getEndDate())
+                .adjustFlag(adjustFlag)
+                .sortOrder("asc")
+                .build());
+        if (slices.isEmpty()) {
+            BarSeries empty = BarSeries.empty(request.getStockCode(), (short) adjustFlag);
+            BarColumnsDTO result = BarColumnsDTO.fromSeries(empty, 0, 0, fields);
+            result.setIndicators(emptyIndicators(specs));
+            return result;
+        }
+
+        BarSeriesSlice slice = slices.get(0);
+        BarSeries series = slice.series();
+        int n = slice.size();
+        int windowFrom = Math.min(Math.max(series.lowerBound(request.getStartDate()), slice.from()), slice.to());
+
+        long startNanos = System.nanoTime();
+        Map<String, Double[]> indicators = compute(series, slice.from(), slice.to(), specs, windowFrom - slice.from());
+        long micros = (System.nanoTime() - startNanos) / 1000;
+        log.debug("Computed {} indicators over {} bars of {} in {}us", specs.size(), n, series.getStockCode(), micros);
+
+        BarColumnsDTO result = BarColumnsDTO.fromSeries(series, windowFrom, slice.to(), fields);
+        result.setIndicators(indicators);
+        return result;
+    }
+
+    /**
+     * Compute indicators over series[from, to) and box the values from offset {@code windowOffset} on
+     */
+    private static Map<String, Double[]> compute(BarSeries series, int from, int to, Set<IndicatorSpec> specs,
+                                                 int windowOffset) {
+        IndicatorWorkspace workspace = WORKSPACE.get();
+        int n = to - from;
+        double[] close = series.copyDoubles(BarSeries.Field.CLOSE, from, to, workspace.buffer(CLOSE_SLOT, n));
+        double[] high = null;
+        double[] low = null;
+        if (specs.stream().anyMatch(spec -> spec.getIndicator() == Indicator.ATR)) {
+            high = series.copyDoubles(BarSeries.Field.HIGH, from, to, workspace.buffer(HIGH_SLOT, n));
+            low = series.copyDoubles(BarSeries.Field.LOW, from, to, workspace.buffer(LOW_SLOT, n));
+        }
+
+        Map<String, Double[]> result = new LinkedHashMap<>();
+        for (IndicatorSpec spec : specs) {
+            double[][] out = new double[spec.getIndicator().outputCount()][];
+            for (int k = 0; k < out.length; k++) {
+                out[k] = workspace.buffer(OUTPUT_SLOT + k, n);
+            }
+            IndicatorEngine.compute(spec, high, low, close, n, workspace, out);
+
+            List<String> names = spec.columnNames();
+            for (int k = 0; k < out.length; k++) {
+                result.put(names.get(k), box(out[k], windowOffset, n));
+            }
+        }
+        return result;
+    }
+
+    private static Set<IndicatorSpec> parseSpecs(List<String> indicators) {
+        Set<IndicatorSpec> specs = new LinkedHashSet<>();
+        for (String indicator : indicators) {
+            try {
+                specs.add(IndicatorSpec.parse(indicator));
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(), e.getMessage());
+            }
+        }
+        return specs;
+    }
+
+    private static Map<String, Double[]> emptyIndicators(Set<IndicatorSpec> specs) {
+        Map<String, Double[]> result = new LinkedHashMap<>();
+        for (IndicatorSpec spec : specs) {
+            spec.columnNames().forEach(name -> result.put(name, new Double[0]));
+        }
+        return result;
+    }
+
+    /**
+     * Box values[from, to) for JSON, NaN -> null
+     */
+    private static Double[] box(double[] values, int from, int to) {
+        Double[] boxed = new Double[to - from];
+        for (int i = from; i < to; i++) {
+            double value = values[i];
+            boxed[i - from] = Double.isNaN(value) ? null : value;
+        }
+        return boxed;
+    }
+}
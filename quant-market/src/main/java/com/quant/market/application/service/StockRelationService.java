@@ -2,15 +2,22 @@ package com.quant.market.application.service;
 
 import com.quant.common.exception.BusinessException;
 import com.quant.common.response.ResultCode;
+import com.quant.market.application.dto.FollowedStockDTO;
+import com.quant.market.application.dto.FollowedStockPageCursor;
+import com.quant.market.application.dto.FollowedStockPageDTO;
+import com.quant.market.domain.event.StockFollowChangedEvent;
+import com.quant.market.domain.model.FollowedStock;
 import com.quant.market.domain.model.Stock;
 import com.quant.market.domain.model.StockRelation;
 import com.quant.market.domain.repository.StockRelationRepository;
-import com.quant.market.domain.repository.StockRepository;
+import com.quant.market.infrastructure.cache.FollowedStockCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,8 +34,12 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class StockRelationService {
 
+    private static final int DEFAULT_FOLLOWED_PAGE_SIZE = 20;
+    private static final int MAX_FOLLOWED_PAGE_SIZE = 200;
+
     private final StockRelationRepository stockRelationRepository;
-    private final StockRepository stockRepository;
+    private final FollowedStockCache followedStockCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 添加关注（用户关注股票）
@@ -54,6 +65,7 @@ public class StockRelationService {
                 .build();
 
         StockRelation saved = stockRelationRepository.save(relation);
+        eventPublisher.publishEvent(new StockFollowChangedEvent(userId, stockCode, true));
         log.info("Stock relation created successfully: {}", saved.getId());
         return saved;
     }
@@ -76,6 +88,7 @@ public class StockRelationService {
 
         stockRelationRepository.deleteByStockCodeAndRefIdAndRefType(
                 stockCode, userId, StockRelation.RefType.STOCKS_USER_FOLLOWED);
+        eventPublisher.publishEvent(new StockFollowChangedEvent(userId, stockCode, false));
         log.info("Stock relation deleted successfully for user: {} and stock: {}", userId, stockCode);
     }
 
@@ -97,8 +110,7 @@ public class StockRelationService {
      * @return 是否已关注
      */
     public boolean isFollowing(Long userId, String stockCode) {
-        return stockRelationRepository.existsByStockCodeAndRefIdAndRefType(
-                stockCode, userId, StockRelation.RefType.STOCKS_USER_FOLLOWED);
+        return followedStockCache.isFollowing(userId, stockCode);
     }
 
     /**
@@ -113,45 +125,81 @@ public class StockRelationService {
 
     /**
      * 获取用户关注的股票详细信息（分页）
+     * 关注关系与 t_stock_basic 在数据库中关联并按关注时间排序，只读取当前页
      * @param userId 用户ID
-     * @param pageable 分页参数
+     * @param pageable 分页参数（仅支持按 createdAt 即关注时间排序，默认倒序）
      * @return 股票详细信息分页结果
      */
+    @Transactional(readOnly = true)
     public Page<Stock> getUserFollowedStocksWithDetails(Long userId, Pageable pageable) {
         log.info("Getting followed stocks with details for user: {}, page: {}, size: {}",
                 userId, pageable.getPageNumber(), pageable.getPageSize());
 
-        // 1. 获取用户关注的所有股票关联关系
-        List<StockRelation> relations = stockRelationRepository.findByRefIdAndRefType(
-                userId, StockRelation.RefType.STOCKS_USER_FOLLOWED);
-
-        if (relations.isEmpty()) {
-            log.info("User {} has no followed stocks", userId);
-            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        long total = stockRelationRepository.countFollowedStocks(userId, StockRelation.RefType.STOCKS_USER_FOLLOWED);
+        if (total == 0 || pageable.getOffset() >= total) {
+            return new PageImpl<>(Collections.emptyList(), pageable, total);
         }
 
-        // 2. 提取股票代码列表
-        List<String> stockCodes = relations.stream()
-                .map(StockRelation::getStockCode)
+        Sort.Order order = pageable.getSort().getOrderFor("createdAt");
+        boolean ascending = order != null && order.isAscending();
+        List<Stock> stocks = stockRelationRepository.findFollowedStocks(
+                        userId, StockRelation.RefType.STOCKS_USER_FOLLOWED, ascending,
+                        pageable.getOffset(), pageable.getPageSize()).stream()
+                .map(FollowedStock::getStock)
                 .collect(Collectors.toList());
 
-        // 3. 批量查询股票信息
-        List<Stock> allStocks = stockRepository.findByStockCodeIn(stockCodes);
-
-        // 4. 手动分页
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), allStocks.size());
+        log.info("Found {} followed stocks for user {}, returning page with {} items", total, userId, stocks.size());
+        return new PageImpl<>(stocks, pageable, total);
+    }
 
-        List<Stock> pagedStocks;
-        if (start > allStocks.size()) {
-            pagedStocks = Collections.emptyList();
-        } else {
-            pagedStocks = allStocks.subList(start, end);
+    /**
+     * 按关注时间倒序游标分页获取用户关注的股票
+     *
+     * Each page is one query joining t_stock_relation with t_stock_basic (and, when requested, the
+     * latest unadjusted bar of t_stock_daily) that continues strictly after the last row of the
+     * previous page, so deep pages cost the same as the first one.
+     *
+     * @param userId 用户ID
+     * @param cursor 上一页返回的 nextCursor，首页为 null
+     * @param pageSize 每页数量（默认 20，最大 200）
+     * @param includeLatestBar 是否附带最新日线
+     */
+    @Transactional(readOnly = true)
+    public FollowedStockPageDTO getUserFollowedStocksPage(Long userId, String cursor, Integer pageSize,
+                                                          boolean includeLatestBar) {
+        int size = pageSize != null ? pageSize : DEFAULT_FOLLOWED_PAGE_SIZE;
+        if (size <= 0 || size > MAX_FOLLOWED_PAGE_SIZE) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Page size must be between 1 and " + MAX_FOLLOWED_PAGE_SIZE + ". Received: " + size);
+        }
+        FollowedStockPageCursor after = cursor != null && !cursor.isBlank()
+                ? FollowedStockPageCursor.decode(cursor) : null;
+        log.info("Getting followed stocks page for user: {}, pageSize: {}, cursor: {}, includeLatestBar: {}",
+                userId, size, after != null, includeLatestBar);
+
+        // Fetch one extra row to learn whether another page follows
+        List<FollowedStock> rows = stockRelationRepository.findFollowedStocksAfter(
+                userId, StockRelation.RefType.STOCKS_USER_FOLLOWED,
+                after != null ? after.lastFollowedAt() : null,
+                after != null ? after.lastRelationId() : null,
+                size + 1, includeLatestBar);
+
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
         }
 
-        log.info("Found {} followed stocks for user {}, returning page with {} items",
-                allStocks.size(), userId, pagedStocks.size());
+        String nextCursor = null;
+        if (hasMore) {
+            FollowedStock last = rows.get(rows.size() - 1);
+            nextCursor = new FollowedStockPageCursor(last.getFollowedAt(), last.getRelationId()).encode();
+        }
 
-        return new PageImpl<>(pagedStocks, pageable, allStocks.size());
+        return FollowedStockPageDTO.builder()
+                .items(rows.stream().map(FollowedStockDTO::fromDomain).collect(Collectors.toList()))
+                .pageSize(size)
+                .hasMore(hasMore)
+                .nextCursor(nextCursor)
+                .build();
     }
 }
@@ -0,0 +1,261 @@
+package com.quant.market.application.service;
+
+import com.quant.common.exception.BusinessException;
+import com.quant.common.response.ResultCode;
+import com.quant.market.application.dto.ScreenRequest;
+import com.quant.market.application.dto.ScreenResultDTO;
+import com.quant.market.domain.model.AdjustFactorSeries;
+import com.quant.market.domain.model.BarSeries;
+import com.quant.market.domain.model.Stock;
+import com.quant.market.domain.repository.StockDailyRepository;
+import com.quant.market.domain.repository.StockRepository;
+import com.quant.market.domain.screener.ScreenContext;
+import com.quant.market.domain.screener.ScreenExpression;
+import com.quant.market.domain.screener.ScreenParser;
+import com.quant.market.domain.screener.ScreenPredicate;
+import com.quant.market.infrastructure.cache.StockDailyBarStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Stock Screener Service
+ * 全市场横截面选股
+ *
+ * The listed universe is split recursively across a dedicated {@link ForkJoinPool}; each leaf
+ * evaluates the parsed filter against the columnar bar series of its stocks with a thread-local
+ * {@link ScreenContext}, so a screen allocates little beyond the matches themselves. Series come
+ * from the {@link StockDailyBarStore} when it is enabled (a cold store loads each stock once);
+ * otherwise each leaf loads its chunk with one set-based query limited to the bars the filter needs.
+ */
+@Slf4j
+@Service
+public class StockScreenerService {
+
+    private static final ThreadLocal<ScreenContext> CONTEXT = ThreadLocal.withInitial(ScreenContext::new);
+
+    /**
+     * Smallest chunk of stocks evaluated by one fork-join leaf
+     */
+    private static final int MIN_LEAF_SIZE = 16;
+
+    private final StockRepository stockRepository;
+    private final StockDailyRepository dailyRepository;
+    private final StockDailyBarStore barStore;
+    private final StockAdjustFactorService adjustFactorService;
+    private final ForkJoinPool screenerPool;
+
+    public StockScreenerService(StockRepository stockRepository,
+                                StockDailyRepository dailyRepository,
+                                StockDailyBarStore barStore,
+                                StockAdjustFactorService adjustFactorService,
+                                @Qualifier("screenerPool") ForkJoinPool screenerPool) {
+        this.stockRepository = stockRepository;
+        this.dailyRepository = dailyRepository;
+        this.barStore = barStore;
+        this.adjustFactorService = adjustFactorService;
+        this.screenerPool = screenerPool;
+    }
+
+    /**
+     * Screen all listed stocks on one trade date
+     *
+     * @param request Filter, optional ranking expression, limit, adjust flag and trade date
+     * @return Matches ordered by the ranking expression (or by stock code), with the filter columns
+     */
+    public ScreenResultDTO screen(ScreenRequest request) {
+        long startTime = System.currentTimeMillis();
+        ScreenPredicate filter;
+        ScreenExpression rankBy;
+        try {
+            filter = ScreenParser.parsePredicate(request.getFilter());
+            rankBy = request.getRankBy() != null && !request.getRankBy().isBlank()
+                    ? ScreenParser.parseExpression(request.getRankBy()) : null;
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(), e.getMessage());
+        }
+        short adjustFlag = request.getAdjustFlag() != null ? request.getAdjustFlag().shortValue() : 3;
+        boolean descending = request.getDescending() == null || request.getDescending();
+        int limit = request.getLimit() != null ? request.getLimit() : 100;
+
+        LocalDate tradeDate = request.getTradeDate() != null ? request.getTradeDate() : dailyRepository.findLatestTradeDate();
+        List<Stock> stocks = stockRepository.findByStatus(Stock.StockStatus.L);
+        String[] codes = new String[stocks.size()];
+        Map<String, String> names = new LinkedHashMap<>(stocks.size() * 2);
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = stocks.get(i).getStockCode();
+            names.put(codes[i], stocks.get(i).getStockName());
+        }
+        Arrays.sort(codes);
+
+        Map<String, ScreenExpression> columns = new LinkedHashMap<>();
+        filter.collectColumns(columns);
+        int requiredBars = rankBy != null ? Math.max(filter.requiredBars(), rankBy.requiredBars()) : filter.requiredBars();
+
+        Screen screen = new Screen(filter, rankBy, columns, tradeDate, adjustFlag, requiredBars);
+        LeafResult result = tradeDate == null || codes.length == 0
+                ? new LeafResult()
+                : screenerPool.invoke(new ScreenTask(screen, codes, 0, codes.length, leafSize(codes.length)));
+
+        List<ScreenResultDTO.Match> matches = result.matches;
+        matches.sort(ordering(rankBy != null, descending));
+        int matched = matches.size();
+        if (matches.size() > limit) {
+            matches = new ArrayList<>(matches.subList(0, limit));
+        }
+        for (int i = 0; i < matches.size(); i++) {
+            ScreenResultDTO.Match match = matches.get(i);
+            match.setRank(i + 1);
+            match.setStockName(names.get(match.getStockCode()));
+        }
+
+        long processingTime = System.currentTimeMillis() - startTime;
+        log.info("Screened {} stocks on {} (adjustFlag={}): evaluated={}, matched={}, filter={}, time={}ms",
+                codes.length, tradeDate, adjustFlag, result.evaluated, matched, filter.label(), processingTime);
+        return ScreenResultDTO.builder()
+                .tradeDate(tradeDate)
+                .adjustFlag(adjustFlag)
+                .filter(filter.label())
+                .rankBy(rankBy != null ? rankBy.label() : null)
+                .universe(codes.length)
+                .evaluated(result.evaluated)
+                .matched(matched)
+                .processingTimeMs(processingTime)
+                .matches(matches)
+                .build();
+    }
+
+    private int leafSize(int universe) {
+        return Math.max(MIN_LEAF_SIZE, universe / (screenerPool.getParallelism() * 4));
+    }
+
+    /**
+     * Score order (missing scores last), then stock code
+     */
+    private static Comparator<ScreenResultDTO.Match> ordering(boolean ranked, boolean descending) {
+        Comparator<ScreenResultDTO.Match> byCode = Comparator.comparing(ScreenResultDTO.Match::getStockCode);
+        if (!ranked) {
+            return byCode;
+        }
+        Comparator<Double> scoreOrder = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        return Comparator.comparing(ScreenResultDTO.Match::getScore, Comparator.nullsLast(scoreOrder)).thenComparing(byCode);
+    }
+
+    /**
+     * Evaluate the screen for codes[from, to)
+     */
+    private LeafResult evaluate(Screen screen, String[] codes, int from, int to) {
+        LeafResult result = new LeafResult();
+        List<String> chunk = Arrays.asList(codes).subList(from, to);
+        // Only stocks with factors are derived from unadjusted bars; the rest keep their stored rows of the flag
+        Map<String, AdjustFactorSeries> factors = adjustFactorService.derives(screen.adjustFlag)
+                ? adjustFactorService.getFactorSeries(chunk) : Map.of();
+        List<String> derivedCodes = new ArrayList<>();
+        List<String> storedCodes = new ArrayList<>();
+        for (String code : chunk) {
+            AdjustFactorSeries factorSeries = factors.get(code);
+            (factorSeries != null && !factorSeries.isEmpty() ? derivedCodes : storedCodes).add(code);
+        }
+        Map<String, BarSeries> loaded = null;
+        if (!barStore.isEnabled()) {
+            Integer lastN = screen.requiredBars == ScreenExpression.ALL_BARS ? null : screen.requiredBars;
+            loaded = new HashMap<>(dailyRepository.findSeriesByStockCodes(
+                    storedCodes, null, screen.tradeDate, screen.adjustFlag, lastN));
+            loaded.putAll(dailyRepository.findSeriesByStockCodes(
+                    derivedCodes, null, screen.tradeDate, AdjustFactorSeries.UNADJUSTED, lastN));
+        }
+
+        ScreenContext context = CONTEXT.get();
+        for (String code : chunk) {
+            AdjustFactorSeries factorSeries = factors.get(code);
+            boolean derived = factorSeries != null && !factorSeries.isEmpty();
+            short loadFlag = derived ? AdjustFactorSeries.UNADJUSTED : screen.adjustFlag;
+            BarSeries series = loaded != null ? loaded.get(code) : barStore.getSeries(code, loadFlag);
+            if (series == null) {
+                continue;
+            }
+            int index = series.indexOf(screen.tradeDate);
+            if (index < 0) {
+                continue;
+            }
+            if (derived) {
+                series = factorSeries.adjust(series, screen.adjustFlag);
+            }
+            result.evaluated++;
+            context.reset(series, index);
+            if (!screen.filter.test(context)) {
+                continue;
+            }
+            Map<String, Double> values = new LinkedHashMap<>();
+            screen.columns.forEach((label, column) -> values.put(label, boxed(column.evaluate(context))));
+            result.matches.add(ScreenResultDTO.Match.builder()
+                    .stockCode(code)
+                    .score(screen.rankBy != null ? boxed(screen.rankBy.evaluate(context)) : null)
+                    .values(values)
+                    .build());
+        }
+        return result;
+    }
+
+    private static Double boxed(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private record Screen(ScreenPredicate filter, ScreenExpression rankBy, Map<String, ScreenExpression> columns,
+                          LocalDate tradeDate, short adjustFlag, int requiredBars) {
+    }
+
+    private static final class LeafResult {
+        private final List<ScreenResultDTO.Match> matches = new ArrayList<>();
+        private int evaluated;
+
+        private LeafResult merge(LeafResult other) {
+            matches.addAll(other.matches);
+            evaluated += other.evaluated;
+            return this;
+        }
+    }
+
+    /**
+     * Halves the code range until it is at most one leaf long
+     */
+    private final class ScreenTask extends RecursiveTask<LeafResult> {
+
+        private final Screen screen;
+        private final String[] codes;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        private ScreenTask(Screen screen, String[] codes, int from, int to, int leafSize) {
+            this.screen = screen;
+            this.codes = codes;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected LeafResult compute() {
+            if (to - from <= leafSize) {
+                return evaluate(screen, codes, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            ScreenTask left = new ScreenTask(screen, codes, from, mid, leafSize);
+            left.fork();
+            LeafResult right = new ScreenTask(screen, codes, mid, to, leafSize).compute();
+            return left.join().merge(right);
+        }
+    }
+}
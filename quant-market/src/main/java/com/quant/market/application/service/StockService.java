@@ -6,15 +6,22 @@ import com.quant.market.application.dto.BatchCreateStockRequest;
 import com.quant.market.application.dto.CreateStockRequest;
 import com.quant.market.application.dto.StockDTO;
 import com.quant.market.application.dto.StockQueryRequest;
+import com.quant.market.application.dto.StockSuggestionDTO;
 import com.quant.market.application.dto.UpdateStockRequest;
+import com.quant.market.domain.event.StockChangedEvent;
 import com.quant.market.domain.model.Stock;
-import com.quant.market.domain.model.StockRelation;
-import com.quant.market.domain.repository.StockRelationRepository;
+import com.quant.market.domain.model.UpsertResult;
 import com.quant.market.domain.repository.StockRepository;
 import lombok.RequiredArgsConstructor;
+import com.quant.market.infrastructure.cache.FollowedStockCache;
+import com.quant.market.infrastructure.cache.StockAutocompleteIndex;
+import com.quant.market.infrastructure.cache.StockUniverseIndex;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,8 +38,13 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class StockService {
 
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final StockRepository stockRepository;
-    private final StockRelationRepository stockRelationRepository;
+    private final StockUniverseIndex universeIndex;
+    private final FollowedStockCache followedStockCache;
+    private final StockAutocompleteIndex autocompleteIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Create new stock
@@ -50,6 +62,7 @@ public class StockService {
 
         Stock stock = request.toDomain();
         Stock saved = stockRepository.save(stock);
+        eventPublisher.publishEvent(new StockChangedEvent(List.of(saved.getStockCode())));
 
         log.info("Stock created successfully: {}", saved.getId());
         return StockDTO.fromDomain(saved);
@@ -110,6 +123,7 @@ public class StockService {
         }
 
         Stock updated = stockRepository.save(stock);
+        eventPublisher.publishEvent(new StockChangedEvent(List.of(updated.getStockCode())));
 
         log.info("Stock updated successfully: {}", id);
         return StockDTO.fromDomain(updated);
@@ -203,6 +217,23 @@ public class StockService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Suggest stocks by code, name, pinyin initials or English name fragment
+     * 股票联想搜索
+     *
+     * @param query Partially typed text
+     * @param limit Maximum number of suggestions (1-50)
+     */
+    public List<StockSuggestionDTO> autocomplete(String query, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return autocompleteIndex.suggest(query, limit).stream()
+                .map(StockSuggestionDTO::fromSuggestion)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Get stocks by industry
      */
@@ -222,11 +253,11 @@ public class StockService {
     public void deleteStock(Long id) {
         log.info("Deleting stock: {}", id);
 
-        if (!stockRepository.findById(id).isPresent()) {
-            throw new BusinessException(ResultCode.NOT_FOUND.getCode(), "Stock not found: " + id);
-        }
+        Stock stock = stockRepository.findById(id)
+                .orElseThrow(() -> new BusinessException(ResultCode.NOT_FOUND.getCode(), "Stock not found: " + id));
 
         stockRepository.deleteById(id);
+        eventPublisher.publishEvent(new StockChangedEvent(List.of(stock.getStockCode())));
         log.info("Stock deleted successfully: {}", id);
     }
 
@@ -288,12 +319,20 @@ public class StockService {
         }
 
         // Batch upsert all stocks at once (insert or update)
-        int affectedRows = 0;
         if (!stocksToUpsert.isEmpty()) {
             try {
-                affectedRows = stockRepository.batchUpsert(stocksToUpsert);
-                result.setSuccess(affectedRows);
-                log.info("Batch upsert affected {} rows", affectedRows);
+                UpsertResult upsertResult = stockRepository.batchUpsert(stocksToUpsert);
+                result.setSuccess(upsertResult.total());
+                result.setInserted(upsertResult.inserted());
+                result.setUpdated(upsertResult.updated());
+                result.setUnchanged(upsertResult.unchanged());
+                log.info("Batch upsert: {} inserted, {} updated, {} unchanged",
+                        upsertResult.inserted(), upsertResult.updated(), upsertResult.unchanged());
+                if (upsertResult.inserted() + upsertResult.updated() > 0) {
+                    eventPublisher.publishEvent(new StockChangedEvent(stocksToUpsert.stream()
+                            .map(Stock::getStockCode)
+                            .collect(Collectors.toList())));
+                }
             } catch (Exception e) {
                 log.error("Error during batch upsert", e);
                 errors.add("Batch upsert error: " + e.getMessage());
@@ -337,6 +376,22 @@ public class StockService {
                     .collect(Collectors.toList());
         }
 
+        boolean paged = request.getPage() != null && request.getSize() != null;
+        if (paged && (request.getPage() < 0 || request.getSize() < 1)) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Page must not be negative and size must be positive");
+        }
+        StockUniverseIndex.SortKey sortKey = paged ? resolveSortKey(request.getSortBy()) : null;
+        boolean ascending = paged && resolveAscending(request.getSortDir());
+
+        if (universeIndex.isEnabled()) {
+            return queryIndexedStocks(request, statuses, exchanges, sortKey, ascending, userId);
+        }
+
+        if (paged) {
+            return queryPagedStocks(request, statuses, exchanges, sortKey, ascending, userId);
+        }
+
         List<Stock> stocks = stockRepository.queryStocks(
                 request.getListingDateFrom(),
                 request.getListingDateTo(),
@@ -346,80 +401,115 @@ public class StockService {
                 exchanges
         );
 
-        log.info("Found {} stocks matching the query conditions", stocks.size());
-
-        // Check if pagination is requested
-        if (request.getPage() != null && request.getSize() != null) {
-            // Return paginated result
-            int page = request.getPage();
-            int size = request.getSize();
-            String sortBy = request.getSortBy() != null ? request.getSortBy() : "createdAt";
-            String sortDir = request.getSortDir() != null ? request.getSortDir() : "desc";
-
-            // Manual pagination
-            int totalElements = stocks.size();
-            int fromIndex = page * size;
-            int toIndex = Math.min(fromIndex + size, totalElements);
-
-            List<StockDTO> pagedStocks;
-            if (fromIndex >= totalElements) {
-                pagedStocks = new ArrayList<>();
-            } else {
-                // Apply sorting
-                stocks.sort((s1, s2) -> {
-                    int comparison = 0;
-                    switch (sortBy) {
-                        case "stockCode":
-                            comparison = s1.getStockCode().compareTo(s2.getStockCode());
-                            break;
-                        case "stockName":
-                            comparison = s1.getStockName().compareTo(s2.getStockName());
-                            break;
-                        case "exchange":
-                            comparison = s1.getExchange().compareTo(s2.getExchange());
-                            break;
-                        case "listingDate":
-                            comparison = s1.getListingDate().compareTo(s2.getListingDate());
-                            break;
-                        case "createdAt":
-                        default:
-                            comparison = s1.getCreatedAt().compareTo(s2.getCreatedAt());
-                            break;
-                    }
-                    return sortDir.equalsIgnoreCase("asc") ? comparison : -comparison;
-                });
-
-                pagedStocks = stocks.subList(fromIndex, toIndex).stream()
-                        .map(StockDTO::fromDomain)
-                        .collect(Collectors.toList());
-            }
+        // Return all results without pagination
+        List<StockDTO> stockDTOs = stocks.stream()
+                .map(StockDTO::fromDomain)
+                .collect(Collectors.toList());
 
-            // 批量设置 isFollowed 字段
-            setIsFollowedBatch(pagedStocks, userId);
-
-            // Create PageResult
-            com.quant.common.response.PageResult<StockDTO> pageResult =
-                    com.quant.common.response.PageResult.success(
-                            pagedStocks,
-                            page,
-                            size,
-                            (long) totalElements
-                    );
-
-            log.info("Returning paginated result: page={}, size={}, total={}", page, size, totalElements);
-            return pageResult;
-        } else {
-            // Return all results without pagination
-            List<StockDTO> stockDTOs = stocks.stream()
-                    .map(StockDTO::fromDomain)
-                    .collect(Collectors.toList());
+        // 批量设置 isFollowed 字段
+        setIsFollowedBatch(stockDTOs, userId);
 
-            // 批量设置 isFollowed 字段
-            setIsFollowedBatch(stockDTOs, userId);
+        log.info("Returning all {} results without pagination", stockDTOs.size());
+        return stockDTOs;
+    }
 
-            log.info("Returning all {} results without pagination", stockDTOs.size());
+    /**
+     * Query one page of stocks with ORDER BY, LIMIT/OFFSET and a count query in the database,
+     * so only the requested page is loaded; the primary key breaks ties for a stable order
+     */
+    private Object queryPagedStocks(StockQueryRequest request, List<Stock.StockStatus> statuses,
+                                    List<Stock.Exchange> exchanges, StockUniverseIndex.SortKey sortKey,
+                                    boolean ascending, Long userId) {
+        Sort sort = Sort.by(ascending ? Sort.Direction.ASC : Sort.Direction.DESC, sortKey.getField())
+                .and(Sort.by(Sort.Direction.ASC, "id"));
+        Page<Stock> page = stockRepository.queryStocks(
+                request.getListingDateFrom(),
+                request.getListingDateTo(),
+                request.getKeyword(),
+                statuses,
+                request.getIndustries(),
+                exchanges,
+                PageRequest.of(request.getPage(), request.getSize(), sort));
+
+        List<StockDTO> pagedStocks = page.getContent().stream()
+                .map(StockDTO::fromDomain)
+                .collect(Collectors.toList());
+
+        // 批量设置 isFollowed 字段
+        setIsFollowedBatch(pagedStocks, userId);
+
+        log.info("Returning paginated result: page={}, size={}, total={}",
+                request.getPage(), request.getSize(), page.getTotalElements());
+        return com.quant.common.response.PageResult.success(
+                pagedStocks, request.getPage(), request.getSize(), page.getTotalElements());
+    }
+
+    /**
+     * Resolve sortBy against the sortable fields, default: createdAt
+     */
+    private static StockUniverseIndex.SortKey resolveSortKey(String sortBy) {
+        if (sortBy == null || sortBy.isBlank()) {
+            return StockUniverseIndex.SortKey.CREATED_AT;
+        }
+        StockUniverseIndex.SortKey sortKey = StockUniverseIndex.SortKey.fromField(sortBy);
+        if (sortKey == null) {
+            throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                    "Unsupported sortBy: " + sortBy + ", expected one of stockCode, stockName, exchange, listingDate, createdAt");
+        }
+        return sortKey;
+    }
+
+    /**
+     * Resolve sortDir, default: desc
+     */
+    private static boolean resolveAscending(String sortDir) {
+        if (sortDir == null || sortDir.isBlank() || "desc".equalsIgnoreCase(sortDir)) {
+            return false;
+        }
+        if ("asc".equalsIgnoreCase(sortDir)) {
+            return true;
+        }
+        throw new BusinessException(ResultCode.VALIDATION_ERROR.getCode(),
+                "Unsupported sortDir: " + sortDir + ", expected asc or desc");
+    }
+
+    /**
+     * Query stocks from the in-memory universe index: filters are bitmap operations and sorted
+     * pages are scans of precomputed orders, with no database access
+     */
+    private Object queryIndexedStocks(StockQueryRequest request, List<Stock.StockStatus> statuses,
+                                      List<Stock.Exchange> exchanges, StockUniverseIndex.SortKey sortKey,
+                                      boolean ascending, Long userId) {
+        boolean paged = sortKey != null;
+        int offset = 0;
+        int limit = Integer.MAX_VALUE;
+        if (paged) {
+            offset = (int) Math.min((long) request.getPage() * request.getSize(), Integer.MAX_VALUE);
+            limit = request.getSize();
+        }
+
+        StockUniverseIndex.QueryResult result = universeIndex.query(
+                request.getListingDateFrom(),
+                request.getListingDateTo(),
+                request.getKeyword(),
+                statuses,
+                request.getIndustries(),
+                exchanges,
+                sortKey, ascending, offset, limit);
+
+        List<StockDTO> stockDTOs = result.stocks().stream()
+                .map(StockDTO::fromDomain)
+                .collect(Collectors.toList());
+        setIsFollowedBatch(stockDTOs, userId);
+
+        if (!paged) {
+            log.info("Returning all {} results from the universe index", stockDTOs.size());
             return stockDTOs;
         }
+        log.info("Returning paginated result from the universe index: page={}, size={}, total={}",
+                request.getPage(), request.getSize(), result.total());
+        return com.quant.common.response.PageResult.success(
+                stockDTOs, request.getPage(), request.getSize(), (long) result.total());
     }
 
     /**
@@ -438,17 +528,8 @@ public class StockService {
             return;
         }
 
-        // 提取所有股票代码
-        List<String> stockCodes = stockDTOs.stream()
-                .map(StockDTO::getStockCode)
-                .collect(Collectors.toList());
-
-        // 批量查询用户关注的股票代码
-        List<String> followedStockCodes = stockRelationRepository.findFollowedStockCodes(
-                stockCodes, userId, StockRelation.RefType.STOCKS_USER_FOLLOWED);
-
-        // 转换为Set以便快速查找
-        Set<String> followedSet = new HashSet<>(followedStockCodes);
+        // 用户关注集合（内存缓存，未命中时加载一次）
+        FollowedStockCache.FollowedSet followedSet = followedStockCache.get(userId);
 
         // 批量设置 isFollowed 字段
         stockDTOs.forEach(dto -> dto.setIsFollowed(followedSet.contains(dto.getStockCode())));
@@ -461,13 +542,16 @@ public class StockService {
     public static class BatchCreateResult {
         private int total;
         private int success;
+        private int inserted;
+        private int updated;
+        private int unchanged;
         private int failed;
         private List<String> errors = new ArrayList<>();
         private long processingTimeMs;
 
         public String getSummary() {
-            return String.format("Total: %d, Success: %d, Failed: %d, Time: %dms",
-                    total, success, failed, processingTimeMs);
+            return String.format("Total: %d, Success: %d (Inserted: %d, Updated: %d, Unchanged: %d), Failed: %d, Time: %dms",
+                    total, success, inserted, updated, unchanged, failed, processingTimeMs);
         }
     }
 }
@@ -8,11 +8,13 @@ import com.quant.market.infrastructure.persistence.repository.TradingCalendarBat
 import com.quant.market.infrastructure.persistence.repository.TradingCalendarJpaRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -171,6 +173,20 @@ public class TradingCalendarService {
         return TradingCalendarDTO.fromEntity(entity);
     }
 
+    /**
+     * Get the latest trading days on or before the end date
+     *
+     * @param endDate End date (inclusive)
+     * @param count Number of trading days
+     * @return Trading days ascending; fewer than count when the calendar starts later
+     */
+    @Transactional(readOnly = true)
+    public List<LocalDate> getTradingDaysEndingAt(LocalDate endDate, int count) {
+        List<LocalDate> days = new ArrayList<>(jpaRepository.findTradingDaysOnOrBefore(endDate, PageRequest.of(0, count)));
+        Collections.reverse(days);
+        return days;
+    }
+
     /**
      * Batch Upsert Result DTO
      */
@@ -0,0 +1,36 @@
+package com.quant.market.domain.event;
+
+import com.quant.common.domain.DomainEvent;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Stock Adjust Factor Changed Event
+ * 复权因子变更事件，批量写入 t_stock_adjust_factor 后发布，用于重建依赖复权因子的派生数据
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class StockAdjustFactorChangedEvent extends DomainEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Stocks whose factors were written
+     */
+    private final Set<String> stockCodes;
+
+    /**
+     * Earliest ex-date among the written factors; adjusted prices change from this date on
+     */
+    private final LocalDate earliestExDate;
+
+    public StockAdjustFactorChangedEvent(Collection<String> stockCodes, LocalDate earliestExDate) {
+        super();
+        this.stockCodes = Set.copyOf(stockCodes);
+        this.earliestExDate = earliestExDate;
+    }
+}
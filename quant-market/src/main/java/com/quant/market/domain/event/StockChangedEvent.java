@@ -0,0 +1,29 @@
+package com.quant.market.domain.event;
+
+import com.quant.common.domain.DomainEvent;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Stock Changed Event
+ * 股票基础信息变更事件，写入 t_stock_basic 后发布，用于刷新内存中的股票索引
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class StockChangedEvent extends DomainEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Stocks that were created, updated or deleted
+     */
+    private final Set<String> stockCodes;
+
+    public StockChangedEvent(Collection<String> stockCodes) {
+        super();
+        this.stockCodes = Set.copyOf(stockCodes);
+    }
+}
@@ -0,0 +1,73 @@
+package com.quant.market.domain.event;
+
+import com.quant.common.domain.DomainEvent;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stock Daily Changed Event
+ * 日线数据变更事件，批量写入 t_stock_daily 后发布，用于刷新内存缓存
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class StockDailyChangedEvent extends DomainEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Write operation that produced the change
+     */
+    private final ChangeType changeType;
+
+    /**
+     * Keys of the rows that were written
+     */
+    private final List<BarKey> keys;
+
+    public StockDailyChangedEvent(ChangeType changeType, List<BarKey> keys) {
+        super();
+        this.changeType = changeType;
+        this.keys = List.copyOf(keys);
+    }
+
+    /**
+     * Distinct stock codes touched by this change
+     */
+    public Set<String> getStockCodes() {
+        Set<String> stockCodes = new LinkedHashSet<>();
+        for (BarKey key : keys) {
+            stockCodes.add(key.stockCode());
+        }
+        return stockCodes;
+    }
+
+    /**
+     * Distinct trade dates touched by this change
+     */
+    public Set<LocalDate> getTradeDates() {
+        Set<LocalDate> tradeDates = new LinkedHashSet<>();
+        for (BarKey key : keys) {
+            tradeDates.add(key.tradeDate());
+        }
+        return tradeDates;
+    }
+
+    /**
+     * Write operation type
+     */
+    public enum ChangeType {
+        INSERT,
+        UPSERT
+    }
+
+    /**
+     * Natural key of a daily bar: (stock_code, trade_date, adjust_flag)
+     */
+    public record BarKey(String stockCode, LocalDate tradeDate, Short adjustFlag) implements java.io.Serializable {
+    }
+}
@@ -0,0 +1,31 @@
+package com.quant.market.domain.event;
+
+import com.quant.common.domain.DomainEvent;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Stock Follow Changed Event
+ * 用户关注/取消关注股票事件，写入 t_stock_relation 后发布，用于同步内存中的关注集合
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class StockFollowChangedEvent extends DomainEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long userId;
+    private final String stockCode;
+
+    /**
+     * true for follow, false for unfollow
+     */
+    private final boolean followed;
+
+    public StockFollowChangedEvent(Long userId, String stockCode, boolean followed) {
+        super();
+        this.userId = userId;
+        this.stockCode = stockCode;
+        this.followed = followed;
+    }
+}
@@ -0,0 +1,111 @@
+package com.quant.market.domain.factor;
+
+import com.quant.market.domain.model.BarSeries;
+
+/**
+ * Factor Calculator
+ * 单只股票在某根日线上的因子原始值
+ *
+ * Values are NaN when an input is missing or there are fewer bars than the lookback of the factor.
+ */
+public final class FactorCalculator {
+
+    private static final double TRADING_DAYS_PER_YEAR = 252;
+
+    private static final double AMOUNT_UNIT = 1e8;
+
+    private FactorCalculator() {
+    }
+
+    /**
+     * Compute every factor on bar {@code index} of a backward-adjusted series
+     *
+     * @param out Raw values in {@link StockFactor} ordinal order
+     */
+    public static void compute(BarSeries series, int index, double[] out) {
+        for (StockFactor factor : StockFactor.values()) {
+            out[factor.ordinal()] = index + 1 < factor.getLookback() ? Double.NaN : compute(factor, series, index);
+        }
+    }
+
+    private static double compute(StockFactor factor, BarSeries series, int index) {
+        return switch (factor) {
+            case EP -> inverse(series.getDouble(BarSeries.Field.PE_TTM, index));
+            case BP -> inverse(series.getDouble(BarSeries.Field.PB_MRQ, index));
+            case SP -> inverse(series.getDouble(BarSeries.Field.PS_TTM, index));
+            case CFP -> inverse(series.getDouble(BarSeries.Field.PCF_NCF_TTM, index));
+            case MOM_20 -> growth(series, index - 20, index);
+            case MOM_60 -> growth(series, index - 60, index);
+            case MOM_250_20 -> growth(series, index - 250, index - 20);
+            case TURN_20 -> mean(series, BarSeries.Field.TURN, index, 20);
+            case ILLIQ_20 -> illiquidity(series, index, 20);
+            case VOL_20 -> volatility(series, index, 20);
+            case VOL_60 -> volatility(series, index, 60);
+        };
+    }
+
+    private static double inverse(double value) {
+        return value != 0 && !Double.isNaN(value) ? 1 / value : Double.NaN;
+    }
+
+    private static double close(BarSeries series, int index) {
+        double close = series.getDouble(BarSeries.Field.CLOSE, index);
+        return close > 0 ? close : Double.NaN;
+    }
+
+    private static double growth(BarSeries series, int from, int to) {
+        return close(series, to) / close(series, from) - 1;
+    }
+
+    /**
+     * Mean of the non-missing values of the last {@code bars} bars; NaN when more than half are missing
+     */
+    private static double mean(BarSeries series, BarSeries.Field field, int index, int bars) {
+        double sum = 0;
+        int count = 0;
+        for (int i = index - bars + 1; i <= index; i++) {
+            double value = series.getDouble(field, i);
+            if (!Double.isNaN(value)) {
+                sum += value;
+                count++;
+            }
+        }
+        return count * 2 > bars ? sum / count : Double.NaN;
+    }
+
+    private static double illiquidity(BarSeries series, int index, int bars) {
+        double sum = 0;
+        int count = 0;
+        for (int i = index - bars + 1; i <= index; i++) {
+            double amount = series.getDouble(BarSeries.Field.AMOUNT, i);
+            double dailyReturn = growth(series, i - 1, i);
+            if (amount > 0 && !Double.isNaN(dailyReturn)) {
+                sum += Math.abs(dailyReturn) / (amount / AMOUNT_UNIT);
+                count++;
+            }
+        }
+        return count * 2 > bars ? sum / count : Double.NaN;
+    }
+
+    /**
+     * Annualized sample standard deviation of the daily returns of the last {@code bars} bars
+     */
+    private static double volatility(BarSeries series, int index, int bars) {
+        double sum = 0;
+        double sumSquares = 0;
+        int count = 0;
+        for (int i = index - bars + 1; i <= index; i++) {
+            double dailyReturn = growth(series, i - 1, i);
+            if (!Double.isNaN(dailyReturn)) {
+                sum += dailyReturn;
+                sumSquares += dailyReturn * dailyReturn;
+                count++;
+            }
+        }
+        if (count * 2 <= bars || count < 2) {
+            return Double.NaN;
+        }
+        double variance = (sumSquares - sum * sum / count) / (count - 1);
+        return Math.sqrt(Math.max(variance, 0) * TRADING_DAYS_PER_YEAR);
+    }
+}
@@ -0,0 +1,154 @@
+package com.quant.market.domain.factor;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Factor Cross Section
+ * 某交易日全市场的因子原始值、z-score 与排名
+ *
+ * Values are held per factor as primitive columns indexed like the stock codes. Each factor is
+ * standardized over the stocks with a value: z-scores are clipped to ±{@value #Z_LIMIT} so a few
+ * outliers do not dominate, and ranks give 1 to the largest value, with ties sharing the best rank.
+ */
+public final class FactorCrossSection {
+
+    public static final double Z_LIMIT = 3;
+
+    private static final int FACTOR_COUNT = StockFactor.values().length;
+
+    private final LocalDate tradeDate;
+    private final List<String> stockCodes;
+    private final double[][] raw;
+    private final double[][] zScores;
+    private final int[][] ranks;
+    private final int[] counts;
+
+    /**
+     * @param tradeDate Trade date
+     * @param stockCodes Stocks with a bar on the trade date
+     * @param raw Raw values, [stock][factor ordinal]; NaN when missing
+     */
+    public FactorCrossSection(LocalDate tradeDate, List<String> stockCodes, double[][] raw) {
+        this.tradeDate = tradeDate;
+        this.stockCodes = stockCodes;
+        this.raw = raw;
+        this.zScores = new double[FACTOR_COUNT][stockCodes.size()];
+        this.ranks = new int[FACTOR_COUNT][stockCodes.size()];
+        this.counts = new int[FACTOR_COUNT];
+        for (StockFactor factor : StockFactor.values()) {
+            standardize(factor.ordinal());
+        }
+    }
+
+    private void standardize(int f) {
+        int n = stockCodes.size();
+        int[] present = new int[n];
+        int count = 0;
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            double value = raw[i][f];
+            if (Double.isFinite(value)) {
+                present[count++] = i;
+                sum += value;
+            } else {
+                raw[i][f] = Double.NaN;
+            }
+        }
+        counts[f] = count;
+        if (count == 0) {
+            return;
+        }
+
+        double mean = sum / count;
+        double squares = 0;
+        for (int k = 0; k < count; k++) {
+            double deviation = raw[present[k]][f] - mean;
+            squares += deviation * deviation;
+        }
+        double deviation = count > 1 ? Math.sqrt(squares / (count - 1)) : 0;
+        for (int k = 0; k < count; k++) {
+            int i = present[k];
+            double z = deviation > 0 ? (raw[i][f] - mean) / deviation : 0;
+            zScores[f][i] = Math.max(-Z_LIMIT, Math.min(Z_LIMIT, z));
+        }
+
+        // Rank = 1 + number of strictly larger values, found by binary search in the sorted values
+        double[] sorted = new double[count];
+        for (int k = 0; k < count; k++) {
+            sorted[k] = raw[present[k]][f];
+        }
+        Arrays.sort(sorted);
+        for (int k = 0; k < count; k++) {
+            int i = present[k];
+            ranks[f][i] = 1 + count - upperBound(sorted, raw[i][f]);
+        }
+    }
+
+    /**
+     * Index of the first element greater than the value
+     */
+    private static int upperBound(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public LocalDate getTradeDate() {
+        return tradeDate;
+    }
+
+    public int size() {
+        return stockCodes.size();
+    }
+
+    public String getStockCode(int index) {
+        return stockCodes.get(index);
+    }
+
+    /**
+     * Raw value (NaN when missing)
+     */
+    public double getRaw(int index, StockFactor factor) {
+        return raw[index][factor.ordinal()];
+    }
+
+    public double getZScore(int index, StockFactor factor) {
+        return zScores[factor.ordinal()][index];
+    }
+
+    /**
+     * Rank among the stocks with a value, 1 = largest (0 when missing)
+     */
+    public int getRank(int index, StockFactor factor) {
+        return ranks[factor.ordinal()][index];
+    }
+
+    /**
+     * Percentile in [0, 1], 1 = largest (NaN when missing)
+     */
+    public double getPercentile(int index, StockFactor factor) {
+        int rank = getRank(index, factor);
+        if (rank == 0) {
+            return Double.NaN;
+        }
+        int count = counts[factor.ordinal()];
+        return count > 1 ? (double) (count - rank) / (count - 1) : 1;
+    }
+
+    /**
+     * Number of stocks with a value for the factor
+     */
+    public int getCount(StockFactor factor) {
+        return counts[factor.ordinal()];
+    }
+}
@@ -0,0 +1,89 @@
+package com.quant.market.domain.factor;
+
+/**
+ * Stock Factor
+ * 因子定义：价值、动量、流动性、波动率
+ *
+ * Price-based factors use backward-adjusted closes over the stock's own bars, so ex-rights days
+ * do not show up as returns. Windows count bars, not calendar days.
+ */
+public enum StockFactor {
+    /**
+     * Earnings yield, 1 / pe_ttm
+     */
+    EP(Category.VALUE, 1),
+    /**
+     * Book-to-price, 1 / pb_mrq
+     */
+    BP(Category.VALUE, 1),
+    /**
+     * Sales-to-price, 1 / ps_ttm
+     */
+    SP(Category.VALUE, 1),
+    /**
+     * Cash-flow-to-price, 1 / pcf_ncf_ttm
+     */
+    CFP(Category.VALUE, 1),
+    /**
+     * Return over the last 20 bars
+     */
+    MOM_20(Category.MOMENTUM, 21),
+    /**
+     * Return over the last 60 bars
+     */
+    MOM_60(Category.MOMENTUM, 61),
+    /**
+     * Return from 250 bars ago to 20 bars ago (12-1 momentum, skipping the short-term reversal month)
+     */
+    MOM_250_20(Category.MOMENTUM, 251),
+    /**
+     * Mean turnover rate (%) over the last 20 bars
+     */
+    TURN_20(Category.LIQUIDITY, 20),
+    /**
+     * Amihud illiquidity over the last 20 bars: mean |daily return| per 100 million yuan traded
+     */
+    ILLIQ_20(Category.LIQUIDITY, 21),
+    /**
+     * Annualized standard deviation of daily returns over the last 20 bars
+     */
+    VOL_20(Category.VOLATILITY, 21),
+    /**
+     * Annualized standard deviation of daily returns over the last 60 bars
+     */
+    VOL_60(Category.VOLATILITY, 61);
+
+    public enum Category {
+        VALUE, MOMENTUM, LIQUIDITY, VOLATILITY
+    }
+
+    private final Category category;
+    private final int lookback;
+
+    StockFactor(Category category, int lookback) {
+        this.category = category;
+        this.lookback = lookback;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    /**
+     * Bars needed up to and including the trade date
+     */
+    public int getLookback() {
+        return lookback;
+    }
+
+    /**
+     * Bars needed by the factor with the longest lookback
+     */
+    public static int maxLookback() {
+        int max = 0;
+        for (StockFactor factor : values()) {
+            max = Math.max(max, factor.lookback);
+        }
+        return max;
+    }
+}
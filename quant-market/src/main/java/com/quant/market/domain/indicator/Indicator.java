@@ -0,0 +1,71 @@
+package com.quant.market.domain.indicator;
+
+import java.util.List;
+
+/**
+ * Technical Indicator
+ * 技术指标类型，参数与输出列
+ */
+public enum Indicator {
+    /**
+     * Simple moving average of close (period)
+     */
+    SMA(true, List.of(), 20),
+    /**
+     * Exponential moving average of close (period)
+     */
+    EMA(true, List.of(), 20),
+    /**
+     * MACD of close (fast, slow, signal); HIST = 2 × (DIF - DEA)
+     */
+    MACD(true, List.of("DIF", "DEA", "HIST"), 12, 26, 9),
+    /**
+     * Relative strength index of close (period)
+     */
+    RSI(false, List.of(), 14),
+    /**
+     * Bollinger bands of close (period, width in standard deviations)
+     */
+    BOLL(true, List.of("MID", "UPPER", "LOWER"), 20, 2),
+    /**
+     * Average true range (period)
+     */
+    ATR(true, List.of(), 14);
+
+    private final boolean priceScaled;
+    private final List<String> outputs;
+    private final double[] defaults;
+
+    Indicator(boolean priceScaled, List<String> outputs, double... defaults) {
+        this.priceScaled = priceScaled;
+        this.outputs = outputs;
+        this.defaults = defaults;
+    }
+
+    /**
+     * Whether outputs scale with prices: multiplying every price by c multiplies the outputs by c
+     * RSI is a ratio and does not change
+     */
+    public boolean isPriceScaled() {
+        return priceScaled;
+    }
+
+    /**
+     * Output column suffixes; empty for single-output indicators
+     */
+    public List<String> getOutputs() {
+        return outputs;
+    }
+
+    public int outputCount() {
+        return outputs.isEmpty() ? 1 : outputs.size();
+    }
+
+    public int paramCount() {
+        return defaults.length;
+    }
+
+    double defaultParam(int index) {
+        return defaults[index];
+    }
+}
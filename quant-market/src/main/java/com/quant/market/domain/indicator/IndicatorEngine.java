@@ -0,0 +1,229 @@
+package com.quant.market.domain.indicator;
+
+/**
+ * Indicator Engine
+ * 技术指标计算内核：基于 double 数组的单趟计算
+ *
+ * Each kernel reads its inputs once, front to back, and writes into caller-provided arrays;
+ * windowed kernels keep their window in a ring buffer of the workspace, so no kernel allocates.
+ *
+ * Conventions:
+ * - NaN inputs (missing values) yield NaN and are skipped: windows and averages advance over the
+ *   bars that have values only
+ * - Windowed values (SMA, BOLL) are NaN until the window is full
+ * - Recursive averages (EMA, the RSI gain/loss averages, ATR) start from the first value, as in
+ *   domestic charting software: EMA(t) = EMA(t-1) + 2 / (N + 1) × (X - EMA(t-1)), and RSI and ATR
+ *   use Wilder's smoothing A(t) = A(t-1) + (X - A(t-1)) / N
+ * - MACD histogram is 2 × (DIF - DEA); Bollinger bands use the population standard deviation
+ */
+public final class IndicatorEngine {
+
+    private IndicatorEngine() {
+    }
+
+    /**
+     * Compute an indicator
+     *
+     * @param spec Indicator and parameters
+     * @param high High prices (only read by ATR)
+     * @param low Low prices (only read by ATR)
+     * @param close Close prices
+     * @param n Number of bars
+     * @param workspace Scratch buffers
+     * @param out One array of at least n elements per output column, in {@link Indicator#getOutputs()} order
+     */
+    public static void compute(IndicatorSpec spec, double[] high, double[] low, double[] close, int n,
+                               IndicatorWorkspace workspace, double[][] out) {
+        switch (spec.getIndicator()) {
+            case SMA -> sma(close, n, spec.period(0), workspace.ring(spec.period(0)), out[0]);
+            case EMA -> ema(close, n, spec.period(0), out[0]);
+            case MACD -> macd(close, n, spec.period(0), spec.period(1), spec.period(2), out[0], out[1], out[2]);
+            case RSI -> rsi(close, n, spec.period(0), out[0]);
+            case BOLL -> bollinger(close, n, spec.period(0), spec.param(1), workspace.ring(spec.period(0)),
+                    out[0], out[1], out[2]);
+            case ATR -> atr(high, low, close, n, spec.period(0), out[0]);
+        }
+    }
+
+    /**
+     * Simple moving average over the last {@code period} values
+     *
+     * @param ring Scratch buffer of at least {@code period} elements
+     */
+    public static void sma(double[] values, int n, int period, double[] ring, double[] out) {
+        double sum = 0;
+        int count = 0;
+        int pos = 0;
+        for (int i = 0; i < n; i++) {
+            double value = values[i];
+            if (Double.isNaN(value)) {
+                out[i] = Double.NaN;
+                continue;
+            }
+            if (count == period) {
+                sum -= ring[pos];
+            } else {
+                count++;
+            }
+            ring[pos] = value;
+            sum += value;
+            pos = pos + 1 == period ? 0 : pos + 1;
+            out[i] = count == period ? sum / period : Double.NaN;
+        }
+    }
+
+    /**
+     * Exponential moving average, starting from the first value
+     */
+    public static void ema(double[] values, int n, int period, double[] out) {
+        double alpha = 2.0 / (period + 1);
+        double ema = Double.NaN;
+        for (int i = 0; i < n; i++) {
+            double value = values[i];
+            if (Double.isNaN(value)) {
+                out[i] = Double.NaN;
+                continue;
+            }
+            ema = Double.isNaN(ema) ? value : ema + alpha * (value - ema);
+            out[i] = ema;
+        }
+    }
+
+    /**
+     * MACD: DIF = EMA(fast) - EMA(slow), DEA = EMA(signal) of DIF, HIST = 2 × (DIF - DEA)
+     */
+    public static void macd(double[] values, int n, int fast, int slow, int signal,
+                            double[] dif, double[] dea, double[] hist) {
+        double fastAlpha = 2.0 / (fast + 1);
+        double slowAlpha = 2.0 / (slow + 1);
+        double signalAlpha = 2.0 / (signal + 1);
+        double fastEma = Double.NaN;
+        double slowEma = Double.NaN;
+        double signalEma = Double.NaN;
+        for (int i = 0; i < n; i++) {
+            double value = values[i];
+            if (Double.isNaN(value)) {
+                dif[i] = Double.NaN;
+                dea[i] = Double.NaN;
+                hist[i] = Double.NaN;
+                continue;
+            }
+            if (Double.isNaN(fastEma)) {
+                fastEma = value;
+                slowEma = value;
+            } else {
+                fastEma += fastAlpha * (value - fastEma);
+                slowEma += slowAlpha * (value - slowEma);
+            }
+            double d = fastEma - slowEma;
+            signalEma = Double.isNaN(signalEma) ? d : signalEma + signalAlpha * (d - signalEma);
+            dif[i] = d;
+            dea[i] = signalEma;
+            hist[i] = 2 * (d - signalEma);
+        }
+    }
+
+    /**
+     * Relative strength index with Wilder-smoothed gains and losses
+     * NaN on the first value and while there has been no price change at all
+     */
+    public static void rsi(double[] values, int n, int period, double[] out) {
+        double previous = Double.NaN;
+        double avgGain = Double.NaN;
+        double avgLoss = Double.NaN;
+        for (int i = 0; i < n; i++) {
+            double value = values[i];
+            if (Double.isNaN(value)) {
+                out[i] = Double.NaN;
+                continue;
+            }
+            if (Double.isNaN(previous)) {
+                previous = value;
+                out[i] = Double.NaN;
+                continue;
+            }
+            double change = value - previous;
+            previous = value;
+            double gain = change > 0 ? change : 0;
+            double loss = change < 0 ? -change : 0;
+            if (Double.isNaN(avgGain)) {
+                avgGain = gain;
+                avgLoss = loss;
+            } else {
+                avgGain += (gain - avgGain) / period;
+                avgLoss += (loss - avgLoss) / period;
+            }
+            double total = avgGain + avgLoss;
+            out[i] = total > 0 ? 100 * avgGain / total : Double.NaN;
+        }
+    }
+
+    /**
+     * Bollinger bands: MID = SMA(period), UPPER/LOWER = MID ± width × population standard deviation
+     *
+     * @param ring Scratch buffer of at least {@code period} elements
+     */
+    public static void bollinger(double[] values, int n, int period, double width, double[] ring,
+                                 double[] mid, double[] upper, double[] lower) {
+        double sum = 0;
+        double sumSquares = 0;
+        int count = 0;
+        int pos = 0;
+        for (int i = 0; i < n; i++) {
+            double value = values[i];
+            if (Double.isNaN(value)) {
+                mid[i] = Double.NaN;
+                upper[i] = Double.NaN;
+                lower[i] = Double.NaN;
+                continue;
+            }
+            if (count == period) {
+                double evicted = ring[pos];
+                sum -= evicted;
+                sumSquares -= evicted * evicted;
+            } else {
+                count++;
+            }
+            ring[pos] = value;
+            sum += value;
+            sumSquares += value * value;
+            pos = pos + 1 == period ? 0 : pos + 1;
+            if (count < period) {
+                mid[i] = Double.NaN;
+                upper[i] = Double.NaN;
+                lower[i] = Double.NaN;
+                continue;
+            }
+            double mean = sum / period;
+            double deviation = Math.sqrt(Math.max(sumSquares / period - mean * mean, 0));
+            mid[i] = mean;
+            upper[i] = mean + width * deviation;
+            lower[i] = mean - width * deviation;
+        }
+    }
+
+    /**
+     * Average true range with Wilder smoothing, starting from the first true range
+     * The first bar's true range is its high - low
+     */
+    public static void atr(double[] high, double[] low, double[] close, int n, int period, double[] out) {
+        double previousClose = Double.NaN;
+        double atr = Double.NaN;
+        for (int i = 0; i < n; i++) {
+            double h = high[i];
+            double l = low[i];
+            double c = close[i];
+            if (Double.isNaN(h) || Double.isNaN(l) || Double.isNaN(c)) {
+                out[i] = Double.NaN;
+                continue;
+            }
+            double trueRange = h - l;
+            if (!Double.isNaN(previousClose)) {
+                trueRange = Math.max(trueRange, Math.max(Math.abs(h - previousClose), Math.abs(l - previousClose)));
+            }
+            previousClose = c;
+            atr = Double.isNaN(atr) ? trueRange : atr + (trueRange - atr) / period;
+            out[i] = atr;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.quant.market.domain.indicator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Indicator Spec
+ * 指标及其参数，如 SMA(20)、MACD(12,26,9)、BOLL(20,2)
+ *
+ * Specs are compared by their canonical key, so "macd" and "MACD(12,26,9)" are the same spec.
+ */
+public final class IndicatorSpec {
+
+    /**
+     * Longest accepted period; longer windows are rejected instead of allocating huge buffers
+     */
+    public static final int MAX_PERIOD = 1000;
+
+    private final Indicator indicator;
+    private final double[] params;
+    private final String key;
+
+    private IndicatorSpec(Indicator indicator, double[] params) {
+        this.indicator = indicator;
+        this.params = params;
+        this.key = buildKey(indicator, params);
+    }
+
+    /**
+     * Parse a spec such as "SMA(20)", "macd" or "BOLL(20, 2.5)"; omitted parameters take their defaults
+     *
+     * @throws IllegalArgumentException if the name, parameter count or a parameter value is invalid
+     */
+    public static IndicatorSpec parse(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Indicator is empty");
+        }
+        String value = text.trim();
+        int open = value.indexOf('(');
+        String name = open < 0 ? value : value.substring(0, open).trim();
+        Indicator indicator;
+        try {
+            indicator = Indicator.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown indicator: " + name);
+        }
+
+        List<Double> given = new ArrayList<>();
+        if (open >= 0) {
+            if (!value.endsWith(")")) {
+                throw new IllegalArgumentException("Missing closing parenthesis: " + value);
+            }
+            String args = value.substring(open + 1, value.length() - 1).trim();
+            if (!args.isEmpty()) {
+                for (String arg : args.split(",")) {
+                    try {
+                        given.add(Double.parseDouble(arg.trim()));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid parameter '" + arg.trim() + "' in " + value);
+                    }
+                }
+            }
+        }
+        if (given.size() > indicator.paramCount()) {
+            throw new IllegalArgumentException(indicator + " takes at most " + indicator.paramCount()
+                    + " parameters: " + value);
+        }
+
+        double[] params = new double[indicator.paramCount()];
+        for (int i = 0; i < params.length; i++) {
+            params[i] = i < given.size() ? given.get(i) : indicator.defaultParam(i);
+        }
+        validate(indicator, params, value);
+        return new IndicatorSpec(indicator, params);
+    }
+
+    public Indicator getIndicator() {
+        return indicator;
+    }
+
+    /**
+     * Integer parameter (a period)
+     */
+    public int period(int index) {
+        return (int) params[index];
+    }
+
+    public double param(int index) {
+        return params[index];
+    }
+
+    /**
+     * Canonical form, e.g. "MACD(12,26,9)"
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Output column names, e.g. "SMA(20)" or "MACD(12,26,9).DIF"
+     */
+    public List<String> columnNames() {
+        if (indicator.getOutputs().isEmpty()) {
+            return List.of(key);
+        }
+        List<String> names = new ArrayList<>(indicator.getOutputs().size());
+        for (String output : indicator.getOutputs()) {
+            names.add(key + "." + output);
+        }
+        return names;
+    }
+
+    private static void validate(Indicator indicator, double[] params, String text) {
+        int periods = indicator == Indicator.BOLL ? 1 : params.length;
+        for (int i = 0; i < periods; i++) {
+            double period = params[i];
+            if (period != Math.rint(period) || period < 1 || period > MAX_PERIOD) {
+                throw new IllegalArgumentException("Periods must be integers between 1 and " + MAX_PERIOD + ": " + text);
+            }
+        }
+        if (indicator == Indicator.MACD && params[0] >= params[1]) {
+            throw new IllegalArgumentException("MACD fast period must be shorter than the slow period: " + text);
+        }
+        if (indicator == Indicator.BOLL && !(params[1] > 0 && params[1] <= 10)) {
+            throw new IllegalArgumentException("BOLL width must be in (0, 10]: " + text);
+        }
+    }
+
+    private static String buildKey(Indicator indicator, double[] params) {
+        StringBuilder key = new StringBuilder(indicator.name()).append('(');
+        for (int i = 0; i < params.length; i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+            double param = params[i];
+            key.append(param == Math.rint(param) ? String.valueOf((long) param) : String.valueOf(param));
+        }
+        return key.append(')').toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof IndicatorSpec other && key.equals(other.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
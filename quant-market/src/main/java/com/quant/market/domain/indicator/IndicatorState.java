@@ -0,0 +1,251 @@
+package com.quant.market.domain.indicator;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Indicator State
+ * 单只股票、单一复权类型下某个指标的滚动状态，可逐根 K 线推进
+ *
+ * The state holds exactly what the {@link IndicatorEngine} kernels keep between bars, so stepping a
+ * state through a series gives the same values as running the kernel over it, at O(1) per bar
+ * (O(period) memory for windowed indicators). State layout per indicator:
+ * - SMA: count, ring position, sum, ring[period]
+ * - EMA: ema
+ * - MACD: fast ema, slow ema, signal ema
+ * - RSI: previous close, average gain, average loss
+ * - BOLL: count, ring position, sum, sum of squares, ring[period]
+ * - ATR: previous close, atr
+ *
+ * Not thread-safe.
+ */
+public final class IndicatorState {
+
+    private final String stockCode;
+    private final short adjustFlag;
+    private final IndicatorSpec spec;
+    private final double[] state;
+    private final double[] outputs;
+    private LocalDate lastTradeDate;
+    private int barCount;
+
+    private IndicatorState(String stockCode, short adjustFlag, IndicatorSpec spec, double[] state,
+                           double[] outputs, LocalDate lastTradeDate, int barCount) {
+        this.stockCode = stockCode;
+        this.adjustFlag = adjustFlag;
+        this.spec = spec;
+        this.state = state;
+        this.outputs = outputs;
+        this.lastTradeDate = lastTradeDate;
+        this.barCount = barCount;
+    }
+
+    /**
+     * State before the first bar
+     */
+    public static IndicatorState initial(String stockCode, short adjustFlag, IndicatorSpec spec) {
+        double[] state = new double[stateLength(spec)];
+        switch (spec.getIndicator()) {
+            case EMA, MACD, RSI, ATR -> Arrays.fill(state, Double.NaN);
+            default -> {
+                // Counts, positions and sums start at zero
+            }
+        }
+        double[] outputs = new double[spec.getIndicator().outputCount()];
+        Arrays.fill(outputs, Double.NaN);
+        return new IndicatorState(stockCode, adjustFlag, spec, state, outputs, null, 0);
+    }
+
+    /**
+     * Restore a persisted state
+     *
+     * @throws IllegalArgumentException if the arrays do not match the layout of the spec
+     */
+    public static IndicatorState restore(String stockCode, short adjustFlag, IndicatorSpec spec,
+                                         LocalDate lastTradeDate, int barCount, double[] state, double[] outputs) {
+        if (state.length != stateLength(spec) || outputs.length != spec.getIndicator().outputCount()) {
+            throw new IllegalArgumentException("State of " + spec + " has an unexpected layout: "
+                    + state.length + " state values, " + outputs.length + " outputs");
+        }
+        return new IndicatorState(stockCode, adjustFlag, spec, state, outputs, lastTradeDate, barCount);
+    }
+
+    private static int stateLength(IndicatorSpec spec) {
+        return switch (spec.getIndicator()) {
+            case SMA -> 3 + spec.period(0);
+            case EMA -> 1;
+            case MACD, RSI -> 3;
+            case BOLL -> 4 + spec.period(0);
+            case ATR -> 2;
+        };
+    }
+
+    /**
+     * Whether a bar of the given date can be appended, i.e. it is after every bar already folded in
+     */
+    public boolean canAdvanceTo(LocalDate tradeDate) {
+        return lastTradeDate == null || tradeDate.isAfter(lastTradeDate);
+    }
+
+    /**
+     * Fold in the next bar; NaN values are skipped like in the batch kernels
+     *
+     * @throws IllegalArgumentException if the bar is not after the last folded bar
+     */
+    public void step(LocalDate tradeDate, double high, double low, double close) {
+        if (!canAdvanceTo(tradeDate)) {
+            throw new IllegalArgumentException("Cannot step " + spec + " of " + stockCode + " back from "
+                    + lastTradeDate + " to " + tradeDate);
+        }
+        lastTradeDate = tradeDate;
+        barCount++;
+        if (Double.isNaN(close) || spec.getIndicator() == Indicator.ATR && (Double.isNaN(high) || Double.isNaN(low))) {
+            Arrays.fill(outputs, Double.NaN);
+            return;
+        }
+        switch (spec.getIndicator()) {
+            case SMA -> stepSma(close);
+            case EMA -> stepEma(close);
+            case MACD -> stepMacd(close);
+            case RSI -> stepRsi(close);
+            case BOLL -> stepBollinger(close);
+            case ATR -> stepAtr(high, low, close);
+        }
+    }
+
+    private void stepSma(double value) {
+        int period = spec.period(0);
+        int count = (int) state[0];
+        int pos = (int) state[1];
+        if (count == period) {
+            state[2] -= state[3 + pos];
+        } else {
+            count++;
+        }
+        state[3 + pos] = value;
+        state[2] += value;
+        state[0] = count;
+        state[1] = pos + 1 == period ? 0 : pos + 1;
+        outputs[0] = count == period ? state[2] / period : Double.NaN;
+    }
+
+    private void stepEma(double value) {
+        double alpha = 2.0 / (spec.period(0) + 1);
+        double ema = state[0];
+        state[0] = Double.isNaN(ema) ? value : ema + alpha * (value - ema);
+        outputs[0] = state[0];
+    }
+
+    private void stepMacd(double value) {
+        double fastAlpha = 2.0 / (spec.period(0) + 1);
+        double slowAlpha = 2.0 / (spec.period(1) + 1);
+        double signalAlpha = 2.0 / (spec.period(2) + 1);
+        if (Double.isNaN(state[0])) {
+            state[0] = value;
+            state[1] = value;
+        } else {
+            state[0] += fastAlpha * (value - state[0]);
+            state[1] += slowAlpha * (value - state[1]);
+        }
+        double dif = state[0] - state[1];
+        state[2] = Double.isNaN(state[2]) ? dif : state[2] + signalAlpha * (dif - state[2]);
+        outputs[0] = dif;
+        outputs[1] = state[2];
+        outputs[2] = 2 * (dif - state[2]);
+    }
+
+    private void stepRsi(double value) {
+        int period = spec.period(0);
+        double previous = state[0];
+        state[0] = value;
+        if (Double.isNaN(previous)) {
+            outputs[0] = Double.NaN;
+            return;
+        }
+        double change = value - previous;
+        double gain = change > 0 ? change : 0;
+        double loss = change < 0 ? -change : 0;
+        if (Double.isNaN(state[1])) {
+            state[1] = gain;
+            state[2] = loss;
+        } else {
+            state[1] += (gain - state[1]) / period;
+            state[2] += (loss - state[2]) / period;
+        }
+        double total = state[1] + state[2];
+        outputs[0] = total > 0 ? 100 * state[1] / total : Double.NaN;
+    }
+
+    private void stepBollinger(double value) {
+        int period = spec.period(0);
+        int count = (int) state[0];
+        int pos = (int) state[1];
+        if (count == period) {
+            double evicted = state[4 + pos];
+            state[2] -= evicted;
+            state[3] -= evicted * evicted;
+        } else {
+            count++;
+        }
+        state[4 + pos] = value;
+        state[2] += value;
+        state[3] += value * value;
+        state[0] = count;
+        state[1] = pos + 1 == period ? 0 : pos + 1;
+        if (count < period) {
+            Arrays.fill(outputs, Double.NaN);
+            return;
+        }
+        double mean = state[2] / period;
+        double deviation = Math.sqrt(Math.max(state[3] / period - mean * mean, 0));
+        double width = spec.param(1);
+        outputs[0] = mean;
+        outputs[1] = mean + width * deviation;
+        outputs[2] = mean - width * deviation;
+    }
+
+    private void stepAtr(double high, double low, double close) {
+        double previousClose = state[0];
+        double trueRange = high - low;
+        if (!Double.isNaN(previousClose)) {
+            trueRange = Math.max(trueRange, Math.max(Math.abs(high - previousClose), Math.abs(low - previousClose)));
+        }
+        state[0] = close;
+        state[1] = Double.isNaN(state[1]) ? trueRange : state[1] + (trueRange - state[1]) / spec.period(0);
+        outputs[0] = state[1];
+    }
+
+    public String getStockCode() {
+        return stockCode;
+    }
+
+    public short getAdjustFlag() {
+        return adjustFlag;
+    }
+
+    public IndicatorSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * Rolling state values (live array; persisted as is)
+     */
+    public double[] getState() {
+        return state;
+    }
+
+    /**
+     * Output values on {@link #getLastTradeDate()}, in {@link Indicator#getOutputs()} order (live array)
+     */
+    public double[] getOutputs() {
+        return outputs;
+    }
+
+    public LocalDate getLastTradeDate() {
+        return lastTradeDate;
+    }
+
+    public int getBarCount() {
+        return barCount;
+    }
+}
@@ -0,0 +1,44 @@
+package com.quant.market.domain.indicator;
+
+import java.util.Arrays;
+
+/**
+ * Indicator Workspace
+ * 指标计算的可复用缓冲区
+ *
+ * Holds input, output and scratch arrays that grow to the longest series seen and are then reused,
+ * so computing indicators over many series allocates nothing per series. Not thread-safe; keep one
+ * workspace per thread.
+ */
+public final class IndicatorWorkspace {
+
+    private double[][] buffers = new double[8][];
+    private double[] ring = new double[0];
+
+    /**
+     * Buffer of at least {@code length} elements; contents are undefined
+     *
+     * @param slot Caller-chosen buffer number; distinct slots never share storage
+     */
+    public double[] buffer(int slot, int length) {
+        if (slot >= buffers.length) {
+            buffers = Arrays.copyOf(buffers, Math.max(slot + 1, buffers.length * 2));
+        }
+        double[] buffer = buffers[slot];
+        if (buffer == null || buffer.length < length) {
+            buffer = new double[Math.max(length, buffer == null ? 0 : buffer.length + (buffer.length >> 1))];
+            buffers[slot] = buffer;
+        }
+        return buffer;
+    }
+
+    /**
+     * Ring buffer for windowed kernels
+     */
+    double[] ring(int length) {
+        if (ring.length < length) {
+            ring = new double[length];
+        }
+        return ring;
+    }
+}
@@ -0,0 +1,140 @@
+package com.quant.market.domain.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Adjust Factor Series
+ * 单只股票的累计后复权因子序列（按除权除息日升序）
+ *
+ * F(t) is the factor of the latest ex-date on or before t, and 1 before the first ex-date.
+ * - Backward-adjusted price (adjustFlag 1) = unadjusted price * F(t)
+ * - Forward-adjusted price (adjustFlag 2) = unadjusted price * F(t) / F(latest)
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class AdjustFactorSeries {
+
+    public static final short BACKWARD = 1;
+    public static final short FORWARD = 2;
+    public static final short UNADJUSTED = 3;
+
+    private static final AdjustFactorSeries NONE = new AdjustFactorSeries(new int[0], new double[0]);
+
+    private final int[] exDays;
+    private final double[] factors;
+
+    private AdjustFactorSeries(int[] exDays, double[] factors) {
+        this.exDays = exDays;
+        this.factors = factors;
+    }
+
+    /**
+     * Series without any ex-date (every factor is 1)
+     */
+    public static AdjustFactorSeries none() {
+        return NONE;
+    }
+
+    /**
+     * Build from factor rows of one stock, in any order
+     */
+    public static AdjustFactorSeries of(List<StockAdjustFactor> rows) {
+        if (rows.isEmpty()) {
+            return NONE;
+        }
+        StockAdjustFactor[] sorted = rows.toArray(new StockAdjustFactor[0]);
+        Arrays.sort(sorted, (a, b) -> a.getExDate().compareTo(b.getExDate()));
+        int[] exDays = new int[sorted.length];
+        double[] factors = new double[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            exDays[i] = (int) sorted[i].getExDate().toEpochDay();
+            factors[i] = sorted[i].getBackAdjustFactor().doubleValue();
+        }
+        return new AdjustFactorSeries(exDays, factors);
+    }
+
+    public int size() {
+        return exDays.length;
+    }
+
+    public boolean isEmpty() {
+        return exDays.length == 0;
+    }
+
+    /**
+     * Factor in effect on a trade date
+     */
+    public double factorAt(LocalDate date) {
+        int index = Arrays.binarySearch(exDays, (int) date.toEpochDay());
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return index >= 0 ? factors[index] : 1.0;
+    }
+
+    /**
+     * Factor of the latest ex-date (1 when there is none)
+     */
+    public double latestFactor() {
+        return factors.length > 0 ? factors[factors.length - 1] : 1.0;
+    }
+
+    /**
+     * Price multiplier of an unadjusted bar on one trade date for the target adjust flag
+     *
+     * @param date Trade date
+     * @param adjustFlag {@link #BACKWARD} or {@link #FORWARD}
+     * @return Multiplier, the same one {@link #ratios} gives a bar on that date
+     */
+    public double ratioAt(LocalDate date, short adjustFlag) {
+        if (adjustFlag != BACKWARD && adjustFlag != FORWARD) {
+            throw new IllegalArgumentException("Adjust flag must be 1 (backward) or 2 (forward): " + adjustFlag);
+        }
+        return factorAt(date) / (adjustFlag == FORWARD ? latestFactor() : 1.0);
+    }
+
+    /**
+     * Price multipliers of an unadjusted series for the target adjust flag
+     *
+     * One merge pass over the ascending trade days and ex-dates, O(bars + ex-dates).
+     *
+     * @param series Unadjusted series
+     * @param adjustFlag {@link #BACKWARD} or {@link #FORWARD}
+     * @return Multiplier per bar
+     */
+    public double[] ratios(BarSeries series, short adjustFlag) {
+        if (adjustFlag != BACKWARD && adjustFlag != FORWARD) {
+            throw new IllegalArgumentException("Adjust flag must be 1 (backward) or 2 (forward): " + adjustFlag);
+        }
+        int size = series.size();
+        double[] ratios = new double[size];
+        double divisor = adjustFlag == FORWARD ? latestFactor() : 1.0;
+
+        int next = 0;
+        double current = 1.0;
+        for (int i = 0; i < size; i++) {
+            int day = series.getTradeDay(i);
+            while (next < exDays.length && exDays[next] <= day) {
+                current = factors[next++];
+            }
+            ratios[i] = current / divisor;
+        }
+        return ratios;
+    }
+
+    /**
+     * Derive the series of another adjust flag from an unadjusted series
+     *
+     * @param unadjusted Unadjusted series (adjustFlag 3)
+     * @param adjustFlag Target adjust flag; 3 returns the series itself
+     * @return Adjusted series
+     */
+    public BarSeries adjust(BarSeries unadjusted, short adjustFlag) {
+        if (adjustFlag == UNADJUSTED) {
+            return unadjusted;
+        }
+        return unadjusted.withScaledPrices(adjustFlag, ratios(unadjusted, adjustFlag));
+    }
+}
@@ -0,0 +1,441 @@
+package com.quant.market.domain.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Bar Series
+ * 单只股票、单一复权类型的日线列式序列
+ *
+ * Each column is a primitive array indexed by bar position, sorted by trade date ascending:
+ * - Trade dates are stored as epoch days (int)
+ * - Decimal columns are stored as scaled longs using the column scale of t_stock_daily,
+ *   so values round-trip to BigDecimal exactly
+ * - Null decimals are stored as {@link #NULL_VALUE}, null flags as {@link #NULL_FLAG}
+ *
+ * Instances are immutable once built and safe to share between threads.
+ */
+public final class BarSeries {
+
+    /**
+     * Sentinel for null decimal values
+     */
+    public static final long NULL_VALUE = Long.MIN_VALUE;
+
+    /**
+     * Sentinel for null short flags (tradeStatus, isSt)
+     */
+    public static final byte NULL_FLAG = -1;
+
+    private static final int[] EMPTY_INTS = new int[0];
+
+    /**
+     * Decimal columns with their t_stock_daily scale
+     * Price columns are the ones rescaled by price adjustment (复权)
+     */
+    public enum Field {
+        OPEN(4, true),
+        HIGH(4, true),
+        LOW(4, true),
+        CLOSE(4, true),
+        PRE_CLOSE(4, true),
+        CHANGE(4, true),
+        PCT_CHANGE(6, false),
+        VOLUME(4, false),
+        AMOUNT(4, false),
+        TURN(6, false),
+        PE_TTM(6, false),
+        PB_MRQ(6, false),
+        PS_TTM(6, false),
+        PCF_NCF_TTM(6, false);
+
+        private final int scale;
+        private final double factor;
+        private final boolean price;
+
+        Field(int scale, boolean price) {
+            this.scale = scale;
+            this.factor = Math.pow(10, scale);
+            this.price = price;
+        }
+
+        public boolean isPrice() {
+            return price;
+        }
+
+        public int getScale() {
+            return scale;
+        }
+
+        public double getFactor() {
+            return factor;
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+
+    private final String stockCode;
+    private final Short adjustFlag;
+    private final int size;
+    private final long[] ids;
+    private final int[] tradeDays;
+    private final long[][] columns;
+    private final byte[] tradeStatus;
+    private final byte[] isSt;
+
+    private BarSeries(String stockCode, Short adjustFlag, int size, long[] ids, int[] tradeDays,
+                      long[][] columns, byte[] tradeStatus, byte[] isSt) {
+        this.stockCode = stockCode;
+        this.adjustFlag = adjustFlag;
+        this.size = size;
+        this.ids = ids;
+        this.tradeDays = tradeDays;
+        this.columns = columns;
+        this.tradeStatus = tradeStatus;
+        this.isSt = isSt;
+    }
+
+    public String getStockCode() {
+        return stockCode;
+    }
+
+    public Short getAdjustFlag() {
+        return adjustFlag;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    public int getTradeDay(int index) {
+        return tradeDays[index];
+    }
+
+    public LocalDate getTradeDate(int index) {
+        return LocalDate.ofEpochDay(tradeDays[index]);
+    }
+
+    /**
+     * Raw scaled value of a decimal column, or {@link #NULL_VALUE}
+     */
+    public long getRaw(Field field, int index) {
+        return columns[field.ordinal()][index];
+    }
+
+    /**
+     * Decimal value with the column scale, or null
+     */
+    public BigDecimal getDecimal(Field field, int index) {
+        long raw = columns[field.ordinal()][index];
+        return raw == NULL_VALUE ? null : BigDecimal.valueOf(raw, field.getScale());
+    }
+
+    /**
+     * Double value, or NaN when null
+     */
+    public double getDouble(Field field, int index) {
+        long raw = columns[field.ordinal()][index];
+        return raw == NULL_VALUE ? Double.NaN : raw / field.getFactor();
+    }
+
+    /**
+     * Copy a column range into a double array (null -> NaN)
+     *
+     * @param from Start index (inclusive)
+     * @param to End index (exclusive)
+     */
+    public double[] toDoubles(Field field, int from, int to) {
+        return copyDoubles(field, from, to, new double[to - from]);
+    }
+
+    /**
+     * Copy a column range into an existing array starting at index 0 (null -> NaN)
+     *
+     * @param out Target array of at least {@code to - from} elements
+     * @return The target array
+     */
+    public double[] copyDoubles(Field field, int from, int to, double[] out) {
+        long[] column = columns[field.ordinal()];
+        double factor = field.getFactor();
+        for (int i = from; i < to; i++) {
+            long raw = column[i];
+            out[i - from] = raw == NULL_VALUE ? Double.NaN : raw / factor;
+        }
+        return out;
+    }
+
+    public Short getTradeStatus(int index) {
+        return toShort(tradeStatus[index]);
+    }
+
+    public Short getIsSt(int index) {
+        return toShort(isSt[index]);
+    }
+
+    /**
+     * First index whose trade date is >= the given date (size if none)
+     */
+    public int lowerBound(LocalDate date) {
+        if (date == null) {
+            return 0;
+        }
+        int key = (int) date.toEpochDay();
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (tradeDays[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * First index whose trade date is > the given date (size if none)
+     */
+    public int upperBound(LocalDate date) {
+        if (date == null) {
+            return size;
+        }
+        int key = (int) date.toEpochDay();
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (tradeDays[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Index of the bar on the given date, or -1
+     */
+    public int indexOf(LocalDate date) {
+        int index = lowerBound(date);
+        return index < size && tradeDays[index] == (int) date.toEpochDay() ? index : -1;
+    }
+
+    /**
+     * Convert a single bar to the domain model
+     * Audit timestamps (createdAt/updatedAt) are not kept in the columnar layout
+     */
+    public StockDaily toDomain(int index) {
+        return StockDaily.builder()
+                .id(ids[index])
+                .stockCode(stockCode)
+                .tradeDate(getTradeDate(index))
+                .openPrice(getDecimal(Field.OPEN, index))
+                .highPrice(getDecimal(Field.HIGH, index))
+                .lowPrice(getDecimal(Field.LOW, index))
+                .closePrice(getDecimal(Field.CLOSE, index))
+                .preClose(getDecimal(Field.PRE_CLOSE, index))
+                .changeAmount(getDecimal(Field.CHANGE, index))
+                .pctChange(getDecimal(Field.PCT_CHANGE, index))
+                .volume(getDecimal(Field.VOLUME, index))
+                .amount(getDecimal(Field.AMOUNT, index))
+                .adjustFlag(adjustFlag)
+                .turn(getDecimal(Field.TURN, index))
+                .tradeStatus(getTradeStatus(index))
+                .peTtm(getDecimal(Field.PE_TTM, index))
+                .pbMrq(getDecimal(Field.PB_MRQ, index))
+                .psTtm(getDecimal(Field.PS_TTM, index))
+                .pcfNcfTtm(getDecimal(Field.PCF_NCF_TTM, index))
+                .isSt(getIsSt(index))
+                .build();
+    }
+
+    /**
+     * Copy of this series under another adjust flag, with every price column multiplied by a per-bar ratio
+     *
+     * Non-price columns, ids, trade days and flags are shared with this series, not copied.
+     * Scaled values are rounded half up to the column scale.
+     *
+     * @param targetAdjustFlag Adjust flag of the new series
+     * @param ratios Multiplier per bar (length must equal size)
+     */
+    public BarSeries withScaledPrices(Short targetAdjustFlag, double[] ratios) {
+        if (ratios.length != size) {
+            throw new IllegalArgumentException("Expected " + size + " ratios but got " + ratios.length);
+        }
+        long[][] scaled = columns.clone();
+        for (Field field : FIELDS) {
+            if (!field.isPrice()) {
+                continue;
+            }
+            long[] source = columns[field.ordinal()];
+            long[] target = new long[size];
+            for (int i = 0; i < size; i++) {
+                long raw = source[i];
+                target[i] = raw == NULL_VALUE ? NULL_VALUE : Math.round(raw * ratios[i]);
+            }
+            scaled[field.ordinal()] = target;
+        }
+        return new BarSeries(stockCode, targetAdjustFlag, size, ids, tradeDays, scaled, tradeStatus, isSt);
+    }
+
+    /**
+     * Approximate retained heap size in bytes
+     */
+    public long estimatedBytes() {
+        return (long) ids.length * 8 + (long) tradeDays.length * 4
+                + (long) FIELDS.length * size * 8 + tradeStatus.length + isSt.length;
+    }
+
+    public static Builder builder(String stockCode, Short adjustFlag) {
+        return new Builder(stockCode, adjustFlag, 256);
+    }
+
+    public static Builder builder(String stockCode, Short adjustFlag, int expectedSize) {
+        return new Builder(stockCode, adjustFlag, Math.max(expectedSize, 16));
+    }
+
+    public static BarSeries empty(String stockCode, Short adjustFlag) {
+        return new BarSeries(stockCode, adjustFlag, 0, new long[0], EMPTY_INTS,
+                new long[FIELDS.length][0], new byte[0], new byte[0]);
+    }
+
+    private static Short toShort(byte value) {
+        return value == NULL_FLAG ? null : (short) value;
+    }
+
+    /**
+     * Encode a decimal into the scaled-long representation of a column
+     */
+    public static long encode(Field field, BigDecimal value) {
+        if (value == null) {
+            return NULL_VALUE;
+        }
+        return value.setScale(field.getScale(), RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static byte encodeFlag(Short value) {
+        return value == null ? NULL_FLAG : value.byteValue();
+    }
+
+    /**
+     * Append-only builder; bars must be appended in ascending trade date order
+     * A bar on the same date as the previous one replaces it: rows without adjust flag are not unique
+     * per (stock_code, trade_date), and the last one read wins
+     */
+    public static final class Builder {
+
+        private final String stockCode;
+        private final Short adjustFlag;
+        private int size;
+        private long[] ids;
+        private int[] tradeDays;
+        private final long[][] columns;
+        private byte[] tradeStatus;
+        private byte[] isSt;
+
+        private Builder(String stockCode, Short adjustFlag, int capacity) {
+            this.stockCode = stockCode;
+            this.adjustFlag = adjustFlag;
+            this.ids = new long[capacity];
+            this.tradeDays = new int[capacity];
+            this.columns = new long[FIELDS.length][capacity];
+            this.tradeStatus = new byte[capacity];
+            this.isSt = new byte[capacity];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Append one bar
+         *
+         * @param values Decimal values in {@link Field} order
+         */
+        public Builder add(long id, LocalDate tradeDate, BigDecimal[] values, Short tradeStatusValue, Short isStValue) {
+            int day = (int) tradeDate.toEpochDay();
+            if (size > 0 && day <= tradeDays[size - 1]) {
+                if (day < tradeDays[size - 1]) {
+                    throw new IllegalArgumentException("Bars must be appended in ascending trade date order: "
+                            + stockCode + " " + tradeDate);
+                }
+                size--;
+            }
+            ensureCapacity(size + 1);
+            ids[size] = id;
+            tradeDays[size] = day;
+            for (Field field : FIELDS) {
+                columns[field.ordinal()][size] = encode(field, values[field.ordinal()]);
+            }
+            tradeStatus[size] = encodeFlag(tradeStatusValue);
+            isSt[size] = encodeFlag(isStValue);
+            size++;
+            return this;
+        }
+
+        /**
+         * Append one domain bar
+         */
+        public Builder add(StockDaily daily) {
+            BigDecimal[] values = new BigDecimal[FIELDS.length];
+            values[Field.OPEN.ordinal()] = daily.getOpenPrice();
+            values[Field.HIGH.ordinal()] = daily.getHighPrice();
+            values[Field.LOW.ordinal()] = daily.getLowPrice();
+            values[Field.CLOSE.ordinal()] = daily.getClosePrice();
+            values[Field.PRE_CLOSE.ordinal()] = daily.getPreClose();
+            values[Field.CHANGE.ordinal()] = daily.getChangeAmount();
+            values[Field.PCT_CHANGE.ordinal()] = daily.getPctChange();
+            values[Field.VOLUME.ordinal()] = daily.getVolume();
+            values[Field.AMOUNT.ordinal()] = daily.getAmount();
+            values[Field.TURN.ordinal()] = daily.getTurn();
+            values[Field.PE_TTM.ordinal()] = daily.getPeTtm();
+            values[Field.PB_MRQ.ordinal()] = daily.getPbMrq();
+            values[Field.PS_TTM.ordinal()] = daily.getPsTtm();
+            values[Field.PCF_NCF_TTM.ordinal()] = daily.getPcfNcfTtm();
+            long id = daily.getId() != null ? daily.getId() : 0L;
+            return add(id, daily.getTradeDate(), values, daily.getTradeStatus(), daily.getIsSt());
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= ids.length) {
+                return;
+            }
+            int capacity = Math.max(required, ids.length + (ids.length >> 1));
+            ids = Arrays.copyOf(ids, capacity);
+            tradeDays = Arrays.copyOf(tradeDays, capacity);
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = Arrays.copyOf(columns[i], capacity);
+            }
+            tradeStatus = Arrays.copyOf(tradeStatus, capacity);
+            isSt = Arrays.copyOf(isSt, capacity);
+        }
+
+        /**
+         * Build an immutable series trimmed to the exact size
+         */
+        public BarSeries build() {
+            long[][] trimmed = new long[columns.length][];
+            for (int i = 0; i < columns.length; i++) {
+                trimmed[i] = Arrays.copyOf(columns[i], size);
+            }
+            return new BarSeries(stockCode, adjustFlag, size,
+                    Arrays.copyOf(ids, size),
+                    Arrays.copyOf(tradeDays, size),
+                    trimmed,
+                    Arrays.copyOf(tradeStatus, size),
+                    Arrays.copyOf(isSt, size));
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.quant.market.domain.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Daily Snapshot
+ * 单个交易日、单一复权类型的全市场日线横截面
+ *
+ * Columnar layout indexed by stock position, sorted by stock code ascending:
+ * - Decimal columns reuse the scaled-long encoding of {@link BarSeries.Field}
+ * - Null decimals are stored as {@link BarSeries#NULL_VALUE}, null flags as {@link BarSeries#NULL_FLAG}
+ *
+ * Instances are immutable once built and safe to share between threads.
+ */
+public final class DailySnapshot {
+
+    private static final BarSeries.Field[] FIELDS = BarSeries.Field.values();
+
+    private final LocalDate tradeDate;
+    private final Short adjustFlag;
+    private final int size;
+    private final String[] stockCodes;
+    private final long[][] columns;
+    private final byte[] tradeStatus;
+    private final byte[] isSt;
+
+    private DailySnapshot(LocalDate tradeDate, Short adjustFlag, int size, String[] stockCodes,
+                          long[][] columns, byte[] tradeStatus, byte[] isSt) {
+        this.tradeDate = tradeDate;
+        this.adjustFlag = adjustFlag;
+        this.size = size;
+        this.stockCodes = stockCodes;
+        this.columns = columns;
+        this.tradeStatus = tradeStatus;
+        this.isSt = isSt;
+    }
+
+    public LocalDate getTradeDate() {
+        return tradeDate;
+    }
+
+    public Short getAdjustFlag() {
+        return adjustFlag;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public String getStockCode(int index) {
+        return stockCodes[index];
+    }
+
+    /**
+     * Raw scaled value of a decimal column, or {@link BarSeries#NULL_VALUE}
+     */
+    public long getRaw(BarSeries.Field field, int index) {
+        return columns[field.ordinal()][index];
+    }
+
+    /**
+     * Decimal value with the column scale, or null
+     */
+    public BigDecimal getDecimal(BarSeries.Field field, int index) {
+        long raw = columns[field.ordinal()][index];
+        return raw == BarSeries.NULL_VALUE ? null : BigDecimal.valueOf(raw, field.getScale());
+    }
+
+    /**
+     * Double value, or NaN when null
+     */
+    public double getDouble(BarSeries.Field field, int index) {
+        long raw = columns[field.ordinal()][index];
+        return raw == BarSeries.NULL_VALUE ? Double.NaN : raw / field.getFactor();
+    }
+
+    public Short getTradeStatus(int index) {
+        return toShort(tradeStatus[index]);
+    }
+
+    public Short getIsSt(int index) {
+        return toShort(isSt[index]);
+    }
+
+    /**
+     * Index of a stock, or -1 when it has no bar on this date
+     */
+    public int indexOf(String stockCode) {
+        int index = Arrays.binarySearch(stockCodes, 0, size, stockCode);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Approximate retained heap size in bytes (stock code strings counted at 48 bytes each)
+     */
+    public long estimatedBytes() {
+        return (long) size * 48 + (long) FIELDS.length * size * 8 + tradeStatus.length + isSt.length;
+    }
+
+    public static Builder builder(LocalDate tradeDate, Short adjustFlag, int expectedSize) {
+        return new Builder(tradeDate, adjustFlag, Math.max(expectedSize, 16));
+    }
+
+    private static Short toShort(byte value) {
+        return value == BarSeries.NULL_FLAG ? null : (short) value;
+    }
+
+    private static byte encodeFlag(Short value) {
+        return value == null ? BarSeries.NULL_FLAG : value.byteValue();
+    }
+
+    /**
+     * Append-only builder; stocks may be appended in any order and are sorted by code on build
+     * A stock code must not be appended twice
+     */
+    public static final class Builder {
+
+        private final LocalDate tradeDate;
+        private final Short adjustFlag;
+        private int size;
+        private String[] stockCodes;
+        private final long[][] columns;
+        private byte[] tradeStatus;
+        private byte[] isSt;
+        private boolean sorted = true;
+
+        private Builder(LocalDate tradeDate, Short adjustFlag, int capacity) {
+            this.tradeDate = tradeDate;
+            this.adjustFlag = adjustFlag;
+            this.stockCodes = new String[capacity];
+            this.columns = new long[FIELDS.length][capacity];
+            this.tradeStatus = new byte[capacity];
+            this.isSt = new byte[capacity];
+        }
+
+        /**
+         * Append one stock's bar
+         *
+         * @param values Decimal values in {@link BarSeries.Field} order
+         */
+        public Builder add(String stockCode, BigDecimal[] values, Short tradeStatusValue, Short isStValue) {
+            if (size > 0 && stockCode.compareTo(stockCodes[size - 1]) <= 0) {
+                sorted = false;
+            }
+            ensureCapacity(size + 1);
+            stockCodes[size] = stockCode;
+            for (BarSeries.Field field : FIELDS) {
+                columns[field.ordinal()][size] = BarSeries.encode(field, values[field.ordinal()]);
+            }
+            tradeStatus[size] = encodeFlag(tradeStatusValue);
+            isSt[size] = encodeFlag(isStValue);
+            size++;
+            return this;
+        }
+
+        /**
+         * Append a stock's bar copied from another snapshot, price columns multiplied by a ratio
+         * (rounded like {@link BarSeries#withScaledPrices})
+         */
+        public Builder add(DailySnapshot source, int index, double priceRatio) {
+            String stockCode = source.stockCodes[index];
+            if (size > 0 && stockCode.compareTo(stockCodes[size - 1]) <= 0) {
+                sorted = false;
+            }
+            ensureCapacity(size + 1);
+            stockCodes[size] = stockCode;
+            for (BarSeries.Field field : FIELDS) {
+                long raw = source.columns[field.ordinal()][index];
+                columns[field.ordinal()][size] = field.isPrice() && raw != BarSeries.NULL_VALUE
+                        ? Math.round(raw * priceRatio) : raw;
+            }
+            tradeStatus[size] = source.tradeStatus[index];
+            isSt[size] = source.isSt[index];
+            size++;
+            return this;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= stockCodes.length) {
+                return;
+            }
+            int capacity = Math.max(required, stockCodes.length + (stockCodes.length >> 1));
+            stockCodes = Arrays.copyOf(stockCodes, capacity);
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = Arrays.copyOf(columns[i], capacity);
+            }
+            tradeStatus = Arrays.copyOf(tradeStatus, capacity);
+            isSt = Arrays.copyOf(isSt, capacity);
+        }
+
+        /**
+         * Build an immutable snapshot trimmed to the exact size
+         */
+        public DailySnapshot build() {
+            if (!sorted) {
+                sortByStockCode();
+            }
+            for (int i = 1; i < size; i++) {
+                if (stockCodes[i].equals(stockCodes[i - 1])) {
+                    throw new IllegalArgumentException("Duplicate stock in snapshot: " + stockCodes[i] + " " + tradeDate);
+                }
+            }
+            long[][] trimmed = new long[columns.length][];
+            for (int i = 0; i < columns.length; i++) {
+                trimmed[i] = Arrays.copyOf(columns[i], size);
+            }
+            return new DailySnapshot(tradeDate, adjustFlag, size,
+                    Arrays.copyOf(stockCodes, size),
+                    trimmed,
+                    Arrays.copyOf(tradeStatus, size),
+                    Arrays.copyOf(isSt, size));
+        }
+
+        private void sortByStockCode() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            String[] codes = stockCodes;
+            Arrays.sort(order, (a, b) -> codes[a].compareTo(codes[b]));
+
+            String[] sortedCodes = new String[size];
+            byte[] sortedStatus = new byte[size];
+            byte[] sortedSt = new byte[size];
+            for (int i = 0; i < size; i++) {
+                sortedCodes[i] = codes[order[i]];
+                sortedStatus[i] = tradeStatus[order[i]];
+                sortedSt[i] = isSt[order[i]];
+            }
+            for (int c = 0; c < columns.length; c++) {
+                long[] column = columns[c];
+                long[] sortedColumn = new long[size];
+                for (int i = 0; i < size; i++) {
+                    sortedColumn[i] = column[order[i]];
+                }
+                columns[c] = sortedColumn;
+            }
+            stockCodes = sortedCodes;
+            tradeStatus = sortedStatus;
+            isSt = sortedSt;
+            sorted = true;
+        }
+    }
+}
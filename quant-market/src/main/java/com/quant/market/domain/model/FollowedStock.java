@@ -0,0 +1,36 @@
+package com.quant.market.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Followed Stock
+ * 用户关注的股票：关注关系、股票基础信息及可选的最新日线
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowedStock {
+
+    /**
+     * ID of the t_stock_relation row
+     */
+    private Long relationId;
+
+    /**
+     * Follow time
+     */
+    private LocalDateTime followedAt;
+
+    private Stock stock;
+
+    /**
+     * Latest unadjusted bar, null when not requested or when the stock has no bars
+     */
+    private StockDaily latestBar;
+}
@@ -0,0 +1,72 @@
+package com.quant.market.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Rollup Bar Domain Model
+ * 由日线聚合的周/月/季/年线
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupBar {
+
+    private String stockCode;
+
+    private RollupPeriod period;
+
+    private Short adjustFlag;
+
+    /**
+     * 周期起始日（自然周期首日）
+     */
+    private LocalDate periodStart;
+
+    /**
+     * 周期最后一个交易日（交易日历中无数据时为空）
+     */
+    private LocalDate periodEnd;
+
+    /**
+     * 周期内最后一根日线的交易日期
+     */
+    private LocalDate lastTradeDate;
+
+    private BigDecimal openPrice;
+
+    private BigDecimal highPrice;
+
+    private BigDecimal lowPrice;
+
+    private BigDecimal closePrice;
+
+    /**
+     * 周期内首个交易日的昨收价
+     */
+    private BigDecimal preClose;
+
+    private BigDecimal volume;
+
+    private BigDecimal amount;
+
+    private BigDecimal turn;
+
+    /**
+     * 参与聚合的日线数量
+     */
+    private Integer barCount;
+
+    /**
+     * Whether the period has ended: the last bar is on or after the last trading day of the period
+     */
+    public boolean isCompleted() {
+        return periodEnd != null && lastTradeDate != null && !lastTradeDate.isBefore(periodEnd);
+    }
+}
@@ -0,0 +1,35 @@
+package com.quant.market.domain.model;
+
+/**
+ * Rollup Period
+ * 日线汇总周期（自然周期，周以周一起始）
+ */
+public enum RollupPeriod {
+    WEEK("week", "1 week"),
+    MONTH("month", "1 month"),
+    QUARTER("quarter", "3 months"),
+    YEAR("year", "1 year");
+
+    /**
+     * PostgreSQL date_trunc field
+     */
+    private final String truncField;
+
+    /**
+     * PostgreSQL interval of one period
+     */
+    private final String interval;
+
+    RollupPeriod(String truncField, String interval) {
+        this.truncField = truncField;
+        this.interval = interval;
+    }
+
+    public String getTruncField() {
+        return truncField;
+    }
+
+    public String getInterval() {
+        return interval;
+    }
+}
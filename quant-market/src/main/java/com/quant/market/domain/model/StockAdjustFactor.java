@@ -0,0 +1,35 @@
+package com.quant.market.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Stock Adjust Factor Domain Model
+ * 股票复权因子：除权除息日的累计后复权因子
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustFactor {
+
+    /**
+     * 股票代码
+     */
+    private String stockCode;
+
+    /**
+     * 除权除息日（因子自该日起生效）
+     */
+    private LocalDate exDate;
+
+    /**
+     * 累计后复权因子
+     */
+    private BigDecimal backAdjustFactor;
+}
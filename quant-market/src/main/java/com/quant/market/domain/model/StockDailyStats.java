@@ -0,0 +1,56 @@
+package com.quant.market.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Stock Daily Statistics
+ * 单只股票的日线数据统计（记录数、首末交易日、各复权类型记录数）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockDailyStats {
+
+    /**
+     * 股票代码
+     */
+    private String stockCode;
+
+    /**
+     * 记录总数（所有复权类型）
+     */
+    private long recordCount;
+
+    /**
+     * 最早交易日期
+     */
+    private LocalDate firstTradeDate;
+
+    /**
+     * 最新交易日期
+     */
+    private LocalDate lastTradeDate;
+
+    /**
+     * 各复权类型记录数：1-后复权；2-前复权；3-不复权
+     */
+    private Map<Short, Long> countByAdjustFlag;
+
+    /**
+     * Statistics of a stock without any daily data
+     */
+    public static StockDailyStats empty(String stockCode) {
+        return StockDailyStats.builder()
+                .stockCode(stockCode)
+                .recordCount(0)
+                .countByAdjustFlag(Map.of())
+                .build();
+    }
+}
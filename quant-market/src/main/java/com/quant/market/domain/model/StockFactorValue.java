@@ -0,0 +1,43 @@
+package com.quant.market.domain.model;
+
+import com.quant.market.domain.factor.StockFactor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Stock Factor Value Domain Model
+ * 某交易日某只股票的一个因子值
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockFactorValue {
+
+    private LocalDate tradeDate;
+
+    private StockFactor factor;
+
+    private String stockCode;
+
+    private Double rawValue;
+
+    /**
+     * 当日横截面 z-score（±3 截尾）
+     */
+    private Double zScore;
+
+    /**
+     * 当日横截面排名，1 为原始值最大
+     */
+    private Integer rankNo;
+
+    /**
+     * 当日横截面分位，0-1
+     */
+    private Double percentile;
+}
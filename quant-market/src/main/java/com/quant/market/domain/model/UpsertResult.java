@@ -0,0 +1,29 @@
+package com.quant.market.domain.model;
+
+/**
+ * Upsert Result
+ * 批量写入（插入或更新）结果：区分新增、实际变更与内容未变的记录
+ *
+ * @param total Number of input rows
+ * @param inserted Rows inserted
+ * @param updated Existing rows whose values changed and were rewritten
+ * @param unchanged Rows identical to the stored values, left untouched
+ */
+public record UpsertResult(int total, int inserted, int updated, int unchanged) {
+
+    public static UpsertResult empty() {
+        return new UpsertResult(0, 0, 0, 0);
+    }
+
+    /**
+     * Rows actually written (inserted or updated)
+     */
+    public int changed() {
+        return inserted + updated;
+    }
+
+    public UpsertResult plus(UpsertResult other) {
+        return new UpsertResult(total + other.total, inserted + other.inserted,
+                updated + other.updated, unchanged + other.unchanged);
+    }
+}
@@ -0,0 +1,40 @@
+package com.quant.market.domain.repository;
+
+import com.quant.market.domain.indicator.IndicatorState;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indicator State Repository Interface
+ */
+public interface IndicatorStateRepository {
+
+    /**
+     * Load the persisted states of many stocks for one adjust flag
+     *
+     * @return States by stock code; stocks without states are omitted
+     */
+    Map<String, List<IndicatorState>> findByStockCodes(Collection<String> stockCodes, short adjustFlag);
+
+    /**
+     * Load and row-lock the persisted states of many stocks for one adjust flag until the current
+     * transaction ends; rows are locked in stock code order so concurrent callers cannot deadlock
+     *
+     * @return States by stock code; stocks without states are omitted
+     */
+    Map<String, List<IndicatorState>> lockByStockCodes(Collection<String> stockCodes, short adjustFlag);
+
+    /**
+     * Insert or replace states by (stockCode, adjustFlag, indicator)
+     */
+    void upsert(Collection<IndicatorState> states);
+
+    /**
+     * Delete the states of stocks for the given adjust flags
+     *
+     * @return Number of deleted states
+     */
+    int deleteByStockCodes(Collection<String> stockCodes, Collection<Short> adjustFlags);
+}
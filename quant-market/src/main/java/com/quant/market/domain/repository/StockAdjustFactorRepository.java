@@ -0,0 +1,36 @@
+package com.quant.market.domain.repository;
+
+import com.quant.market.domain.model.StockAdjustFactor;
+import com.quant.market.domain.model.UpsertResult;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stock Adjust Factor Repository Interface
+ */
+public interface StockAdjustFactorRepository {
+
+    /**
+     * Batch upsert factors by (stock_code, ex_date)
+     */
+    UpsertResult batchUpsert(List<StockAdjustFactor> factors);
+
+    /**
+     * Find all factors of a stock, ordered by ex-date
+     */
+    List<StockAdjustFactor> findByStockCode(String stockCode);
+
+    /**
+     * Find the factors of many stocks with one query
+     * Stocks without factors are absent from the result
+     */
+    Map<String, List<StockAdjustFactor>> findByStockCodes(Collection<String> stockCodes);
+
+    /**
+     * Find the codes of all stocks that have at least one factor
+     */
+    Set<String> findStockCodes();
+}
@@ -0,0 +1,47 @@
+package com.quant.market.domain.repository;
+
+import com.quant.market.domain.event.StockDailyChangedEvent;
+import com.quant.market.domain.model.RollupBar;
+import com.quant.market.domain.model.RollupPeriod;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stock Bar Rollup Repository Interface
+ */
+public interface StockBarRollupRepository {
+
+    /**
+     * Serialize rollup maintenance of the given stocks with other transactions doing the same
+     * Must run inside a transaction; the locks are held until it ends
+     */
+    void lockStocks(Collection<String> stockCodes);
+
+    /**
+     * Recompute the rollups of the periods containing the given daily bars
+     * Stored rollups of periods left without any bar are deleted
+     *
+     * @param period Rollup period
+     * @param keys Written daily bars
+     * @param deriveBackward Compute backward-adjusted rollups of stocks with adjust factors from unadjusted bars
+     * @return Number of rollup rows inserted, changed or deleted
+     */
+    int refresh(RollupPeriod period, Collection<StockDailyChangedEvent.BarKey> keys, boolean deriveBackward);
+
+    /**
+     * Recompute all rollups of the given stocks
+     *
+     * @return Number of rollup rows inserted, changed or deleted
+     */
+    int rebuild(RollupPeriod period, Collection<String> stockCodes, boolean deriveBackward);
+
+    /**
+     * Find the rollups of a stock overlapping a date range, ascending by period
+     *
+     * @param startDate Start date (optional)
+     * @param endDate End date (optional)
+     */
+    List<RollupBar> find(String stockCode, RollupPeriod period, short adjustFlag, LocalDate startDate, LocalDate endDate);
+}
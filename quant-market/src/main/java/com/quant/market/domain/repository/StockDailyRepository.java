@@ -1,9 +1,14 @@
 package com.quant.market.domain.repository;
 
+import com.quant.market.domain.model.BarSeries;
+import com.quant.market.domain.model.DailySnapshot;
 import com.quant.market.domain.model.StockDaily;
+import com.quant.market.domain.model.StockDailyStats;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -53,6 +58,55 @@ public interface StockDailyRepository {
             Integer adjustFlag,
             boolean ascending);
 
+    /**
+     * Query one page of daily data ordered by (trade_date, adjust_flag), continuing after a keyset position
+     *
+     * @param stockCode Stock code (required)
+     * @param startDate Start date (optional)
+     * @param endDate End date (optional)
+     * @param adjustFlag Adjust flag (optional, null means all types)
+     * @param ascending Sort order (true=ascending, false=descending)
+     * @param afterTradeDate Trade date of the last row of the previous page (null for the first page)
+     * @param afterAdjustFlag Adjust flag of the last row of the previous page (null when a single adjust flag is queried)
+     * @param limit Maximum number of rows
+     * @return Page rows
+     */
+    List<StockDaily> queryDailyDataPage(
+            String stockCode,
+            LocalDate startDate,
+            LocalDate endDate,
+            Integer adjustFlag,
+            boolean ascending,
+            LocalDate afterTradeDate,
+            Short afterAdjustFlag,
+            int limit);
+
+    /**
+     * Load the bars of many stocks for one adjust flag with a single set-based query
+     *
+     * @param stockCodes Stock codes
+     * @param startDate Start date (optional)
+     * @param endDate End date (optional)
+     * @param adjustFlag Adjust flag (required)
+     * @param lastN Keep only the latest N bars within the range per stock (optional)
+     * @return Series by stock code in the order of the given codes; stocks without bars are omitted
+     */
+    Map<String, BarSeries> findSeriesByStockCodes(
+            Collection<String> stockCodes,
+            LocalDate startDate,
+            LocalDate endDate,
+            short adjustFlag,
+            Integer lastN);
+
+    /**
+     * Load the bars of all stocks on one trade date
+     *
+     * @param tradeDate Trade date
+     * @param adjustFlag Adjust flag
+     * @return Cross-sectional snapshot sorted by stock code (empty when there is no data)
+     */
+    DailySnapshot findSnapshot(LocalDate tradeDate, short adjustFlag);
+
     /**
      * Delete by ID
      */
@@ -68,6 +122,15 @@ public interface StockDailyRepository {
      */
     long countByStockCode(String stockCode);
 
+    /**
+     * Compute per-stock statistics with aggregate SQL
+     * Stocks without daily data are not included in the result
+     *
+     * @param stockCodes Stock codes
+     * @return Statistics for each stock that has daily data
+     */
+    List<StockDailyStats> findStatsByStockCodes(Collection<String> stockCodes);
+
     /**
      * Find the latest trade date in the database
      *
@@ -0,0 +1,51 @@
+package com.quant.market.domain.repository;
+
+import com.quant.market.domain.factor.FactorCrossSection;
+import com.quant.market.domain.factor.StockFactor;
+import com.quant.market.domain.model.StockFactorValue;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stock Factor Repository Interface
+ */
+public interface StockFactorRepository {
+
+    /**
+     * Replace all factor values of the trade date with the cross section
+     *
+     * @param section Cross section of one trade date
+     * @return Rows written
+     */
+    int replaceTradeDate(FactorCrossSection section);
+
+    /**
+     * Find the values of one factor on a trade date by rank
+     *
+     * @param tradeDate Trade date
+     * @param factor Factor
+     * @param fromTop Largest values first when true, smallest first otherwise
+     * @param limit Maximum number of rows
+     * @return Values ordered by rank
+     */
+    List<StockFactorValue> findByRank(LocalDate tradeDate, StockFactor factor, boolean fromTop, int limit);
+
+    /**
+     * Find the factor values of stocks over a date range
+     *
+     * @param stockCodes Stock codes
+     * @param factors Factors (all when empty)
+     * @param startDate Start date (optional)
+     * @param endDate End date (optional)
+     * @return Values ordered by stock code, trade date and factor
+     */
+    List<StockFactorValue> findByStockCodes(Collection<String> stockCodes, Collection<StockFactor> factors,
+                                            LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Latest trade date with factor values, or null if none
+     */
+    LocalDate findLatestTradeDate();
+}
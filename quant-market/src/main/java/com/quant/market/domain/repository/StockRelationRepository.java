@@ -1,7 +1,9 @@
 package com.quant.market.domain.repository;
 
+import com.quant.market.domain.model.FollowedStock;
 import com.quant.market.domain.model.StockRelation;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -69,4 +71,35 @@ public interface StockRelationRepository {
      * @return 用户关注的股票代码集合
      */
     List<String> findFollowedStockCodes(List<String> stockCodes, Long userId, StockRelation.RefType refType);
+
+    /**
+     * 按关注时间倒序查询用户关注的股票（游标分页，关联 t_stock_basic）
+     * @param refId 用户ID
+     * @param refType 关联类型
+     * @param afterFollowedAt 上一页最后一行的关注时间，首页为 null
+     * @param afterRelationId 上一页最后一行的关联ID，首页为 null
+     * @param limit 返回行数上限
+     * @param includeLatestBar 是否附带每只股票最新一根不复权日线
+     * @return 关注的股票，按 (关注时间, 关联ID) 倒序
+     */
+    List<FollowedStock> findFollowedStocksAfter(Long refId, StockRelation.RefType refType,
+                                                LocalDateTime afterFollowedAt, Long afterRelationId,
+                                                int limit, boolean includeLatestBar);
+
+    /**
+     * 按关注时间排序查询用户关注的股票（OFFSET 分页，关联 t_stock_basic）
+     * @param refId 用户ID
+     * @param refType 关联类型
+     * @param ascending 是否按关注时间正序
+     * @param offset 跳过行数
+     * @param limit 返回行数上限
+     * @return 关注的股票
+     */
+    List<FollowedStock> findFollowedStocks(Long refId, StockRelation.RefType refType,
+                                           boolean ascending, long offset, int limit);
+
+    /**
+     * 统计用户关注且在 t_stock_basic 中存在的股票数量
+     */
+    long countFollowedStocks(Long refId, StockRelation.RefType refType);
 }
@@ -1,6 +1,7 @@
 package com.quant.market.domain.repository;
 
 import com.quant.market.domain.model.Stock;
+import com.quant.market.domain.model.UpsertResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -106,11 +107,27 @@ public interface StockRepository {
             List<Stock.Exchange> exchanges
     );
 
+    /**
+     * Query one page of stocks by multiple conditions, sorted and limited in the database
+     * @param pageable Page, size and sort; sort properties must be validated by the caller
+     * @return Page of matching stocks with the total number of matches
+     */
+    Page<Stock> queryStocks(
+            java.time.LocalDate listingDateFrom,
+            java.time.LocalDate listingDateTo,
+            String keyword,
+            List<Stock.StockStatus> statuses,
+            List<String> industries,
+            List<Stock.Exchange> exchanges,
+            Pageable pageable
+    );
+
     /**
      * Batch upsert stocks (insert or update based on exchange and stock_code)
      * Uses PostgreSQL ON CONFLICT clause for high performance batch operations
+     * Existing stocks are only rewritten when at least one value differs
      * @param stocks List of stocks to upsert
-     * @return Number of affected rows
+     * @return Upsert result with inserted, updated and unchanged counts
      */
-    int batchUpsert(List<Stock> stocks);
+    UpsertResult batchUpsert(List<Stock> stocks);
 }
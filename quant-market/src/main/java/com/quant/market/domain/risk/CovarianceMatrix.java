@@ -0,0 +1,236 @@
+package com.quant.market.domain.risk;
+
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Covariance Matrix
+ * 日收益率样本协方差矩阵及相关系数
+ *
+ * Only the upper triangle (with the diagonal) is stored, packed row by row as float: 4 bytes per
+ * pair keeps a 5000-stock matrix at about 50 MB. Correlations are derived when encoding, from the
+ * packed covariances and the variances, which are kept in double precision.
+ *
+ * The product X·Xᵀ of the return matrix is computed in square tiles of {@link #BLOCK} rows so both
+ * row blocks of a tile stay in cache while every pair is dotted; tiles on or above the diagonal are
+ * spread over a fork-join pool and each writes a disjoint set of cells.
+ */
+public final class CovarianceMatrix {
+
+    /**
+     * Rows per tile: two tiles of 250-day rows take 2 × 64 × 250 × 8 bytes = 256 KB
+     */
+    static final int BLOCK = 64;
+
+    /**
+     * Tiles computed sequentially by one fork-join leaf
+     */
+    private static final int TILES_PER_LEAF = 4;
+
+    private final String[] stockCodes;
+    private final int[] observations;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final int window;
+    private final int excluded;
+    private final float[] packed;
+    private final double[] variances;
+
+    private CovarianceMatrix(ReturnMatrix returns, float[] packed, double[] variances) {
+        int n = returns.size();
+        this.stockCodes = new String[n];
+        this.observations = new int[n];
+        for (int i = 0; i < n; i++) {
+            stockCodes[i] = returns.getStockCode(i);
+            observations[i] = returns.getObservations(i);
+        }
+        this.startDate = returns.getStartDate();
+        this.endDate = returns.getEndDate();
+        this.window = returns.window();
+        this.excluded = returns.getExcluded();
+        this.packed = packed;
+        this.variances = variances;
+    }
+
+    /**
+     * Compute the sample covariance matrix (divisor window - 1) of the return matrix
+     *
+     * @param returns Demeaned return matrix
+     * @param pool Pool running the tiles
+     * @return Covariance matrix
+     * @throws IllegalArgumentException if the packed triangle would not fit in an array
+     */
+    public static CovarianceMatrix compute(ReturnMatrix returns, ForkJoinPool pool) {
+        int n = returns.size();
+        long cells = (long) n * (n + 1) / 2;
+        if (cells > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many stocks for a covariance matrix: " + n);
+        }
+        float[] packed = new float[(int) cells];
+        double[] variances = new double[n];
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        int tiles = blocks * (blocks + 1) / 2;
+        if (tiles > 0) {
+            pool.invoke(new TileTask(returns.values(), returns.window(), n, blocks, packed, variances, 0, tiles));
+        }
+        return new CovarianceMatrix(returns, packed, variances);
+    }
+
+    /**
+     * Position of (i, j), i &lt;= j, in the packed upper triangle
+     */
+    static int packedIndex(int n, int i, int j) {
+        return (int) ((long) i * n - (long) i * (i - 1) / 2 + (j - i));
+    }
+
+    /**
+     * Dot product of two rows with four independent accumulators
+     */
+    private static double dot(double[] values, int a, int b, int length) {
+        double s0 = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        int k = 0;
+        for (; k + 3 < length; k += 4) {
+            s0 += values[a + k] * values[b + k];
+            s1 += values[a + k + 1] * values[b + k + 1];
+            s2 += values[a + k + 2] * values[b + k + 2];
+            s3 += values[a + k + 3] * values[b + k + 3];
+        }
+        for (; k < length; k++) {
+            s0 += values[a + k] * values[b + k];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Computes tiles [from, to) of the upper block triangle, numbered row by row
+     */
+    private static final class TileTask extends RecursiveAction {
+
+        private final double[] values;
+        private final int window;
+        private final int n;
+        private final int blocks;
+        private final float[] packed;
+        private final double[] variances;
+        private final int from;
+        private final int to;
+
+        private TileTask(double[] values, int window, int n, int blocks, float[] packed, double[] variances,
+                         int from, int to) {
+            this.values = values;
+            this.window = window;
+            this.n = n;
+            this.blocks = blocks;
+            this.packed = packed;
+            this.variances = variances;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > TILES_PER_LEAF) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new TileTask(values, window, n, blocks, packed, variances, from, mid),
+                        new TileTask(values, window, n, blocks, packed, variances, mid, to));
+                return;
+            }
+            // Locate the first tile, then walk the rest in row order
+            int rowBlock = 0;
+            int tile = from;
+            while (tile >= blocks - rowBlock) {
+                tile -= blocks - rowBlock;
+                rowBlock++;
+            }
+            int columnBlock = rowBlock + tile;
+            for (int t = from; t < to; t++) {
+                computeTile(rowBlock, columnBlock);
+                if (++columnBlock == blocks) {
+                    rowBlock++;
+                    columnBlock = rowBlock;
+                }
+            }
+        }
+
+        private void computeTile(int rowBlock, int columnBlock) {
+            double divisor = window - 1;
+            int rowEnd = Math.min(n, (rowBlock + 1) * BLOCK);
+            int columnStart = columnBlock * BLOCK;
+            int columnEnd = Math.min(n, columnStart + BLOCK);
+            for (int i = rowBlock * BLOCK; i < rowEnd; i++) {
+                int a = i * window;
+                int base = packedIndex(n, i, i) - i;
+                for (int j = Math.max(i, columnStart); j < columnEnd; j++) {
+                    double covariance = dot(values, a, j * window, window) / divisor;
+                    packed[base + j] = (float) covariance;
+                    if (i == j) {
+                        variances[i] = covariance;
+                    }
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return stockCodes.length;
+    }
+
+    public String getStockCode(int index) {
+        return stockCodes[index];
+    }
+
+    public int getObservations(int index) {
+        return observations[index];
+    }
+
+    public double getVariance(int index) {
+        return variances[index];
+    }
+
+    /**
+     * Covariance of stocks i and j
+     */
+    public double getCovariance(int i, int j) {
+        return i <= j ? packed[packedIndex(stockCodes.length, i, j)] : packed[packedIndex(stockCodes.length, j, i)];
+    }
+
+    /**
+     * Packed upper triangle of covariances, row by row (live array)
+     */
+    public float[] getPacked() {
+        return packed;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    /**
+     * Returns per stock
+     */
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * Stocks left out for too few observed returns
+     */
+    public int getExcluded() {
+        return excluded;
+    }
+
+    /**
+     * Approximate heap size, for logging and cache accounting
+     */
+    public long estimatedBytes() {
+        return packed.length * 4L + variances.length * 8L + observations.length * 4L + stockCodes.length * 48L;
+    }
+}
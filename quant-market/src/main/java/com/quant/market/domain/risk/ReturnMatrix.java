@@ -0,0 +1,179 @@
+package com.quant.market.domain.risk;
+
+import com.quant.market.domain.model.BarSeries;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Return Matrix
+ * 按交易日历对齐的日收益率矩阵（股票 × 交易日）
+ *
+ * Row i holds the daily close-to-close returns of stock i on the window trading days, demeaned over
+ * the observed days, stored contiguously (row-major) so pairwise dot products stream through memory.
+ * A day is observed when the stock has a bar on it that is not suspended (trade status 0); the return
+ * after a suspension spans the suspended days. Unobserved days hold 0, i.e. the row mean, which keeps
+ * the resulting covariance matrix positive semi-definite.
+ */
+public final class ReturnMatrix {
+
+    private final String[] stockCodes;
+    private final int[] observations;
+    private final double[] values;
+    private final LocalDate[] tradingDays;
+    private final int excluded;
+
+    private ReturnMatrix(String[] stockCodes, int[] observations, double[] values, LocalDate[] tradingDays, int excluded) {
+        this.stockCodes = stockCodes;
+        this.observations = observations;
+        this.values = values;
+        this.tradingDays = tradingDays;
+        this.excluded = excluded;
+    }
+
+    /**
+     * Align the closes of many stocks to the trading calendar
+     *
+     * @param tradingDays Window trading days ascending; the first day only provides the base close,
+     *                    so the matrix has {@code tradingDays.size() - 1} columns
+     * @param series Price series (same adjust flag for all stocks), rows in iteration order
+     * @param minObservations Stocks with fewer observed returns are left out
+     * @return Return matrix
+     */
+    public static ReturnMatrix build(List<LocalDate> tradingDays, Iterable<BarSeries> series, int minObservations) {
+        int window = tradingDays.size() - 1;
+        if (window < 2) {
+            throw new IllegalArgumentException("At least 3 trading days are required, got " + tradingDays.size());
+        }
+        int[] days = new int[tradingDays.size()];
+        for (int k = 0; k < days.length; k++) {
+            days[k] = (int) tradingDays.get(k).toEpochDay();
+        }
+
+        List<String> codes = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        double[] values = new double[64 * window];
+        double[] row = new double[window];
+        int excluded = 0;
+        for (BarSeries stock : series) {
+            int observed = alignReturns(stock, tradingDays.get(0), days, row);
+            if (observed < minObservations) {
+                excluded++;
+                continue;
+            }
+            int offset = codes.size() * window;
+            if (offset + window > values.length) {
+                values = Arrays.copyOf(values, values.length << 1);
+            }
+            demean(row, observed, values, offset);
+            codes.add(stock.getStockCode());
+            counts.add(observed);
+        }
+
+        int n = codes.size();
+        int[] observations = new int[n];
+        for (int i = 0; i < n; i++) {
+            observations[i] = counts.get(i);
+        }
+        return new ReturnMatrix(codes.toArray(new String[0]), observations,
+                Arrays.copyOf(values, n * window), tradingDays.toArray(new LocalDate[0]), excluded);
+    }
+
+    /**
+     * Merge the bars with the calendar days; unobserved returns are NaN
+     *
+     * @return Number of observed returns
+     */
+    private static int alignReturns(BarSeries stock, LocalDate firstDay, int[] days, double[] row) {
+        Arrays.fill(row, Double.NaN);
+        int size = stock.size();
+        int i = stock.lowerBound(firstDay);
+        double lastClose = Double.NaN;
+        int observed = 0;
+        for (int k = 0; k < days.length && i < size; k++) {
+            while (i < size && stock.getTradeDay(i) < days[k]) {
+                i++;
+            }
+            if (i == size || stock.getTradeDay(i) != days[k]) {
+                continue;
+            }
+            Short tradeStatus = stock.getTradeStatus(i);
+            double close = stock.getDouble(BarSeries.Field.CLOSE, i);
+            i++;
+            if (tradeStatus != null && tradeStatus == 0 || !(close > 0)) {
+                continue;
+            }
+            if (k > 0 && !Double.isNaN(lastClose)) {
+                row[k - 1] = close / lastClose - 1;
+                observed++;
+            }
+            lastClose = close;
+        }
+        return observed;
+    }
+
+    private static void demean(double[] row, int observed, double[] out, int offset) {
+        double sum = 0;
+        for (double value : row) {
+            if (!Double.isNaN(value)) {
+                sum += value;
+            }
+        }
+        double mean = observed > 0 ? sum / observed : 0;
+        for (int k = 0; k < row.length; k++) {
+            out[offset + k] = Double.isNaN(row[k]) ? 0 : row[k] - mean;
+        }
+    }
+
+    /**
+     * Number of stocks (rows)
+     */
+    public int size() {
+        return stockCodes.length;
+    }
+
+    /**
+     * Number of returns per stock (columns)
+     */
+    public int window() {
+        return tradingDays.length - 1;
+    }
+
+    public String getStockCode(int index) {
+        return stockCodes[index];
+    }
+
+    /**
+     * Observed returns of a stock within the window
+     */
+    public int getObservations(int index) {
+        return observations[index];
+    }
+
+    /**
+     * Demeaned returns, row-major (live array)
+     */
+    double[] values() {
+        return values;
+    }
+
+    /**
+     * Base day of the first return
+     */
+    public LocalDate getStartDate() {
+        return tradingDays[0];
+    }
+
+    public LocalDate getEndDate() {
+        return tradingDays[tradingDays.length - 1];
+    }
+
+    /**
+     * Stocks left out for too few observed returns
+     */
+    public int getExcluded() {
+        return excluded;
+    }
+}
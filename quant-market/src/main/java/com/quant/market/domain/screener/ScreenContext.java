@@ -0,0 +1,109 @@
+package com.quant.market.domain.screener;
+
+import com.quant.market.domain.indicator.Indicator;
+import com.quant.market.domain.indicator.IndicatorEngine;
+import com.quant.market.domain.indicator.IndicatorSpec;
+import com.quant.market.domain.indicator.IndicatorWorkspace;
+import com.quant.market.domain.model.BarSeries;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Screen Context
+ * 选股表达式的求值上下文：一只股票的列式日线及筛选日所在位置
+ *
+ * Indicator values are computed over the bars up to the screen date on first use and cached until
+ * the next {@link #reset}. A context owns its scratch buffers and is meant to be reused by one
+ * thread across all the stocks it evaluates.
+ */
+public final class ScreenContext {
+
+    private static final int CLOSE_SLOT = 0;
+    private static final int HIGH_SLOT = 1;
+    private static final int LOW_SLOT = 2;
+    private static final int OUTPUT_SLOT = 3;
+
+    private final IndicatorWorkspace workspace = new IndicatorWorkspace();
+    private final Map<IndicatorSpec, double[]> indicatorValues = new HashMap<>();
+    private BarSeries series;
+    private int index;
+    private boolean pricesLoaded;
+
+    /**
+     * Point the context at a bar
+     *
+     * @param series Bars of one stock, ascending
+     * @param index Index of the bar on the screen date
+     */
+    public void reset(BarSeries series, int index) {
+        this.series = series;
+        this.index = index;
+        this.pricesLoaded = false;
+        indicatorValues.clear();
+    }
+
+    public String getStockCode() {
+        return series.getStockCode();
+    }
+
+    /**
+     * Value of a decimal column on the screen date (NaN when missing)
+     */
+    public double field(BarSeries.Field field) {
+        return series.getDouble(field, index);
+    }
+
+    /**
+     * ST flag on the screen date (NaN when missing)
+     */
+    public double isSt() {
+        Short value = series.getIsSt(index);
+        return value != null ? value : Double.NaN;
+    }
+
+    /**
+     * Trade status on the screen date (NaN when missing)
+     */
+    public double tradeStatus() {
+        Short value = series.getTradeStatus(index);
+        return value != null ? value : Double.NaN;
+    }
+
+    /**
+     * Indicator output on the screen date, computed from the first bar
+     *
+     * @param output Output index in {@link Indicator#getOutputs()} order
+     */
+    public double indicator(IndicatorSpec spec, int output) {
+        double[] values = indicatorValues.get(spec);
+        if (values == null) {
+            values = computeIndicator(spec);
+            indicatorValues.put(spec, values);
+        }
+        return values[output];
+    }
+
+    private double[] computeIndicator(IndicatorSpec spec) {
+        int n = index + 1;
+        if (!pricesLoaded) {
+            series.copyDoubles(BarSeries.Field.CLOSE, 0, n, workspace.buffer(CLOSE_SLOT, n));
+            series.copyDoubles(BarSeries.Field.HIGH, 0, n, workspace.buffer(HIGH_SLOT, n));
+            series.copyDoubles(BarSeries.Field.LOW, 0, n, workspace.buffer(LOW_SLOT, n));
+            pricesLoaded = true;
+        }
+        int outputCount = spec.getIndicator().outputCount();
+        double[][] out = new double[outputCount][];
+        for (int k = 0; k < outputCount; k++) {
+            out[k] = workspace.buffer(OUTPUT_SLOT + k, n);
+        }
+        IndicatorEngine.compute(spec, workspace.buffer(HIGH_SLOT, n), workspace.buffer(LOW_SLOT, n),
+                workspace.buffer(CLOSE_SLOT, n), n, workspace, out);
+
+        double[] values = new double[outputCount];
+        for (int k = 0; k < outputCount; k++) {
+            values[k] = out[k][index];
+        }
+        return values;
+    }
+}
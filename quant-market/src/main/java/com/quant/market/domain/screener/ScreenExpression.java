@@ -0,0 +1,157 @@
+package com.quant.market.domain.screener;
+
+import com.quant.market.domain.indicator.Indicator;
+import com.quant.market.domain.indicator.IndicatorSpec;
+import com.quant.market.domain.model.BarSeries;
+
+import java.util.Map;
+
+/**
+ * Screen Expression
+ * 选股数值表达式：常量、日线字段、技术指标及四则运算；缺失值为 NaN
+ */
+public sealed interface ScreenExpression {
+
+    /**
+     * Bars needed up to the screen date: 1 for plain columns, the window of windowed indicators,
+     * {@link Integer#MAX_VALUE} for recursive indicators that depend on the whole history
+     */
+    int ALL_BARS = Integer.MAX_VALUE;
+
+    double evaluate(ScreenContext context);
+
+    int requiredBars();
+
+    /**
+     * Canonical text, e.g. "CLOSE", "SMA(200)", "(CLOSE - OPEN)"
+     */
+    String label();
+
+    /**
+     * Collect the column and indicator leaves by label
+     */
+    void collectColumns(Map<String, ScreenExpression> columns);
+
+    record Constant(double value) implements ScreenExpression {
+        @Override
+        public double evaluate(ScreenContext context) {
+            return value;
+        }
+
+        @Override
+        public int requiredBars() {
+            return 0;
+        }
+
+        @Override
+        public String label() {
+            return value == Math.rint(value) && Math.abs(value) < 1e15
+                    ? String.valueOf((long) value) : String.valueOf(value);
+        }
+
+        @Override
+        public void collectColumns(Map<String, ScreenExpression> columns) {
+        }
+    }
+
+    record FieldValue(BarSeries.Field field) implements ScreenExpression {
+        @Override
+        public double evaluate(ScreenContext context) {
+            return context.field(field);
+        }
+
+        @Override
+        public int requiredBars() {
+            return 1;
+        }
+
+        @Override
+        public String label() {
+            return field.name();
+        }
+
+        @Override
+        public void collectColumns(Map<String, ScreenExpression> columns) {
+            columns.put(label(), this);
+        }
+    }
+
+    /**
+     * IS_ST or TRADE_STATUS
+     */
+    record FlagValue(boolean isSt) implements ScreenExpression {
+        @Override
+        public double evaluate(ScreenContext context) {
+            return isSt ? context.isSt() : context.tradeStatus();
+        }
+
+        @Override
+        public int requiredBars() {
+            return 1;
+        }
+
+        @Override
+        public String label() {
+            return isSt ? "IS_ST" : "TRADE_STATUS";
+        }
+
+        @Override
+        public void collectColumns(Map<String, ScreenExpression> columns) {
+            columns.put(label(), this);
+        }
+    }
+
+    record IndicatorValue(IndicatorSpec spec, int output) implements ScreenExpression {
+        @Override
+        public double evaluate(ScreenContext context) {
+            return context.indicator(spec, output);
+        }
+
+        @Override
+        public int requiredBars() {
+            Indicator indicator = spec.getIndicator();
+            return indicator == Indicator.SMA || indicator == Indicator.BOLL ? spec.period(0) : ALL_BARS;
+        }
+
+        @Override
+        public String label() {
+            return spec.columnNames().get(output);
+        }
+
+        @Override
+        public void collectColumns(Map<String, ScreenExpression> columns) {
+            columns.put(label(), this);
+        }
+    }
+
+    record Arithmetic(char operator, ScreenExpression left, ScreenExpression right) implements ScreenExpression {
+        @Override
+        public double evaluate(ScreenContext context) {
+            double a = left.evaluate(context);
+            double b = right.evaluate(context);
+            return switch (operator) {
+                case '+' -> a + b;
+                case '-' -> a - b;
+                case '*' -> a * b;
+                case '/' -> b != 0 ? a / b : Double.NaN;
+                default -> throw new IllegalStateException("Unknown operator: " + operator);
+            };
+        }
+
+        @Override
+        public int requiredBars() {
+            return Math.max(left.requiredBars(), right.requiredBars());
+        }
+
+        @Override
+        public String label() {
+            return "(" + left.label() + " " + operator + " " + right.label() + ")";
+        }
+
+        @Override
+        public void collectColumns(Map<String, ScreenExpression> columns) {
+            left.collectColumns(columns);
+            right.collectColumns(columns);
+        }
+    }
+}
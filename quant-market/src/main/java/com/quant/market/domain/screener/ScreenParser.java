@@ -0,0 +1,416 @@
+package com.quant.market.domain.screener;
+
+import com.quant.market.domain.indicator.Indicator;
+import com.quant.market.domain.indicator.IndicatorSpec;
+import com.quant.market.domain.model.BarSeries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Screen Parser
+ * 选股条件解析器
+ *
+ * Grammar (keywords and names are case-insensitive):
+ * <pre>
+ * predicate  := and { (OR | "||") and }
+ * and        := unary { (AND | "&amp;&amp;") unary }
+ * unary      := (NOT | "!") unary | "(" predicate ")" | comparison
+ * comparison := expr ("&gt;" | "&gt;=" | "&lt;" | "&lt;=" | "=" | "==" | "!=" | "&lt;&gt;") expr
+ * expr       := term { ("+" | "-") term }
+ * term       := factor { ("*" | "/") factor }
+ * factor     := number ["%"] | "-" factor | "(" expr ")" | column | indicator
+ * column     := OPEN | HIGH | LOW | CLOSE | PRE_CLOSE | CHANGE | PCT_CHANGE | VOLUME | AMOUNT | TURN
+ *             | PE_TTM | PB_MRQ | PS_TTM | PCF_NCF_TTM | IS_ST | TRADE_STATUS
+ * indicator  := name ["(" number { "," number } ")"] ["." output]   e.g. SMA(200), MACD.DIF, BOLL(20,2).UPPER
+ *             | name period                                         e.g. SMA200, RSI14
+ * </pre>
+ * A "%" suffix is accepted for readability and does not scale the number: TURN and PCT_CHANGE
+ * are already stored in percent.
+ *
+ * A "(" in predicate position is a parenthesized predicate unless its matching ")" is followed by an
+ * arithmetic or comparison operator, decided by one lookup in a precomputed table of matching
+ * parentheses, so parsing is linear. Nesting is limited to {@value #MAX_DEPTH} levels.
+ */
+public final class ScreenParser {
+
+    static final int MAX_DEPTH = 32;
+
+    private static final Set<String> OPERAND_FOLLOWERS =
+            Set.of("+", "-", "*", "/", ">", ">=", "<", "<=", "=", "==", "!=", "<>");
+
+    private static final Pattern SHORTHAND = Pattern.compile("([A-Z]+)(\\d+)");
+
+    private static final Map<String, BarSeries.Field> COLUMN_ALIASES = Map.of(
+            "OPEN_PRICE", BarSeries.Field.OPEN,
+            "HIGH_PRICE", BarSeries.Field.HIGH,
+            "LOW_PRICE", BarSeries.Field.LOW,
+            "CLOSE_PRICE", BarSeries.Field.CLOSE,
+            "CHANGE_AMOUNT", BarSeries.Field.CHANGE);
+
+    private enum Type { NUMBER, IDENT, OP, LPAREN, RPAREN, COMMA, DOT, PERCENT, END }
+
+    private record Token(Type type, String text, int offset) {
+    }
+
+    private final String source;
+    private final List<Token> tokens;
+    private final int[] matchingParens;
+    private int pos;
+    private int depth;
+
+    private ScreenParser(String source) {
+        this.source = source;
+        this.tokens = tokenize(source);
+        this.matchingParens = matchParens(tokens);
+    }
+
+    /**
+     * Parse a filter such as "close > SMA200 and turn > 3% and pe_ttm < 20 and is_st = 0"
+     *
+     * @throws IllegalArgumentException with the position of the first error
+     */
+    public static ScreenPredicate parsePredicate(String text) {
+        ScreenParser parser = new ScreenParser(requireText(text));
+        ScreenPredicate predicate = parser.parseOr();
+        parser.expect(Type.END, "end of filter");
+        return predicate;
+    }
+
+    /**
+     * Parse a numeric expression such as "pct_change" or "close / SMA(20)"
+     *
+     * @throws IllegalArgumentException with the position of the first error
+     */
+    public static ScreenExpression parseExpression(String text) {
+        ScreenParser parser = new ScreenParser(requireText(text));
+        ScreenExpression expression = parser.parseSum();
+        parser.expect(Type.END, "end of expression");
+        return expression;
+    }
+
+    private static String requireText(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Expression is empty");
+        }
+        return text;
+    }
+
+    private ScreenPredicate parseOr() {
+        List<ScreenPredicate> terms = new ArrayList<>();
+        terms.add(parseAnd());
+        while (acceptKeyword("OR") || acceptOp("||")) {
+            terms.add(parseAnd());
+        }
+        return terms.size() == 1 ? terms.get(0) : new ScreenPredicate.Or(List.copyOf(terms));
+    }
+
+    private ScreenPredicate parseAnd() {
+        List<ScreenPredicate> terms = new ArrayList<>();
+        terms.add(parseUnary());
+        while (acceptKeyword("AND") || acceptOp("&&")) {
+            terms.add(parseUnary());
+        }
+        return terms.size() == 1 ? terms.get(0) : new ScreenPredicate.And(List.copyOf(terms));
+    }
+
+    private ScreenPredicate parseUnary() {
+        if (acceptKeyword("NOT") || acceptOp("!")) {
+            enter();
+            ScreenPredicate term = parseUnary();
+            depth--;
+            return new ScreenPredicate.Not(term);
+        }
+        if (peek().type() == Type.LPAREN && !opensOperand(pos)) {
+            enter();
+            pos++;
+            ScreenPredicate inner = parseOr();
+            expect(Type.RPAREN, ")");
+            depth--;
+            return inner;
+        }
+        return parseComparison();
+    }
+
+    /**
+     * Whether the "(" at index opens the left operand of a comparison rather than a predicate
+     */
+    private boolean opensOperand(int index) {
+        int close = matchingParens[index];
+        if (close < 0) {
+            // Unbalanced: let the predicate branch report the missing ")"
+            return false;
+        }
+        Token next = tokens.get(close + 1);
+        return next.type() == Type.OP && OPERAND_FOLLOWERS.contains(next.text());
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Expression is nested deeper than " + MAX_DEPTH
+                    + " levels at position " + (peek().offset() + 1));
+        }
+    }
+
+    private ScreenPredicate parseComparison() {
+        ScreenExpression left = parseSum();
+        Token token = peek();
+        String operator = switch (token.type() == Type.OP ? token.text() : "") {
+            case ">", ">=", "<", "<=", "!=" -> token.text();
+            case "=", "==" -> "=";
+            case "<>" -> "!=";
+            default -> throw error(token, "comparison operator");
+        };
+        pos++;
+        ScreenExpression right = parseSum();
+        return new ScreenPredicate.Comparison(left, operator, right);
+    }
+
+    private ScreenExpression parseSum() {
+        ScreenExpression left = parseProduct();
+        while (peek().type() == Type.OP && (peek().text().equals("+") || peek().text().equals("-"))) {
+            char operator = tokens.get(pos++).text().charAt(0);
+            left = new ScreenExpression.Arithmetic(operator, left, parseProduct());
+        }
+        return left;
+    }
+
+    private ScreenExpression parseProduct() {
+        ScreenExpression left = parseFactor();
+        while (peek().type() == Type.OP && (peek().text().equals("*") || peek().text().equals("/"))) {
+            char operator = tokens.get(pos++).text().charAt(0);
+            left = new ScreenExpression.Arithmetic(operator, left, parseFactor());
+        }
+        return left;
+    }
+
+    private ScreenExpression parseFactor() {
+        Token token = tokens.get(pos);
+        switch (token.type()) {
+            case NUMBER -> {
+                pos++;
+                if (peek().type() == Type.PERCENT) {
+                    pos++;
+                }
+                return new ScreenExpression.Constant(Double.parseDouble(token.text()));
+            }
+            case LPAREN -> {
+                enter();
+                pos++;
+                ScreenExpression inner = parseSum();
+                expect(Type.RPAREN, ")");
+                depth--;
+                return inner;
+            }
+            case IDENT -> {
+                pos++;
+                return parseName(token);
+            }
+            case OP -> {
+                if (token.text().equals("-")) {
+                    enter();
+                    pos++;
+                    ScreenExpression operand = parseFactor();
+                    depth--;
+                    return new ScreenExpression.Arithmetic('-', new ScreenExpression.Constant(0), operand);
+                }
+                throw error(token, "number, column or indicator");
+            }
+            default -> throw error(token, "number, column or indicator");
+        }
+    }
+
+    private ScreenExpression parseName(Token token) {
+        String name = token.text().toUpperCase(Locale.ROOT);
+        if (name.equals("IS_ST") || name.equals("TRADE_STATUS")) {
+            return new ScreenExpression.FlagValue(name.equals("IS_ST"));
+        }
+        BarSeries.Field field = COLUMN_ALIASES.get(name);
+        if (field == null) {
+            try {
+                field = BarSeries.Field.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                field = null;
+            }
+        }
+        if (field != null) {
+            return new ScreenExpression.FieldValue(field);
+        }
+
+        String specText;
+        Matcher shorthand = SHORTHAND.matcher(name);
+        if (isIndicator(name)) {
+            StringBuilder args = new StringBuilder(name);
+            if (peek().type() == Type.LPAREN) {
+                pos++;
+                args.append('(');
+                while (true) {
+                    Token arg = expect(Type.NUMBER, "indicator parameter");
+                    args.append(arg.text());
+                    if (peek().type() == Type.COMMA) {
+                        pos++;
+                        args.append(',');
+                    } else {
+                        break;
+                    }
+                }
+                expect(Type.RPAREN, ")");
+                args.append(')');
+            }
+            specText = args.toString();
+        } else if (shorthand.matches() && isIndicator(shorthand.group(1))) {
+            specText = shorthand.group(1) + "(" + shorthand.group(2) + ")";
+        } else {
+            throw new IllegalArgumentException("Unknown column or indicator '" + token.text() + "' at position "
+                    + (token.offset() + 1));
+        }
+
+        IndicatorSpec spec;
+        try {
+            spec = IndicatorSpec.parse(specText);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(e.getMessage() + " at position " + (token.offset() + 1));
+        }
+        List<String> outputs = spec.getIndicator().getOutputs();
+        if (peek().type() == Type.DOT) {
+            pos++;
+            Token output = expect(Type.IDENT, "indicator output");
+            int index = outputs.indexOf(output.text().toUpperCase(Locale.ROOT));
+            if (index < 0) {
+                throw new IllegalArgumentException(spec.getIndicator() + " has no output '" + output.text()
+                        + "'; expected one of " + outputs);
+            }
+            return new ScreenExpression.IndicatorValue(spec, index);
+        }
+        if (!outputs.isEmpty()) {
+            throw new IllegalArgumentException(spec.getIndicator() + " needs an output, e.g. " + spec.getKey()
+                    + "." + outputs.get(0));
+        }
+        return new ScreenExpression.IndicatorValue(spec, 0);
+    }
+
+    private static boolean isIndicator(String name) {
+        for (Indicator indicator : Indicator.values()) {
+            if (indicator.name().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Token peek() {
+        return tokens.get(pos);
+    }
+
+    private boolean acceptKeyword(String keyword) {
+        Token token = peek();
+        if (token.type() == Type.IDENT && token.text().equalsIgnoreCase(keyword)) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean acceptOp(String operator) {
+        Token token = peek();
+        if (token.type() == Type.OP && token.text().equals(operator)) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private Token expect(Type type, String expected) {
+        Token token = peek();
+        if (token.type() != type) {
+            throw error(token, expected);
+        }
+        pos++;
+        return token;
+    }
+
+    private IllegalArgumentException error(Token token, String expected) {
+        String found = token.type() == Type.END ? "end of input" : "'" + token.text() + "'";
+        return new IllegalArgumentException("Expected " + expected + " but found " + found + " at position "
+                + (token.offset() + 1) + " in: " + source);
+    }
+
+    /**
+     * Index of the matching ")" for each "(" token, -1 if unbalanced (other tokens: -1)
+     */
+    private static int[] matchParens(List<Token> tokens) {
+        int[] matching = new int[tokens.size()];
+        Arrays.fill(matching, -1);
+        int[] open = new int[tokens.size()];
+        int top = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            Type type = tokens.get(i).type();
+            if (type == Type.LPAREN) {
+                open[top++] = i;
+            } else if (type == Type.RPAREN && top > 0) {
+                matching[open[--top]] = i;
+            }
+        }
+        return matching;
+    }
+
+    private static List<Token> tokenize(String source) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        int length = source.length();
+        while (i < length) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isDigit(c) || c == '.' && i + 1 < length && Character.isDigit(source.charAt(i + 1))) {
+                int start = i;
+                while (i < length && (Character.isDigit(source.charAt(i)) || source.charAt(i) == '.')) {
+                    i++;
+                }
+                String number = source.substring(start, i);
+                try {
+                    Double.parseDouble(number);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid number '" + number + "' at position " + (start + 1));
+                }
+                tokens.add(new Token(Type.NUMBER, number, start));
+            } else if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < length && (Character.isLetterOrDigit(source.charAt(i)) || source.charAt(i) == '_')) {
+                    i++;
+                }
+                tokens.add(new Token(Type.IDENT, source.substring(start, i), start));
+            } else {
+                Type type = switch (c) {
+                    case '(' -> Type.LPAREN;
+                    case ')' -> Type.RPAREN;
+                    case ',' -> Type.COMMA;
+                    case '.' -> Type.DOT;
+                    case '%' -> Type.PERCENT;
+                    default -> Type.OP;
+                };
+                if (type != Type.OP) {
+                    tokens.add(new Token(type, String.valueOf(c), i++));
+                    continue;
+                }
+                String two = i + 1 < length ? source.substring(i, i + 2) : "";
+                if (List.of(">=", "<=", "==", "!=", "<>", "&&", "||").contains(two)) {
+                    tokens.add(new Token(Type.OP, two, i));
+                    i += 2;
+                } else if ("+-*/<>=!".indexOf(c) >= 0) {
+                    tokens.add(new Token(Type.OP, String.valueOf(c), i++));
+                } else {
+                    throw new IllegalArgumentException("Unexpected character '" + c + "' at position " + (i + 1));
+                }
+            }
+        }
+        tokens.add(new Token(Type.END, "", length));
+        return tokens;
+    }
+}
@@ -0,0 +1,165 @@
+package com.quant.market.domain.screener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Screen Predicate
+ * 选股条件：比较及 and/or/not 组合；与缺失值（NaN）的比较一律不成立
+ *
+ * Predicates use three-valued logic like SQL: a comparison with a missing value is UNKNOWN, NOT keeps
+ * UNKNOWN, and a stock matches only when the whole filter is TRUE. So neither "pe_ttm > 20" nor
+ * "NOT (pe_ttm > 20)" matches a stock without pe_ttm.
+ */
+public sealed interface ScreenPredicate {
+
+    int FALSE = 0;
+    int TRUE = 1;
+    int UNKNOWN = 2;
+
+    /**
+     * Evaluate to {@link #TRUE}, {@link #FALSE} or {@link #UNKNOWN}
+     */
+    int evaluate(ScreenContext context);
+
+    /**
+     * Whether the stock matches, i.e. the predicate is TRUE
+     */
+    default boolean test(ScreenContext context) {
+        return evaluate(context) == TRUE;
+    }
+
+    int requiredBars();
+
+    String label();
+
+    void collectColumns(Map<String, ScreenExpression> columns);
+
+    record Comparison(ScreenExpression left, String operator, ScreenExpression right) implements ScreenPredicate {
+        @Override
+        public int evaluate(ScreenContext context) {
+            double a = left.evaluate(context);
+            if (Double.isNaN(a)) {
+                return UNKNOWN;
+            }
+            double b = right.evaluate(context);
+            if (Double.isNaN(b)) {
+                return UNKNOWN;
+            }
+            boolean result = switch (operator) {
+                case ">" -> a > b;
+                case ">=" -> a >= b;
+                case "<" -> a < b;
+                case "<=" -> a <= b;
+                case "=" -> a == b;
+                case "!=" -> a != b;
+                default -> throw new IllegalStateException("Unknown comparison: " + operator);
+            };
+            return result ? TRUE : FALSE;
+        }
+
+        @Override
+        public int requiredBars() {
+            return Math.max(left.requiredBars(), right.requiredBars());
+        }
+
+        @Override
+        public String label() {
+            return left.label() + " " + operator + " " + right.label();
+        }
+
+        @Override
+        public void collectColumns(Map<String, ScreenExpression> columns) {
+            left.collectColumns(columns);
+            right.collectColumns(columns);
+        }
+    }
+
+    record And(List<ScreenPredicate> terms) implements ScreenPredicate {
+        @Override
+        public int evaluate(ScreenContext context) {
+            int result = TRUE;
+            for (ScreenPredicate term : terms) {
+                int value = term.evaluate(context);
+                if (value == FALSE) {
+                    return FALSE;
+                }
+                if (value == UNKNOWN) {
+                    result = UNKNOWN;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public int requiredBars() {
+            return terms.stream().mapToInt(ScreenPredicate::requiredBars).max().orElse(0);
+        }
+
+        @Override
+        public String label() {
+            return terms.stream().map(ScreenPredicate::label).collect(Collectors.joining(" AND ", "(", ")"));
+        }
+
+        @Override
+        public void collectColumns(Map<String, ScreenExpression> columns) {
+            terms.forEach(term -> term.collectColumns(columns));
+        }
+    }
+
+    record Or(List<ScreenPredicate> terms) implements ScreenPredicate {
+        @Override
+        public int evaluate(ScreenContext context) {
+            int result = FALSE;
+            for (ScreenPredicate term : terms) {
+                int value = term.evaluate(context);
+                if (value == TRUE) {
+                    return TRUE;
+                }
+                if (value == UNKNOWN) {
+                    result = UNKNOWN;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public int requiredBars() {
+            return terms.stream().mapToInt(ScreenPredicate::requiredBars).max().orElse(0);
+        }
+
+        @Override
+        public String label() {
+            return terms.stream().map(ScreenPredicate::label).collect(Collectors.joining(" OR ", "(", ")"));
+        }
+
+        @Override
+        public void collectColumns(Map<String, ScreenExpression> columns) {
+            terms.forEach(term -> term.collectColumns(columns));
+        }
+    }
+
+    record Not(ScreenPredicate term) implements ScreenPredicate {
+        @Override
+        public int evaluate(ScreenContext context) {
+            int value = term.evaluate(context);
+            return value == UNKNOWN ? UNKNOWN : TRUE - value;
+        }
+
+        @Override
+        public int requiredBars() {
+            return term.requiredBars();
+        }
+
+        @Override
+        public String label() {
+            return "NOT " + term.label();
+        }
+
+        @Override
+        public void collectColumns(Map<String, ScreenExpression> columns) {
+            term.collectColumns(columns);
+        }
+    }
+}
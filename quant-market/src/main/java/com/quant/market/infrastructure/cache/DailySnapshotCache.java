@@ -0,0 +1,119 @@
+package com.quant.market.infrastructure.cache;
+
+import com.quant.market.domain.event.StockDailyChangedEvent;
+import com.quant.market.domain.model.DailySnapshot;
+import com.quant.market.domain.repository.StockDailyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Daily Snapshot Cache
+ * 按交易日缓存的全市场日线横截面
+ *
+ * - A (trade_date, adjust_flag) snapshot is loaded on first access with one index scan
+ *   of idx_stock_daily_date_adjust_code and kept as primitive arrays
+ * - Closed trading days do not change, so snapshots stay until evicted by LRU
+ *   ({@code market.snapshot-cache.max-dates}) or by a committed write touching that date
+ * - Each write bumps a per-date generation; a load that overlaps a write is returned but not cached
+ */
+@Slf4j
+@Component
+public class DailySnapshotCache {
+
+    private final StockDailyRepository dailyRepository;
+    private final Map<SnapshotKey, DailySnapshot> snapshots;
+    private final Map<SnapshotKey, Object> loadLocks = new ConcurrentHashMap<>();
+    private final Map<LocalDate, Long> generations = new ConcurrentHashMap<>();
+
+    public DailySnapshotCache(StockDailyRepository dailyRepository,
+                              @Value("${market.snapshot-cache.max-dates:60}") int maxDates) {
+        this.dailyRepository = dailyRepository;
+        this.snapshots = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SnapshotKey, DailySnapshot> eldest) {
+                return size() > maxDates;
+            }
+        });
+        log.info("Daily snapshot cache initialized: maxDates={}", maxDates);
+    }
+
+    /**
+     * Get the snapshot of a trade date, loading it on cache miss
+     *
+     * @param tradeDate Trade date
+     * @param adjustFlag Adjust flag
+     * @return Snapshot (empty when there is no data on that date)
+     */
+    public DailySnapshot get(LocalDate tradeDate, short adjustFlag) {
+        SnapshotKey key = new SnapshotKey(tradeDate, adjustFlag);
+        DailySnapshot cached = snapshots.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Serialize concurrent loads of the same date so a cold date is read only once
+        Object lock = loadLocks.computeIfAbsent(key, k -> new Object());
+        synchronized (lock) {
+            try {
+                cached = snapshots.get(key);
+                if (cached == null) {
+                    long startTime = System.nanoTime();
+                    long generation = generations.getOrDefault(tradeDate, 0L);
+                    cached = dailyRepository.findSnapshot(tradeDate, adjustFlag);
+                    synchronized (snapshots) {
+                        if (generations.getOrDefault(tradeDate, 0L) == generation) {
+                            snapshots.put(key, cached);
+                        }
+                    }
+                    log.debug("Loaded snapshot {} adjustFlag={} with {} stocks in {}us",
+                            tradeDate, adjustFlag, cached.size(), (System.nanoTime() - startTime) / 1000);
+                }
+                return cached;
+            } finally {
+                loadLocks.remove(key, lock);
+            }
+        }
+    }
+
+    /**
+     * Evict all snapshots of a trade date
+     */
+    public void evict(LocalDate tradeDate) {
+        synchronized (snapshots) {
+            generations.merge(tradeDate, 1L, Long::sum);
+            snapshots.keySet().removeIf(key -> key.tradeDate().equals(tradeDate));
+        }
+    }
+
+    /**
+     * Number of snapshots currently cached
+     */
+    public int getCachedSnapshotCount() {
+        return snapshots.size();
+    }
+
+    /**
+     * Drop snapshots of trade dates touched by a committed batch write
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDailyChanged(StockDailyChangedEvent event) {
+        Set<LocalDate> tradeDates = event.getTradeDates();
+        synchronized (snapshots) {
+            tradeDates.forEach(tradeDate -> generations.merge(tradeDate, 1L, Long::sum));
+            snapshots.keySet().removeIf(key -> tradeDates.contains(key.tradeDate()));
+        }
+        log.debug("Evicted snapshots of {} trade dates after {}", tradeDates.size(), event.getChangeType());
+    }
+
+    private record SnapshotKey(LocalDate tradeDate, short adjustFlag) {
+    }
+}
@@ -0,0 +1,184 @@
+package com.quant.market.infrastructure.cache;
+
+import com.quant.market.domain.event.StockFollowChangedEvent;
+import com.quant.market.domain.model.StockRelation;
+import com.quant.market.domain.repository.StockRelationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Followed Stock Cache
+ * 按用户缓存的关注股票集合，用于 isFollowed 填充和关注判断
+ *
+ * - Stock codes are mapped to dense ids by an append-only dictionary, and each user's followed
+ *   set is an immutable bitset over those ids (about one bit per listed stock)
+ * - A user's set is loaded on first access with one query of t_stock_relation and kept until
+ *   evicted by LRU ({@code market.follow-cache.max-users})
+ * - Committed follows and unfollows are written through to the cached set; a load that overlaps a
+ *   write is returned but not cached, so a stale read never sticks
+ */
+@Slf4j
+@Component
+public class FollowedStockCache {
+
+    private final StockRelationRepository stockRelationRepository;
+    private final Map<Long, FollowedSet> followedSets;
+    private final Map<Long, Object> loadLocks = new ConcurrentHashMap<>();
+    private final Map<String, Integer> codeIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextCodeId = new AtomicInteger();
+    private final AtomicLong writeSequence = new AtomicLong();
+
+    public FollowedStockCache(StockRelationRepository stockRelationRepository,
+                              @Value("${market.follow-cache.max-users:10000}") int maxUsers) {
+        this.stockRelationRepository = stockRelationRepository;
+        this.followedSets = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, FollowedSet> eldest) {
+                return size() > maxUsers;
+            }
+        });
+        log.info("Followed stock cache initialized: maxUsers={}", maxUsers);
+    }
+
+    /**
+     * Get the followed set of a user, loading it on cache miss
+     *
+     * @param userId User ID
+     * @return Followed set (empty when the user follows nothing)
+     */
+    public FollowedSet get(Long userId) {
+        FollowedSet cached = followedSets.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Serialize concurrent loads of the same user so a cold user is read only once
+        Object lock = loadLocks.computeIfAbsent(userId, k -> new Object());
+        synchronized (lock) {
+            try {
+                cached = followedSets.get(userId);
+                if (cached == null) {
+                    long sequence = writeSequence.get();
+                    cached = load(userId);
+                    // Checked under the map lock the event handler writes under, so no write can
+                    // slip in between the check and the put
+                    synchronized (followedSets) {
+                        if (writeSequence.get() == sequence) {
+                            followedSets.put(userId, cached);
+                        }
+                    }
+                }
+                return cached;
+            } finally {
+                loadLocks.remove(userId, lock);
+            }
+        }
+    }
+
+    /**
+     * Whether a user follows a stock
+     */
+    public boolean isFollowing(Long userId, String stockCode) {
+        return get(userId).contains(stockCode);
+    }
+
+    /**
+     * Number of users currently cached
+     */
+    public int getCachedUserCount() {
+        return followedSets.size();
+    }
+
+    /**
+     * Write a committed follow or unfollow through to the cached set of the user
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockFollowChanged(StockFollowChangedEvent event) {
+        int codeId = codeId(event.getStockCode());
+        synchronized (followedSets) {
+            writeSequence.incrementAndGet();
+            FollowedSet cached = followedSets.get(event.getUserId());
+            if (cached != null) {
+                followedSets.put(event.getUserId(), cached.with(codeId, event.isFollowed()));
+            }
+        }
+        log.debug("Followed set of user {} updated: {} {}", event.getUserId(),
+                event.isFollowed() ? "follow" : "unfollow", event.getStockCode());
+    }
+
+    private FollowedSet load(Long userId) {
+        List<StockRelation> relations = stockRelationRepository.findByRefIdAndRefType(
+                userId, StockRelation.RefType.STOCKS_USER_FOLLOWED);
+        long[] words = new long[0];
+        for (StockRelation relation : relations) {
+            int codeId = codeId(relation.getStockCode());
+            if (codeId >>> 6 >= words.length) {
+                words = Arrays.copyOf(words, Math.max((codeId >>> 6) + 1, words.length << 1));
+            }
+            words[codeId >>> 6] |= 1L << codeId;
+        }
+        log.debug("Loaded followed set of user {} with {} stocks", userId, relations.size());
+        return new FollowedSet(words);
+    }
+
+    private int codeId(String stockCode) {
+        Integer id = codeIds.get(stockCode);
+        return id != null ? id : codeIds.computeIfAbsent(stockCode, code -> nextCodeId.getAndIncrement());
+    }
+
+    /**
+     * Immutable bitset of the followed stocks of one user
+     */
+    public final class FollowedSet {
+
+        private final long[] words;
+
+        private FollowedSet(long[] words) {
+            this.words = words;
+        }
+
+        /**
+         * Whether the stock is in the set; codes never seen by the dictionary are not followed by anyone
+         */
+        public boolean contains(String stockCode) {
+            Integer id = stockCode != null ? codeIds.get(stockCode) : null;
+            if (id == null) {
+                return false;
+            }
+            int word = id >>> 6;
+            return word < words.length && (words[word] & 1L << id) != 0;
+        }
+
+        public boolean isEmpty() {
+            for (long word : words) {
+                if (word != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Copy with one stock added or removed
+         */
+        private FollowedSet with(int codeId, boolean followed) {
+            int word = codeId >>> 6;
+            long[] copy = Arrays.copyOf(words, Math.max(words.length, followed ? word + 1 : 0));
+            if (word < copy.length) {
+                copy[word] = followed ? copy[word] | 1L << codeId : copy[word] & ~(1L << codeId);
+            }
+            return new FollowedSet(copy);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.quant.market.infrastructure.cache;
+
+import com.quant.market.domain.event.StockChangedEvent;
+import com.quant.market.domain.model.Stock;
+import com.quant.market.domain.repository.StockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stock Autocomplete Index
+ * 股票联想搜索索引：代码、名称、拼音首字母、英文名的前缀及子串匹配
+ *
+ * Every searchable term is normalized (lower case, without spaces and punctuation) and all of its
+ * suffixes are kept in one sorted suffix array. The suffixes starting with the query form a single
+ * contiguous range found by binary search: suffixes at offset 0 are prefix matches, the others
+ * substring matches. Each stock in the range is scored by its best match (exact > prefix >
+ * substring, then code > pinyin/name > English name), and the top K are returned, listed stocks
+ * first among equal scores.
+ *
+ * The index is an immutable snapshot built on first use and rebuilt after committed stock writes.
+ */
+@Slf4j
+@Component
+public class StockAutocompleteIndex {
+
+    /**
+     * Searchable fields, by weight
+     */
+    public enum Field {
+        STOCK_CODE(4), CN_SPELL(3), STOCK_NAME(3), EN_NAME(1);
+
+        private final int weight;
+
+        Field(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * One suggestion and the term that matched it
+     */
+    public record Suggestion(Stock stock, Field matchedField, String matchedText, boolean prefix) {
+    }
+
+    /**
+     * Normalized terms longer than this are cut, bounding the suffix count of long English names
+     */
+    private static final int MAX_TERM_LENGTH = 48;
+
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int SUBSTRING = 1;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final StockRepository stockRepository;
+    private final Object rebuildLock = new Object();
+    private volatile Snapshot snapshot;
+
+    /**
+     * Committed stock writes seen by {@link #onStockChanged}, including those before the first build
+     */
+    private final AtomicLong changeCount = new AtomicLong();
+
+    public StockAutocompleteIndex(StockRepository stockRepository) {
+        this.stockRepository = stockRepository;
+    }
+
+    /**
+     * Suggest stocks for a partially typed query
+     *
+     * @param query Code, name, pinyin initials or English name fragment
+     * @param limit Maximum number of suggestions
+     * @return Suggestions, best first; empty for a blank query
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        return current().suggest(normalized, limit);
+    }
+
+    /**
+     * Rebuild the snapshot from t_stock_basic
+     */
+    public void refresh() {
+        synchronized (rebuildLock) {
+            snapshot = load();
+        }
+    }
+
+    /**
+     * Rebuild after committed stock writes
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        changeCount.incrementAndGet();
+        if (snapshot == null) {
+            // Not built yet; the first query loads the current rows
+            return;
+        }
+        refresh();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (rebuildLock) {
+                while (snapshot == null) {
+                    long seenChanges = changeCount.get();
+                    Snapshot loaded = load();
+                    // A write committed during the load skipped its rebuild as nothing was built yet,
+                    // so the loaded rows may predate it
+                    if (changeCount.get() == seenChanges) {
+                        snapshot = loaded;
+                    }
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        long startTime = System.currentTimeMillis();
+        Snapshot loaded = new Snapshot(stockRepository.findAll());
+        log.info("Stock autocomplete index rebuilt: {} stocks, {} suffixes in {}ms", loaded.stocks.length,
+                loaded.suffixTerms.length, System.currentTimeMillis() - startTime);
+        return loaded;
+    }
+
+    /**
+     * Lower case, letters and digits only (CJK characters are letters)
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(value.length());
+        for (int i = 0; i < value.length() && normalized.length() < MAX_TERM_LENGTH; i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Per-thread scoring arrays indexed by stock position; scores are left at zero after each query
+     */
+    private static final class Scratch {
+
+        private int[] scores = new int[0];
+        private int[] bestTerms = new int[0];
+
+        private Scratch ensure(int size) {
+            if (scores.length < size) {
+                scores = new int[size];
+                bestTerms = new int[size];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Immutable suffix array over the normalized terms of one load of t_stock_basic
+     */
+    private static final class Snapshot {
+
+        private final Stock[] stocks;
+        private final String[] terms;
+        private final int[] termStocks;
+        private final Field[] termFields;
+        private final int[] suffixTerms;
+        private final int[] suffixOffsets;
+
+        private Snapshot(List<Stock> rows) {
+            this.stocks = rows.stream()
+                    .sorted(Comparator.comparing(Stock::getStockCode, Comparator.nullsLast(Comparator.naturalOrder())))
+                    .toArray(Stock[]::new);
+
+            List<String> termList = new ArrayList<>(stocks.length * 4);
+            List<Integer> stockList = new ArrayList<>(stocks.length * 4);
+            List<Field> fieldList = new ArrayList<>(stocks.length * 4);
+            for (int i = 0; i < stocks.length; i++) {
+                Stock stock = stocks[i];
+                addTerm(termList, stockList, fieldList, i, Field.STOCK_CODE, stock.getStockCode());
+                addTerm(termList, stockList, fieldList, i, Field.CN_SPELL, stock.getCnSpell());
+                addTerm(termList, stockList, fieldList, i, Field.STOCK_NAME, stock.getStockName());
+                addTerm(termList, stockList, fieldList, i, Field.EN_NAME, stock.getEnName());
+            }
+            this.terms = termList.toArray(new String[0]);
+            this.termStocks = termList.isEmpty() ? new int[0] : stockList.stream().mapToInt(Integer::intValue).toArray();
+            this.termFields = fieldList.toArray(new Field[0]);
+
+            int suffixCount = 0;
+            for (String term : terms) {
+                suffixCount += term.length();
+            }
+            Integer[] order = new Integer[suffixCount];
+            int[] allTerms = new int[suffixCount];
+            int[] allOffsets = new int[suffixCount];
+            int k = 0;
+            for (int t = 0; t < terms.length; t++) {
+                for (int offset = 0; offset < terms[t].length(); offset++) {
+                    allTerms[k] = t;
+                    allOffsets[k] = offset;
+                    order[k] = k;
+                    k++;
+                }
+            }
+            Arrays.sort(order, (a, b) -> compareSuffixes(terms[allTerms[a]], allOffsets[a], terms[allTerms[b]], allOffsets[b]));
+            this.suffixTerms = new int[suffixCount];
+            this.suffixOffsets = new int[suffixCount];
+            for (int s = 0; s < suffixCount; s++) {
+                suffixTerms[s] = allTerms[order[s]];
+                suffixOffsets[s] = allOffsets[order[s]];
+            }
+        }
+
+        private static void addTerm(List<String> terms, List<Integer> stocks, List<Field> fields,
+                                    int stock, Field field, String value) {
+            String term = normalize(value);
+            if (!term.isEmpty()) {
+                terms.add(term);
+                stocks.add(stock);
+                fields.add(field);
+            }
+        }
+
+        private List<Suggestion> suggest(String query, int limit) {
+            int from = bound(query, false);
+            int to = bound(query, true);
+            if (from >= to) {
+                return List.of();
+            }
+
+            // Best score and term per stock; the arrays are per thread and reset for the touched stocks only
+            Scratch scratch = SCRATCH.get().ensure(stocks.length);
+            int[] scores = scratch.scores;
+            int[] bestTerms = scratch.bestTerms;
+            int[] touched = new int[Math.min(to - from, stocks.length)];
+            int touchedCount = 0;
+            for (int s = from; s < to; s++) {
+                int term = suffixTerms[s];
+                int stock = termStocks[term];
+                int match = suffixOffsets[s] > 0 ? SUBSTRING : terms[term].length() == query.length() ? EXACT : PREFIX;
+                int score = match * 8 + termFields[term].weight;
+                if (scores[stock] == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touched.length << 1);
+                    }
+                    touched[touchedCount++] = stock;
+                }
+                if (score > scores[stock]) {
+                    scores[stock] = score;
+                    bestTerms[stock] = term;
+                }
+            }
+
+            // Score, then listed first, then stock code (stocks are in code order), as packed long keys
+            long[] keys = new long[touchedCount];
+            for (int k = 0; k < touchedCount; k++) {
+                int stock = touched[k];
+                long listed = stocks[stock].isTradable() ? 1 : 0;
+                keys[k] = (long) scores[stock] << 32 | listed << 31 | (Integer.MAX_VALUE - stock);
+                scores[stock] = 0;
+            }
+            Arrays.sort(keys);
+
+            List<Suggestion> suggestions = new ArrayList<>(Math.min(limit, touchedCount));
+            for (int r = touchedCount - 1; r >= 0 && suggestions.size() < limit; r--) {
+                int stock = Integer.MAX_VALUE - (int) (keys[r] & Integer.MAX_VALUE);
+                int term = bestTerms[stock];
+                suggestions.add(new Suggestion(stocks[stock], termFields[term], terms[term],
+                        terms[term].startsWith(query)));
+            }
+            return suggestions;
+        }
+
+        /**
+         * First suffix not below the query (upper = false) or not starting with it (upper = true)
+         */
+        private int bound(String query, boolean upper) {
+            int low = 0;
+            int high = suffixTerms.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int comparison = comparePrefix(terms[suffixTerms[mid]], suffixOffsets[mid], query);
+                if (comparison < 0 || upper && comparison == 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Compare a suffix with the query, 0 when the suffix starts with the query
+         */
+        private static int comparePrefix(String term, int offset, String query) {
+            int length = Math.min(term.length() - offset, query.length());
+            for (int k = 0; k < length; k++) {
+                int diff = term.charAt(offset + k) - query.charAt(k);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return term.length() - offset >= query.length() ? 0 : -1;
+        }
+
+        private static int compareSuffixes(String a, int offsetA, String b, int offsetB) {
+            int lengthA = a.length() - offsetA;
+            int lengthB = b.length() - offsetB;
+            int length = Math.min(lengthA, lengthB);
+            for (int k = 0; k < length; k++) {
+                int diff = a.charAt(offsetA + k) - b.charAt(offsetB + k);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return lengthA - lengthB;
+        }
+    }
+}
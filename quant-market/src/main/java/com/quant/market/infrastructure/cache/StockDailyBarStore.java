@@ -0,0 +1,228 @@
+package com.quant.market.infrastructure.cache;
+
+import com.quant.market.domain.event.StockDailyChangedEvent;
+import com.quant.market.domain.model.BarSeries;
+import com.quant.market.infrastructure.persistence.repository.BarSeriesRowReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stock Daily Bar Store
+ * 日线列式内存存储
+ *
+ * Holds each (stock_code, adjust_flag) series of t_stock_daily as a {@link BarSeries}:
+ * - A stock is loaded on first access with one index range scan (all adjust flags at once)
+ * - Date-range slices are answered by binary search over the in-memory epoch-day array
+ * - Least recently used stocks are evicted once the estimated size of the cached series exceeds
+ *   {@code market.bar-store.max-bytes}, or {@code market.bar-store.max-stocks} stocks are cached
+ * - Stocks touched by batch writes are evicted after commit and reloaded on next access; each write
+ *   bumps a per-stock generation, and a load that overlaps a write is returned but not cached
+ */
+@Slf4j
+@Component
+public class StockDailyBarStore {
+
+    /**
+     * Whole history of a stock: any date range is then sliced in memory, so there is no bound to prune by
+     */
+    private static final String LOAD_SQL = "SELECT " + BarSeriesRowReader.COLUMNS
+            + " FROM t_stock_daily WHERE stock_code = ? ORDER BY adjust_flag, trade_date, id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int maxStocks;
+    private final long maxBytes;
+
+    /**
+     * Access-ordered; guarded by its own monitor together with {@link #cachedBytes}
+     */
+    private final LinkedHashMap<String, CachedStock> stocks = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Object> loadLocks = new ConcurrentHashMap<>();
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+    private volatile long epoch;
+    private long cachedBytes;
+
+    public StockDailyBarStore(JdbcTemplate jdbcTemplate,
+                              @Value("${market.bar-store.enabled:true}") boolean enabled,
+                              @Value("${market.bar-store.max-stocks:2000}") int maxStocks,
+                              @Value("${market.bar-store.max-bytes:536870912}") long maxBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.maxStocks = maxStocks;
+        this.maxBytes = maxBytes;
+        log.info("Stock daily bar store initialized: enabled={}, maxStocks={}, maxBytes={}MB",
+                enabled, maxStocks, maxBytes >> 20);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get all series of a stock keyed by adjust flag (null key for rows without adjust flag)
+     * Loads the stock from t_stock_daily on first access
+     *
+     * @param stockCode Stock code
+     * @return Series by adjust flag, empty map if the stock has no data
+     */
+    public Map<Short, BarSeries> getStock(String stockCode) {
+        Map<Short, BarSeries> cached = cached(stockCode);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Serialize concurrent loads of the same stock so a cold symbol is read only once
+        Object lock = loadLocks.computeIfAbsent(stockCode, key -> new Object());
+        synchronized (lock) {
+            try {
+                cached = cached(stockCode);
+                if (cached == null) {
+                    long loadEpoch = epoch;
+                    long generation = generations.getOrDefault(stockCode, 0L);
+                    cached = load(stockCode);
+                    put(stockCode, cached, loadEpoch, generation);
+                }
+                return cached;
+            } finally {
+                loadLocks.remove(stockCode, lock);
+            }
+        }
+    }
+
+    private Map<Short, BarSeries> cached(String stockCode) {
+        synchronized (stocks) {
+            CachedStock cached = stocks.get(stockCode);
+            return cached != null ? cached.series() : null;
+        }
+    }
+
+    /**
+     * Cache a loaded stock unless a write committed since its generation was read, then evict least
+     * recently used stocks beyond the byte and stock limits
+     */
+    private void put(String stockCode, Map<Short, BarSeries> series, long loadEpoch, long generation) {
+        long bytes = 0;
+        for (BarSeries one : series.values()) {
+            bytes += one.estimatedBytes();
+        }
+        synchronized (stocks) {
+            if (epoch != loadEpoch || generations.getOrDefault(stockCode, 0L) != generation) {
+                return;
+            }
+            CachedStock previous = stocks.put(stockCode, new CachedStock(series, bytes));
+            cachedBytes += bytes - (previous != null ? previous.bytes() : 0);
+            Iterator<Map.Entry<String, CachedStock>> eldest = stocks.entrySet().iterator();
+            while ((cachedBytes > maxBytes || stocks.size() > maxStocks) && stocks.size() > 1) {
+                cachedBytes -= eldest.next().getValue().bytes();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Get one series of a stock
+     *
+     * @param stockCode Stock code
+     * @param adjustFlag Adjust flag
+     * @return Series, or an empty series if none exists
+     */
+    public BarSeries getSeries(String stockCode, Short adjustFlag) {
+        BarSeries series = getStock(stockCode).get(adjustFlag);
+        return series != null ? series : BarSeries.empty(stockCode, adjustFlag);
+    }
+
+    /**
+     * Evict a stock so the next access reloads it from the database
+     */
+    public void evict(String stockCode) {
+        synchronized (stocks) {
+            generations.merge(stockCode, 1L, Long::sum);
+            CachedStock removed = stocks.remove(stockCode);
+            if (removed != null) {
+                cachedBytes -= removed.bytes();
+            }
+        }
+    }
+
+    /**
+     * Evict every cached stock
+     */
+    public void evictAll() {
+        synchronized (stocks) {
+            epoch++;
+            stocks.clear();
+            cachedBytes = 0;
+        }
+    }
+
+    /**
+     * Number of stocks currently cached
+     */
+    public int getCachedStockCount() {
+        synchronized (stocks) {
+            return stocks.size();
+        }
+    }
+
+    /**
+     * Estimated heap size of the cached series
+     */
+    public long getCachedBytes() {
+        synchronized (stocks) {
+            return cachedBytes;
+        }
+    }
+
+    /**
+     * Drop stocks touched by a committed batch write
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDailyChanged(StockDailyChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        for (String stockCode : event.getStockCodes()) {
+            evict(stockCode);
+        }
+        log.debug("Evicted {} stocks from bar store after {}", event.getStockCodes().size(), event.getChangeType());
+    }
+
+    private Map<Short, BarSeries> load(String stockCode) {
+        long startTime = System.nanoTime();
+        Map<Short, BarSeries.Builder> builders = new HashMap<>();
+        BarSeriesRowReader reader = new BarSeriesRowReader();
+
+        jdbcTemplate.query(LOAD_SQL, (ResultSet rs) -> {
+            Short adjustFlag = BarSeriesRowReader.getShort(rs, "adjust_flag");
+            BarSeries.Builder builder = builders.computeIfAbsent(adjustFlag,
+                    flag -> BarSeries.builder(stockCode, flag, 1024));
+            reader.append(rs, builder);
+        }, stockCode);
+
+        Map<Short, BarSeries> result = new HashMap<>();
+        long totalBars = 0;
+        for (Map.Entry<Short, BarSeries.Builder> entry : builders.entrySet()) {
+            BarSeries series = entry.getValue().build();
+            totalBars += series.size();
+            result.put(entry.getKey(), series);
+        }
+
+        log.debug("Loaded {} bars ({} series) for stock {} into bar store in {}us",
+                totalBars, result.size(), stockCode, (System.nanoTime() - startTime) / 1000);
+        return Collections.unmodifiableMap(result);
+    }
+
+    private record CachedStock(Map<Short, BarSeries> series, long bytes) {
+    }
+}
@@ -0,0 +1,198 @@
+package com.quant.market.infrastructure.cache;
+
+import com.quant.market.domain.event.StockDailyChangedEvent;
+import com.quant.market.domain.model.StockDailyStats;
+import com.quant.market.domain.repository.StockDailyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stock Daily Stats Cache
+ * 单只股票日线统计的内存缓存
+ *
+ * - Statistics are computed with one grouped aggregate query on first access; stocks without
+ *   data are not cached, and least recently used stocks are evicted beyond
+ *   {@code market.stats-cache.max-stocks}
+ * - A stock is marked pending while a transaction writing it is open and gets a new generation
+ *   when the write completes; loads that overlap a write are returned but not cached
+ * - After an INSERT commits, cached stocks are updated from the inserted keys without touching
+ *   the database; after an UPSERT, which may rewrite existing rows, they are re-aggregated
+ */
+@Slf4j
+@Component
+public class StockDailyStatsCache {
+
+    private final StockDailyRepository dailyRepository;
+    private final int maxStocks;
+
+    /**
+     * Access-ordered; guarded by its own monitor together with {@link #pendingWrites}
+     */
+    private final LinkedHashMap<String, StockDailyStats> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Integer> pendingWrites = new HashMap<>();
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+
+    public StockDailyStatsCache(StockDailyRepository dailyRepository,
+                                @Value("${market.stats-cache.max-stocks:10000}") int maxStocks) {
+        this.dailyRepository = dailyRepository;
+        this.maxStocks = maxStocks;
+        log.info("Stock daily stats cache initialized: maxStocks={}", maxStocks);
+    }
+
+    /**
+     * Get statistics of a stock, computing them on cache miss
+     *
+     * @param stockCode Stock code
+     * @return Statistics (empty statistics when the stock has no data)
+     */
+    public StockDailyStats get(String stockCode) {
+        synchronized (cache) {
+            StockDailyStats cached = cache.get(stockCode);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        long generation = generations.getOrDefault(stockCode, 0L);
+        List<StockDailyStats> loaded = dailyRepository.findStatsByStockCodes(List.of(stockCode));
+        if (loaded.isEmpty()) {
+            return StockDailyStats.empty(stockCode);
+        }
+        StockDailyStats stats = freeze(loaded.get(0));
+        put(stockCode, stats, generation);
+        return stats;
+    }
+
+    /**
+     * Remove a stock from the cache
+     */
+    public void evict(String stockCode) {
+        synchronized (cache) {
+            generations.merge(stockCode, 1L, Long::sum);
+            cache.remove(stockCode);
+        }
+    }
+
+    /**
+     * Track a batch write: touched stocks stay uncacheable until the writing transaction completes,
+     * then cached entries are brought up to date
+     */
+    @EventListener
+    public void onStockDailyChanged(StockDailyChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Published outside a transaction: the rows are already visible, so recompute lazily
+            event.getStockCodes().forEach(this::evict);
+            return;
+        }
+
+        synchronized (cache) {
+            for (String stockCode : event.getStockCodes()) {
+                pendingWrites.merge(stockCode, 1, Integer::sum);
+                generations.merge(stockCode, 1L, Long::sum);
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                complete(event, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private void complete(StockDailyChangedEvent event, boolean committed) {
+        Map<String, List<StockDailyChangedEvent.BarKey>> keysByCode = new LinkedHashMap<>();
+        for (StockDailyChangedEvent.BarKey key : event.getKeys()) {
+            keysByCode.computeIfAbsent(key.stockCode(), code -> new ArrayList<>()).add(key);
+        }
+
+        Map<String, Long> refreshGenerations = new LinkedHashMap<>();
+        synchronized (cache) {
+            for (Map.Entry<String, List<StockDailyChangedEvent.BarKey>> entry : keysByCode.entrySet()) {
+                String stockCode = entry.getKey();
+                pendingWrites.computeIfPresent(stockCode, (code, count) -> count > 1 ? count - 1 : null);
+                long generation = generations.merge(stockCode, 1L, Long::sum);
+
+                StockDailyStats cached = cache.get(stockCode);
+                if (!committed || cached == null) {
+                    continue;
+                }
+                if (event.getChangeType() == StockDailyChangedEvent.ChangeType.INSERT) {
+                    // Inserted keys are new rows, so they only add to the cached aggregate
+                    cache.put(stockCode, addInserted(cached, entry.getValue()));
+                } else {
+                    cache.remove(stockCode);
+                    refreshGenerations.put(stockCode, generation);
+                }
+            }
+        }
+        if (!committed || refreshGenerations.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (StockDailyStats stats : dailyRepository.findStatsByStockCodes(refreshGenerations.keySet())) {
+                put(stats.getStockCode(), freeze(stats), refreshGenerations.get(stats.getStockCode()));
+            }
+            log.debug("Refreshed daily stats for {} stocks after {}", refreshGenerations.size(), event.getChangeType());
+        } catch (Exception e) {
+            // Entries were already dropped, so they are recomputed lazily on next access
+            log.warn("Failed to refresh daily stats for {} stocks: {}", refreshGenerations.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Cache statistics unless a write is pending or completed since their generation was read
+     */
+    private void put(String stockCode, StockDailyStats stats, long generation) {
+        synchronized (cache) {
+            if (pendingWrites.containsKey(stockCode) || generations.getOrDefault(stockCode, 0L) != generation) {
+                return;
+            }
+            cache.put(stockCode, stats);
+            if (cache.size() > maxStocks) {
+                cache.remove(cache.keySet().iterator().next());
+            }
+        }
+    }
+
+    private static StockDailyStats addInserted(StockDailyStats stats, List<StockDailyChangedEvent.BarKey> inserted) {
+        Map<Short, Long> countByAdjustFlag = new HashMap<>(stats.getCountByAdjustFlag());
+        LocalDate first = stats.getFirstTradeDate();
+        LocalDate last = stats.getLastTradeDate();
+        for (StockDailyChangedEvent.BarKey key : inserted) {
+            if (key.adjustFlag() != null) {
+                countByAdjustFlag.merge(key.adjustFlag(), 1L, Long::sum);
+            }
+            if (first == null || key.tradeDate().isBefore(first)) {
+                first = key.tradeDate();
+            }
+            if (last == null || key.tradeDate().isAfter(last)) {
+                last = key.tradeDate();
+            }
+        }
+        return StockDailyStats.builder()
+                .stockCode(stats.getStockCode())
+                .recordCount(stats.getRecordCount() + inserted.size())
+                .firstTradeDate(first)
+                .lastTradeDate(last)
+                .countByAdjustFlag(Map.copyOf(countByAdjustFlag))
+                .build();
+    }
+
+    private static StockDailyStats freeze(StockDailyStats stats) {
+        stats.setCountByAdjustFlag(Map.copyOf(stats.getCountByAdjustFlag()));
+        return stats;
+    }
+}
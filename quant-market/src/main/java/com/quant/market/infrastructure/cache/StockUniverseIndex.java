@@ -0,0 +1,379 @@
+package com.quant.market.infrastructure.cache;
+
+import com.quant.market.domain.event.StockChangedEvent;
+import com.quant.market.domain.model.Stock;
+import com.quant.market.domain.repository.StockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Stock Universe Index
+ * 内存中的全量股票索引，替代 t_stock_basic 上的条件查询
+ *
+ * - The ~5000 rows of t_stock_basic are loaded on first use into an immutable snapshot
+ * - Status, exchange and industry filters are bitmaps (one bit per stock) combined with word-wise
+ *   OR/AND; the listing date range is a binary search over the stocks sorted by listing date
+ * - Every sortable column has a precomputed order, so a sorted page is a scan of that order
+ *   testing the filter bitmap, with no sort per query
+ * - Committed stock writes ({@link StockChangedEvent}) rebuild the snapshot; queries keep using the
+ *   previous snapshot until the new one is swapped in
+ *
+ * Returned stocks are shared with the index and must not be modified.
+ */
+@Slf4j
+@Component
+public class StockUniverseIndex {
+
+    /**
+     * Sortable columns, in the names used by the stock query API
+     */
+    public enum SortKey {
+        STOCK_CODE("stockCode", Stock::getStockCode),
+        STOCK_NAME("stockName", Stock::getStockName),
+        EXCHANGE("exchange", Stock::getExchange),
+        LISTING_DATE("listingDate", Stock::getListingDate),
+        CREATED_AT("createdAt", Stock::getCreatedAt);
+
+        private final String field;
+        private final Function<Stock, ? extends Comparable<?>> extractor;
+
+        SortKey(String field, Function<Stock, ? extends Comparable<?>> extractor) {
+            this.field = field;
+            this.extractor = extractor;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        /**
+         * Resolve an API field name, or null if it is not sortable
+         */
+        public static SortKey fromField(String field) {
+            for (SortKey key : values()) {
+                if (key.field.equals(field)) {
+                    return key;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One page of matching stocks and the total number of matches
+     */
+    public record QueryResult(List<Stock> stocks, int total) {
+    }
+
+    private final StockRepository stockRepository;
+    private final boolean enabled;
+    private final Object rebuildLock = new Object();
+    private volatile Snapshot snapshot;
+
+    /**
+     * Committed stock writes seen by {@link #onStockChanged}, including those before the first build
+     */
+    private final AtomicLong changeCount = new AtomicLong();
+
+    public StockUniverseIndex(StockRepository stockRepository,
+                              @Value("${market.universe-index.enabled:true}") boolean enabled) {
+        this.stockRepository = stockRepository;
+        this.enabled = enabled;
+        log.info("Stock universe index initialized: enabled={}", enabled);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Query stocks by multiple conditions, sorted and paginated
+     *
+     * @param listingDateFrom Listing date start (inclusive, optional)
+     * @param listingDateTo Listing date end (inclusive, optional)
+     * @param keyword Substring of the stock code or name (optional)
+     * @param statuses Statuses (optional, any of)
+     * @param industries Industries (optional, any of)
+     * @param exchanges Exchanges (optional, any of)
+     * @param sortKey Sort column; null keeps stock code order
+     * @param ascending Sort direction; missing values are always last
+     * @param offset Matches to skip
+     * @param limit Maximum number of stocks returned
+     * @return Page of stocks and the total number of matches
+     */
+    public QueryResult query(LocalDate listingDateFrom, LocalDate listingDateTo, String keyword,
+                             Collection<Stock.StockStatus> statuses, Collection<String> industries,
+                             Collection<Stock.Exchange> exchanges, SortKey sortKey, boolean ascending,
+                             int offset, int limit) {
+        Snapshot current = current();
+        long[] filter = current.all();
+        if (statuses != null && !statuses.isEmpty()) {
+            and(filter, current.union(current.byStatus, statuses));
+        }
+        if (exchanges != null && !exchanges.isEmpty()) {
+            and(filter, current.union(current.byExchange, exchanges));
+        }
+        if (industries != null && !industries.isEmpty()) {
+            and(filter, current.union(current.byIndustry, industries));
+        }
+        if (listingDateFrom != null || listingDateTo != null) {
+            and(filter, current.listingRange(listingDateFrom, listingDateTo));
+        }
+        if (keyword != null && !keyword.trim().isEmpty()) {
+            current.retainKeyword(filter, keyword.trim());
+        }
+
+        int total = 0;
+        for (long word : filter) {
+            total += Long.bitCount(word);
+        }
+        List<Stock> page = new ArrayList<>(Math.max(0, Math.min(limit, total - offset)));
+        if (offset < total && limit > 0) {
+            current.collect(filter, sortKey, ascending, offset, limit, page);
+        }
+        return new QueryResult(page, total);
+    }
+
+    /**
+     * Number of stocks in the index
+     */
+    public int size() {
+        return current().stocks.length;
+    }
+
+    /**
+     * Rebuild the snapshot from t_stock_basic
+     */
+    public void refresh() {
+        synchronized (rebuildLock) {
+            snapshot = load();
+        }
+    }
+
+    /**
+     * Rebuild after committed stock writes
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        changeCount.incrementAndGet();
+        if (!enabled || snapshot == null) {
+            // Not built yet; the first query loads the current rows
+            return;
+        }
+        log.debug("Rebuilding stock universe index after a change of {} stocks", event.getStockCodes().size());
+        refresh();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (rebuildLock) {
+                while (snapshot == null) {
+                    long seenChanges = changeCount.get();
+                    Snapshot loaded = load();
+                    // A write committed during the load skipped its rebuild as nothing was built yet,
+                    // so the loaded rows may predate it
+                    if (changeCount.get() == seenChanges) {
+                        snapshot = loaded;
+                    }
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        long startTime = System.currentTimeMillis();
+        Snapshot loaded = new Snapshot(stockRepository.findAll());
+        log.info("Stock universe index rebuilt: {} stocks in {}ms", loaded.stocks.length,
+                System.currentTimeMillis() - startTime);
+        return loaded;
+    }
+
+    private static void and(long[] target, long[] other) {
+        for (int w = 0; w < target.length; w++) {
+            target[w] &= other[w];
+        }
+    }
+
+    /**
+     * Immutable index over one load of t_stock_basic; positions follow stock code order
+     */
+    private static final class Snapshot {
+
+        private final Stock[] stocks;
+        private final int words;
+        private final Map<Stock.StockStatus, long[]> byStatus = new EnumMap<>(Stock.StockStatus.class);
+        private final Map<Stock.Exchange, long[]> byExchange = new EnumMap<>(Stock.Exchange.class);
+        private final Map<String, long[]> byIndustry = new HashMap<>();
+        private final int[] listingOrder;
+        private final long[] listingDays;
+        private final Map<SortKey, int[]> orders = new EnumMap<>(SortKey.class);
+        private final Map<SortKey, Integer> nonNullCounts = new EnumMap<>(SortKey.class);
+
+        private Snapshot(List<Stock> rows) {
+            this.stocks = rows.stream()
+                    .sorted(Comparator.comparing(Stock::getStockCode, Comparator.nullsLast(Comparator.naturalOrder())))
+                    .toArray(Stock[]::new);
+            this.words = (stocks.length + 63) >>> 6;
+
+            for (int i = 0; i < stocks.length; i++) {
+                Stock stock = stocks[i];
+                if (stock.getStatus() != null) {
+                    set(byStatus.computeIfAbsent(stock.getStatus(), k -> new long[words]), i);
+                }
+                if (stock.getExchange() != null) {
+                    set(byExchange.computeIfAbsent(stock.getExchange(), k -> new long[words]), i);
+                }
+                if (stock.getIndustry() != null) {
+                    set(byIndustry.computeIfAbsent(stock.getIndustry(), k -> new long[words]), i);
+                }
+            }
+
+            for (SortKey key : SortKey.values()) {
+                buildOrder(key);
+            }
+            int[] byListing = orders.get(SortKey.LISTING_DATE);
+            this.listingOrder = Arrays.copyOf(byListing, nonNullCounts.get(SortKey.LISTING_DATE));
+            this.listingDays = new long[listingOrder.length];
+            for (int k = 0; k < listingOrder.length; k++) {
+                listingDays[k] = stocks[listingOrder[k]].getListingDate().toEpochDay();
+            }
+        }
+
+        /**
+         * Positions with a value in ascending order (ties by stock code), then positions without one
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private void buildOrder(SortKey key) {
+            List<Integer> present = new ArrayList<>(stocks.length);
+            List<Integer> missing = new ArrayList<>();
+            for (int i = 0; i < stocks.length; i++) {
+                (key.extractor.apply(stocks[i]) != null ? present : missing).add(i);
+            }
+            present.sort((a, b) -> ((Comparable) key.extractor.apply(stocks[a])).compareTo(key.extractor.apply(stocks[b])));
+            int[] order = new int[stocks.length];
+            int k = 0;
+            for (int position : present) {
+                order[k++] = position;
+            }
+            for (int position : missing) {
+                order[k++] = position;
+            }
+            orders.put(key, order);
+            nonNullCounts.put(key, present.size());
+        }
+
+        private long[] all() {
+            long[] bits = new long[words];
+            Arrays.fill(bits, -1L);
+            int tail = stocks.length & 63;
+            if (tail != 0) {
+                bits[words - 1] = (1L << tail) - 1;
+            }
+            return bits;
+        }
+
+        private <K> long[] union(Map<K, long[]> index, Collection<K> values) {
+            long[] bits = new long[words];
+            for (K value : values) {
+                long[] other = index.get(value);
+                if (other != null) {
+                    for (int w = 0; w < words; w++) {
+                        bits[w] |= other[w];
+                    }
+                }
+            }
+            return bits;
+        }
+
+        private long[] listingRange(LocalDate from, LocalDate to) {
+            int start = from != null ? lowerBound(listingDays, from.toEpochDay()) : 0;
+            int end = to != null ? lowerBound(listingDays, to.toEpochDay() + 1) : listingDays.length;
+            long[] bits = new long[words];
+            for (int k = start; k < end; k++) {
+                set(bits, listingOrder[k]);
+            }
+            return bits;
+        }
+
+        private void retainKeyword(long[] filter, String keyword) {
+            for (int w = 0; w < words; w++) {
+                long word = filter[w];
+                while (word != 0) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    Stock stock = stocks[(w << 6) + bit];
+                    if (!contains(stock.getStockCode(), keyword) && !contains(stock.getStockName(), keyword)) {
+                        filter[w] &= ~(1L << bit);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Walk the sort order and keep matches [offset, offset + limit)
+         */
+        private void collect(long[] filter, SortKey sortKey, boolean ascending, int offset, int limit, List<Stock> out) {
+            int skipped = 0;
+            if (sortKey == null) {
+                for (int i = 0; i < stocks.length && out.size() < limit; i++) {
+                    if (isSet(filter, i) && skipped++ >= offset) {
+                        out.add(stocks[i]);
+                    }
+                }
+                return;
+            }
+            int[] order = orders.get(sortKey);
+            int nonNull = nonNullCounts.get(sortKey);
+            for (int k = 0; k < order.length && out.size() < limit; k++) {
+                // Descending walks the values backwards but keeps missing values last
+                int position = ascending || k >= nonNull ? order[k] : order[nonNull - 1 - k];
+                if (isSet(filter, position) && skipped++ >= offset) {
+                    out.add(stocks[position]);
+                }
+            }
+        }
+
+        private static boolean contains(String value, String keyword) {
+            return value != null && value.contains(keyword);
+        }
+
+        private static int lowerBound(long[] sorted, long value) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static void set(long[] bits, int index) {
+            bits[index >>> 6] |= 1L << index;
+        }
+
+        private static boolean isSet(long[] bits, int index) {
+            return (bits[index >>> 6] & (1L << index)) != 0;
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.quant.market.infrastructure.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadPoolExecutor;
 
 /**
@@ -69,4 +71,57 @@ public class AsyncConfig {
 
         return executor;
     }
+
+    /**
+     * Thread pool for the factor pipeline
+     *
+     * Runs per-stock-chunk factor computation and per-date cross-section writes, plus the debounced
+     * incremental runs. Sized well below the connection pool since every date write holds a connection.
+     *
+     * @param parallelism Worker threads
+     * @return Thread pool executor
+     */
+    @Bean(name = "factorExecutor")
+    public ThreadPoolTaskExecutor factorExecutor(@Value("${market.factor.parallelism:4}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(Integer.MAX_VALUE);
+        executor.setThreadNamePrefix("stock-factor-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+
+        log.info("Factor executor initialized: parallelism={}", parallelism);
+        return executor;
+    }
+
+    /**
+     * Fork-join pool for CPU-bound cross-sectional work (stock screening)
+     *
+     * Kept apart from the common pool so long screens never starve parallel streams elsewhere.
+     * Parallelism defaults to the number of available processors.
+     *
+     * @param parallelism Worker threads (0 = available processors)
+     * @return Fork-join pool
+     */
+    @Bean(name = "screenerPool", destroyMethod = "shutdown")
+    public ForkJoinPool screenerPool(@Value("${market.screener.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        log.info("Initializing screener fork-join pool: parallelism={}", threads);
+        return new ForkJoinPool(threads);
+    }
+
+    /**
+     * Fork-join pool for covariance matrix tiles
+     *
+     * @param parallelism Worker threads (0 = available processors)
+     * @return Fork-join pool
+     */
+    @Bean(name = "correlationPool", destroyMethod = "shutdown")
+    public ForkJoinPool correlationPool(@Value("${market.correlation.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        log.info("Initializing correlation fork-join pool: parallelism={}", threads);
+        return new ForkJoinPool(threads);
+    }
 }
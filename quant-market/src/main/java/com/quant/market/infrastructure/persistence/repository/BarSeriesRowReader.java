@@ -0,0 +1,65 @@
+package com.quant.market.infrastructure.persistence.repository;
+
+import com.quant.market.domain.model.BarSeries;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Reads t_stock_daily rows into {@link BarSeries.Builder}s and other columnar builders
+ *
+ * Queries must select {@link #COLUMNS}; series must be returned in ascending trade date order.
+ * One reader is used per query; it reuses a value buffer across rows and is not thread-safe.
+ */
+public final class BarSeriesRowReader {
+
+    /**
+     * Select list of the columns read into a series
+     */
+    public static final String COLUMNS = """
+            id, trade_date, open_price, high_price, low_price, close_price,
+            pre_close, change_amount, pct_change, volume, amount, adjust_flag,
+            turn, trade_status, pe_ttm, pb_mrq, ps_ttm, pcf_ncf_ttm, is_st""";
+
+    private final BigDecimal[] values = new BigDecimal[BarSeries.Field.values().length];
+
+    /**
+     * Append the current row to the builder
+     */
+    public void append(ResultSet rs, BarSeries.Builder builder) throws SQLException {
+        builder.add(rs.getLong("id"), rs.getObject("trade_date", LocalDate.class), readValues(rs),
+                getShort(rs, "trade_status"), getShort(rs, "is_st"));
+    }
+
+    /**
+     * Read the decimal columns of the current row in {@link BarSeries.Field} order
+     * The returned buffer is reused by the next call
+     */
+    public BigDecimal[] readValues(ResultSet rs) throws SQLException {
+        values[BarSeries.Field.OPEN.ordinal()] = rs.getBigDecimal("open_price");
+        values[BarSeries.Field.HIGH.ordinal()] = rs.getBigDecimal("high_price");
+        values[BarSeries.Field.LOW.ordinal()] = rs.getBigDecimal("low_price");
+        values[BarSeries.Field.CLOSE.ordinal()] = rs.getBigDecimal("close_price");
+        values[BarSeries.Field.PRE_CLOSE.ordinal()] = rs.getBigDecimal("pre_close");
+        values[BarSeries.Field.CHANGE.ordinal()] = rs.getBigDecimal("change_amount");
+        values[BarSeries.Field.PCT_CHANGE.ordinal()] = rs.getBigDecimal("pct_change");
+        values[BarSeries.Field.VOLUME.ordinal()] = rs.getBigDecimal("volume");
+        values[BarSeries.Field.AMOUNT.ordinal()] = rs.getBigDecimal("amount");
+        values[BarSeries.Field.TURN.ordinal()] = rs.getBigDecimal("turn");
+        values[BarSeries.Field.PE_TTM.ordinal()] = rs.getBigDecimal("pe_ttm");
+        values[BarSeries.Field.PB_MRQ.ordinal()] = rs.getBigDecimal("pb_mrq");
+        values[BarSeries.Field.PS_TTM.ordinal()] = rs.getBigDecimal("ps_ttm");
+        values[BarSeries.Field.PCF_NCF_TTM.ordinal()] = rs.getBigDecimal("pcf_ncf_ttm");
+        return values;
+    }
+
+    /**
+     * Read a nullable SMALLINT column
+     */
+    public static Short getShort(ResultSet rs, String column) throws SQLException {
+        short value = rs.getShort(column);
+        return rs.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,131 @@
+package com.quant.market.infrastructure.persistence.repository;
+
+import com.quant.market.domain.model.UpsertResult;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Change-aware multi-row upsert shared by the batch repositories
+ *
+ * Statements have the shape:
+ * <pre>
+ * INSERT INTO t AS t (...) VALUES (...), (...)
+ * ON CONFLICT (...) DO UPDATE SET ...
+ * WHERE (t.a, t.b, ...) IS DISTINCT FROM (EXCLUDED.a, EXCLUDED.b, ...)
+ * RETURNING (xmax = 0) AS inserted, ...
+ * </pre>
+ * Rows whose values are unchanged hit the WHERE guard: no new tuple version, no WAL, and
+ * updated_at keeps its value. Only inserted and updated rows come back from RETURNING, so
+ * unchanged = total - inserted - updated.
+ */
+final class ChangeAwareUpsert {
+
+    /**
+     * Rows per statement; keeps bind parameters well below the 65535 protocol limit
+     */
+    static final int ROWS_PER_STATEMENT = 500;
+
+    private ChangeAwareUpsert() {
+    }
+
+    /**
+     * Binds one row starting at the given parameter index and returns the next free index
+     */
+    @FunctionalInterface
+    interface RowBinder<T> {
+        int bind(PreparedStatement ps, int index, T row) throws SQLException;
+    }
+
+    /**
+     * Execute a change-aware upsert
+     *
+     * Rows repeating a conflict key within the input are collapsed to the last occurrence, since
+     * one statement cannot update the same row twice; the dropped rows are reported as unchanged.
+     * Rows with a null key component never conflict and are kept as they are.
+     *
+     * @param jdbcTemplate JDBC template
+     * @param headSql INSERT INTO ... VALUES (without row placeholders)
+     * @param rowPlaceholder Placeholder of one row, e.g. "(?, ?, CURRENT_TIMESTAMP)"
+     * @param tailSql ON CONFLICT ... DO UPDATE ... WHERE ... IS DISTINCT FROM ... RETURNING (xmax = 0) AS inserted[, ...]
+     * @param rows Input rows
+     * @param conflictKey Conflict key components of a row
+     * @param binder Row parameter binder
+     * @param onChanged Optional callback for each returned (inserted or updated) row
+     * @return Upsert result
+     */
+    static <T> UpsertResult execute(JdbcTemplate jdbcTemplate, String headSql, String rowPlaceholder, String tailSql,
+                                    List<T> rows, Function<T, List<Object>> conflictKey, RowBinder<T> binder,
+                                    RowCallbackHandler onChanged) {
+        if (rows.isEmpty()) {
+            return UpsertResult.empty();
+        }
+
+        List<T> distinctRows = collapseDuplicates(rows, conflictKey);
+        int[] counts = new int[2];
+        String fullChunkSql = null;
+        for (int from = 0; from < distinctRows.size(); from += ROWS_PER_STATEMENT) {
+            List<T> chunk = distinctRows.subList(from, Math.min(from + ROWS_PER_STATEMENT, distinctRows.size()));
+            String sql;
+            if (chunk.size() == ROWS_PER_STATEMENT) {
+                if (fullChunkSql == null) {
+                    fullChunkSql = buildSql(headSql, rowPlaceholder, tailSql, ROWS_PER_STATEMENT);
+                }
+                sql = fullChunkSql;
+            } else {
+                sql = buildSql(headSql, rowPlaceholder, tailSql, chunk.size());
+            }
+
+            jdbcTemplate.query(sql,
+                    (PreparedStatementSetter) ps -> {
+                        int index = 1;
+                        for (T row : chunk) {
+                            index = binder.bind(ps, index, row);
+                        }
+                    },
+                    (RowCallbackHandler) rs -> {
+                        counts[rs.getBoolean("inserted") ? 0 : 1]++;
+                        if (onChanged != null) {
+                            onChanged.processRow(rs);
+                        }
+                    });
+        }
+
+        int inserted = counts[0];
+        int updated = counts[1];
+        return new UpsertResult(rows.size(), inserted, updated, rows.size() - inserted - updated);
+    }
+
+    private static <T> List<T> collapseDuplicates(List<T> rows, Function<T, List<Object>> conflictKey) {
+        Map<Object, T> byKey = new LinkedHashMap<>(rows.size() * 2);
+        for (T row : rows) {
+            List<Object> key = conflictKey.apply(row);
+            // A null key component never conflicts, so such rows are kept individually
+            Object mapKey = key.contains(null) ? new Object() : key;
+            byKey.remove(mapKey);
+            byKey.put(mapKey, row);
+        }
+        return byKey.size() == rows.size() ? rows : new ArrayList<>(byKey.values());
+    }
+
+    private static String buildSql(String headSql, String rowPlaceholder, String tailSql, int rows) {
+        StringBuilder sql = new StringBuilder(headSql.length() + rows * (rowPlaceholder.length() + 2) + tailSql.length() + 2);
+        sql.append(headSql);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(",\n");
+            }
+            sql.append(rowPlaceholder);
+        }
+        sql.append('\n').append(tailSql);
+        return sql.toString();
+    }
+}
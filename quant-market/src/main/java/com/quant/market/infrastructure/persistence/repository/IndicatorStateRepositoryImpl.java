@@ -0,0 +1,139 @@
+package com.quant.market.infrastructure.persistence.repository;
+
+import com.quant.market.domain.indicator.IndicatorSpec;
+import com.quant.market.domain.indicator.IndicatorState;
+import com.quant.market.domain.repository.IndicatorStateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indicator State Repository Implementation
+ * State arrays are stored as DOUBLE PRECISION[] and bound as primitive arrays, so values (including NaN)
+ * round-trip exactly
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndicatorStateRepositoryImpl implements IndicatorStateRepository {
+
+    private static final int UPSERT_BATCH_SIZE = 1000;
+
+    private static final String SELECT_SQL = """
+        SELECT stock_code, indicator, last_trade_date, bar_count, state, output_values
+        FROM t_stock_indicator_state
+        WHERE adjust_flag = ? AND stock_code = ANY(?::varchar[])
+        ORDER BY stock_code, indicator
+        """;
+
+    /**
+     * States never move back in time; an older state arriving late from a concurrent writer is dropped
+     */
+    private static final String UPSERT_SQL = """
+        INSERT INTO t_stock_indicator_state AS t (
+            stock_code, adjust_flag, indicator, last_trade_date, bar_count, state, output_values,
+            created_at, updated_at
+        ) VALUES (?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+        ON CONFLICT (stock_code, adjust_flag, indicator)
+        DO UPDATE SET
+            last_trade_date = EXCLUDED.last_trade_date,
+            bar_count = EXCLUDED.bar_count,
+            state = EXCLUDED.state,
+            output_values = EXCLUDED.output_values,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE EXCLUDED.last_trade_date >= t.last_trade_date
+        """;
+
+    private static final String DELETE_SQL = """
+        DELETE FROM t_stock_indicator_state
+        WHERE stock_code = ANY(?::varchar[]) AND adjust_flag = ANY(?::smallint[])
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<String, List<IndicatorState>> findByStockCodes(Collection<String> stockCodes, short adjustFlag) {
+        return select(SELECT_SQL, stockCodes, adjustFlag);
+    }
+
+    @Override
+    public Map<String, List<IndicatorState>> lockByStockCodes(Collection<String> stockCodes, short adjustFlag) {
+        return select(SELECT_SQL + "FOR UPDATE", stockCodes, adjustFlag);
+    }
+
+    private Map<String, List<IndicatorState>> select(String sql, Collection<String> stockCodes, short adjustFlag) {
+        if (stockCodes == null || stockCodes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, List<IndicatorState>> result = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, (ResultSet rs) -> {
+            String stockCode = rs.getString("stock_code");
+            String indicator = rs.getString("indicator");
+            IndicatorState state;
+            try {
+                state = IndicatorState.restore(stockCode, adjustFlag, IndicatorSpec.parse(indicator),
+                        rs.getObject("last_trade_date", LocalDate.class),
+                        rs.getInt("bar_count"),
+                        toDoubles(rs.getArray("state")),
+                        toDoubles(rs.getArray("output_values")));
+            } catch (IllegalArgumentException e) {
+                // Unknown or changed layout: treated as missing, so the state is recomputed
+                log.warn("Ignoring indicator state {} of {}: {}", indicator, stockCode, e.getMessage());
+                return;
+            }
+            result.computeIfAbsent(stockCode, code -> new ArrayList<>()).add(state);
+        }, adjustFlag, stockCodes.toArray(new String[0]));
+        return result;
+    }
+
+    @Override
+    public void upsert(Collection<IndicatorState> states) {
+        if (states == null || states.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, states, UPSERT_BATCH_SIZE, (ps, state) -> {
+            ps.setString(1, state.getStockCode());
+            ps.setShort(2, state.getAdjustFlag());
+            ps.setString(3, state.getSpec().getKey());
+            ps.setObject(4, state.getLastTradeDate());
+            ps.setInt(5, state.getBarCount());
+            ps.setObject(6, state.getState());
+            ps.setObject(7, state.getOutputs());
+        });
+        log.debug("Upserted {} indicator states", states.size());
+    }
+
+    @Override
+    public int deleteByStockCodes(Collection<String> stockCodes, Collection<Short> adjustFlags) {
+        if (stockCodes == null || stockCodes.isEmpty() || adjustFlags == null || adjustFlags.isEmpty()) {
+            return 0;
+        }
+        short[] flags = new short[adjustFlags.size()];
+        int i = 0;
+        for (Short flag : adjustFlags) {
+            flags[i++] = flag;
+        }
+        return jdbcTemplate.update(DELETE_SQL, stockCodes.toArray(new String[0]), flags);
+    }
+
+    private static double[] toDoubles(Array array) throws SQLException {
+        Object[] values = (Object[]) array.getArray();
+        double[] result = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i] != null ? ((Number) values[i]).doubleValue() : Double.NaN;
+        }
+        return result;
+    }
+}
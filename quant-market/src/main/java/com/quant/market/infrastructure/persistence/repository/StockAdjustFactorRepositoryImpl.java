@@ -0,0 +1,110 @@
+package com.quant.market.infrastructure.persistence.repository;
+
+import com.quant.market.domain.model.StockAdjustFactor;
+import com.quant.market.domain.model.UpsertResult;
+import com.quant.market.domain.repository.StockAdjustFactorRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stock Adjust Factor Repository Implementation
+ * t_stock_adjust_factor is small (one row per ex-date), so it is accessed with plain JDBC
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockAdjustFactorRepositoryImpl implements StockAdjustFactorRepository {
+
+    private static final String UPSERT_HEAD_SQL = """
+        INSERT INTO t_stock_adjust_factor AS t (
+            stock_code, ex_date, back_adjust_factor, created_at, updated_at
+        ) VALUES
+        """;
+
+    private static final String UPSERT_ROW_PLACEHOLDER = "(?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+
+    private static final String UPSERT_TAIL_SQL = """
+        ON CONFLICT (stock_code, ex_date)
+        DO UPDATE SET
+            back_adjust_factor = EXCLUDED.back_adjust_factor,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE t.back_adjust_factor IS DISTINCT FROM EXCLUDED.back_adjust_factor
+        RETURNING (xmax = 0) AS inserted
+        """;
+
+    private static final String SELECT_SQL =
+        "SELECT stock_code, ex_date, back_adjust_factor FROM t_stock_adjust_factor";
+
+    private static final RowMapper<StockAdjustFactor> ROW_MAPPER = (rs, rowNum) -> StockAdjustFactor.builder()
+            .stockCode(rs.getString("stock_code"))
+            .exDate(rs.getObject("ex_date", LocalDate.class))
+            .backAdjustFactor(rs.getBigDecimal("back_adjust_factor"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public UpsertResult batchUpsert(List<StockAdjustFactor> factors) {
+        UpsertResult result = ChangeAwareUpsert.execute(jdbcTemplate,
+                UPSERT_HEAD_SQL, UPSERT_ROW_PLACEHOLDER, UPSERT_TAIL_SQL, factors,
+                factor -> Arrays.asList(factor.getStockCode(), factor.getExDate()),
+                StockAdjustFactorRepositoryImpl::bindRow,
+                null);
+
+        log.info("Adjust factor upsert completed: {} inserted, {} updated, {} unchanged",
+                result.inserted(), result.updated(), result.unchanged());
+        return result;
+    }
+
+    @Override
+    public List<StockAdjustFactor> findByStockCode(String stockCode) {
+        return jdbcTemplate.query(SELECT_SQL + " WHERE stock_code = ? ORDER BY ex_date", ROW_MAPPER, stockCode);
+    }
+
+    @Override
+    public Map<String, List<StockAdjustFactor>> findByStockCodes(Collection<String> stockCodes) {
+        if (stockCodes == null || stockCodes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, List<StockAdjustFactor>> result = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_SQL + " WHERE stock_code = ANY(?::varchar[]) ORDER BY stock_code, ex_date",
+                (ResultSet rs) -> {
+                    StockAdjustFactor factor = ROW_MAPPER.mapRow(rs, 0);
+                    result.computeIfAbsent(factor.getStockCode(), code -> new ArrayList<>()).add(factor);
+                },
+                new Object[]{stockCodes.toArray(new String[0])});
+        return result;
+    }
+
+    @Override
+    public Set<String> findStockCodes() {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT DISTINCT stock_code FROM t_stock_adjust_factor", String.class));
+    }
+
+    private static int bindRow(PreparedStatement ps, int index, StockAdjustFactor factor) throws SQLException {
+        ps.setString(index++, factor.getStockCode());
+        ps.setObject(index++, factor.getExDate());
+        ps.setBigDecimal(index++, factor.getBackAdjustFactor());
+        return index;
+    }
+}
@@ -0,0 +1,315 @@
+package com.quant.market.infrastructure.persistence.repository;
+
+import com.quant.market.domain.event.StockDailyChangedEvent;
+import com.quant.market.domain.model.RollupBar;
+import com.quant.market.domain.model.RollupPeriod;
+import com.quant.market.domain.repository.StockBarRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Stock Bar Rollup Repository Implementation
+ * 周/月/季/年线由数据库按周期聚合日线后 upsert 到 t_stock_bar_rollup
+ *
+ * Each refresh is a single INSERT ... SELECT: the touched (stock, adjustFlag, period) buckets are
+ * re-aggregated from t_stock_daily with a lateral subquery whose date bounds allow partition
+ * pruning, so the cost is proportional to the bars in the touched periods, not to the history.
+ * Unchanged buckets are skipped by the IS DISTINCT FROM guard, and stored rows of touched buckets
+ * that no longer aggregate any bar (all days suspended or removed) are deleted in the same statement.
+ * Callers hold {@link #lockStocks} in the same transaction, so two refreshes of one stock never
+ * aggregate from different snapshots and overwrite each other.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockBarRollupRepositoryImpl implements StockBarRollupRepository {
+
+    /**
+     * Buckets containing the written daily bars
+     * Parameters: stock codes, adjust flags, trade dates (parallel arrays)
+     */
+    private static final String BUCKETS_FROM_KEYS_SQL = """
+            SELECT DISTINCT k.code, k.flag, date_trunc('%1$s', k.trade_date::timestamp)::date AS period_start
+            FROM unnest(?::varchar[], ?::smallint[], ?::date[]) AS k(code, flag, trade_date)
+        """;
+
+    /**
+     * Every bucket between the first and the last daily bar of each stock and adjust flag
+     * Parameters: stock codes
+     */
+    private static final String BUCKETS_FROM_STOCKS_SQL = """
+            SELECT s.stock_code AS code, s.adjust_flag AS flag, p::date AS period_start
+            FROM (
+                SELECT stock_code, adjust_flag, MIN(trade_date) AS first_date, MAX(trade_date) AS last_date
+                FROM t_stock_daily
+                WHERE stock_code = ANY(?::varchar[])
+                GROUP BY stock_code, adjust_flag
+            ) s
+            CROSS JOIN LATERAL generate_series(date_trunc('%1$s', s.first_date::timestamp), s.last_date::timestamp, interval '%2$s') AS p
+        """;
+
+    /**
+     * Re-aggregate the buckets, upsert changed rollups and delete the stored rows of empty buckets
+     *
+     * Unadjusted buckets also touch the backward-adjusted bucket of the same period. When derivation
+     * is on (the trailing boolean parameter) and the stock has adjust factors, backward-adjusted
+     * buckets are aggregated from unadjusted bars times the factor in effect on each day, and
+     * forward-adjusted buckets are not stored at all. Suspended days (trade_status 0) are excluded.
+     * Returns the number of rows upserted or deleted.
+     */
+    private static final String REFRESH_SQL = """
+        WITH buckets AS (
+        %3$s
+        ),
+        touched AS (
+            SELECT b.code, b.flag, b.period_start,
+                   (b.period_start + interval '%2$s')::date AS period_next,
+                   (?::boolean AND b.flag IN (1, 2)
+                       AND EXISTS (SELECT 1 FROM t_stock_adjust_factor f WHERE f.stock_code = b.code)) AS derived
+            FROM (
+                SELECT code, flag, period_start FROM buckets
+                UNION
+                SELECT code, 1::smallint, period_start FROM buckets WHERE flag = 3
+            ) b
+        ),
+        aggregated AS (
+            SELECT t.code, t.flag, t.period_start, t.period_next,
+                   g.bar_count > 0 AND NOT (t.derived AND t.flag = 2) AS stored,
+                   g.last_trade_date, g.open_price, g.high_price, g.low_price, g.close_price, g.pre_close,
+                   g.volume, g.amount, g.turn, g.bar_count
+            FROM touched t
+            CROSS JOIN LATERAL (
+                SELECT MAX(s.trade_date) AS last_trade_date,
+                       (array_agg(s.open_price ORDER BY s.trade_date) FILTER (WHERE s.open_price IS NOT NULL))[1] AS open_price,
+                       MAX(s.high_price) AS high_price,
+                       MIN(s.low_price) AS low_price,
+                       (array_agg(s.close_price ORDER BY s.trade_date DESC) FILTER (WHERE s.close_price IS NOT NULL))[1] AS close_price,
+                       (array_agg(s.pre_close ORDER BY s.trade_date) FILTER (WHERE s.pre_close IS NOT NULL))[1] AS pre_close,
+                       SUM(s.volume) AS volume,
+                       SUM(s.amount) AS amount,
+                       SUM(s.turn) AS turn,
+                       COUNT(*) AS bar_count
+                FROM (
+                    SELECT d.trade_date, d.open_price, d.high_price, d.low_price, d.close_price, d.pre_close,
+                           d.volume, d.amount, d.turn
+                    FROM t_stock_daily d
+                    WHERE NOT t.derived
+                      AND d.stock_code = t.code AND d.adjust_flag = t.flag
+                      AND d.trade_date >= t.period_start AND d.trade_date < t.period_next
+                      AND d.trade_status IS DISTINCT FROM 0
+                    UNION ALL
+                    SELECT d.trade_date, d.open_price * x.factor, d.high_price * x.factor, d.low_price * x.factor,
+                           d.close_price * x.factor, d.pre_close * x.factor, d.volume, d.amount, d.turn
+                    FROM t_stock_daily d
+                    CROSS JOIN LATERAL (
+                        SELECT COALESCE((SELECT f.back_adjust_factor FROM t_stock_adjust_factor f
+                                          WHERE f.stock_code = d.stock_code AND f.ex_date <= d.trade_date
+                                          ORDER BY f.ex_date DESC LIMIT 1), 1) AS factor
+                    ) x
+                    WHERE t.derived
+                      AND d.stock_code = t.code AND d.adjust_flag = 3
+                      AND d.trade_date >= t.period_start AND d.trade_date < t.period_next
+                      AND d.trade_status IS DISTINCT FROM 0
+                ) s
+            ) g
+        ),
+        deleted AS (
+            DELETE FROM t_stock_bar_rollup r
+            USING aggregated a
+            WHERE NOT a.stored
+              AND r.stock_code = a.code AND r.period = '%4$s' AND r.adjust_flag = a.flag
+              AND r.period_start = a.period_start
+            RETURNING 1
+        ),
+        upserted AS (
+            INSERT INTO t_stock_bar_rollup AS r (
+                stock_code, period, adjust_flag, period_start, period_end, last_trade_date,
+                open_price, high_price, low_price, close_price, pre_close,
+                volume, amount, turn, bar_count, created_at, updated_at
+            )
+            SELECT a.code, '%4$s', a.flag, a.period_start,
+                   (SELECT MAX(c.trade_date) FROM t_trading_calendar c
+                     WHERE c.is_trading_day = 1 AND c.trade_date >= a.period_start AND c.trade_date < a.period_next),
+                   a.last_trade_date, a.open_price, a.high_price, a.low_price, a.close_price, a.pre_close,
+                   a.volume, a.amount, a.turn, a.bar_count, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+            FROM aggregated a
+            WHERE a.stored
+            ON CONFLICT (stock_code, period, adjust_flag, period_start)
+            DO UPDATE SET
+                period_end = EXCLUDED.period_end,
+                last_trade_date = EXCLUDED.last_trade_date,
+                open_price = EXCLUDED.open_price,
+                high_price = EXCLUDED.high_price,
+                low_price = EXCLUDED.low_price,
+                close_price = EXCLUDED.close_price,
+                pre_close = EXCLUDED.pre_close,
+                volume = EXCLUDED.volume,
+                amount = EXCLUDED.amount,
+                turn = EXCLUDED.turn,
+                bar_count = EXCLUDED.bar_count,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE (r.period_end, r.last_trade_date, r.open_price, r.high_price, r.low_price, r.close_price,
+                   r.pre_close, r.volume, r.amount, r.turn, r.bar_count)
+              IS DISTINCT FROM
+                  (EXCLUDED.period_end, EXCLUDED.last_trade_date, EXCLUDED.open_price, EXCLUDED.high_price,
+                   EXCLUDED.low_price, EXCLUDED.close_price, EXCLUDED.pre_close, EXCLUDED.volume,
+                   EXCLUDED.amount, EXCLUDED.turn, EXCLUDED.bar_count)
+            RETURNING 1
+        )
+        SELECT (SELECT COUNT(*) FROM upserted) + (SELECT COUNT(*) FROM deleted)
+        """;
+
+    /**
+     * Stored rollups of stocks that now derive their backward-adjusted bars are recomputed by a
+     * rebuild; their forward-adjusted rows would never be refreshed again, so they are dropped
+     */
+    private static final String DELETE_DERIVED_FORWARD_SQL = """
+        DELETE FROM t_stock_bar_rollup r
+        WHERE r.period = ? AND r.adjust_flag = 2 AND r.stock_code = ANY(?::varchar[])
+          AND EXISTS (SELECT 1 FROM t_stock_adjust_factor f WHERE f.stock_code = r.stock_code)
+        """;
+
+    /**
+     * First key of the transaction-level advisory locks taken on stock lock slots
+     */
+    private static final int LOCK_NAMESPACE = 0x524F4C4C;
+
+    /**
+     * Stocks are hashed onto this many lock slots, so one refresh of a whole trading day takes a
+     * bounded number of locks
+     */
+    private static final int LOCK_SLOTS = 1024;
+
+    /**
+     * Slots are locked one by one in array (ascending) order, so concurrent lockers cannot deadlock
+     */
+    private static final String LOCK_SQL = """
+        SELECT COUNT(*) FROM unnest(?::int[]) AS s(slot)
+        CROSS JOIN LATERAL pg_advisory_xact_lock(?, s.slot)
+        """;
+
+    private static final String SELECT_SQL = """
+        SELECT stock_code, period, adjust_flag, period_start, period_end, last_trade_date,
+               open_price, high_price, low_price, close_price, pre_close, volume, amount, turn, bar_count
+        FROM t_stock_bar_rollup
+        WHERE stock_code = ? AND period = ? AND adjust_flag = ?
+        """;
+
+    private static final RowMapper<RollupBar> ROW_MAPPER = (rs, rowNum) -> RollupBar.builder()
+            .stockCode(rs.getString("stock_code"))
+            .period(RollupPeriod.valueOf(rs.getString("period")))
+            .adjustFlag(rs.getShort("adjust_flag"))
+            .periodStart(rs.getObject("period_start", LocalDate.class))
+            .periodEnd(rs.getObject("period_end", LocalDate.class))
+            .lastTradeDate(rs.getObject("last_trade_date", LocalDate.class))
+            .openPrice(rs.getBigDecimal("open_price"))
+            .highPrice(rs.getBigDecimal("high_price"))
+            .lowPrice(rs.getBigDecimal("low_price"))
+            .closePrice(rs.getBigDecimal("close_price"))
+            .preClose(rs.getBigDecimal("pre_close"))
+            .volume(rs.getBigDecimal("volume"))
+            .amount(rs.getBigDecimal("amount"))
+            .turn(rs.getBigDecimal("turn"))
+            .barCount(rs.getInt("bar_count"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void lockStocks(Collection<String> stockCodes) {
+        if (stockCodes == null || stockCodes.isEmpty()) {
+            return;
+        }
+        int[] slots = stockCodes.stream()
+                .mapToInt(code -> Math.floorMod(code.hashCode(), LOCK_SLOTS))
+                .distinct()
+                .sorted()
+                .toArray();
+        jdbcTemplate.queryForObject(LOCK_SQL, Long.class, slots, LOCK_NAMESPACE);
+    }
+
+    @Override
+    public int refresh(RollupPeriod period, Collection<StockDailyChangedEvent.BarKey> keys, boolean deriveBackward) {
+        if (keys == null || keys.isEmpty()) {
+            return 0;
+        }
+        // Primitive and String arrays are bound as PostgreSQL arrays by the driver; dates go as ISO text
+        String[] codes = new String[keys.size()];
+        short[] flags = new short[keys.size()];
+        String[] dates = new String[keys.size()];
+        int n = 0;
+        for (StockDailyChangedEvent.BarKey key : keys) {
+            if (key.adjustFlag() == null || key.tradeDate() == null) {
+                continue;
+            }
+            codes[n] = key.stockCode();
+            flags[n] = key.adjustFlag();
+            dates[n] = key.tradeDate().toString();
+            n++;
+        }
+        if (n < codes.length) {
+            codes = Arrays.copyOf(codes, n);
+            flags = Arrays.copyOf(flags, n);
+            dates = Arrays.copyOf(dates, n);
+        }
+
+        String sql = refreshSql(period, BUCKETS_FROM_KEYS_SQL);
+        int changed = execute(sql, codes, flags, dates, deriveBackward);
+        log.debug("Refreshed {} rollups from {} daily bars: {} changed", period, keys.size(), changed);
+        return changed;
+    }
+
+    @Override
+    public int rebuild(RollupPeriod period, Collection<String> stockCodes, boolean deriveBackward) {
+        if (stockCodes == null || stockCodes.isEmpty()) {
+            return 0;
+        }
+        String[] codes = stockCodes.toArray(new String[0]);
+        if (deriveBackward) {
+            jdbcTemplate.update(DELETE_DERIVED_FORWARD_SQL, period.name(), codes);
+        }
+
+        String sql = refreshSql(period, BUCKETS_FROM_STOCKS_SQL);
+        int changed = execute(sql, codes, deriveBackward);
+        log.debug("Rebuilt {} rollups of {} stocks: {} changed", period, codes.length, changed);
+        return changed;
+    }
+
+    @Override
+    public List<RollupBar> find(String stockCode, RollupPeriod period, short adjustFlag,
+                                LocalDate startDate, LocalDate endDate) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> params = new ArrayList<>(List.of(stockCode, period.name(), adjustFlag));
+        if (startDate != null) {
+            sql.append(" AND last_trade_date >= ?");
+            params.add(startDate);
+        }
+        if (endDate != null) {
+            sql.append(" AND period_start <= ?");
+            params.add(endDate);
+        }
+        sql.append(" ORDER BY period_start");
+        List<RollupBar> rollups = jdbcTemplate.query(sql.toString(), ROW_MAPPER, params.toArray());
+        return rollups.isEmpty() ? Collections.emptyList() : rollups;
+    }
+
+    private int execute(String refreshSql, Object... params) {
+        Long changed = jdbcTemplate.queryForObject(refreshSql, Long.class, params);
+        return changed != null ? changed.intValue() : 0;
+    }
+
+    private static String refreshSql(RollupPeriod period, String bucketsTemplate) {
+        String buckets = String.format(bucketsTemplate, period.getTruncField(), period.getInterval());
+        return String.format(REFRESH_SQL, period.getTruncField(), period.getInterval(), buckets, period.name());
+    }
+}
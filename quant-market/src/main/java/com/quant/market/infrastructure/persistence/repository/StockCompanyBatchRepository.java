@@ -1,5 +1,6 @@
 package com.quant.market.infrastructure.persistence.repository;
 
+import com.quant.market.domain.model.UpsertResult;
 import com.quant.market.infrastructure.persistence.entity.StockCompanyEntity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,7 +9,9 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.PreparedStatement;
-import java.sql.Timestamp;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -22,77 +25,93 @@ public class StockCompanyBatchRepository {
 
     private final JdbcTemplate jdbcTemplate;
 
+    private static final String UPSERT_HEAD_SQL = """
+        INSERT INTO t_stock_company AS t (
+            stock_code, com_name, com_id, exchange, chairman,
+            manager, secretary, reg_capital, setup_date,
+            province, city, introduction, website, email,
+            office, employees, main_business, business_scope,
+            created_at, updated_at
+        ) VALUES
+        """;
+
+    private static final String UPSERT_ROW_PLACEHOLDER =
+        "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+
+    private static final String UPSERT_TAIL_SQL = """
+        ON CONFLICT (stock_code, com_name, com_id, chairman, exchange)
+        DO UPDATE SET
+            manager = EXCLUDED.manager,
+            secretary = EXCLUDED.secretary,
+            reg_capital = EXCLUDED.reg_capital,
+            setup_date = EXCLUDED.setup_date,
+            province = EXCLUDED.province,
+            city = EXCLUDED.city,
+            introduction = EXCLUDED.introduction,
+            website = EXCLUDED.website,
+            email = EXCLUDED.email,
+            office = EXCLUDED.office,
+            employees = EXCLUDED.employees,
+            main_business = EXCLUDED.main_business,
+            business_scope = EXCLUDED.business_scope,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE (t.manager, t.secretary, t.reg_capital, t.setup_date, t.province, t.city,
+               t.introduction, t.website, t.email, t.office, t.employees,
+               t.main_business, t.business_scope)
+            IS DISTINCT FROM
+              (EXCLUDED.manager, EXCLUDED.secretary, EXCLUDED.reg_capital, EXCLUDED.setup_date, EXCLUDED.province, EXCLUDED.city,
+               EXCLUDED.introduction, EXCLUDED.website, EXCLUDED.email, EXCLUDED.office, EXCLUDED.employees,
+               EXCLUDED.main_business, EXCLUDED.business_scope)
+        RETURNING (xmax = 0) AS inserted
+        """;
+
     /**
      * Batch upsert companies using PostgreSQL ON CONFLICT
      * This is much faster than individual insert/update operations
      *
+     * Existing rows are only rewritten when a value differs (IS DISTINCT FROM guard),
+     * so re-syncing unchanged company data produces no writes.
+     *
      * @param entities List of company entities to upsert
-     * @return Number of rows affected
+     * @return Upsert result with inserted, updated and unchanged counts
      */
     @Transactional
-    public int batchUpsert(List<StockCompanyEntity> entities) {
+    public UpsertResult batchUpsert(List<StockCompanyEntity> entities) {
         if (entities.isEmpty()) {
-            return 0;
+            return UpsertResult.empty();
         }
 
-        String sql = """
-            INSERT INTO t_stock_company (
-                stock_code, com_name, com_id, exchange, chairman,
-                manager, secretary, reg_capital, setup_date,
-                province, city, introduction, website, email,
-                office, employees, main_business, business_scope,
-                created_at, updated_at
-            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-            ON CONFLICT (stock_code, com_name, com_id, chairman, exchange)
-            DO UPDATE SET
-                manager = EXCLUDED.manager,
-                secretary = EXCLUDED.secretary,
-                reg_capital = EXCLUDED.reg_capital,
-                setup_date = EXCLUDED.setup_date,
-                province = EXCLUDED.province,
-                city = EXCLUDED.city,
-                introduction = EXCLUDED.introduction,
-                website = EXCLUDED.website,
-                email = EXCLUDED.email,
-                office = EXCLUDED.office,
-                employees = EXCLUDED.employees,
-                main_business = EXCLUDED.main_business,
-                business_scope = EXCLUDED.business_scope,
-                updated_at = CURRENT_TIMESTAMP
-            """;
+        UpsertResult result = ChangeAwareUpsert.execute(jdbcTemplate,
+                UPSERT_HEAD_SQL, UPSERT_ROW_PLACEHOLDER, UPSERT_TAIL_SQL, entities,
+                entity -> Arrays.asList(entity.getStockCode(), entity.getComName(), entity.getComId(),
+                        entity.getChairman(), entity.getExchange()),
+                StockCompanyBatchRepository::bindRow,
+                null);
 
-        int[][] results = jdbcTemplate.batchUpdate(sql, entities, entities.size(),
-            (PreparedStatement ps, StockCompanyEntity entity) -> {
-                Timestamp now = new Timestamp(System.currentTimeMillis());
-
-                ps.setString(1, entity.getStockCode());
-                ps.setString(2, entity.getComName());
-                ps.setString(3, entity.getComId());
-                ps.setString(4, entity.getExchange());
-                ps.setString(5, entity.getChairman());
-                ps.setString(6, entity.getManager());
-                ps.setString(7, entity.getSecretary());
-                ps.setBigDecimal(8, entity.getRegCapital());
-                ps.setObject(9, entity.getSetupDate());
-                ps.setString(10, entity.getProvince());
-                ps.setString(11, entity.getCity());
-                ps.setString(12, entity.getIntroduction());
-                ps.setString(13, entity.getWebsite());
-                ps.setString(14, entity.getEmail());
-                ps.setString(15, entity.getOffice());
-                ps.setObject(16, entity.getEmployees());
-                ps.setString(17, entity.getMainBusiness());
-                ps.setString(18, entity.getBusinessScope());
-                ps.setTimestamp(19, now);
-                ps.setTimestamp(20, now);
-            });
-
-        int totalAffected = 0;
-        for (int[] result : results) {
-            totalAffected += result.length;
-        }
+        log.info("Batch upsert completed: {} inserted, {} updated, {} unchanged",
+                result.inserted(), result.updated(), result.unchanged());
+        return result;
+    }
 
-        log.info("Batch upsert completed: {} rows affected", totalAffected);
-        return totalAffected;
+    private static int bindRow(PreparedStatement ps, int index, StockCompanyEntity entity) throws SQLException {
+        ps.setString(index++, entity.getStockCode());
+        ps.setString(index++, entity.getComName());
+        ps.setString(index++, entity.getComId());
+        ps.setString(index++, entity.getExchange());
+        ps.setString(index++, entity.getChairman());
+        ps.setString(index++, entity.getManager());
+        ps.setString(index++, entity.getSecretary());
+        ps.setBigDecimal(index++, entity.getRegCapital());
+        ps.setObject(index++, entity.getSetupDate());
+        ps.setString(index++, entity.getProvince());
+        ps.setString(index++, entity.getCity());
+        ps.setString(index++, entity.getIntroduction());
+        ps.setString(index++, entity.getWebsite());
+        ps.setString(index++, entity.getEmail());
+        ps.setString(index++, entity.getOffice());
+        ps.setObject(index++, entity.getEmployees(), Types.INTEGER);
+        ps.setString(index++, entity.getMainBusiness());
+        ps.setString(index++, entity.getBusinessScope());
+        return index;
     }
 }
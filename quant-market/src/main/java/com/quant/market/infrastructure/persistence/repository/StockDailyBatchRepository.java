@@ -1,15 +1,34 @@
 package com.quant.market.infrastructure.persistence.repository;
 
+import com.quant.market.domain.event.StockDailyChangedEvent;
+import com.quant.market.domain.model.UpsertResult;
 import com.quant.market.infrastructure.persistence.entity.StockDailyEntity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.sql.PreparedStatement;
-import java.sql.Timestamp;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Stock Daily Batch Repository
@@ -20,169 +39,435 @@ import java.util.List;
 @RequiredArgsConstructor
 public class StockDailyBatchRepository {
 
+    /**
+     * Session-local staging table for COPY ingest, emptied on every commit
+     */
+    private static final String CREATE_COPY_STAGING_SQL = """
+        CREATE TEMP TABLE IF NOT EXISTS tmp_stock_daily_copy (
+            stock_code VARCHAR(20),
+            trade_date DATE,
+            open_price DECIMAL(10,4),
+            high_price DECIMAL(10,4),
+            low_price DECIMAL(10,4),
+            close_price DECIMAL(10,4),
+            pre_close DECIMAL(10,4),
+            change_amount DECIMAL(10,4),
+            pct_change DECIMAL(10,6),
+            volume DECIMAL(20,4),
+            amount DECIMAL(20,4),
+            adjust_flag SMALLINT,
+            turn DECIMAL(10,6),
+            trade_status SMALLINT,
+            pe_ttm DECIMAL(18,6),
+            pb_mrq DECIMAL(18,6),
+            ps_ttm DECIMAL(18,6),
+            pcf_ncf_ttm DECIMAL(18,6),
+            is_st SMALLINT
+        ) ON COMMIT DELETE ROWS
+        """;
+
+    private static final String COPY_STAGING_SQL = """
+        COPY tmp_stock_daily_copy (
+            stock_code, trade_date, open_price, high_price, low_price,
+            close_price, pre_close, change_amount, pct_change,
+            volume, amount, adjust_flag, turn, trade_status,
+            pe_ttm, pb_mrq, ps_ttm, pcf_ncf_ttm, is_st
+        ) FROM STDIN WITH (FORMAT csv)
+        """;
+
+    /**
+     * Staged rows are merged in trade_date order so tuple routing fills one yearly partition at a time
+     */
+    private static final String MERGE_COPY_STAGING_SQL = """
+        INSERT INTO t_stock_daily (
+            stock_code, trade_date, open_price, high_price, low_price,
+            close_price, pre_close, change_amount, pct_change,
+            volume, amount, adjust_flag, turn, trade_status,
+            pe_ttm, pb_mrq, ps_ttm, pcf_ncf_ttm, is_st,
+            created_at, updated_at
+        )
+        SELECT stock_code, trade_date, open_price, high_price, low_price,
+               close_price, pre_close, change_amount, pct_change,
+               volume, amount, adjust_flag, turn, trade_status,
+               pe_ttm, pb_mrq, ps_ttm, pcf_ncf_ttm, is_st,
+               CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+        FROM tmp_stock_daily_copy
+        ORDER BY trade_date, stock_code
+        ON CONFLICT (stock_code, trade_date, adjust_flag) DO NOTHING
+        RETURNING stock_code, trade_date, adjust_flag
+        """;
+
+    private static final String INSERT_HEAD_SQL = """
+        INSERT INTO t_stock_daily (
+            stock_code, trade_date, open_price, high_price, low_price,
+            close_price, pre_close, change_amount, pct_change,
+            volume, amount, adjust_flag, turn, trade_status,
+            pe_ttm, pb_mrq, ps_ttm, pcf_ncf_ttm, is_st,
+            created_at, updated_at
+        ) VALUES
+        """;
+
+    private static final String UPSERT_HEAD_SQL = """
+        INSERT INTO t_stock_daily AS t (
+            stock_code, trade_date, open_price, high_price, low_price,
+            close_price, pre_close, change_amount, pct_change,
+            volume, amount, adjust_flag, turn, trade_status,
+            pe_ttm, pb_mrq, ps_ttm, pcf_ncf_ttm, is_st,
+            created_at, updated_at
+        ) VALUES
+        """;
+
+    private static final String UPSERT_TAIL_SQL = """
+        ON CONFLICT (stock_code, trade_date, adjust_flag)
+        DO UPDATE SET
+            open_price = EXCLUDED.open_price,
+            high_price = EXCLUDED.high_price,
+            low_price = EXCLUDED.low_price,
+            close_price = EXCLUDED.close_price,
+            pre_close = EXCLUDED.pre_close,
+            change_amount = EXCLUDED.change_amount,
+            pct_change = EXCLUDED.pct_change,
+            volume = EXCLUDED.volume,
+            amount = EXCLUDED.amount,
+            turn = EXCLUDED.turn,
+            trade_status = EXCLUDED.trade_status,
+            pe_ttm = EXCLUDED.pe_ttm,
+            pb_mrq = EXCLUDED.pb_mrq,
+            ps_ttm = EXCLUDED.ps_ttm,
+            pcf_ncf_ttm = EXCLUDED.pcf_ncf_ttm,
+            is_st = EXCLUDED.is_st,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE (t.open_price, t.high_price, t.low_price, t.close_price, t.pre_close,
+               t.change_amount, t.pct_change, t.volume, t.amount, t.turn, t.trade_status,
+               t.pe_ttm, t.pb_mrq, t.ps_ttm, t.pcf_ncf_ttm, t.is_st)
+            IS DISTINCT FROM
+              (EXCLUDED.open_price, EXCLUDED.high_price, EXCLUDED.low_price, EXCLUDED.close_price, EXCLUDED.pre_close,
+               EXCLUDED.change_amount, EXCLUDED.pct_change, EXCLUDED.volume, EXCLUDED.amount, EXCLUDED.turn, EXCLUDED.trade_status,
+               EXCLUDED.pe_ttm, EXCLUDED.pb_mrq, EXCLUDED.ps_ttm, EXCLUDED.pcf_ncf_ttm, EXCLUDED.is_st)
+        RETURNING (xmax = 0) AS inserted, stock_code, trade_date, adjust_flag
+        """;
+
+    private static final String INSERT_ROW_PLACEHOLDER =
+        "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+
+    /**
+     * Rows per multi-row INSERT statement (19 parameters per row, well below the 65535 bind limit)
+     */
+    private static final int INSERT_ROWS_PER_STATEMENT = 500;
+
+    /**
+     * CSV characters buffered before each write to the COPY stream
+     */
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+
     private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Batch insert daily data using PostgreSQL ON CONFLICT DO NOTHING
      * This skips duplicates automatically and is much faster than checking existence individually
      *
+     * Rows are sent as multi-row VALUES statements ({@value #INSERT_ROWS_PER_STATEMENT} rows each)
+     * with RETURNING of the natural key, so the result carries the exact inserted count and the
+     * (stock_code, trade_date, adjust_flag) keys that were skipped as duplicates.
+     *
      * @param entities List of daily entities to insert
-     * @return Number of rows inserted (excluding skipped duplicates)
+     * @return Insert result with inserted count and skipped keys
      */
     @Transactional
-    public int batchInsert(List<StockDailyEntity> entities) {
+    public InsertResult batchInsert(List<StockDailyEntity> entities) {
         if (entities.isEmpty()) {
-            return 0;
+            return InsertResult.empty();
         }
 
-        String sql = """
-            INSERT INTO t_stock_daily (
-                stock_code, trade_date, open_price, high_price, low_price,
-                close_price, pre_close, change_amount, pct_change,
-                volume, amount, adjust_flag, turn, trade_status,
-                pe_ttm, pb_mrq, ps_ttm, pcf_ncf_ttm, is_st,
-                created_at, updated_at
-            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-            ON CONFLICT (stock_code, trade_date, adjust_flag) DO NOTHING
-            """;
-
-        int[][] results = jdbcTemplate.batchUpdate(sql, entities, entities.size(),
-            (PreparedStatement ps, StockDailyEntity entity) -> {
-                Timestamp now = new Timestamp(System.currentTimeMillis());
-
-                ps.setString(1, entity.getStockCode());
-                ps.setObject(2, entity.getTradeDate());
-                ps.setBigDecimal(3, entity.getOpenPrice());
-                ps.setBigDecimal(4, entity.getHighPrice());
-                ps.setBigDecimal(5, entity.getLowPrice());
-                ps.setBigDecimal(6, entity.getClosePrice());
-                ps.setBigDecimal(7, entity.getPreClose());
-                ps.setBigDecimal(8, entity.getChangeAmount());
-                ps.setBigDecimal(9, entity.getPctChange());
-                ps.setBigDecimal(10, entity.getVolume());
-                ps.setBigDecimal(11, entity.getAmount());
-                if (entity.getAdjustFlag() != null) {
-                    ps.setShort(12, entity.getAdjustFlag());
-                } else {
-                    ps.setNull(12, java.sql.Types.SMALLINT);
-                }
-                ps.setBigDecimal(13, entity.getTurn());
-                if (entity.getTradeStatus() != null) {
-                    ps.setShort(14, entity.getTradeStatus());
-                } else {
-                    ps.setNull(14, java.sql.Types.SMALLINT);
-                }
-                ps.setBigDecimal(15, entity.getPeTtm());
-                ps.setBigDecimal(16, entity.getPbMrq());
-                ps.setBigDecimal(17, entity.getPsTtm());
-                ps.setBigDecimal(18, entity.getPcfNcfTtm());
-                if (entity.getIsSt() != null) {
-                    ps.setShort(19, entity.getIsSt());
-                } else {
-                    ps.setNull(19, java.sql.Types.SMALLINT);
+        List<StockDailyChangedEvent.BarKey> returnedKeys = new ArrayList<>(entities.size());
+        String fullChunkSql = null;
+        for (int from = 0; from < entities.size(); from += INSERT_ROWS_PER_STATEMENT) {
+            List<StockDailyEntity> chunk = entities.subList(from,
+                    Math.min(from + INSERT_ROWS_PER_STATEMENT, entities.size()));
+            String sql;
+            if (chunk.size() == INSERT_ROWS_PER_STATEMENT) {
+                if (fullChunkSql == null) {
+                    fullChunkSql = buildMultiRowInsertSql(INSERT_ROWS_PER_STATEMENT);
                 }
-                ps.setTimestamp(20, now);
-                ps.setTimestamp(21, now);
-            });
+                sql = fullChunkSql;
+            } else {
+                sql = buildMultiRowInsertSql(chunk.size());
+            }
 
-        int totalInserted = 0;
-        for (int[] result : results) {
-            totalInserted += result.length;
+            jdbcTemplate.query(sql,
+                    (PreparedStatementSetter) ps -> {
+                        int index = 1;
+                        for (StockDailyEntity entity : chunk) {
+                            index = bindRow(ps, index, entity);
+                        }
+                    },
+                    (RowCallbackHandler) rs -> returnedKeys.add(readKey(rs)));
         }
 
+        InsertResult result = InsertResult.of(entities, returnedKeys);
         log.info("Batch insert completed: {} rows inserted, {} duplicates skipped",
-                totalInserted, entities.size() - totalInserted);
-        return totalInserted;
+                result.inserted(), result.skippedKeys().size());
+        publishChange(StockDailyChangedEvent.ChangeType.INSERT, result.insertedKeys());
+        return result;
     }
 
     /**
-     * Batch upsert daily data (insert or update)
-     * Updates existing records with new values
+     * Build INSERT ... VALUES (...), (...) ON CONFLICT DO NOTHING RETURNING for the given row count
+     */
+    private static String buildMultiRowInsertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_HEAD_SQL.length() + rows * (INSERT_ROW_PLACEHOLDER.length() + 2) + 128);
+        sql.append(INSERT_HEAD_SQL);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(",\n");
+            }
+            sql.append(INSERT_ROW_PLACEHOLDER);
+        }
+        sql.append("\nON CONFLICT (stock_code, trade_date, adjust_flag) DO NOTHING")
+           .append("\nRETURNING stock_code, trade_date, adjust_flag");
+        return sql.toString();
+    }
+
+    /**
+     * Bind the 19 value columns of one row starting at the given parameter index
      *
-     * @param entities List of daily entities to upsert
-     * @return Number of rows affected
+     * @return Next free parameter index
+     */
+    private static int bindRow(PreparedStatement ps, int index, StockDailyEntity entity) throws SQLException {
+        ps.setString(index++, entity.getStockCode());
+        ps.setObject(index++, entity.getTradeDate());
+        ps.setBigDecimal(index++, entity.getOpenPrice());
+        ps.setBigDecimal(index++, entity.getHighPrice());
+        ps.setBigDecimal(index++, entity.getLowPrice());
+        ps.setBigDecimal(index++, entity.getClosePrice());
+        ps.setBigDecimal(index++, entity.getPreClose());
+        ps.setBigDecimal(index++, entity.getChangeAmount());
+        ps.setBigDecimal(index++, entity.getPctChange());
+        ps.setBigDecimal(index++, entity.getVolume());
+        ps.setBigDecimal(index++, entity.getAmount());
+        setShort(ps, index++, entity.getAdjustFlag());
+        ps.setBigDecimal(index++, entity.getTurn());
+        setShort(ps, index++, entity.getTradeStatus());
+        ps.setBigDecimal(index++, entity.getPeTtm());
+        ps.setBigDecimal(index++, entity.getPbMrq());
+        ps.setBigDecimal(index++, entity.getPsTtm());
+        ps.setBigDecimal(index++, entity.getPcfNcfTtm());
+        setShort(ps, index++, entity.getIsSt());
+        return index;
+    }
+
+    private static void setShort(PreparedStatement ps, int index, Short value) throws SQLException {
+        if (value != null) {
+            ps.setShort(index, value);
+        } else {
+            ps.setNull(index, Types.SMALLINT);
+        }
+    }
+
+    private static StockDailyChangedEvent.BarKey readKey(ResultSet rs) throws SQLException {
+        short adjustFlag = rs.getShort("adjust_flag");
+        Short adjustFlagValue = rs.wasNull() ? null : adjustFlag;
+        return new StockDailyChangedEvent.BarKey(
+                rs.getString("stock_code"), rs.getObject("trade_date", LocalDate.class), adjustFlagValue);
+    }
+
+    /**
+     * Bulk insert daily data using PostgreSQL COPY
+     *
+     * Rows are streamed as CSV into a session-local staging table through the pgjdbc CopyManager,
+     * then merged with a single INSERT ... SELECT ... ON CONFLICT DO NOTHING RETURNING, which
+     * yields the exact inserted keys; every other input row was skipped as a duplicate.
+     *
+     * @param entities List of daily entities to insert
+     * @return Insert result with inserted count and skipped keys
      */
     @Transactional
-    public int batchUpsert(List<StockDailyEntity> entities) {
+    public InsertResult copyInsert(List<StockDailyEntity> entities) {
         if (entities.isEmpty()) {
-            return 0;
+            return InsertResult.empty();
         }
 
-        String sql = """
-            INSERT INTO t_stock_daily (
-                stock_code, trade_date, open_price, high_price, low_price,
-                close_price, pre_close, change_amount, pct_change,
-                volume, amount, adjust_flag, turn, trade_status,
-                pe_ttm, pb_mrq, ps_ttm, pcf_ncf_ttm, is_st,
-                created_at, updated_at
-            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-            ON CONFLICT (stock_code, trade_date, adjust_flag)
-            DO UPDATE SET
-                open_price = EXCLUDED.open_price,
-                high_price = EXCLUDED.high_price,
-                low_price = EXCLUDED.low_price,
-                close_price = EXCLUDED.close_price,
-                pre_close = EXCLUDED.pre_close,
-                change_amount = EXCLUDED.change_amount,
-                pct_change = EXCLUDED.pct_change,
-                volume = EXCLUDED.volume,
-                amount = EXCLUDED.amount,
-                adjust_flag = EXCLUDED.adjust_flag,
-                turn = EXCLUDED.turn,
-                trade_status = EXCLUDED.trade_status,
-                pe_ttm = EXCLUDED.pe_ttm,
-                pb_mrq = EXCLUDED.pb_mrq,
-                ps_ttm = EXCLUDED.ps_ttm,
-                pcf_ncf_ttm = EXCLUDED.pcf_ncf_ttm,
-                is_st = EXCLUDED.is_st,
-                updated_at = CURRENT_TIMESTAMP
-            """;
-
-        int[][] results = jdbcTemplate.batchUpdate(sql, entities, entities.size(),
-            (PreparedStatement ps, StockDailyEntity entity) -> {
-                Timestamp now = new Timestamp(System.currentTimeMillis());
-
-                ps.setString(1, entity.getStockCode());
-                ps.setObject(2, entity.getTradeDate());
-                ps.setBigDecimal(3, entity.getOpenPrice());
-                ps.setBigDecimal(4, entity.getHighPrice());
-                ps.setBigDecimal(5, entity.getLowPrice());
-                ps.setBigDecimal(6, entity.getClosePrice());
-                ps.setBigDecimal(7, entity.getPreClose());
-                ps.setBigDecimal(8, entity.getChangeAmount());
-                ps.setBigDecimal(9, entity.getPctChange());
-                ps.setBigDecimal(10, entity.getVolume());
-                ps.setBigDecimal(11, entity.getAmount());
-                if (entity.getAdjustFlag() != null) {
-                    ps.setShort(12, entity.getAdjustFlag());
-                } else {
-                    ps.setNull(12, java.sql.Types.SMALLINT);
+        List<StockDailyChangedEvent.BarKey> returnedKeys = new ArrayList<>(entities.size());
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_COPY_STAGING_SQL);
+                // Staging rows of an earlier chunk in the same transaction must not be merged twice
+                statement.execute("TRUNCATE tmp_stock_daily_copy");
+            }
+
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            CopyIn copyIn = copyManager.copyIn(COPY_STAGING_SQL);
+            try {
+                StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS + 1024);
+                for (StockDailyEntity entity : entities) {
+                    appendCsvRow(buffer, entity);
+                    if (buffer.length() >= COPY_BUFFER_CHARS) {
+                        flushToCopy(copyIn, buffer);
+                    }
                 }
-                ps.setBigDecimal(13, entity.getTurn());
-                if (entity.getTradeStatus() != null) {
-                    ps.setShort(14, entity.getTradeStatus());
-                } else {
-                    ps.setNull(14, java.sql.Types.SMALLINT);
+                flushToCopy(copyIn, buffer);
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
                 }
-                ps.setBigDecimal(15, entity.getPeTtm());
-                ps.setBigDecimal(16, entity.getPbMrq());
-                ps.setBigDecimal(17, entity.getPsTtm());
-                ps.setBigDecimal(18, entity.getPcfNcfTtm());
-                if (entity.getIsSt() != null) {
-                    ps.setShort(19, entity.getIsSt());
-                } else {
-                    ps.setNull(19, java.sql.Types.SMALLINT);
+            }
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(MERGE_COPY_STAGING_SQL)) {
+                while (rs.next()) {
+                    returnedKeys.add(readKey(rs));
                 }
-                ps.setTimestamp(20, now);
-                ps.setTimestamp(21, now);
-            });
+            }
+            return null;
+        });
+
+        InsertResult result = InsertResult.of(entities, returnedKeys);
+        log.info("COPY insert completed: {} rows inserted, {} duplicates skipped",
+                result.inserted(), result.skippedKeys().size());
+        publishChange(StockDailyChangedEvent.ChangeType.INSERT, result.insertedKeys());
+        return result;
+    }
+
+    /**
+     * Batch upsert daily data (insert or update)
+     * Updates existing records only when at least one value differs from the stored row
+     *
+     * Identical rows are filtered by an IS DISTINCT FROM guard on the ON CONFLICT update, so
+     * re-syncing a window of unchanged bars writes no tuples and keeps updated_at as it was.
+     * Only inserted and changed rows are published in the change event.
+     *
+     * @param entities List of daily entities to upsert
+     * @return Upsert result with inserted, updated and unchanged counts
+     */
+    @Transactional
+    public UpsertResult batchUpsert(List<StockDailyEntity> entities) {
+        if (entities.isEmpty()) {
+            return UpsertResult.empty();
+        }
+
+        List<StockDailyChangedEvent.BarKey> changedKeys = new ArrayList<>();
+        UpsertResult result = ChangeAwareUpsert.execute(jdbcTemplate,
+                UPSERT_HEAD_SQL, INSERT_ROW_PLACEHOLDER, UPSERT_TAIL_SQL, entities,
+                entity -> Arrays.asList(entity.getStockCode(), entity.getTradeDate(), entity.getAdjustFlag()),
+                StockDailyBatchRepository::bindRow,
+                rs -> changedKeys.add(readKey(rs)));
+
+        log.info("Batch upsert completed: {} inserted, {} updated, {} unchanged",
+                result.inserted(), result.updated(), result.unchanged());
+        publishChange(StockDailyChangedEvent.ChangeType.UPSERT, changedKeys);
+        return result;
+    }
+
+    private void publishChange(StockDailyChangedEvent.ChangeType changeType, List<StockDailyChangedEvent.BarKey> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        eventPublisher.publishEvent(new StockDailyChangedEvent(changeType, keys));
+    }
+
+    private static StockDailyChangedEvent.BarKey toKey(StockDailyEntity entity) {
+        return new StockDailyChangedEvent.BarKey(entity.getStockCode(), entity.getTradeDate(), entity.getAdjustFlag());
+    }
+
+    private static void flushToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.length() == 0) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    /**
+     * Append one row in COPY CSV format (unquoted empty field = NULL)
+     */
+    private static void appendCsvRow(StringBuilder buffer, StockDailyEntity entity) {
+        appendCsvString(buffer, entity.getStockCode());
+        buffer.append(',');
+        if (entity.getTradeDate() != null) {
+            buffer.append(entity.getTradeDate());
+        }
+        appendCsvDecimal(buffer, entity.getOpenPrice());
+        appendCsvDecimal(buffer, entity.getHighPrice());
+        appendCsvDecimal(buffer, entity.getLowPrice());
+        appendCsvDecimal(buffer, entity.getClosePrice());
+        appendCsvDecimal(buffer, entity.getPreClose());
+        appendCsvDecimal(buffer, entity.getChangeAmount());
+        appendCsvDecimal(buffer, entity.getPctChange());
+        appendCsvDecimal(buffer, entity.getVolume());
+        appendCsvDecimal(buffer, entity.getAmount());
+        appendCsvShort(buffer, entity.getAdjustFlag());
+        appendCsvDecimal(buffer, entity.getTurn());
+        appendCsvShort(buffer, entity.getTradeStatus());
+        appendCsvDecimal(buffer, entity.getPeTtm());
+        appendCsvDecimal(buffer, entity.getPbMrq());
+        appendCsvDecimal(buffer, entity.getPsTtm());
+        appendCsvDecimal(buffer, entity.getPcfNcfTtm());
+        appendCsvShort(buffer, entity.getIsSt());
+        buffer.append('\n');
+    }
 
-        int totalAffected = 0;
-        for (int[] result : results) {
-            totalAffected += result.length;
+    private static void appendCsvString(StringBuilder buffer, String value) {
+        if (value == null) {
+            return;
         }
+        buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static void appendCsvDecimal(StringBuilder buffer, BigDecimal value) {
+        buffer.append(',');
+        if (value != null) {
+            buffer.append(value.toPlainString());
+        }
+    }
 
-        log.info("Batch upsert completed: {} rows affected", totalAffected);
-        return totalAffected;
+    private static void appendCsvShort(StringBuilder buffer, Short value) {
+        buffer.append(',');
+        if (value != null) {
+            buffer.append(value.shortValue());
+        }
+    }
+
+    /**
+     * Result of an insert-only batch write
+     *
+     * @param inserted Number of rows inserted
+     * @param insertedKeys Keys of inserted rows, in input order
+     * @param skippedKeys Keys of rows skipped because they already existed, in input order
+     */
+    public record InsertResult(int inserted,
+                               List<StockDailyChangedEvent.BarKey> insertedKeys,
+                               List<StockDailyChangedEvent.BarKey> skippedKeys) {
+
+        public static InsertResult empty() {
+            return new InsertResult(0, List.of(), List.of());
+        }
+
+        /**
+         * Split input rows into inserted and skipped by matching the keys returned from the database
+         * Repeated input keys are matched as a multiset, so a duplicate within the batch counts as skipped
+         */
+        static InsertResult of(List<StockDailyEntity> entities, List<StockDailyChangedEvent.BarKey> returnedKeys) {
+            Map<StockDailyChangedEvent.BarKey, Integer> remaining = new HashMap<>();
+            for (StockDailyChangedEvent.BarKey key : returnedKeys) {
+                remaining.merge(key, 1, Integer::sum);
+            }
+
+            List<StockDailyChangedEvent.BarKey> inserted = new ArrayList<>(returnedKeys.size());
+            List<StockDailyChangedEvent.BarKey> skipped = new ArrayList<>();
+            for (StockDailyEntity entity : entities) {
+                StockDailyChangedEvent.BarKey key = toKey(entity);
+                Integer count = remaining.get(key);
+                if (count != null && count > 0) {
+                    remaining.put(key, count - 1);
+                    inserted.add(key);
+                } else {
+                    skipped.add(key);
+                }
+            }
+            return new InsertResult(inserted.size(), inserted, skipped);
+        }
     }
 }
@@ -0,0 +1,91 @@
+package com.quant.market.infrastructure.persistence.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+
+/**
+ * Stock Daily Export Repository
+ * 日线数据全量导出：服务端游标流式读取
+ *
+ * PostgreSQL only opens a server-side cursor when the statement is forward-only, has a fetch size
+ * and runs with auto-commit off, so rows are always read inside a read-only transaction and pulled
+ * {@code fetchSize} rows per round trip. Rows are handed to the callback as raw result set rows;
+ * no entity or domain objects are created.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class StockDailyExportRepository {
+
+    /**
+     * Exported columns, in output order (names match the /batch/stream CSV header)
+     */
+    public static final String[] COLUMNS = {
+            "stock_code", "trade_date", "open_price", "high_price", "low_price", "close_price",
+            "pre_close", "change_amount", "pct_change", "volume", "amount", "adjust_flag",
+            "turn", "trade_status", "pe_ttm", "pb_mrq", "ps_ttm", "pcf_ncf_ttm", "is_st"
+    };
+
+    /**
+     * Ordered like idx_stock_daily_date_adjust_code, so each year partition is read in index
+     * order and merged without a sort node; the first rows leave the database immediately.
+     */
+    private static final String EXPORT_SQL = "SELECT " + String.join(", ", COLUMNS) + """
+             FROM t_stock_daily
+            WHERE trade_date >= ? AND trade_date <= ?
+            """;
+
+    private static final String ORDER_BY_SQL = " ORDER BY trade_date, adjust_flag, stock_code";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Stream daily rows in (trade_date, adjust_flag, stock_code) order
+     *
+     * The callback is invoked once per row while the cursor is open; it must read the columns it
+     * needs by index (1-based, in {@link #COLUMNS} order) and must not keep the result set.
+     *
+     * @param startDate Start date (inclusive)
+     * @param endDate End date (inclusive)
+     * @param adjustFlag Adjust flag (null for all)
+     * @param fetchSize Rows fetched per round trip
+     * @param handler Row callback
+     * @return Number of rows streamed
+     */
+    @Transactional(readOnly = true)
+    public long streamRows(LocalDate startDate, LocalDate endDate, Short adjustFlag, int fetchSize,
+                           RowCallbackHandler handler) {
+        String sql = adjustFlag != null
+                ? EXPORT_SQL + " AND adjust_flag = ?" + ORDER_BY_SQL
+                : EXPORT_SQL + ORDER_BY_SQL;
+        long[] rows = new long[1];
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setDate(1, Date.valueOf(startDate));
+            ps.setDate(2, Date.valueOf(endDate));
+            if (adjustFlag != null) {
+                ps.setShort(3, adjustFlag);
+            }
+            return ps;
+        }, (ResultSet rs) -> {
+            handler.processRow(rs);
+            rows[0]++;
+        });
+
+        log.debug("Streamed {} daily rows from {} to {} (adjustFlag={}, fetchSize={})",
+                rows[0], startDate, endDate, adjustFlag, fetchSize);
+        return rows[0];
+    }
+}
@@ -2,19 +2,19 @@ package com.quant.market.infrastructure.persistence.repository;
 
 import com.quant.market.infrastructure.persistence.entity.StockDailyEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Optional;
 
 /**
  * Stock Daily JPA Repository
  */
 @Repository
-public interface StockDailyJpaRepository extends JpaRepository<StockDailyEntity, Long> {
+public interface StockDailyJpaRepository extends JpaRepository<StockDailyEntity, Long>, JpaSpecificationExecutor<StockDailyEntity> {
 
     /**
      * Find by stock code and trade date (any adjust flag)
@@ -39,90 +39,32 @@ public interface StockDailyJpaRepository extends JpaRepository<StockDailyEntity,
             String stockCode, LocalDate tradeDate, Short adjustFlag);
 
     /**
-     * Find by stock code ordered by trade date descending
+     * Count by stock code (index-only count, no rows are loaded)
      */
-    List<StockDailyEntity> findByStockCodeOrderByTradeDateDesc(String stockCode);
+    long countByStockCode(String stockCode);
 
     /**
-     * Find by stock code ordered by trade date ascending
+     * Find the latest trade date on or after a lower bound
+     * t_stock_daily is partitioned by trade_date; the bound prunes the scan to the recent partitions
      */
-    List<StockDailyEntity> findByStockCodeOrderByTradeDateAsc(String stockCode);
+    @Query("SELECT MAX(d.tradeDate) FROM StockDailyEntity d WHERE d.tradeDate >= :since")
+    LocalDate findLatestTradeDateSince(@Param("since") LocalDate since);
 
     /**
-     * Find by stock code and date range (descending)
+     * Find the latest trade date for a specific stock code on or after a lower bound
      */
-    @Query("SELECT d FROM StockDailyEntity d WHERE d.stockCode = :stockCode " +
-           "AND d.tradeDate >= :startDate AND d.tradeDate <= :endDate " +
-           "ORDER BY d.tradeDate DESC")
-    List<StockDailyEntity> findByStockCodeAndDateRangeDesc(
+    @Query("SELECT MAX(d.tradeDate) FROM StockDailyEntity d WHERE d.stockCode = :stockCode AND d.tradeDate >= :since")
+    LocalDate findLatestTradeDateByStockCodeSince(
             @Param("stockCode") String stockCode,
-            @Param("startDate") LocalDate startDate,
-            @Param("endDate") LocalDate endDate);
+            @Param("since") LocalDate since);
 
     /**
-     * Find by stock code and date range (ascending)
+     * Find the latest trade date for a specific stock code and adjust flag on or after a lower bound
      */
-    @Query("SELECT d FROM StockDailyEntity d WHERE d.stockCode = :stockCode " +
-           "AND d.tradeDate >= :startDate AND d.tradeDate <= :endDate " +
-           "ORDER BY d.tradeDate ASC")
-    List<StockDailyEntity> findByStockCodeAndDateRangeAsc(
+    @Query("SELECT MAX(d.tradeDate) FROM StockDailyEntity d WHERE d.stockCode = :stockCode " +
+           "AND d.adjustFlag = :adjustFlag AND d.tradeDate >= :since")
+    LocalDate findLatestTradeDateByStockCodeAndAdjustFlagSince(
             @Param("stockCode") String stockCode,
-            @Param("startDate") LocalDate startDate,
-            @Param("endDate") LocalDate endDate);
-
-    /**
-     * Find by stock code and start date (descending)
-     */
-    @Query("SELECT d FROM StockDailyEntity d WHERE d.stockCode = :stockCode " +
-           "AND d.tradeDate >= :startDate ORDER BY d.tradeDate DESC")
-    List<StockDailyEntity> findByStockCodeAndStartDateDesc(
-            @Param("stockCode") String stockCode,
-            @Param("startDate") LocalDate startDate);
-
-    /**
-     * Find by stock code and start date (ascending)
-     */
-    @Query("SELECT d FROM StockDailyEntity d WHERE d.stockCode = :stockCode " +
-           "AND d.tradeDate >= :startDate ORDER BY d.tradeDate ASC")
-    List<StockDailyEntity> findByStockCodeAndStartDateAsc(
-            @Param("stockCode") String stockCode,
-            @Param("startDate") LocalDate startDate);
-
-    /**
-     * Find by stock code and end date (descending)
-     */
-    @Query("SELECT d FROM StockDailyEntity d WHERE d.stockCode = :stockCode " +
-           "AND d.tradeDate <= :endDate ORDER BY d.tradeDate DESC")
-    List<StockDailyEntity> findByStockCodeAndEndDateDesc(
-            @Param("stockCode") String stockCode,
-            @Param("endDate") LocalDate endDate);
-
-    /**
-     * Find by stock code and end date (ascending)
-     */
-    @Query("SELECT d FROM StockDailyEntity d WHERE d.stockCode = :stockCode " +
-           "AND d.tradeDate <= :endDate ORDER BY d.tradeDate ASC")
-    List<StockDailyEntity> findByStockCodeAndEndDateAsc(
-            @Param("stockCode") String stockCode,
-            @Param("endDate") LocalDate endDate);
-
-    /**
-     * Find the latest trade date in the database
-     */
-    @Query("SELECT MAX(d.tradeDate) FROM StockDailyEntity d")
-    LocalDate findLatestTradeDate();
-
-    /**
-     * Find the latest trade date for a specific stock code
-     */
-    @Query("SELECT MAX(d.tradeDate) FROM StockDailyEntity d WHERE d.stockCode = :stockCode")
-    LocalDate findLatestTradeDateByStockCode(@Param("stockCode") String stockCode);
-
-    /**
-     * Find the latest trade date for a specific stock code and adjust flag
-     */
-    @Query("SELECT MAX(d.tradeDate) FROM StockDailyEntity d WHERE d.stockCode = :stockCode AND d.adjustFlag = :adjustFlag")
-    LocalDate findLatestTradeDateByStockCodeAndAdjustFlag(
-            @Param("stockCode") String stockCode,
-            @Param("adjustFlag") Short adjustFlag);
+            @Param("adjustFlag") Short adjustFlag,
+            @Param("since") LocalDate since);
 }
@@ -1,14 +1,30 @@
 package com.quant.market.infrastructure.persistence.repository;
 
+import com.quant.market.domain.model.BarSeries;
+import com.quant.market.domain.model.DailySnapshot;
 import com.quant.market.domain.model.StockDaily;
+import com.quant.market.domain.model.StockDailyStats;
 import com.quant.market.domain.repository.StockDailyRepository;
 import com.quant.market.infrastructure.persistence.entity.StockDailyEntity;
+import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.sql.ResultSet;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -18,7 +34,13 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class StockDailyRepositoryImpl implements StockDailyRepository {
 
+    /**
+     * Lower bound of t_stock_daily partitions (first year of the A-share market)
+     */
+    private static final LocalDate EARLIEST_TRADE_DATE = LocalDate.of(1990, 1, 1);
+
     private final StockDailyJpaRepository jpaRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     public StockDaily save(StockDaily daily) {
@@ -63,44 +85,203 @@ public class StockDailyRepositoryImpl implements StockDailyRepository {
             Integer adjustFlag,
             boolean ascending) {
 
-        List<StockDailyEntity> entities;
+        Specification<StockDailyEntity> spec = dailySpec(stockCode, startDate, endDate, adjustFlag);
+        Sort sort = Sort.by(ascending ? Sort.Direction.ASC : Sort.Direction.DESC, "tradeDate");
+        List<StockDailyEntity> entities = jpaRepository.findAll(spec, sort);
+
+        return entities.stream()
+                .map(StockDailyEntity::toDomain)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<StockDaily> queryDailyDataPage(
+            String stockCode,
+            LocalDate startDate,
+            LocalDate endDate,
+            Integer adjustFlag,
+            boolean ascending,
+            LocalDate afterTradeDate,
+            Short afterAdjustFlag,
+            int limit) {
+
+        Specification<StockDailyEntity> spec = dailySpec(stockCode, startDate, endDate, adjustFlag);
+
+        // Keyset predicate: continue strictly after the last (trade_date, adjust_flag) of the previous page,
+        // so every page is one bounded range scan of the uk_stock_daily_unique index regardless of depth
+        if (afterTradeDate != null) {
+            spec = spec.and((root, query, criteriaBuilder) -> {
+                if (ascending) {
+                    Predicate laterDate = criteriaBuilder.greaterThan(root.get("tradeDate"), afterTradeDate);
+                    if (afterAdjustFlag == null) {
+                        return laterDate;
+                    }
+                    return criteriaBuilder.or(laterDate, criteriaBuilder.and(
+                            criteriaBuilder.equal(root.get("tradeDate"), afterTradeDate),
+                            criteriaBuilder.greaterThan(root.get("adjustFlag"), afterAdjustFlag)));
+                }
+                Predicate earlierDate = criteriaBuilder.lessThan(root.get("tradeDate"), afterTradeDate);
+                if (afterAdjustFlag == null) {
+                    return earlierDate;
+                }
+                return criteriaBuilder.or(earlierDate, criteriaBuilder.and(
+                        criteriaBuilder.equal(root.get("tradeDate"), afterTradeDate),
+                        criteriaBuilder.lessThan(root.get("adjustFlag"), afterAdjustFlag)));
+            });
+        }
+
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = Sort.by(direction, "tradeDate").and(Sort.by(direction, "adjustFlag"));
+        List<StockDailyEntity> entities = jpaRepository.findBy(spec, query -> query.sortBy(sort).limit(limit).all());
+
+        return entities.stream()
+                .map(StockDailyEntity::toDomain)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Build the filter of a single-stock daily query
+     * All filters are pushed into one query so only the requested series crosses the wire;
+     * (stock_code, trade_date, adjust_flag) predicates are served by the uk_stock_daily_unique index
+     * and trade_date bounds also prune the yearly partitions scanned
+     */
+    private static Specification<StockDailyEntity> dailySpec(
+            String stockCode, LocalDate startDate, LocalDate endDate, Integer adjustFlag) {
+        Short adjustFlagShort = adjustFlag != null ? adjustFlag.shortValue() : null;
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            predicates.add(criteriaBuilder.equal(root.get("stockCode"), stockCode));
+
+            // Date range filter
+            if (startDate != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("tradeDate"), startDate));
+            }
+            if (endDate != null) {
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("tradeDate"), endDate));
+            }
+
+            // Adjust flag filter
+            if (adjustFlagShort != null) {
+                predicates.add(criteriaBuilder.equal(root.get("adjustFlag"), adjustFlagShort));
+            }
+
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    @Override
+    public Map<String, BarSeries> findSeriesByStockCodes(
+            Collection<String> stockCodes,
+            LocalDate startDate,
+            LocalDate endDate,
+            short adjustFlag,
+            Integer lastN) {
+        if (stockCodes == null || stockCodes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (startDate != null || lastN == null) {
+            // A load without start date or lastN asks for the whole history, which spans every partition
+            return querySeries(stockCodes, startDate, endDate, adjustFlag, lastN);
+        }
 
-        // Case 1: Both startDate and endDate provided
-        if (startDate != null && endDate != null) {
-            entities = ascending
-                    ? jpaRepository.findByStockCodeAndDateRangeAsc(stockCode, startDate, endDate)
-                    : jpaRepository.findByStockCodeAndDateRangeDesc(stockCode, startDate, endDate);
+        // Latest N bars: search the partitions covering about N trading days first (~250 a year, plus
+        // holiday slack), then reload without a lower bound only the stocks that came up short there
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate since = end.minusDays(lastN * 3L / 2 + 30);
+        Map<String, BarSeries> recent = querySeries(stockCodes, since, endDate, adjustFlag, lastN);
+        List<String> shortCodes = new ArrayList<>();
+        for (String stockCode : stockCodes) {
+            BarSeries series = recent.get(stockCode);
+            if (series == null || series.size() < lastN) {
+                shortCodes.add(stockCode);
+            }
         }
-        // Case 2: Only startDate provided
-        else if (startDate != null) {
-            entities = ascending
-                    ? jpaRepository.findByStockCodeAndStartDateAsc(stockCode, startDate)
-                    : jpaRepository.findByStockCodeAndStartDateDesc(stockCode, startDate);
+        if (shortCodes.isEmpty()) {
+            return recent;
+        }
+        Map<String, BarSeries> older = querySeries(shortCodes, null, endDate, adjustFlag, lastN);
+        Map<String, BarSeries> result = new LinkedHashMap<>(stockCodes.size() * 2);
+        for (String stockCode : stockCodes) {
+            BarSeries series = older.containsKey(stockCode) ? older.get(stockCode) : recent.get(stockCode);
+            if (series != null) {
+                result.put(stockCode, series);
+            }
+        }
+        return result;
+    }
+
+    private Map<String, BarSeries> querySeries(Collection<String> stockCodes, LocalDate startDate, LocalDate endDate,
+                                               short adjustFlag, Integer lastN) {
+        // One statement for all codes: a LATERAL range scan of the uk_stock_daily_unique index per code,
+        // newest first so LIMIT keeps the latest N bars, then re-sorted ascending for the series builders
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder()
+                .append("SELECT c.ord, d.* FROM unnest(?::varchar[]) WITH ORDINALITY AS c(code, ord)\n")
+                .append("CROSS JOIN LATERAL (\n")
+                .append("    SELECT ").append(BarSeriesRowReader.COLUMNS).append("\n")
+                .append("    FROM t_stock_daily\n")
+                .append("    WHERE stock_code = c.code AND adjust_flag = ?");
+        params.add(stockCodes.toArray(new String[0]));
+        params.add(adjustFlag);
+        if (startDate != null) {
+            sql.append(" AND trade_date >= ?");
+            params.add(startDate);
         }
-        // Case 3: Only endDate provided
-        else if (endDate != null) {
-            entities = ascending
-                    ? jpaRepository.findByStockCodeAndEndDateAsc(stockCode, endDate)
-                    : jpaRepository.findByStockCodeAndEndDateDesc(stockCode, endDate);
+        if (endDate != null) {
+            sql.append(" AND trade_date <= ?");
+            params.add(endDate);
         }
-        // Case 4: No date filter
-        else {
-            entities = ascending
-                    ? jpaRepository.findByStockCodeOrderByTradeDateAsc(stockCode)
-                    : jpaRepository.findByStockCodeOrderByTradeDateDesc(stockCode);
+        sql.append("\n    ORDER BY trade_date DESC");
+        if (lastN != null) {
+            sql.append(" LIMIT ?");
+            params.add(lastN);
         }
+        sql.append("\n) d\nORDER BY c.ord, d.trade_date");
 
-        // Filter by adjustFlag if provided
-        if (adjustFlag != null) {
-            Short adjustFlagShort = adjustFlag.shortValue();
-            entities = entities.stream()
-                    .filter(entity -> adjustFlagShort.equals(entity.getAdjustFlag()))
-                    .collect(Collectors.toList());
+        Map<String, BarSeries.Builder> builders = new LinkedHashMap<>();
+        BarSeriesRowReader reader = new BarSeriesRowReader();
+        String[] codes = (String[]) params.get(0);
+        int expectedBars = expectedBarCount(startDate, endDate, lastN);
+        jdbcTemplate.query(sql.toString(), (ResultSet rs) -> {
+            String stockCode = codes[rs.getInt("ord") - 1];
+            BarSeries.Builder builder = builders.computeIfAbsent(stockCode,
+                    code -> BarSeries.builder(code, adjustFlag, expectedBars));
+            reader.append(rs, builder);
+        }, params.toArray());
+
+        Map<String, BarSeries> result = new LinkedHashMap<>(builders.size() * 2);
+        builders.forEach((code, builder) -> result.put(code, builder.build()));
+        return result;
+    }
+
+    /**
+     * Initial builder capacity for one stock: trading days in the range (about 5 of 7 calendar days)
+     * when it is bounded, capped by lastN; builders grow by half when a stock has more bars
+     */
+    private static int expectedBarCount(LocalDate startDate, LocalDate endDate, Integer lastN) {
+        int expected = 256;
+        if (startDate != null) {
+            LocalDate end = endDate != null ? endDate : LocalDate.now();
+            long calendarDays = Math.max(ChronoUnit.DAYS.between(startDate, end) + 1, 0);
+            expected = (int) Math.min(calendarDays * 5 / 7 + 8, Integer.MAX_VALUE);
         }
+        return lastN != null ? Math.min(expected, lastN) : expected;
+    }
 
-        return entities.stream()
-                .map(StockDailyEntity::toDomain)
-                .collect(Collectors.toList());
+    @Override
+    public DailySnapshot findSnapshot(LocalDate tradeDate, short adjustFlag) {
+        // Served by idx_stock_daily_date_adjust_code in the single partition of that year
+        String sql = "SELECT stock_code, " + BarSeriesRowReader.COLUMNS
+                + " FROM t_stock_daily WHERE trade_date = ? AND adjust_flag = ? ORDER BY stock_code";
+
+        DailySnapshot.Builder builder = DailySnapshot.builder(tradeDate, adjustFlag, 6000);
+        BarSeriesRowReader reader = new BarSeriesRowReader();
+        jdbcTemplate.query(sql, (ResultSet rs) -> {
+            builder.add(rs.getString("stock_code"), reader.readValues(rs),
+                    BarSeriesRowReader.getShort(rs, "trade_status"), BarSeriesRowReader.getShort(rs, "is_st"));
+        }, tradeDate, adjustFlag);
+        return builder.build();
     }
 
     @Override
@@ -115,20 +296,80 @@ public class StockDailyRepositoryImpl implements StockDailyRepository {
 
     @Override
     public long countByStockCode(String stockCode) {
-        return jpaRepository.findByStockCodeOrderByTradeDateDesc(stockCode).size();
+        return jpaRepository.countByStockCode(stockCode);
+    }
+
+    @Override
+    public List<StockDailyStats> findStatsByStockCodes(Collection<String> stockCodes) {
+        if (stockCodes == null || stockCodes.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Grouped aggregate over the uk_stock_daily_unique index, one row per (stock_code, adjust_flag);
+        // COUNT and MIN cover the whole history, so every partition holding the stocks is read by design
+        String sql = """
+            SELECT stock_code, adjust_flag, COUNT(*) AS record_count,
+                   MIN(trade_date) AS first_trade_date, MAX(trade_date) AS last_trade_date
+            FROM t_stock_daily
+            WHERE stock_code = ANY(?)
+            GROUP BY stock_code, adjust_flag
+            """;
+
+        Map<String, StockDailyStats> statsByCode = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, (ResultSet rs) -> {
+            String stockCode = rs.getString("stock_code");
+            short adjustFlag = rs.getShort("adjust_flag");
+            boolean adjustFlagNull = rs.wasNull();
+            long recordCount = rs.getLong("record_count");
+            LocalDate first = rs.getObject("first_trade_date", LocalDate.class);
+            LocalDate last = rs.getObject("last_trade_date", LocalDate.class);
+
+            StockDailyStats stats = statsByCode.computeIfAbsent(stockCode, code -> StockDailyStats.builder()
+                    .stockCode(code)
+                    .countByAdjustFlag(new HashMap<>())
+                    .build());
+            stats.setRecordCount(stats.getRecordCount() + recordCount);
+            if (stats.getFirstTradeDate() == null || first.isBefore(stats.getFirstTradeDate())) {
+                stats.setFirstTradeDate(first);
+            }
+            if (stats.getLastTradeDate() == null || last.isAfter(stats.getLastTradeDate())) {
+                stats.setLastTradeDate(last);
+            }
+            if (!adjustFlagNull) {
+                stats.getCountByAdjustFlag().put(adjustFlag, recordCount);
+            }
+        }, (Object) stockCodes.toArray(new String[0]));
+
+        return new ArrayList<>(statsByCode.values());
     }
 
     @Override
     public LocalDate findLatestTradeDate() {
-        return jpaRepository.findLatestTradeDate();
+        return findLatestWithinPartitions(jpaRepository::findLatestTradeDateSince);
     }
 
     @Override
     public LocalDate findLatestTradeDate(String stockCode, Integer adjustFlag) {
         if (adjustFlag != null) {
-            return jpaRepository.findLatestTradeDateByStockCodeAndAdjustFlag(stockCode, adjustFlag.shortValue());
+            short flag = adjustFlag.shortValue();
+            return findLatestWithinPartitions(since ->
+                    jpaRepository.findLatestTradeDateByStockCodeAndAdjustFlagSince(stockCode, flag, since));
         } else {
-            return jpaRepository.findLatestTradeDateByStockCode(stockCode);
+            return findLatestWithinPartitions(since ->
+                    jpaRepository.findLatestTradeDateByStockCodeSince(stockCode, since));
+        }
+    }
+
+    /**
+     * Look for the latest trade date in the recent yearly partitions first, then widen the lower bound
+     * Active stocks are answered from the current and previous year's partitions only
+     */
+    private LocalDate findLatestWithinPartitions(Function<LocalDate, LocalDate> latestSince) {
+        LocalDate since = LocalDate.now().minusYears(1).withDayOfYear(1);
+        LocalDate latest = latestSince.apply(since);
+        if (latest != null) {
+            return latest;
         }
+        return latestSince.apply(EARLIEST_TRADE_DATE);
     }
 }
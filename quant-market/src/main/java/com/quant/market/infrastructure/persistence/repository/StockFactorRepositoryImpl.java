@@ -0,0 +1,152 @@
+package com.quant.market.infrastructure.persistence.repository;
+
+import com.quant.market.domain.factor.FactorCrossSection;
+import com.quant.market.domain.factor.StockFactor;
+import com.quant.market.domain.model.StockFactorValue;
+import com.quant.market.domain.repository.StockFactorRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Stock Factor Repository Implementation
+ * A trade date is replaced as a whole: its rows are deleted and the new cross section is streamed
+ * in with COPY in the same transaction, so readers see either the old or the new values
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockFactorRepositoryImpl implements StockFactorRepository {
+
+    private static final String DELETE_DATE_SQL = "DELETE FROM t_stock_factor WHERE trade_date = ?";
+
+    private static final String COPY_SQL = """
+        COPY t_stock_factor (trade_date, factor, stock_code, raw_value, z_score, rank_no, percentile)
+        FROM STDIN WITH (FORMAT csv)
+        """;
+
+    private static final String SELECT_SQL = """
+        SELECT trade_date, factor, stock_code, raw_value, z_score, rank_no, percentile
+        FROM t_stock_factor
+        """;
+
+    private static final String LATEST_DATE_SQL = "SELECT MAX(trade_date) FROM t_stock_factor";
+
+    /**
+     * CSV characters buffered before each write to the COPY stream
+     */
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+
+    private static final RowMapper<StockFactorValue> ROW_MAPPER = (rs, rowNum) -> StockFactorValue.builder()
+            .tradeDate(rs.getObject("trade_date", LocalDate.class))
+            .factor(StockFactor.valueOf(rs.getString("factor")))
+            .stockCode(rs.getString("stock_code"))
+            .rawValue(rs.getDouble("raw_value"))
+            .zScore(rs.getDouble("z_score"))
+            .rankNo(rs.getInt("rank_no"))
+            .percentile(rs.getDouble("percentile"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public int replaceTradeDate(FactorCrossSection section) {
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            int deleted = jdbcTemplate.update(DELETE_DATE_SQL, section.getTradeDate());
+
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            CopyIn copyIn = copyManager.copyIn(COPY_SQL);
+            try {
+                StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS + 1024);
+                String tradeDate = section.getTradeDate().toString();
+                for (int i = 0; i < section.size(); i++) {
+                    for (StockFactor factor : StockFactor.values()) {
+                        if (section.getRank(i, factor) == 0) {
+                            continue;
+                        }
+                        buffer.append(tradeDate).append(',')
+                                .append(factor.name()).append(',')
+                                .append('"').append(section.getStockCode(i).replace("\"", "\"\"")).append('"').append(',')
+                                .append(section.getRaw(i, factor)).append(',')
+                                .append(section.getZScore(i, factor)).append(',')
+                                .append(section.getRank(i, factor)).append(',')
+                                .append(section.getPercentile(i, factor)).append('\n');
+                    }
+                    if (buffer.length() >= COPY_BUFFER_CHARS) {
+                        flushToCopy(copyIn, buffer);
+                    }
+                }
+                flushToCopy(copyIn, buffer);
+                long written = copyIn.endCopy();
+                log.debug("Replaced factors of {}: {} rows deleted, {} rows written", section.getTradeDate(), deleted, written);
+                return (int) written;
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+    }
+
+    @Override
+    public List<StockFactorValue> findByRank(LocalDate tradeDate, StockFactor factor, boolean fromTop, int limit) {
+        String sql = SELECT_SQL + " WHERE trade_date = ? AND factor = ? ORDER BY rank_no "
+                + (fromTop ? "ASC" : "DESC") + ", stock_code LIMIT ?";
+        return jdbcTemplate.query(sql, ROW_MAPPER, tradeDate, factor.name(), limit);
+    }
+
+    @Override
+    public List<StockFactorValue> findByStockCodes(Collection<String> stockCodes, Collection<StockFactor> factors,
+                                                   LocalDate startDate, LocalDate endDate) {
+        if (stockCodes == null || stockCodes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        StringBuilder sql = new StringBuilder(SELECT_SQL).append(" WHERE stock_code = ANY(?::varchar[])");
+        List<Object> params = new ArrayList<>();
+        params.add(stockCodes.toArray(new String[0]));
+        if (factors != null && !factors.isEmpty()) {
+            sql.append(" AND factor = ANY(?::varchar[])");
+            params.add(factors.stream().map(StockFactor::name).toArray(String[]::new));
+        }
+        if (startDate != null) {
+            sql.append(" AND trade_date >= ?");
+            params.add(startDate);
+        }
+        if (endDate != null) {
+            sql.append(" AND trade_date <= ?");
+            params.add(endDate);
+        }
+        sql.append(" ORDER BY stock_code, trade_date, factor");
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, params.toArray());
+    }
+
+    @Override
+    public LocalDate findLatestTradeDate() {
+        return jdbcTemplate.queryForObject(LATEST_DATE_SQL, LocalDate.class);
+    }
+
+    private static void flushToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.length() == 0) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+}
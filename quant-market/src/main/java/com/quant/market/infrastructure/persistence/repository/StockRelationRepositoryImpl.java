@@ -1,13 +1,25 @@
 package com.quant.market.infrastructure.persistence.repository;
 
+import com.quant.market.domain.model.FollowedStock;
+import com.quant.market.domain.model.Stock;
+import com.quant.market.domain.model.StockDaily;
 import com.quant.market.domain.model.StockRelation;
 import com.quant.market.domain.repository.StockRelationRepository;
 import com.quant.market.infrastructure.persistence.entity.StockRelationEntity;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -18,7 +30,72 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class StockRelationRepositoryImpl implements StockRelationRepository {
 
+    /**
+     * Relations joined with t_stock_basic; t_stock_relation has no exchange column, so the join is on
+     * stock_code alone like findByStockCodeIn
+     */
+    private static final String FOLLOWED_SELECT_SQL = """
+            SELECT r.id AS relation_id, r.created_at AS followed_at,
+                   s.id, s.exchange, s.stock_code, s.stock_name, s.listing_date, s.industry, s.status, s.area,
+                   s.full_name, s.en_name, s.cn_spell, s.market, s.curr_type, s.delist_date, s.is_hs,
+                   s.act_name, s.act_ent_type, s.created_at, s.updated_at
+            """;
+
+    /**
+     * Latest unadjusted bar per stock: a backward scan of uk_stock_daily_unique that stops at the first row,
+     * bounded to the current and previous year's partitions like findLatestTradeDate
+     */
+    private static final String LATEST_BAR_SELECT_SQL = """
+            , d.trade_date, d.open_price, d.high_price, d.low_price, d.close_price, d.pre_close,
+              d.change_amount, d.pct_change, d.volume, d.amount, d.adjust_flag, d.turn, d.trade_status
+            """;
+
+    private static final String FOLLOWED_FROM_SQL = """
+            FROM t_stock_relation r
+            JOIN t_stock_basic s ON s.stock_code = r.stock_code
+            """;
+
+    private static final String LATEST_BAR_JOIN_SQL = """
+            LEFT JOIN LATERAL (
+                SELECT trade_date, open_price, high_price, low_price, close_price, pre_close,
+                       change_amount, pct_change, volume, amount, adjust_flag, turn, trade_status
+                FROM t_stock_daily
+                WHERE stock_code = r.stock_code AND adjust_flag = 3
+                  AND trade_date >= (date_trunc('year', CURRENT_DATE) - interval '1 year')::date
+                ORDER BY trade_date DESC
+                LIMIT 1
+            ) d ON TRUE
+            """;
+
+    /**
+     * Unbounded lookup for the stocks whose latest bar is older than the partitions the join searched
+     */
+    private static final String LATEST_BAR_FALLBACK_SQL = """
+            SELECT c.stock_code, d.* FROM unnest(?::varchar[]) AS c(stock_code)
+            CROSS JOIN LATERAL (
+                SELECT trade_date, open_price, high_price, low_price, close_price, pre_close,
+                       change_amount, pct_change, volume, amount, adjust_flag, turn, trade_status
+                FROM t_stock_daily
+                WHERE stock_code = c.stock_code AND adjust_flag = 3
+                ORDER BY trade_date DESC
+                LIMIT 1
+            ) d
+            """;
+
+    private static final RowMapper<FollowedStock> FOLLOWED_ROW_MAPPER = (rs, rowNum) -> FollowedStock.builder()
+            .relationId(rs.getLong("relation_id"))
+            .followedAt(rs.getObject("followed_at", LocalDateTime.class))
+            .stock(mapStock(rs))
+            .build();
+
+    private static final RowMapper<FollowedStock> FOLLOWED_WITH_BAR_ROW_MAPPER = (rs, rowNum) -> {
+        FollowedStock followed = FOLLOWED_ROW_MAPPER.mapRow(rs, rowNum);
+        followed.setLatestBar(mapLatestBar(rs));
+        return followed;
+    };
+
     private final StockRelationJpaRepository jpaRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     public StockRelation save(StockRelation stockRelation) {
@@ -97,4 +174,126 @@ public class StockRelationRepositoryImpl implements StockRelationRepository {
                 .map(StockRelationEntity::getStockCode)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public List<FollowedStock> findFollowedStocksAfter(Long refId, StockRelation.RefType refType,
+                                                       LocalDateTime afterFollowedAt, Long afterRelationId,
+                                                       int limit, boolean includeLatestBar) {
+        StringBuilder sql = new StringBuilder(FOLLOWED_SELECT_SQL);
+        if (includeLatestBar) {
+            sql.append(LATEST_BAR_SELECT_SQL);
+        }
+        sql.append(FOLLOWED_FROM_SQL);
+        if (includeLatestBar) {
+            sql.append(LATEST_BAR_JOIN_SQL);
+        }
+        sql.append("WHERE r.ref_id = ? AND r.ref_type = ?");
+        List<Object> params = new ArrayList<>();
+        params.add(refId);
+        params.add(refType.name());
+        if (afterFollowedAt != null && afterRelationId != null) {
+            // Row comparison lets idx_stock_relation_ref_created start right after the previous page
+            sql.append(" AND (r.created_at, r.id) < (?, ?)");
+            params.add(afterFollowedAt);
+            params.add(afterRelationId);
+        }
+        sql.append(" ORDER BY r.created_at DESC, r.id DESC LIMIT ?");
+        params.add(limit);
+        List<FollowedStock> followed = jdbcTemplate.query(sql.toString(),
+                includeLatestBar ? FOLLOWED_WITH_BAR_ROW_MAPPER : FOLLOWED_ROW_MAPPER, params.toArray());
+        if (includeLatestBar) {
+            fillOlderLatestBars(followed);
+        }
+        return followed;
+    }
+
+    /**
+     * Look up the latest bar across all partitions for the stocks the bounded join found none for,
+     * e.g. long-suspended or delisted stocks
+     */
+    private void fillOlderLatestBars(List<FollowedStock> followed) {
+        String[] missing = followed.stream()
+                .filter(item -> item.getLatestBar() == null)
+                .map(item -> item.getStock().getStockCode())
+                .distinct()
+                .toArray(String[]::new);
+        if (missing.length == 0) {
+            return;
+        }
+        Map<String, StockDaily> bars = new HashMap<>();
+        jdbcTemplate.query(LATEST_BAR_FALLBACK_SQL, (ResultSet rs) -> {
+            StockDaily bar = mapLatestBar(rs);
+            bars.put(bar.getStockCode(), bar);
+        }, (Object) missing);
+        for (FollowedStock item : followed) {
+            if (item.getLatestBar() == null) {
+                item.setLatestBar(bars.get(item.getStock().getStockCode()));
+            }
+        }
+    }
+
+    @Override
+    public List<FollowedStock> findFollowedStocks(Long refId, StockRelation.RefType refType,
+                                                  boolean ascending, long offset, int limit) {
+        String direction = ascending ? "ASC" : "DESC";
+        String sql = FOLLOWED_SELECT_SQL + FOLLOWED_FROM_SQL
+                + "WHERE r.ref_id = ? AND r.ref_type = ?"
+                + " ORDER BY r.created_at " + direction + ", r.id " + direction + " LIMIT ? OFFSET ?";
+        return jdbcTemplate.query(sql, FOLLOWED_ROW_MAPPER, refId, refType.name(), limit, offset);
+    }
+
+    @Override
+    public long countFollowedStocks(Long refId, StockRelation.RefType refType) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) " + FOLLOWED_FROM_SQL
+                + "WHERE r.ref_id = ? AND r.ref_type = ?", Long.class, refId, refType.name());
+        return count != null ? count : 0L;
+    }
+
+    private static Stock mapStock(ResultSet rs) throws SQLException {
+        String isHs = rs.getString("is_hs");
+        return Stock.builder()
+                .id(rs.getLong("id"))
+                .exchange(Stock.Exchange.valueOf(rs.getString("exchange")))
+                .stockCode(rs.getString("stock_code"))
+                .stockName(rs.getString("stock_name"))
+                .listingDate(rs.getObject("listing_date", LocalDate.class))
+                .industry(rs.getString("industry"))
+                .status(Stock.StockStatus.valueOf(rs.getString("status")))
+                .area(rs.getString("area"))
+                .fullName(rs.getString("full_name"))
+                .enName(rs.getString("en_name"))
+                .cnSpell(rs.getString("cn_spell"))
+                .market(rs.getString("market"))
+                .currType(rs.getString("curr_type"))
+                .delistDate(rs.getObject("delist_date", LocalDate.class))
+                .isHs(isHs != null ? Stock.IsHs.valueOf(isHs) : null)
+                .actName(rs.getString("act_name"))
+                .actEntType(rs.getString("act_ent_type"))
+                .createdAt(rs.getObject("created_at", LocalDateTime.class))
+                .updatedAt(rs.getObject("updated_at", LocalDateTime.class))
+                .build();
+    }
+
+    private static StockDaily mapLatestBar(ResultSet rs) throws SQLException {
+        LocalDate tradeDate = rs.getObject("trade_date", LocalDate.class);
+        if (tradeDate == null) {
+            return null;
+        }
+        return StockDaily.builder()
+                .stockCode(rs.getString("stock_code"))
+                .tradeDate(tradeDate)
+                .openPrice(rs.getBigDecimal("open_price"))
+                .highPrice(rs.getBigDecimal("high_price"))
+                .lowPrice(rs.getBigDecimal("low_price"))
+                .closePrice(rs.getBigDecimal("close_price"))
+                .preClose(rs.getBigDecimal("pre_close"))
+                .changeAmount(rs.getBigDecimal("change_amount"))
+                .pctChange(rs.getBigDecimal("pct_change"))
+                .volume(rs.getBigDecimal("volume"))
+                .amount(rs.getBigDecimal("amount"))
+                .adjustFlag(BarSeriesRowReader.getShort(rs, "adjust_flag"))
+                .turn(rs.getBigDecimal("turn"))
+                .tradeStatus(BarSeriesRowReader.getShort(rs, "trade_status"))
+                .build();
+    }
 }
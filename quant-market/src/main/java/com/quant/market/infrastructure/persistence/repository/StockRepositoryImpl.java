@@ -1,6 +1,7 @@
 package com.quant.market.infrastructure.persistence.repository;
 
 import com.quant.market.domain.model.Stock;
+import com.quant.market.domain.model.UpsertResult;
 import com.quant.market.domain.repository.StockRepository;
 import com.quant.market.infrastructure.persistence.entity.StockEntity;
 import jakarta.persistence.criteria.Predicate;
@@ -9,7 +10,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
@@ -17,6 +17,7 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -29,6 +30,45 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class StockRepositoryImpl implements StockRepository {
 
+    private static final String UPSERT_HEAD_SQL =
+            "INSERT INTO t_stock_basic AS t " +
+            "(exchange, stock_code, stock_name, listing_date, industry, status, area, " +
+            "full_name, en_name, cn_spell, market, curr_type, delist_date, is_hs, " +
+            "act_name, act_ent_type, created_at, updated_at) " +
+            "VALUES ";
+
+    private static final String UPSERT_ROW_PLACEHOLDER =
+            "(?, ?, ?, ?, ?, ?::VARCHAR, ?, ?, ?, ?, ?, ?, ?, ?::VARCHAR, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+
+    /**
+     * Existing rows are rewritten only when a value differs, so unchanged stocks cost no writes
+     */
+    private static final String UPSERT_TAIL_SQL =
+            "ON CONFLICT (exchange, stock_code) " +
+            "DO UPDATE SET " +
+            "stock_name = EXCLUDED.stock_name, " +
+            "listing_date = EXCLUDED.listing_date, " +
+            "industry = EXCLUDED.industry, " +
+            "status = EXCLUDED.status, " +
+            "area = EXCLUDED.area, " +
+            "full_name = EXCLUDED.full_name, " +
+            "en_name = EXCLUDED.en_name, " +
+            "cn_spell = EXCLUDED.cn_spell, " +
+            "market = EXCLUDED.market, " +
+            "curr_type = EXCLUDED.curr_type, " +
+            "delist_date = EXCLUDED.delist_date, " +
+            "is_hs = EXCLUDED.is_hs, " +
+            "act_name = EXCLUDED.act_name, " +
+            "act_ent_type = EXCLUDED.act_ent_type, " +
+            "updated_at = CURRENT_TIMESTAMP " +
+            "WHERE (t.stock_name, t.listing_date, t.industry, t.status, t.area, t.full_name, t.en_name, " +
+            "t.cn_spell, t.market, t.curr_type, t.delist_date, t.is_hs, t.act_name, t.act_ent_type) " +
+            "IS DISTINCT FROM " +
+            "(EXCLUDED.stock_name, EXCLUDED.listing_date, EXCLUDED.industry, EXCLUDED.status, EXCLUDED.area, " +
+            "EXCLUDED.full_name, EXCLUDED.en_name, EXCLUDED.cn_spell, EXCLUDED.market, EXCLUDED.curr_type, " +
+            "EXCLUDED.delist_date, EXCLUDED.is_hs, EXCLUDED.act_name, EXCLUDED.act_ent_type) " +
+            "RETURNING (xmax = 0) AS inserted";
+
     private final StockJpaRepository jpaRepository;
     private final JdbcTemplate jdbcTemplate;
 
@@ -139,7 +179,37 @@ public class StockRepositoryImpl implements StockRepository {
             List<String> industries,
             List<Stock.Exchange> exchanges) {
 
-        Specification<StockEntity> spec = (root, query, criteriaBuilder) -> {
+        Specification<StockEntity> spec = querySpecification(
+                listingDateFrom, listingDateTo, keyword, statuses, industries, exchanges);
+        return jpaRepository.findAll(spec).stream()
+                .map(StockEntity::toDomain)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Page<Stock> queryStocks(
+            LocalDate listingDateFrom,
+            LocalDate listingDateTo,
+            String keyword,
+            List<Stock.StockStatus> statuses,
+            List<String> industries,
+            List<Stock.Exchange> exchanges,
+            Pageable pageable) {
+
+        Specification<StockEntity> spec = querySpecification(
+                listingDateFrom, listingDateTo, keyword, statuses, industries, exchanges);
+        return jpaRepository.findAll(spec, pageable).map(StockEntity::toDomain);
+    }
+
+    private static Specification<StockEntity> querySpecification(
+            LocalDate listingDateFrom,
+            LocalDate listingDateTo,
+            String keyword,
+            List<Stock.StockStatus> statuses,
+            List<String> industries,
+            List<Stock.Exchange> exchanges) {
+
+        return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             // Listing date range filter
@@ -175,78 +245,42 @@ public class StockRepositoryImpl implements StockRepository {
 
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
-
-        return jpaRepository.findAll(spec).stream()
-                .map(StockEntity::toDomain)
-                .collect(Collectors.toList());
     }
 
     @Override
-    public int batchUpsert(List<Stock> stocks) {
+    public UpsertResult batchUpsert(List<Stock> stocks) {
         if (stocks == null || stocks.isEmpty()) {
-            return 0;
+            return UpsertResult.empty();
         }
 
-        String sql = "INSERT INTO t_stock_basic " +
-                "(exchange, stock_code, stock_name, listing_date, industry, status, area, " +
-                "full_name, en_name, cn_spell, market, curr_type, delist_date, is_hs, " +
-                "act_name, act_ent_type, created_at, updated_at) " +
-                "VALUES (?, ?, ?, ?, ?, ?::VARCHAR, ?, ?, ?, ?, ?, ?, ?, ?::VARCHAR, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) " +
-                "ON CONFLICT (exchange, stock_code) " +
-                "DO UPDATE SET " +
-                "stock_name = EXCLUDED.stock_name, " +
-                "listing_date = EXCLUDED.listing_date, " +
-                "industry = EXCLUDED.industry, " +
-                "status = EXCLUDED.status, " +
-                "area = EXCLUDED.area, " +
-                "full_name = EXCLUDED.full_name, " +
-                "en_name = EXCLUDED.en_name, " +
-                "cn_spell = EXCLUDED.cn_spell, " +
-                "market = EXCLUDED.market, " +
-                "curr_type = EXCLUDED.curr_type, " +
-                "delist_date = EXCLUDED.delist_date, " +
-                "is_hs = EXCLUDED.is_hs, " +
-                "act_name = EXCLUDED.act_name, " +
-                "act_ent_type = EXCLUDED.act_ent_type, " +
-                "updated_at = CURRENT_TIMESTAMP";
-
-        int[] updateCounts = jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
-            @Override
-            public void setValues(PreparedStatement ps, int i) throws SQLException {
-                Stock stock = stocks.get(i);
-                int paramIndex = 1;
-
-                // INSERT values
-                ps.setString(paramIndex++, stock.getExchange().name());
-                ps.setString(paramIndex++, stock.getStockCode());
-                ps.setString(paramIndex++, stock.getStockName());
-                ps.setObject(paramIndex++, stock.getListingDate());
-                ps.setString(paramIndex++, stock.getIndustry());
-                ps.setString(paramIndex++, stock.getStatus() != null ? stock.getStatus().name() : null);
-                ps.setString(paramIndex++, stock.getArea());
-                ps.setString(paramIndex++, stock.getFullName());
-                ps.setString(paramIndex++, stock.getEnName());
-                ps.setString(paramIndex++, stock.getCnSpell());
-                ps.setString(paramIndex++, stock.getMarket());
-                ps.setString(paramIndex++, stock.getCurrType());
-                ps.setObject(paramIndex++, stock.getDelistDate());
-                ps.setString(paramIndex++, stock.getIsHs() != null ? stock.getIsHs().name() : null);
-                ps.setString(paramIndex++, stock.getActName());
-                ps.setString(paramIndex++, stock.getActEntType());
-            }
+        UpsertResult result = ChangeAwareUpsert.execute(jdbcTemplate,
+                UPSERT_HEAD_SQL, UPSERT_ROW_PLACEHOLDER, UPSERT_TAIL_SQL, stocks,
+                stock -> Arrays.asList(stock.getExchange().name(), stock.getStockCode()),
+                StockRepositoryImpl::bindUpsertRow,
+                null);
 
-            @Override
-            public int getBatchSize() {
-                return stocks.size();
-            }
-        });
-
-        int totalAffected = 0;
-        for (int count : updateCounts) {
-            totalAffected += count;
-        }
+        log.info("Batch upsert completed: {} stocks processed, {} inserted, {} updated, {} unchanged",
+                stocks.size(), result.inserted(), result.updated(), result.unchanged());
+        return result;
+    }
 
-        log.info("Batch upsert completed: {} stocks processed, {} rows affected", stocks.size(), totalAffected);
-        return totalAffected;
+    private static int bindUpsertRow(PreparedStatement ps, int paramIndex, Stock stock) throws SQLException {
+        ps.setString(paramIndex++, stock.getExchange().name());
+        ps.setString(paramIndex++, stock.getStockCode());
+        ps.setString(paramIndex++, stock.getStockName());
+        ps.setObject(paramIndex++, stock.getListingDate());
+        ps.setString(paramIndex++, stock.getIndustry());
+        ps.setString(paramIndex++, stock.getStatus() != null ? stock.getStatus().name() : null);
+        ps.setString(paramIndex++, stock.getArea());
+        ps.setString(paramIndex++, stock.getFullName());
+        ps.setString(paramIndex++, stock.getEnName());
+        ps.setString(paramIndex++, stock.getCnSpell());
+        ps.setString(paramIndex++, stock.getMarket());
+        ps.setString(paramIndex++, stock.getCurrType());
+        ps.setObject(paramIndex++, stock.getDelistDate());
+        ps.setString(paramIndex++, stock.getIsHs() != null ? stock.getIsHs().name() : null);
+        ps.setString(paramIndex++, stock.getActName());
+        ps.setString(paramIndex++, stock.getActEntType());
+        return paramIndex;
     }
 }
@@ -1,6 +1,7 @@
 package com.quant.market.infrastructure.persistence.repository;
 
 import com.quant.market.infrastructure.persistence.entity.TradingCalendarEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -38,4 +39,11 @@ public interface TradingCalendarJpaRepository extends JpaRepository<TradingCalen
      */
     Optional<TradingCalendarEntity> findFirstByTradeDateLessThanEqualAndIsTradingDayOrderByTradeDateDesc(
             LocalDate tradeDate, Short isTradingDay);
+
+    /**
+     * Find trading days on or before the given date, latest first
+     */
+    @Query("SELECT t.tradeDate FROM TradingCalendarEntity t WHERE t.isTradingDay = 1 AND t.tradeDate <= :endDate "
+            + "ORDER BY t.tradeDate DESC")
+    List<LocalDate> findTradingDaysOnOrBefore(@Param("endDate") LocalDate endDate, Pageable pageable);
 }
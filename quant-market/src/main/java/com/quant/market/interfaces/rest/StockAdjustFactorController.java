@@ -0,0 +1,78 @@
+package com.quant.market.interfaces.rest;
+
+import com.quant.common.response.Result;
+import com.quant.market.application.dto.AdjustFactorDTO;
+import com.quant.market.application.service.StockAdjustFactorService;
+import com.quant.market.domain.model.UpsertResult;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stock Adjust Factor REST Controller
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/stock-adjust-factors")
+@RequiredArgsConstructor
+public class StockAdjustFactorController {
+
+    private final StockAdjustFactorService adjustFactorService;
+
+    /**
+     * Get the adjust factors of a stock
+     * GET /api/stock-adjust-factors/{stockCode}
+     *
+     * @param stockCode Stock code
+     * @return Factors ordered by ex-date
+     */
+    @GetMapping("/{stockCode}")
+    public Result<List<AdjustFactorDTO>> getFactors(@PathVariable("stockCode") String stockCode) {
+        log.info("REST request to get adjust factors: {}", stockCode);
+        return Result.success(adjustFactorService.getFactors(stockCode));
+    }
+
+    /**
+     * Batch upsert adjust factors (Insert or Update)
+     * POST /api/stock-adjust-factors/batch-upsert
+     *
+     * Features:
+     * - Maximum 5000 items per batch
+     * - Unique fields: stockCode, exDate
+     * - Backward (adjustFlag 1) and forward (adjustFlag 2) daily bars of a stock with factors are
+     *   computed from its unadjusted bars; a stock without corporate actions can be enabled with a
+     *   single factor of 1 on its listing date
+     *
+     * Request body example:
+     * [
+     *   { "stockCode": "600000", "exDate": "1999-11-10", "backAdjustFactor": 1.0 },
+     *   { "stockCode": "600000", "exDate": "2000-07-06", "backAdjustFactor": 1.0366 },
+     *   { "stockCode": "600000", "exDate": "2024-07-19", "backAdjustFactor": 14.8127 }
+     * ]
+     *
+     * @param requests Factors
+     * @return Upsert statistics
+     */
+    @PostMapping("/batch-upsert")
+    public Result<Map<String, Object>> batchUpsertFactors(@RequestBody @Valid List<AdjustFactorDTO> requests) {
+        log.info("REST request to batch upsert adjust factors: {} items", requests.size());
+
+        if (requests.isEmpty()) {
+            return Result.error(400, "Request list cannot be empty");
+        }
+
+        UpsertResult result = adjustFactorService.batchUpsertFactors(requests);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("total", result.total());
+        response.put("inserted", result.inserted());
+        response.put("updated", result.updated());
+        response.put("unchanged", result.unchanged());
+        return Result.success(response);
+    }
+}
@@ -0,0 +1,111 @@
+package com.quant.market.interfaces.rest;
+
+import com.quant.common.response.Result;
+import com.quant.market.application.dto.StockBarRollupDTO;
+import com.quant.market.application.service.StockBarRollupService;
+import com.quant.market.domain.model.RollupPeriod;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stock Bar Rollup REST Controller
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/stock-bar-rollups")
+@RequiredArgsConstructor
+public class StockBarRollupController {
+
+    private final StockBarRollupService rollupService;
+
+    /**
+     * Query weekly/monthly/quarterly/yearly bars of a stock
+     * GET /api/stock-bar-rollups?stockCode=600000&period=WEEK&adjustFlag=3&startDate=2024-01-01&endDate=2024-12-31
+     *
+     * The latest period may still be open (completed = false) and changes with new daily bars.
+     *
+     * @param stockCode Stock code
+     * @param period WEEK, MONTH, QUARTER or YEAR
+     * @param adjustFlag Adjust flag (default 3)
+     * @param startDate Start date (optional)
+     * @param endDate End date (optional)
+     * @return Rollups ascending by period
+     */
+    @GetMapping
+    public Result<List<StockBarRollupDTO>> queryRollups(
+            @RequestParam("stockCode") String stockCode,
+            @RequestParam("period") RollupPeriod period,
+            @RequestParam(value = "adjustFlag", required = false) Short adjustFlag,
+            @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        log.info("REST request to query {} rollups: {}, adjustFlag={}", period, stockCode, adjustFlag);
+        return Result.success(rollupService.queryRollups(stockCode, period, adjustFlag, startDate, endDate));
+    }
+
+    /**
+     * Rebuild all rollups of stocks, e.g. after a backfill or a failed incremental refresh
+     * POST /api/stock-bar-rollups/rebuild?periods=WEEK,MONTH
+     *
+     * Request body example: ["600000", "000001"]
+     *
+     * @param stockCodes Stock codes (max 1000)
+     * @param periods Periods to rebuild (optional, all by default)
+     * @return Changed rollup rows per period
+     */
+    @PostMapping("/rebuild")
+    public Result<Map<String, Object>> rebuild(
+            @RequestBody List<String> stockCodes,
+            @RequestParam(value = "periods", required = false) List<RollupPeriod> periods) {
+        log.info("REST request to rebuild rollups: {} stocks, periods={}", stockCodes.size(), periods);
+
+        long startTime = System.currentTimeMillis();
+        Map<RollupPeriod, Integer> changed = rollupService.rebuild(stockCodes, periods);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("stocks", stockCodes.size());
+        response.put("changed", changed);
+        response.put("processingTimeMs", System.currentTimeMillis() - startTime);
+        return Result.success(response);
+    }
+
+    /**
+     * List stocks whose rollups may be stale because an incremental refresh failed
+     * GET /api/stock-bar-rollups/failed
+     *
+     * @return Stock codes awaiting a rebuild
+     */
+    @GetMapping("/failed")
+    public Result<Set<String>> getFailedStocks() {
+        return Result.success(rollupService.getFailedStocks());
+    }
+
+    /**
+     * Rebuild all rollups of the stocks whose incremental refresh failed
+     * POST /api/stock-bar-rollups/failed/rebuild
+     *
+     * @return Changed rollup rows per period
+     */
+    @PostMapping("/failed/rebuild")
+    public Result<Map<String, Object>> rebuildFailed() {
+        Set<String> stockCodes = rollupService.getFailedStocks();
+        log.info("REST request to rebuild rollups of {} failed stocks", stockCodes.size());
+
+        long startTime = System.currentTimeMillis();
+        Map<RollupPeriod, Integer> changed = rollupService.rebuildFailed();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("stocks", stockCodes.size());
+        response.put("changed", changed);
+        response.put("remaining", rollupService.getFailedStocks().size());
+        response.put("processingTimeMs", System.currentTimeMillis() - startTime);
+        return Result.success(response);
+    }
+}
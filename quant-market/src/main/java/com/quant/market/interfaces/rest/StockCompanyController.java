@@ -113,6 +113,7 @@ public class StockCompanyController {
         response.put("total", result.getTotal());
         response.put("inserted", result.getInserted());
         response.put("updated", result.getUpdated());
+        response.put("unchanged", result.getUnchanged());
         response.put("failed", result.getFailed());
         response.put("processingTimeMs", result.getProcessingTimeMs());
         response.put("summary", result.getSummary());
@@ -7,6 +7,7 @@ import com.quant.market.application.dto.BatchCreateStockRequest;
 import com.quant.market.application.dto.CreateStockRequest;
 import com.quant.market.application.dto.StockDTO;
 import com.quant.market.application.dto.StockQueryRequest;
+import com.quant.market.application.dto.StockSuggestionDTO;
 import com.quant.market.application.dto.UpdateStockRequest;
 import com.quant.market.application.service.StockService;
 import jakarta.validation.Valid;
@@ -331,6 +332,16 @@ public class StockController {
         return Result.success(stocks);
     }
 
+    /**
+     * Autocomplete stocks by code, name, pinyin initials or English name
+     * GET /api/stocks/autocomplete?q=pfyh&limit=10
+     */
+    @GetMapping("/autocomplete")
+    public Result<List<StockSuggestionDTO>> autocomplete(@RequestParam("q") String query,
+                                                         @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return Result.success(stockService.autocomplete(query, limit));
+    }
+
 
 
     /**
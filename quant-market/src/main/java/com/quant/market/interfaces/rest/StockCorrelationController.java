@@ -0,0 +1,53 @@
+package com.quant.market.interfaces.rest;
+
+import com.quant.market.application.service.StockCorrelationService;
+import com.quant.market.domain.risk.CovarianceMatrix;
+import com.quant.market.interfaces.rest.codec.MatrixBinaryEncoder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+/**
+ * Stock Correlation REST Controller
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/stock-correlation")
+@RequiredArgsConstructor
+public class StockCorrelationController {
+
+    private static final MediaType BINARY_MEDIA_TYPE = MediaType.parseMediaType(MatrixBinaryEncoder.MEDIA_TYPE);
+
+    private final StockCorrelationService correlationService;
+
+    /**
+     * Get the return correlation (or covariance) matrix of all listed stocks as compact binary
+     * GET /api/stock-correlation/matrix?window=60&endDate=2024-06-28 with Accept: application/x-quant-matrix
+     *
+     * Returns are daily backward-adjusted close-to-close returns on the last {@code window} trading
+     * days; stocks observed on fewer than min-coverage of them are left out.
+     *
+     * @param window Number of daily returns (5 to market.correlation.max-window)
+     * @param endDate End date (optional, default latest trade date)
+     * @param covariance Return covariances instead of correlations (default false)
+     * @return Encoded matrix (see {@link MatrixBinaryEncoder})
+     */
+    @GetMapping(value = "/matrix", produces = MatrixBinaryEncoder.MEDIA_TYPE)
+    public ResponseEntity<byte[]> getMatrix(
+            @RequestParam("window") int window,
+            @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(value = "covariance", defaultValue = "false") boolean covariance) {
+        log.info("REST request to get {} matrix: window={}, endDate={}",
+                covariance ? "covariance" : "correlation", window, endDate);
+
+        CovarianceMatrix matrix = correlationService.getMatrix(window, endDate);
+        return ResponseEntity.ok()
+                .contentType(BINARY_MEDIA_TYPE)
+                .body(MatrixBinaryEncoder.encode(matrix, !covariance));
+    }
+}
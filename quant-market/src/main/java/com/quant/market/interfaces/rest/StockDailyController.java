@@ -1,15 +1,39 @@
 package com.quant.market.interfaces.rest;
 
 import com.quant.common.response.Result;
+import com.quant.market.application.dto.BarColumnsDTO;
+import com.quant.market.application.dto.BarSeriesSlice;
 import com.quant.market.application.dto.BatchCreateDailyRequest;
+import com.quant.market.application.dto.BulkDailyQueryRequest;
+import com.quant.market.application.dto.DailyPageDTO;
 import com.quant.market.application.dto.DailyQueryRequest;
+import com.quant.market.application.dto.DailySnapshotDTO;
+import com.quant.market.application.dto.IndicatorQueryRequest;
+import com.quant.market.application.dto.IndicatorValuesDTO;
 import com.quant.market.application.dto.StockDailyDTO;
+import com.quant.market.application.service.IndicatorStateService;
+import com.quant.market.application.service.StockDailyExportService;
 import com.quant.market.application.service.StockDailyService;
+import com.quant.market.application.service.StockDailyStreamIngestService;
+import com.quant.market.application.service.StockIndicatorService;
+import com.quant.market.domain.model.BarSeries;
+import com.quant.market.domain.model.StockDailyStats;
+import com.quant.market.interfaces.rest.codec.BarBinaryEncoder;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +48,13 @@ import java.util.Map;
 public class StockDailyController {
 
     private final StockDailyService dailyService;
+    private final StockDailyStreamIngestService streamIngestService;
+    private final StockDailyExportService exportService;
+    private final StockIndicatorService indicatorService;
+    private final IndicatorStateService indicatorStateService;
+
+    private static final MediaType BINARY_MEDIA_TYPE = MediaType.parseMediaType(BarBinaryEncoder.MEDIA_TYPE);
+    private static final List<BarSeries.Field> ALL_FIELDS = List.of(BarSeries.Field.values());
 
     /**
      * Query daily data with filters
@@ -75,6 +106,264 @@ public class StockDailyController {
         return Result.success(dailyData);
     }
 
+    /**
+     * Query daily data as compact columnar binary
+     * POST /api/stock-daily/query with Accept: application/x-quant-bars
+     *
+     * Same request as the JSON endpoint. The response holds one series per adjust flag with all
+     * decimal columns, delta and varint encoded (see {@link BarBinaryEncoder} for the layout).
+     * Clients that also accept JSON error bodies should send
+     * "Accept: application/x-quant-bars, application/json;q=0.5".
+     *
+     * @param request Query request
+     * @return Encoded series
+     */
+    @PostMapping(value = "/query", produces = BarBinaryEncoder.MEDIA_TYPE)
+    public ResponseEntity<byte[]> queryDailyDataBinary(@RequestBody @Valid DailyQueryRequest request) {
+        log.info("REST request to query daily data (binary): stockCode={}, startDate={}, endDate={}, sortOrder={}",
+                request.getStockCode(), request.getStartDate(), request.getEndDate(), request.getSortOrder());
+
+        byte[] body = BarBinaryEncoder.encodeSeries(dailyService.queryDailySeries(request), ALL_FIELDS);
+        return binaryResponse(body);
+    }
+
+    /**
+     * Query daily data page by page (keyset pagination)
+     * POST /api/stock-daily/query/page
+     *
+     * Same filters as /query plus:
+     * - pageSize (optional): rows per page, default 500, max 5000
+     * - cursor (optional): nextCursor of the previous page; omit for the first page
+     *
+     * Rows are ordered by trade date (then adjust flag) in the requested sort order.
+     * Keep stockCode, adjustFlag and sortOrder unchanged while following a cursor.
+     *
+     * Request body example:
+     * {
+     *   "stockCode": "600000",
+     *   "adjustFlag": 3,
+     *   "sortOrder": "desc",
+     *   "pageSize": 250,
+     *   "cursor": "ZDF8NjAwMDAwfDN8ZHwxOTcyNXwz"
+     * }
+     *
+     * @param request Query request
+     * @return Page rows with hasMore and nextCursor
+     */
+    @PostMapping("/query/page")
+    public Result<DailyPageDTO> queryDailyDataPage(@RequestBody @Valid DailyQueryRequest request) {
+        log.info("REST request to query daily data page: stockCode={}, pageSize={}, sortOrder={}",
+                request.getStockCode(), request.getPageSize(), request.getSortOrder());
+
+        return Result.success(dailyService.queryDailyDataPage(request));
+    }
+
+    /**
+     * Bulk query daily data of many stocks
+     * POST /api/stock-daily/query/bulk
+     *
+     * Reads all stocks with one SQL statement and returns one columnar entry per stock
+     * (trade dates as yyyyMMdd plus one value array per field), instead of a DTO per bar.
+     * Either startDate or lastN is required.
+     *
+     * Request body example (last 60 unadjusted bars of two stocks):
+     * {
+     *   "stockCodes": ["600000", "000001"],
+     *   "adjustFlag": 3,
+     *   "lastN": 60,
+     *   "fields": ["CLOSE", "VOLUME"]
+     * }
+     *
+     * @param request Bulk query request
+     * @return Columnar bars per stock
+     */
+    @PostMapping("/query/bulk")
+    public Result<List<BarColumnsDTO>> queryDailyDataBulk(@RequestBody @Valid BulkDailyQueryRequest request) {
+        log.info("REST request to bulk query daily data: {} stocks, startDate={}, endDate={}, lastN={}",
+                request.getStockCodes().size(), request.getStartDate(), request.getEndDate(), request.getLastN());
+
+        return Result.success(dailyService.queryDailyDataBulk(request));
+    }
+
+    /**
+     * Bulk query daily data as compact columnar binary
+     * POST /api/stock-daily/query/bulk with Accept: application/x-quant-bars
+     *
+     * Same request as the JSON endpoint; one series per stock with the requested fields.
+     *
+     * @param request Bulk query request
+     * @return Encoded series
+     */
+    @PostMapping(value = "/query/bulk", produces = BarBinaryEncoder.MEDIA_TYPE)
+    public ResponseEntity<byte[]> queryDailyDataBulkBinary(@RequestBody @Valid BulkDailyQueryRequest request) {
+        log.info("REST request to bulk query daily data (binary): {} stocks, startDate={}, endDate={}, lastN={}",
+                request.getStockCodes().size(), request.getStartDate(), request.getEndDate(), request.getLastN());
+
+        List<BarSeriesSlice> slices = new ArrayList<>();
+        for (BarSeries series : dailyService.queryDailySeriesBulk(request)) {
+            slices.add(new BarSeriesSlice(series, 0, series.size(), false));
+        }
+        byte[] body = BarBinaryEncoder.encodeSeries(slices, StockDailyService.resolveFields(request.getFields()));
+        return binaryResponse(body);
+    }
+
+    /**
+     * Query daily bars with technical indicators
+     * POST /api/stock-daily/indicators
+     *
+     * Returns the same columns as the bulk query for one stock, plus one value array per indicator
+     * output, aligned with tradeDates. Indicators are computed from the first bar, so they are
+     * already warmed up at startDate. Values are null until an indicator is defined.
+     *
+     * Supported indicators (parameters optional):
+     * - SMA(period), EMA(period), RSI(period), ATR(period)
+     * - MACD(fast,slow,signal): columns .DIF, .DEA, .HIST
+     * - BOLL(period,width): columns .MID, .UPPER, .LOWER
+     *
+     * Request body example:
+     * {
+     *   "stockCode": "600000",
+     *   "startDate": "2024-01-01",
+     *   "adjustFlag": 2,
+     *   "indicators": ["SMA(5)", "SMA(20)", "MACD", "RSI(6)", "BOLL(20,2)", "ATR(14)"],
+     *   "fields": ["CLOSE"]
+     * }
+     *
+     * @param request Indicator query request
+     * @return Bar and indicator columns
+     */
+    @PostMapping("/indicators")
+    public Result<BarColumnsDTO> queryIndicators(@RequestBody @Valid IndicatorQueryRequest request) {
+        log.info("REST request to query indicators: stockCode={}, startDate={}, endDate={}, indicators={}",
+                request.getStockCode(), request.getStartDate(), request.getEndDate(), request.getIndicators());
+
+        return Result.success(indicatorService.queryIndicators(request));
+    }
+
+    /**
+     * Get the latest values of the tracked indicators
+     * GET /api/stock-daily/indicators/latest?stockCodes=600000,000001&adjustFlag=3
+     *
+     * Served from the incrementally maintained indicator states (market.indicator.tracked), which
+     * advance with every daily batch write; a stock without states is computed once from its history.
+     *
+     * @param stockCodes Stock codes (max 500)
+     * @param adjustFlag Adjust flag (optional, default 3)
+     * @return Latest values per stock
+     */
+    @GetMapping("/indicators/latest")
+    public Result<List<IndicatorValuesDTO>> getLatestIndicators(
+            @RequestParam("stockCodes") List<String> stockCodes,
+            @RequestParam(value = "adjustFlag", required = false) Short adjustFlag) {
+        log.info("REST request to get latest indicators: {} stocks, adjustFlag={}", stockCodes.size(), adjustFlag);
+        return Result.success(indicatorStateService.getLatestValues(stockCodes, adjustFlag));
+    }
+
+    /**
+     * Get the bars of all stocks on one trade date
+     * GET /api/stock-daily/snapshot?date=2024-01-02&adjustFlag=3&fields=CLOSE,PCT_CHANGE
+     *
+     * Returns stock codes (ascending) plus one value array per requested field.
+     * Snapshots are cached per trade date and invalidated when a batch write touches that date.
+     *
+     * @param date Trade date (yyyy-MM-dd)
+     * @param adjustFlag Adjust flag (optional, default 3)
+     * @param fields Columns to return (optional)
+     * @return Columnar snapshot
+     */
+    @GetMapping("/snapshot")
+    public Result<DailySnapshotDTO> getDailySnapshot(
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(value = "adjustFlag", required = false) Integer adjustFlag,
+            @RequestParam(value = "fields", required = false) List<BarSeries.Field> fields) {
+        log.info("REST request to get daily snapshot: date={}, adjustFlag={}", date, adjustFlag);
+
+        return Result.success(dailyService.getDailySnapshot(date, adjustFlag, fields));
+    }
+
+    /**
+     * Get the daily snapshot as compact columnar binary
+     * GET /api/stock-daily/snapshot?date=2024-01-02 with Accept: application/x-quant-bars
+     *
+     * @param date Trade date (yyyy-MM-dd)
+     * @param adjustFlag Adjust flag (optional, default 3)
+     * @param fields Columns to return (optional)
+     * @return Encoded snapshot
+     */
+    @GetMapping(value = "/snapshot", produces = BarBinaryEncoder.MEDIA_TYPE)
+    public ResponseEntity<byte[]> getDailySnapshotBinary(
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(value = "adjustFlag", required = false) Integer adjustFlag,
+            @RequestParam(value = "fields", required = false) List<BarSeries.Field> fields) {
+        log.info("REST request to get daily snapshot (binary): date={}, adjustFlag={}", date, adjustFlag);
+
+        byte[] body = BarBinaryEncoder.encodeSnapshot(dailyService.getSnapshot(date, adjustFlag),
+                StockDailyService.resolveFields(fields));
+        return binaryResponse(body);
+    }
+
+    /**
+     * Export daily data as a streamed download
+     * GET /api/stock-daily/export?startDate=2020-01-01&endDate=2024-12-31&adjustFlag=3&format=CSV
+     *
+     * Features:
+     * - Rows are read through a database cursor and written to the response as they arrive
+     *   (chunked transfer encoding), so the whole table can be exported in constant memory
+     * - Rows are ordered by trade date, adjust flag and stock code
+     * - CSV uses the column names of /batch/stream and NDJSON its field names, so exports can be re-imported
+     *
+     * @param startDate Start date (optional, inclusive)
+     * @param endDate End date (optional, inclusive)
+     * @param adjustFlag Adjust flag (optional, all when omitted; 1 and 2 are rejected while derived from factors)
+     * @param format CSV (default) or NDJSON
+     * @param response HTTP response the rows are written to
+     */
+    @GetMapping("/export")
+    public void exportDailyData(
+            @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(value = "adjustFlag", required = false) Short adjustFlag,
+            @RequestParam(value = "format", defaultValue = "CSV") StockDailyExportService.ExportFormat format,
+            HttpServletResponse response) throws IOException {
+        log.info("REST request to export daily data: startDate={}, endDate={}, adjustFlag={}, format={}",
+                startDate, endDate, adjustFlag, format);
+        exportService.validateRequest(startDate, endDate, adjustFlag);
+
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"stock_daily." + format.getExtension() + "\"");
+
+        StockDailyExportService.ExportResult result =
+                exportService.export(startDate, endDate, adjustFlag, format, response.getOutputStream());
+        log.info("Daily data export streamed: rows={}, time={}ms", result.getRows(), result.getProcessingTimeMs());
+    }
+
+    /**
+     * Export daily data into a server-side file
+     * POST /api/stock-daily/export/file?startDate=2020-01-01&format=CSV
+     *
+     * The file is written under market.export.directory with a generated name and is only
+     * renamed into place once complete.
+     *
+     * @param startDate Start date (optional, inclusive)
+     * @param endDate End date (optional, inclusive)
+     * @param adjustFlag Adjust flag (optional, all when omitted; 1 and 2 are rejected while derived from factors)
+     * @param format CSV (default) or NDJSON
+     * @return Export result with file path, rows and bytes
+     */
+    @PostMapping("/export/file")
+    public Result<StockDailyExportService.ExportResult> exportDailyDataToFile(
+            @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(value = "adjustFlag", required = false) Short adjustFlag,
+            @RequestParam(value = "format", defaultValue = "CSV") StockDailyExportService.ExportFormat format) {
+        log.info("REST request to export daily data to file: startDate={}, endDate={}, adjustFlag={}, format={}",
+                startDate, endDate, adjustFlag, format);
+
+        return Result.success(exportService.exportToFile(startDate, endDate, adjustFlag, format));
+    }
+
     /**
      * Batch insert daily data
      * POST /api/stock-daily/batch
@@ -114,26 +403,36 @@ public class StockDailyController {
      *   }
      * ]
      *
+     * Query parameters:
+     * - mode (optional): BATCH (default), COPY (PostgreSQL COPY, for large backfills)
+     *   or UPSERT (overwrite rows whose values changed, report updated/unchanged counts)
+     *
      * @param requests List of daily data (max 1000 items)
+     * @param mode Ingest mode
      * @return Batch insert result with statistics
      */
     @PostMapping("/batch")
     public Result<Map<String, Object>> batchInsertDailyData(
-            @RequestBody @Valid List<BatchCreateDailyRequest> requests) {
-        log.info("REST request to batch insert daily data: {} items", requests.size());
+            @RequestBody @Valid List<BatchCreateDailyRequest> requests,
+            @RequestParam(value = "mode", defaultValue = "BATCH") StockDailyService.InsertMode mode) {
+        log.info("REST request to batch insert daily data: {} items, mode={}", requests.size(), mode);
 
         if (requests.isEmpty()) {
             return Result.error(400, "Request list cannot be empty");
         }
 
         // Process batch insert
-        StockDailyService.BatchInsertResult result = dailyService.batchInsertDailyData(requests);
+        StockDailyService.BatchInsertResult result = dailyService.batchInsertDailyData(requests, mode);
 
         // Build response
         Map<String, Object> response = new HashMap<>();
         response.put("total", result.getTotal());
         response.put("inserted", result.getInserted());
         response.put("skipped", result.getSkipped());
+        if (mode == StockDailyService.InsertMode.UPSERT) {
+            response.put("updated", result.getUpdated());
+            response.put("unchanged", result.getUnchanged());
+        }
         response.put("failed", result.getFailed());
         response.put("processingTimeMs", result.getProcessingTimeMs());
         response.put("summary", result.getSummary());
@@ -152,6 +451,77 @@ public class StockDailyController {
         return Result.success(response);
     }
 
+    /**
+     * Stream insert daily data
+     * POST /api/stock-daily/batch/stream
+     *
+     * Features:
+     * - Body is read incrementally, never held in memory as a whole
+     * - Each row is validated and converted through BatchCreateDailyRequest.toDomain
+     * - Rows are flushed to the database in fixed-size chunks, each committed on its own
+     * - Returns the overall statistics with progress of the last 100 chunks
+     * - Lines longer than 16K characters are reported as failed rows without being buffered
+     *
+     * Content types:
+     * - application/x-ndjson: one BatchCreateDailyRequest JSON object per line
+     * - text/csv: header line with field names (stockCode) or column names (stock_code)
+     *
+     * Query parameters:
+     * - format (optional): NDJSON or CSV, derived from Content-Type when omitted
+     * - chunkSize (optional): rows per chunk, default 1000, max 10000
+     * - mode (optional): BATCH (default), COPY or UPSERT
+     *
+     * CSV body example:
+     * stock_code,trade_date,open_price,high_price,low_price,close_price,volume,amount,adjust_flag
+     * 600000,2024-01-02,8.50,8.68,8.45,8.62,5234567.00,449876.50,3
+     * 600000,2024-01-03,8.65,8.78,8.60,8.75,4876543.00,425678.30,3
+     *
+     * @param inputStream Request body
+     * @param contentType Content-Type header
+     * @param format Body format (optional)
+     * @param chunkSize Rows per chunk
+     * @param mode Insert mode
+     * @return Stream insert result with per-chunk progress
+     */
+    @PostMapping(value = "/batch/stream", consumes = {"application/x-ndjson", "text/csv", "text/plain"})
+    public Result<Map<String, Object>> streamInsertDailyData(
+            InputStream inputStream,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestParam(value = "format", required = false) StockDailyStreamIngestService.StreamFormat format,
+            @RequestParam(value = "chunkSize", defaultValue = "1000") int chunkSize,
+            @RequestParam(value = "mode", defaultValue = "BATCH") StockDailyService.InsertMode mode) {
+        StockDailyStreamIngestService.StreamFormat resolvedFormat = format != null ? format
+                : (contentType != null && contentType.toLowerCase().startsWith("text/csv")
+                        ? StockDailyStreamIngestService.StreamFormat.CSV
+                        : StockDailyStreamIngestService.StreamFormat.NDJSON);
+        log.info("REST request to stream insert daily data: format={}, chunkSize={}, mode={}",
+                resolvedFormat, chunkSize, mode);
+
+        StockDailyStreamIngestService.StreamIngestResult result =
+                streamIngestService.ingest(inputStream, resolvedFormat, chunkSize, mode);
+
+        // Build response
+        Map<String, Object> response = new HashMap<>();
+        response.put("total", result.getTotal());
+        response.put("inserted", result.getInserted());
+        response.put("skipped", result.getSkipped());
+        response.put("updated", result.getUpdated());
+        response.put("unchanged", result.getUnchanged());
+        response.put("failed", result.getFailed());
+        response.put("processingTimeMs", result.getProcessingTimeMs());
+        response.put("summary", result.getSummary());
+        response.put("chunkCount", result.getChunkCount());
+        response.put("chunks", result.getChunks());
+
+        if (!result.getErrors().isEmpty()) {
+            response.put("errors", result.getErrors());
+            log.warn("Stream insert errors: {} (showing first {})", result.getFailed(), result.getErrors().size());
+        }
+
+        log.info("Stream insert completed: {}", result.getSummary());
+        return Result.success(response);
+    }
+
     /**
      * Get daily data statistics
      * GET /api/stock-daily/stats
@@ -169,19 +539,35 @@ public class StockDailyController {
     }
 
     /**
-     * Get daily data count by stock code
+     * Get daily data statistics by stock code
      * GET /api/stock-daily/stats/{stockCode}
      *
+     * Served from an in-memory cache, no rows are loaded per request.
+     *
+     * Response example:
+     * {
+     *   "stockCode": "600000",
+     *   "recordCount": 15234,
+     *   "firstTradeDate": "2005-01-04",
+     *   "lastTradeDate": "2024-12-31",
+     *   "countByAdjustFlag": {"1": 5078, "2": 5078, "3": 5078}
+     * }
+     *
      * @param stockCode Stock code
-     * @return Record count for the stock
+     * @return Statistics for the stock
      */
     @GetMapping("/stats/{stockCode}")
     public Result<Map<String, Object>> getDailyStatsByStockCode(@PathVariable("stockCode") String stockCode) {
         log.info("REST request to get daily data statistics for stock: {}", stockCode);
 
+        StockDailyStats dailyStats = dailyService.getDailyStatsByStockCode(stockCode);
+
         Map<String, Object> stats = new HashMap<>();
         stats.put("stockCode", stockCode);
-        stats.put("recordCount", dailyService.getDailyDataCountByStockCode(stockCode));
+        stats.put("recordCount", dailyStats.getRecordCount());
+        stats.put("firstTradeDate", dailyStats.getFirstTradeDate() != null ? dailyStats.getFirstTradeDate().toString() : null);
+        stats.put("lastTradeDate", dailyStats.getLastTradeDate() != null ? dailyStats.getLastTradeDate().toString() : null);
+        stats.put("countByAdjustFlag", dailyStats.getCountByAdjustFlag());
 
         return Result.success(stats);
     }
@@ -236,4 +622,10 @@ public class StockDailyController {
         log.info("Latest trade date: {}", dateString);
         return Result.success(dateString);
     }
+
+    private static ResponseEntity<byte[]> binaryResponse(byte[] body) {
+        return ResponseEntity.ok()
+                .contentType(BINARY_MEDIA_TYPE)
+                .body(body);
+    }
 }
@@ -0,0 +1,102 @@
+package com.quant.market.interfaces.rest;
+
+import com.quant.common.response.Result;
+import com.quant.market.application.dto.StockFactorDTO;
+import com.quant.market.application.service.StockFactorService;
+import com.quant.market.domain.factor.StockFactor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Stock Factor REST Controller
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/stock-factors")
+@RequiredArgsConstructor
+public class StockFactorController {
+
+    private final StockFactorService factorService;
+
+    /**
+     * Get the cross section of one factor on a trade date, ordered by rank
+     * GET /api/stock-factors/cross-section?factor=EP&tradeDate=2024-06-28&fromTop=true&limit=100
+     *
+     * Factors: EP, BP, SP, CFP (value), MOM_20, MOM_60, MOM_250_20 (momentum),
+     * TURN_20, ILLIQ_20 (liquidity), VOL_20, VOL_60 (volatility)
+     *
+     * @param factor Factor
+     * @param tradeDate Trade date (optional, default latest computed date)
+     * @param fromTop Largest values first (default true)
+     * @param limit Maximum number of rows (default 100, max 5000)
+     * @return Factor values ordered by rank
+     */
+    @GetMapping("/cross-section")
+    public Result<List<StockFactorDTO>> getCrossSection(
+            @RequestParam("factor") StockFactor factor,
+            @RequestParam(value = "tradeDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tradeDate,
+            @RequestParam(value = "fromTop", defaultValue = "true") boolean fromTop,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        log.info("REST request to get factor cross section: factor={}, tradeDate={}, fromTop={}, limit={}",
+                factor, tradeDate, fromTop, limit);
+        return Result.success(factorService.getCrossSection(tradeDate, factor, fromTop, limit));
+    }
+
+    /**
+     * Get the factor values of stocks over a date range
+     * GET /api/stock-factors?stockCodes=600000,000001&factors=EP,MOM_20&startDate=2024-01-01&endDate=2024-06-28
+     *
+     * @param stockCodes Stock codes (max 100)
+     * @param factors Factors (optional, all by default)
+     * @param startDate Start date (optional)
+     * @param endDate End date (optional)
+     * @return Factor values ordered by stock code, trade date and factor
+     */
+    @GetMapping
+    public Result<List<StockFactorDTO>> getStockFactors(
+            @RequestParam("stockCodes") List<String> stockCodes,
+            @RequestParam(value = "factors", required = false) List<StockFactor> factors,
+            @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        log.info("REST request to get factors of {} stocks: factors={}, startDate={}, endDate={}",
+                stockCodes.size(), factors, startDate, endDate);
+        return Result.success(factorService.getStockFactors(stockCodes, factors, startDate, endDate));
+    }
+
+    /**
+     * Compute the factors of one trade date
+     * POST /api/stock-factors/compute?tradeDate=2024-06-28
+     *
+     * @param tradeDate Trade date (optional, default latest trade date with daily data)
+     * @return Run result
+     */
+    @PostMapping("/compute")
+    public Result<StockFactorService.FactorRunResult> compute(
+            @RequestParam(value = "tradeDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tradeDate) {
+        log.info("REST request to compute factors: tradeDate={}", tradeDate);
+        return Result.success(factorService.computeTradeDate(tradeDate));
+    }
+
+    /**
+     * Compute the factors of every trading day in a range, e.g. after loading history
+     * POST /api/stock-factors/backfill?startDate=2024-01-01&endDate=2024-06-28
+     *
+     * Dates are processed in parallel; the range is limited to market.factor.max-backfill-days trading days.
+     *
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Run result
+     */
+    @PostMapping("/backfill")
+    public Result<StockFactorService.FactorRunResult> backfill(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        log.info("REST request to backfill factors: {} to {}", startDate, endDate);
+        return Result.success(factorService.backfill(startDate, endDate));
+    }
+}
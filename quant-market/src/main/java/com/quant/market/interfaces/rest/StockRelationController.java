@@ -6,6 +6,7 @@ import com.quant.common.response.Result;
 import com.quant.common.response.ResultCode;
 import com.quant.common.security.JwtTokenUtil;
 import com.quant.market.application.dto.FollowStockRequest;
+import com.quant.market.application.dto.FollowedStockPageDTO;
 import com.quant.market.application.dto.StockDTO;
 import com.quant.market.application.dto.StockRelationDTO;
 import com.quant.market.application.service.StockRelationService;
@@ -109,7 +110,7 @@ public class StockRelationController {
      * Request params:
      * - page: 页码，从0开始，默认0
      * - size: 每页数量，默认10
-     * - sort: 排序字段，默认按创建时间倒序，例如: createdAt,desc
+     * - sort: 按关注时间排序，createdAt,desc（默认）或 createdAt,asc
      *
      * Response:
      * {
@@ -169,6 +170,48 @@ public class StockRelationController {
         );
     }
 
+    /**
+     * 游标分页获取当前用户关注的股票（按关注时间倒序）
+     * GET /api/stock-relations/followed-stocks/page
+     *
+     * Headers:
+     * Authorization: Bearer <JWT_TOKEN>
+     *
+     * Request params:
+     * - pageSize: 每页数量，默认20，最大200
+     * - cursor: 上一页返回的 nextCursor，首页不传
+     * - includeLatestBar: 是否附带每只股票最新一根不复权日线，默认 false
+     *
+     * Response:
+     * {
+     *   "code": 200,
+     *   "message": "success",
+     *   "data": {
+     *     "items": [
+     *       {
+     *         "followedAt": "2026-03-02T09:31:05.123",
+     *         "stock": { "stockCode": "600000", "stockName": "浦发银行", ... },
+     *         "latestBar": { "tradeDate": "2026-03-02", "closePrice": 10.52, ... }
+     *       }
+     *     ],
+     *     "pageSize": 20,
+     *     "hasMore": true,
+     *     "nextCursor": "ZjF8MjAyNi0wMy0wMlQwOTozMTowNS4xMjN8NDI"
+     *   }
+     * }
+     */
+    @GetMapping("/followed-stocks/page")
+    public Result<FollowedStockPageDTO> getFollowedStocksPage(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(required = false) Integer pageSize,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeLatestBar) {
+        Long userId = getCurrentUserId(authHeader);
+        log.info("REST request to get followed stocks page for user: {}, pageSize: {}", userId, pageSize);
+
+        return Result.success(stockRelationService.getUserFollowedStocksPage(userId, cursor, pageSize, includeLatestBar));
+    }
+
     /**
      * 检查当前用户是否关注了某个股票
      * GET /api/stock-relations/is-following
@@ -0,0 +1,51 @@
+package com.quant.market.interfaces.rest;
+
+import com.quant.common.response.Result;
+import com.quant.market.application.dto.ScreenRequest;
+import com.quant.market.application.dto.ScreenResultDTO;
+import com.quant.market.application.service.StockScreenerService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Stock Screener REST Controller
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/stock-screener")
+@RequiredArgsConstructor
+public class StockScreenerController {
+
+    private final StockScreenerService screenerService;
+
+    /**
+     * Screen all listed stocks on one trade date
+     * POST /api/stock-screener/screen
+     *
+     * Request body example:
+     * {
+     *   "filter": "close > SMA200 and turn > 3% and pe_ttm < 20 and is_st = 0",
+     *   "rankBy": "pct_change",
+     *   "descending": true,
+     *   "limit": 50,
+     *   "adjustFlag": 1,
+     *   "tradeDate": "2024-06-28"
+     * }
+     *
+     * Filters combine comparisons of bar columns (open, high, low, close, volume, amount, turn,
+     * pct_change, pe_ttm, pb_mrq, ps_ttm, pcf_ncf_ttm, is_st, trade_status), indicators
+     * (SMA(20), SMA200, EMA(12), RSI(14), ATR(14), MACD.DIF, BOLL(20,2).UPPER) and numbers
+     * with + - * /, and/or/not and parentheses. Comparisons with missing values never match.
+     *
+     * @param request Screen request
+     * @return Matches with the values of the filter columns
+     */
+    @PostMapping("/screen")
+    public Result<ScreenResultDTO> screen(@Valid @RequestBody ScreenRequest request) {
+        log.info("REST request to screen stocks: filter={}, rankBy={}, tradeDate={}",
+                request.getFilter(), request.getRankBy(), request.getTradeDate());
+        return Result.success(screenerService.screen(request));
+    }
+}
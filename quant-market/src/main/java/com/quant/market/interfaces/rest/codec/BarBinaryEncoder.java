@@ -0,0 +1,192 @@
+package com.quant.market.interfaces.rest.codec;
+
+import com.quant.market.application.dto.BarSeriesSlice;
+import com.quant.market.domain.model.BarSeries;
+import com.quant.market.domain.model.DailySnapshot;
+
+import java.util.List;
+
+/**
+ * Bar Binary Encoder
+ * 日线列式二进制编码（application/x-quant-bars）
+ *
+ * Encodes bar series and daily snapshots straight from their scaled-long columns, without DTOs.
+ * Integers are LEB128 varints; signed values use zigzag encoding. Layout (version 1):
+ *
+ * <pre>
+ * message   := "QBAR" version:u8 kind:u8 body          kind 1 = series list, 2 = snapshot
+ * fields    := count:varint { name:string scale:u8 }   decimal value = raw / 10^scale
+ * string    := length:varint utf8-bytes
+ *
+ * series list body := fields seriesCount:varint { series }
+ * series   := stockCode:string adjustFlag:u8 n:varint dates column* tradeStatus isSt
+ * dates    := n zigzag deltas of epoch days (the first delta is from 0)
+ *
+ * snapshot body := epochDay:zigzag adjustFlag:u8 fields n:varint codes column* tradeStatus isSt
+ * codes    := n { sharedPrefixLength:varint suffix:string }   codes ascending, prefix-coded against the previous
+ *
+ * column   := nullCount:varint [null bitmap, ceil(n/8) bytes, LSB first, if nullCount &gt; 0]
+ *             zigzag deltas of the non-null raw values (the first delta is from 0)
+ * flags    := runCount:varint { value:u8 runLength:varint }   value 0xFF = null
+ * </pre>
+ *
+ * adjustFlag 0 means unknown. Columns appear in the order of the fields header. Decoders must
+ * add deltas with wrapping 64-bit arithmetic.
+ */
+public final class BarBinaryEncoder {
+
+    public static final String MEDIA_TYPE = "application/x-quant-bars";
+
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'Q', 'B', 'A', 'R'};
+    private static final int KIND_SERIES = 1;
+    private static final int KIND_SNAPSHOT = 2;
+
+    private BarBinaryEncoder() {
+    }
+
+    /**
+     * Encode a list of series slices
+     *
+     * @param slices Series slices, written in list order
+     * @param fields Decimal columns to write
+     */
+    public static byte[] encodeSeries(List<BarSeriesSlice> slices, List<BarSeries.Field> fields) {
+        int totalBars = 0;
+        for (BarSeriesSlice slice : slices) {
+            totalBars += slice.size();
+        }
+        ByteSink out = new ByteSink(64 + totalBars * (fields.size() * 3 + 4));
+        writeHeader(out, KIND_SERIES);
+        writeFields(out, fields);
+        out.writeVarLong(slices.size());
+
+        for (BarSeriesSlice slice : slices) {
+            BarSeries series = slice.series();
+            int n = slice.size();
+            out.writeString(series.getStockCode());
+            out.writeByte(series.getAdjustFlag() != null ? series.getAdjustFlag() : 0);
+            out.writeVarLong(n);
+
+            long previousDay = 0;
+            for (int i = 0; i < n; i++) {
+                long day = series.getTradeDay(slice.indexAt(i));
+                out.writeZigZag(day - previousDay);
+                previousDay = day;
+            }
+            for (BarSeries.Field field : fields) {
+                writeColumn(out, n, i -> series.getRaw(field, slice.indexAt(i)));
+            }
+            writeFlags(out, n, i -> series.getTradeStatus(slice.indexAt(i)));
+            writeFlags(out, n, i -> series.getIsSt(slice.indexAt(i)));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Encode a cross-sectional snapshot
+     *
+     * @param snapshot Snapshot (stock codes ascending)
+     * @param fields Decimal columns to write
+     */
+    public static byte[] encodeSnapshot(DailySnapshot snapshot, List<BarSeries.Field> fields) {
+        int n = snapshot.size();
+        ByteSink out = new ByteSink(64 + n * (fields.size() * 3 + 4));
+        writeHeader(out, KIND_SNAPSHOT);
+        out.writeZigZag(snapshot.getTradeDate().toEpochDay());
+        out.writeByte(snapshot.getAdjustFlag() != null ? snapshot.getAdjustFlag() : 0);
+        writeFields(out, fields);
+        out.writeVarLong(n);
+
+        out.writePrefixCodedStrings(n, snapshot::getStockCode);
+        for (BarSeries.Field field : fields) {
+            writeColumn(out, n, i -> snapshot.getRaw(field, i));
+        }
+        writeFlags(out, n, snapshot::getTradeStatus);
+        writeFlags(out, n, snapshot::getIsSt);
+        return out.toByteArray();
+    }
+
+    private static void writeHeader(ByteSink out, int kind) {
+        out.writeBytes(MAGIC, 0, MAGIC.length);
+        out.writeByte(VERSION);
+        out.writeByte(kind);
+    }
+
+    private static void writeFields(ByteSink out, List<BarSeries.Field> fields) {
+        out.writeVarLong(fields.size());
+        for (BarSeries.Field field : fields) {
+            out.writeString(field.name());
+            out.writeByte(field.getScale());
+        }
+    }
+
+    /**
+     * Null bitmap followed by zigzag deltas of the non-null values
+     * Consecutive prices and volumes differ little, so most deltas fit in one to three bytes
+     */
+    private static void writeColumn(ByteSink out, int n, RawColumn column) {
+        int nullCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (column.get(i) == BarSeries.NULL_VALUE) {
+                nullCount++;
+            }
+        }
+        out.writeVarLong(nullCount);
+        if (nullCount > 0) {
+            byte[] bitmap = new byte[(n + 7) >>> 3];
+            for (int i = 0; i < n; i++) {
+                if (column.get(i) == BarSeries.NULL_VALUE) {
+                    bitmap[i >>> 3] |= (byte) (1 << (i & 7));
+                }
+            }
+            out.writeBytes(bitmap, 0, bitmap.length);
+        }
+
+        long previous = 0;
+        for (int i = 0; i < n; i++) {
+            long value = column.get(i);
+            if (value != BarSeries.NULL_VALUE) {
+                out.writeZigZag(value - previous);
+                previous = value;
+            }
+        }
+    }
+
+    /**
+     * Run-length encoded flag column; trade status and ST flags rarely change between bars
+     */
+    private static void writeFlags(ByteSink out, int n, FlagColumn column) {
+        int runCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || flagByte(column.get(i)) != flagByte(column.get(i - 1))) {
+                runCount++;
+            }
+        }
+        out.writeVarLong(runCount);
+
+        int runStart = 0;
+        for (int i = 1; i <= n; i++) {
+            if (i == n || flagByte(column.get(i)) != flagByte(column.get(runStart))) {
+                out.writeByte(flagByte(column.get(runStart)));
+                out.writeVarLong(i - runStart);
+                runStart = i;
+            }
+        }
+    }
+
+    private static int flagByte(Short value) {
+        return value == null ? 0xFF : value & 0xFF;
+    }
+
+    @FunctionalInterface
+    private interface RawColumn {
+        long get(int index);
+    }
+
+    @FunctionalInterface
+    private interface FlagColumn {
+        Short get(int index);
+    }
+}
@@ -0,0 +1,88 @@
+package com.quant.market.interfaces.rest.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Growable byte buffer with varint writers, shared by the binary encoders
+ */
+final class ByteSink {
+
+    private byte[] buffer;
+    private int size;
+
+    ByteSink(int capacity) {
+        this.buffer = new byte[Math.max(capacity, 64)];
+    }
+
+    void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    void writeBytes(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, size, length);
+        size += length;
+    }
+
+    void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    void writeZigZag(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * IEEE 754 single precision, little-endian
+     */
+    void writeFloat(float value) {
+        ensureCapacity(4);
+        int bits = Float.floatToRawIntBits(value);
+        buffer[size++] = (byte) bits;
+        buffer[size++] = (byte) (bits >>> 8);
+        buffer[size++] = (byte) (bits >>> 16);
+        buffer[size++] = (byte) (bits >>> 24);
+    }
+
+    void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Stock codes ascending, each prefix-coded against the previous one
+     */
+    void writePrefixCodedStrings(int count, IntFunction<String> values) {
+        byte[] previous = new byte[0];
+        for (int i = 0; i < count; i++) {
+            byte[] code = values.apply(i).getBytes(StandardCharsets.UTF_8);
+            int shared = Arrays.mismatch(previous, code);
+            if (shared < 0) {
+                shared = code.length;
+            }
+            writeVarLong(shared);
+            writeVarLong(code.length - shared);
+            writeBytes(code, shared, code.length - shared);
+            previous = code;
+        }
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(size + extra, buffer.length << 1));
+        }
+    }
+}
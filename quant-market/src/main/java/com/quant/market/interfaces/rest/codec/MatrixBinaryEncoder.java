@@ -0,0 +1,81 @@
+package com.quant.market.interfaces.rest.codec;
+
+import com.quant.market.domain.risk.CovarianceMatrix;
+
+/**
+ * Matrix Binary Encoder
+ * 协方差/相关系数矩阵二进制编码（application/x-quant-matrix）
+ *
+ * Integers are LEB128 varints; signed values use zigzag encoding. Layout (version 1):
+ *
+ * <pre>
+ * message  := "QMAT" version:u8 kind:u8 startEpochDay:zigzag endEpochDay:zigzag window:varint n:varint
+ *             codes observations values                 kind 1 = covariance, 2 = correlation
+ * codes    := n { sharedPrefixLength:varint suffix:string }   codes ascending, prefix-coded against the previous
+ * observations := n varints, observed returns per stock
+ * values   := n(n+1)/2 float32 little-endian, upper triangle with the diagonal, row by row
+ * </pre>
+ *
+ * Cell (i, j), i &lt;= j, is at i*n - i*(i-1)/2 + (j - i). Correlations of stocks with zero
+ * variance are NaN. startEpochDay is the base day of the first return.
+ */
+public final class MatrixBinaryEncoder {
+
+    public static final String MEDIA_TYPE = "application/x-quant-matrix";
+
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'Q', 'M', 'A', 'T'};
+    private static final int KIND_COVARIANCE = 1;
+    private static final int KIND_CORRELATION = 2;
+
+    private MatrixBinaryEncoder() {
+    }
+
+    /**
+     * Encode the covariance matrix, or the correlation matrix derived from it
+     *
+     * @param matrix Covariance matrix
+     * @param correlation Write correlations instead of covariances
+     */
+    public static byte[] encode(CovarianceMatrix matrix, boolean correlation) {
+        int n = matrix.size();
+        float[] packed = matrix.getPacked();
+        ByteSink out = new ByteSink(64 + n * 12 + packed.length * 4);
+        out.writeBytes(MAGIC, 0, MAGIC.length);
+        out.writeByte(VERSION);
+        out.writeByte(correlation ? KIND_CORRELATION : KIND_COVARIANCE);
+        out.writeZigZag(matrix.getStartDate().toEpochDay());
+        out.writeZigZag(matrix.getEndDate().toEpochDay());
+        out.writeVarLong(matrix.getWindow());
+        out.writeVarLong(n);
+        out.writePrefixCodedStrings(n, matrix::getStockCode);
+        for (int i = 0; i < n; i++) {
+            out.writeVarLong(matrix.getObservations(i));
+        }
+
+        if (!correlation) {
+            for (float value : packed) {
+                out.writeFloat(value);
+            }
+            return out.toByteArray();
+        }
+        double[] inverseDeviations = new double[n];
+        for (int i = 0; i < n; i++) {
+            double variance = matrix.getVariance(i);
+            inverseDeviations[i] = variance > 0 ? 1 / Math.sqrt(variance) : Double.NaN;
+        }
+        int cell = 0;
+        for (int i = 0; i < n; i++) {
+            double rowScale = inverseDeviations[i];
+            out.writeFloat(Double.isNaN(rowScale) ? Float.NaN : 1f);
+            cell++;
+            for (int j = i + 1; j < n; j++) {
+                // The packed covariance is float, so clamp the rounding overshoot of near-perfect pairs
+                double value = packed[cell++] * rowScale * inverseDeviations[j];
+                out.writeFloat((float) Math.max(-1, Math.min(1, value)));
+            }
+        }
+        return out.toByteArray();
+    }
+}
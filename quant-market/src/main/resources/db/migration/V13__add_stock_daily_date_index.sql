@@ -0,0 +1,5 @@
+-- 日线横截面查询索引
+-- 按交易日读取全部股票（某日全市场快照）时，idx_stock_daily_code_date_adjust 以 stock_code 开头无法使用
+-- (trade_date, adjust_flag, stock_code) 直接定位单日单复权类型，并按股票代码有序返回
+
+CREATE INDEX IF NOT EXISTS idx_stock_daily_date_adjust_code ON t_stock_daily(trade_date, adjust_flag, stock_code);
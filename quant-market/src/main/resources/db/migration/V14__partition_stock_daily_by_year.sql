@@ -0,0 +1,138 @@
+-- 股票日线表按交易日期年度分区
+-- 1. 原表重命名为 t_stock_daily_legacy（索引、约束一并改名，避免与新表重名）
+-- 2. 新建按 trade_date RANGE 分区的 t_stock_daily，每年一个分区，另建 DEFAULT 分区兜底
+-- 3. trade_date 使用 BRIN 索引（数据按交易日顺序写入，BRIN 体积仅为 B-tree 的千分之一量级）
+-- 4. 迁移数据后删除旧表
+--
+-- 分区表的主键/唯一约束必须包含分区键：主键改为 (id, trade_date)，
+-- 唯一约束 (stock_code, trade_date, adjust_flag) 本身已包含 trade_date，ON CONFLICT 写法不变。
+-- 查询带上 trade_date 范围条件时，规划器只扫描命中的年度分区。
+-- 新年度分区可通过 SELECT create_stock_daily_partition(2036); 追加。
+
+-- 1. 原表改名
+ALTER TABLE t_stock_daily RENAME TO t_stock_daily_legacy;
+ALTER TABLE t_stock_daily_legacy RENAME CONSTRAINT t_stock_daily_pkey TO t_stock_daily_legacy_pkey;
+ALTER TABLE t_stock_daily_legacy RENAME CONSTRAINT uk_stock_daily_unique TO uk_stock_daily_legacy_unique;
+ALTER INDEX IF EXISTS idx_stock_daily_code RENAME TO idx_stock_daily_legacy_code;
+ALTER INDEX IF EXISTS idx_stock_daily_date RENAME TO idx_stock_daily_legacy_date;
+ALTER INDEX IF EXISTS idx_stock_daily_code_date_adjust RENAME TO idx_stock_daily_legacy_code_date_adjust;
+ALTER INDEX IF EXISTS idx_stock_daily_adjust_flag RENAME TO idx_stock_daily_legacy_adjust_flag;
+ALTER INDEX IF EXISTS idx_stock_daily_date_adjust_code RENAME TO idx_stock_daily_legacy_date_adjust_code;
+
+-- 主键序列转交给新表
+ALTER SEQUENCE t_stock_daily_id_seq OWNED BY NONE;
+ALTER TABLE t_stock_daily_legacy ALTER COLUMN id DROP DEFAULT;
+
+-- 2. 新建分区表
+CREATE TABLE t_stock_daily (
+    id BIGINT NOT NULL DEFAULT nextval('t_stock_daily_id_seq'),
+    stock_code VARCHAR(20) NOT NULL,
+    trade_date DATE NOT NULL,
+    open_price DECIMAL(10,4),
+    high_price DECIMAL(10,4),
+    low_price DECIMAL(10,4),
+    close_price DECIMAL(10,4),
+    pre_close DECIMAL(10,4),
+    change_amount DECIMAL(10,4),
+    pct_change DECIMAL(10,6),
+    volume DECIMAL(20,4),
+    amount DECIMAL(20,4),
+    adjust_flag SMALLINT DEFAULT 3,
+    turn DECIMAL(10,6),
+    trade_status SMALLINT,
+    pe_ttm DECIMAL(18,6),
+    pb_mrq DECIMAL(18,6),
+    ps_ttm DECIMAL(18,6),
+    pcf_ncf_ttm DECIMAL(18,6),
+    is_st SMALLINT DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT t_stock_daily_pkey PRIMARY KEY (id, trade_date),
+    CONSTRAINT uk_stock_daily_unique UNIQUE (stock_code, trade_date, adjust_flag)
+) PARTITION BY RANGE (trade_date);
+
+ALTER SEQUENCE t_stock_daily_id_seq OWNED BY t_stock_daily.id;
+
+-- 年度分区创建函数
+CREATE OR REPLACE FUNCTION create_stock_daily_partition(p_year INT)
+RETURNS VOID AS $$
+BEGIN
+    EXECUTE format(
+        'CREATE TABLE IF NOT EXISTS %I PARTITION OF t_stock_daily FOR VALUES FROM (%L) TO (%L)',
+        't_stock_daily_' || p_year,
+        make_date(p_year, 1, 1),
+        make_date(p_year + 1, 1, 1));
+END;
+$$ LANGUAGE plpgsql;
+
+-- A股自 1990 年开市，预建至 2035 年
+DO $$
+BEGIN
+    FOR y IN 1990..2035 LOOP
+        PERFORM create_stock_daily_partition(y);
+    END LOOP;
+END;
+$$;
+
+CREATE TABLE IF NOT EXISTS t_stock_daily_default PARTITION OF t_stock_daily DEFAULT;
+
+-- 3. 索引（在父表上创建，自动下发到每个分区）
+-- 唯一约束 (stock_code, trade_date, adjust_flag) 的索引同时服务单只股票的日期范围查询（可反向扫描）
+CREATE INDEX IF NOT EXISTS idx_stock_daily_trade_date_brin ON t_stock_daily USING BRIN (trade_date);
+CREATE INDEX IF NOT EXISTS idx_stock_daily_date_adjust_code ON t_stock_daily(trade_date, adjust_flag, stock_code);
+
+-- 4. 迁移数据
+INSERT INTO t_stock_daily (
+    id, stock_code, trade_date, open_price, high_price, low_price,
+    close_price, pre_close, change_amount, pct_change,
+    volume, amount, adjust_flag, turn, trade_status,
+    pe_ttm, pb_mrq, ps_ttm, pcf_ncf_ttm, is_st,
+    created_at, updated_at
+)
+SELECT
+    id, stock_code, trade_date, open_price, high_price, low_price,
+    close_price, pre_close, change_amount, pct_change,
+    volume, amount, adjust_flag, turn, trade_status,
+    pe_ttm, pb_mrq, ps_ttm, pcf_ncf_ttm, is_st,
+    created_at, updated_at
+FROM t_stock_daily_legacy
+ORDER BY trade_date, stock_code;
+
+DROP TABLE t_stock_daily_legacy;
+
+SELECT setval('t_stock_daily_id_seq', COALESCE((SELECT MAX(id) FROM t_stock_daily), 0) + 1, false);
+
+ANALYZE t_stock_daily;
+
+-- updated_at 触发器随旧表删除，重新挂到分区表上
+CREATE TRIGGER trigger_update_stock_daily_updated_at
+    BEFORE UPDATE ON t_stock_daily
+    FOR EACH ROW
+    EXECUTE FUNCTION update_stock_daily_updated_at();
+
+-- 表注释
+COMMENT ON TABLE t_stock_daily IS '股票日线行情表（按交易日期年度分区）';
+
+-- 列注释
+COMMENT ON COLUMN t_stock_daily.id IS '主键ID';
+COMMENT ON COLUMN t_stock_daily.stock_code IS '股票代码';
+COMMENT ON COLUMN t_stock_daily.trade_date IS '交易日期（分区键）';
+COMMENT ON COLUMN t_stock_daily.open_price IS '开盘价';
+COMMENT ON COLUMN t_stock_daily.high_price IS '最高价';
+COMMENT ON COLUMN t_stock_daily.low_price IS '最低价';
+COMMENT ON COLUMN t_stock_daily.close_price IS '收盘价';
+COMMENT ON COLUMN t_stock_daily.pre_close IS '昨收价（除权价，前复权）';
+COMMENT ON COLUMN t_stock_daily.change_amount IS '涨跌额';
+COMMENT ON COLUMN t_stock_daily.pct_change IS '涨跌幅（基于除权后的昨收计算）';
+COMMENT ON COLUMN t_stock_daily.volume IS '成交量（手）';
+COMMENT ON COLUMN t_stock_daily.amount IS '成交额（千元）';
+COMMENT ON COLUMN t_stock_daily.adjust_flag IS '复权标识：1-后复权；2-前复权；3-不复权';
+COMMENT ON COLUMN t_stock_daily.turn IS '换手率（%）';
+COMMENT ON COLUMN t_stock_daily.trade_status IS '交易状态：1-正常交易；0-停牌';
+COMMENT ON COLUMN t_stock_daily.pe_ttm IS '滚动市盈率';
+COMMENT ON COLUMN t_stock_daily.pb_mrq IS '市净率';
+COMMENT ON COLUMN t_stock_daily.ps_ttm IS '滚动市销率';
+COMMENT ON COLUMN t_stock_daily.pcf_ncf_ttm IS '滚动市现率';
+COMMENT ON COLUMN t_stock_daily.is_st IS '是否ST股：1-是；0-否';
+COMMENT ON COLUMN t_stock_daily.created_at IS '创建时间';
+COMMENT ON COLUMN t_stock_daily.updated_at IS '更新时间';
@@ -0,0 +1,42 @@
+-- 创建股票复权因子表
+-- 每次除权除息记录一行累计后复权因子，前复权/后复权序列由不复权日线在查询时计算：
+--   后复权价 = 不复权价 × F(t)
+--   前复权价 = 不复权价 × F(t) / F(最新)
+-- 其中 F(t) 为 t 日及之前最近一次除权除息日的累计后复权因子，首个除权除息日之前为 1
+
+CREATE TABLE IF NOT EXISTS t_stock_adjust_factor (
+    id BIGSERIAL PRIMARY KEY,
+    stock_code VARCHAR(20) NOT NULL,
+    ex_date DATE NOT NULL,
+    back_adjust_factor DECIMAL(20,10) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_stock_adjust_factor_unique UNIQUE (stock_code, ex_date),
+    CONSTRAINT ck_stock_adjust_factor_positive CHECK (back_adjust_factor > 0)
+);
+
+-- 表注释
+COMMENT ON TABLE t_stock_adjust_factor IS '股票复权因子表（除权除息日的累计后复权因子）';
+
+-- 列注释
+COMMENT ON COLUMN t_stock_adjust_factor.id IS '主键ID';
+COMMENT ON COLUMN t_stock_adjust_factor.stock_code IS '股票代码';
+COMMENT ON COLUMN t_stock_adjust_factor.ex_date IS '除权除息日（因子自该日起生效）';
+COMMENT ON COLUMN t_stock_adjust_factor.back_adjust_factor IS '累计后复权因子';
+COMMENT ON COLUMN t_stock_adjust_factor.created_at IS '创建时间';
+COMMENT ON COLUMN t_stock_adjust_factor.updated_at IS '更新时间';
+
+-- 创建触发器函数用于自动更新 updated_at
+CREATE OR REPLACE FUNCTION update_stock_adjust_factor_updated_at()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.updated_at = CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 创建触发器
+CREATE TRIGGER trigger_update_stock_adjust_factor_updated_at
+    BEFORE UPDATE ON t_stock_adjust_factor
+    FOR EACH ROW
+    EXECUTE FUNCTION update_stock_adjust_factor_updated_at();
@@ -0,0 +1,64 @@
+-- 创建周/月/季/年线汇总表
+-- 由 t_stock_daily 日线按自然周（周一起）、月、季、年分组聚合，日线批量写入后按受影响的周期增量刷新
+-- period_end 取 t_trading_calendar 中该周期的最后一个交易日，last_trade_date >= period_end 表示周期已走完
+-- 派生复权模式下（有复权因子的股票），后复权汇总由不复权日线乘以复权因子计算，前复权在查询时由后复权换算
+
+CREATE TABLE IF NOT EXISTS t_stock_bar_rollup (
+    id BIGSERIAL PRIMARY KEY,
+    stock_code VARCHAR(20) NOT NULL,
+    period VARCHAR(10) NOT NULL,
+    adjust_flag SMALLINT NOT NULL,
+    period_start DATE NOT NULL,
+    period_end DATE,
+    last_trade_date DATE NOT NULL,
+    open_price DECIMAL(10,4),
+    high_price DECIMAL(10,4),
+    low_price DECIMAL(10,4),
+    close_price DECIMAL(10,4),
+    pre_close DECIMAL(10,4),
+    volume DECIMAL(24,4),
+    amount DECIMAL(24,4),
+    turn DECIMAL(14,6),
+    bar_count SMALLINT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_stock_bar_rollup_unique UNIQUE (stock_code, period, adjust_flag, period_start)
+);
+
+-- 表注释
+COMMENT ON TABLE t_stock_bar_rollup IS '股票周/月/季/年线汇总表（由日线增量聚合）';
+
+-- 列注释
+COMMENT ON COLUMN t_stock_bar_rollup.id IS '主键ID';
+COMMENT ON COLUMN t_stock_bar_rollup.stock_code IS '股票代码';
+COMMENT ON COLUMN t_stock_bar_rollup.period IS '周期：WEEK-周；MONTH-月；QUARTER-季；YEAR-年';
+COMMENT ON COLUMN t_stock_bar_rollup.adjust_flag IS '复权标识：1-后复权；2-前复权；3-不复权';
+COMMENT ON COLUMN t_stock_bar_rollup.period_start IS '周期起始日（自然周期首日）';
+COMMENT ON COLUMN t_stock_bar_rollup.period_end IS '周期最后一个交易日（来自交易日历）';
+COMMENT ON COLUMN t_stock_bar_rollup.last_trade_date IS '周期内最后一根日线的交易日期';
+COMMENT ON COLUMN t_stock_bar_rollup.open_price IS '开盘价（周期内首个交易日开盘价）';
+COMMENT ON COLUMN t_stock_bar_rollup.high_price IS '最高价';
+COMMENT ON COLUMN t_stock_bar_rollup.low_price IS '最低价';
+COMMENT ON COLUMN t_stock_bar_rollup.close_price IS '收盘价（周期内最后交易日收盘价）';
+COMMENT ON COLUMN t_stock_bar_rollup.pre_close IS '昨收价（周期内首个交易日的昨收价）';
+COMMENT ON COLUMN t_stock_bar_rollup.volume IS '成交量合计（手）';
+COMMENT ON COLUMN t_stock_bar_rollup.amount IS '成交额合计（千元）';
+COMMENT ON COLUMN t_stock_bar_rollup.turn IS '换手率合计（%）';
+COMMENT ON COLUMN t_stock_bar_rollup.bar_count IS '参与聚合的日线数量（不含停牌日）';
+COMMENT ON COLUMN t_stock_bar_rollup.created_at IS '创建时间';
+COMMENT ON COLUMN t_stock_bar_rollup.updated_at IS '更新时间';
+
+-- 创建触发器函数用于自动更新 updated_at
+CREATE OR REPLACE FUNCTION update_stock_bar_rollup_updated_at()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.updated_at = CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 创建触发器
+CREATE TRIGGER trigger_update_stock_bar_rollup_updated_at
+    BEFORE UPDATE ON t_stock_bar_rollup
+    FOR EACH ROW
+    EXECUTE FUNCTION update_stock_bar_rollup_updated_at();
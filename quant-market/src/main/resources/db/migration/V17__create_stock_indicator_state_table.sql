@@ -0,0 +1,47 @@
+-- 创建技术指标增量状态表
+-- 每个 (股票, 复权类型, 指标及参数) 一行，保存推进到 last_trade_date 为止的滚动状态：
+-- EMA 值、RSI 平均涨跌幅、窗口类指标的环形缓冲区与累计和等。新日线写入后按一根 K 线推进，无需从首根 K 线重算
+
+CREATE TABLE IF NOT EXISTS t_stock_indicator_state (
+    id BIGSERIAL PRIMARY KEY,
+    stock_code VARCHAR(20) NOT NULL,
+    adjust_flag SMALLINT NOT NULL,
+    indicator VARCHAR(40) NOT NULL,
+    last_trade_date DATE NOT NULL,
+    bar_count INTEGER NOT NULL,
+    state DOUBLE PRECISION[] NOT NULL,
+    output_values DOUBLE PRECISION[] NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_stock_indicator_state_unique UNIQUE (stock_code, adjust_flag, indicator)
+);
+
+-- 表注释
+COMMENT ON TABLE t_stock_indicator_state IS '技术指标增量状态表';
+
+-- 列注释
+COMMENT ON COLUMN t_stock_indicator_state.id IS '主键ID';
+COMMENT ON COLUMN t_stock_indicator_state.stock_code IS '股票代码';
+COMMENT ON COLUMN t_stock_indicator_state.adjust_flag IS '复权标识：1-后复权；2-前复权；3-不复权';
+COMMENT ON COLUMN t_stock_indicator_state.indicator IS '指标及参数，如 MACD(12,26,9)';
+COMMENT ON COLUMN t_stock_indicator_state.last_trade_date IS '状态已推进到的交易日期';
+COMMENT ON COLUMN t_stock_indicator_state.bar_count IS '已计入的日线数量';
+COMMENT ON COLUMN t_stock_indicator_state.state IS '滚动状态（布局由指标类型决定）';
+COMMENT ON COLUMN t_stock_indicator_state.output_values IS 'last_trade_date 当日的指标输出值';
+COMMENT ON COLUMN t_stock_indicator_state.created_at IS '创建时间';
+COMMENT ON COLUMN t_stock_indicator_state.updated_at IS '更新时间';
+
+-- 创建触发器函数用于自动更新 updated_at
+CREATE OR REPLACE FUNCTION update_stock_indicator_state_updated_at()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.updated_at = CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 创建触发器
+CREATE TRIGGER trigger_update_stock_indicator_state_updated_at
+    BEFORE UPDATE ON t_stock_indicator_state
+    FOR EACH ROW
+    EXECUTE FUNCTION update_stock_indicator_state_updated_at();
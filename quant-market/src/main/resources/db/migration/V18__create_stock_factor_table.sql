@@ -0,0 +1,34 @@
+-- 创建因子值表
+-- 每个 (交易日, 因子, 股票) 一行：原始值、当日横截面 z-score、排名及分位
+-- 因子按交易日整体计算并整日替换（先删后写），因此不做原地更新，也不需要 updated_at
+
+CREATE TABLE IF NOT EXISTS t_stock_factor (
+    trade_date DATE NOT NULL,
+    factor VARCHAR(20) NOT NULL,
+    stock_code VARCHAR(20) NOT NULL,
+    raw_value DOUBLE PRECISION NOT NULL,
+    z_score DOUBLE PRECISION NOT NULL,
+    rank_no INTEGER NOT NULL,
+    percentile DOUBLE PRECISION NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_stock_factor PRIMARY KEY (trade_date, factor, stock_code)
+);
+
+-- 按股票查询因子时间序列
+CREATE INDEX IF NOT EXISTS idx_stock_factor_code ON t_stock_factor(stock_code, factor, trade_date);
+
+-- 按排名取某日因子头部/尾部
+CREATE INDEX IF NOT EXISTS idx_stock_factor_rank ON t_stock_factor(trade_date, factor, rank_no);
+
+-- 表注释
+COMMENT ON TABLE t_stock_factor IS '股票因子值表（价值、动量、流动性、波动率）';
+
+-- 列注释
+COMMENT ON COLUMN t_stock_factor.trade_date IS '交易日期';
+COMMENT ON COLUMN t_stock_factor.factor IS '因子代码，如 EP、MOM_20、VOL_60';
+COMMENT ON COLUMN t_stock_factor.stock_code IS '股票代码';
+COMMENT ON COLUMN t_stock_factor.raw_value IS '因子原始值';
+COMMENT ON COLUMN t_stock_factor.z_score IS '当日横截面标准化值（按 ±3 截尾）';
+COMMENT ON COLUMN t_stock_factor.rank_no IS '当日横截面排名（1 为原始值最大，相同值并列）';
+COMMENT ON COLUMN t_stock_factor.percentile IS '当日横截面分位（0-1，1 为原始值最大）';
+COMMENT ON COLUMN t_stock_factor.created_at IS '计算时间';
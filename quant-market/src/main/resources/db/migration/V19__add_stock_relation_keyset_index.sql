@@ -0,0 +1,12 @@
+-- 关注列表按关注时间游标分页
+-- 1. created_at 补齐并设为非空，保证 (created_at, id) 可作为全序游标
+-- 2. (ref_id, ref_type, created_at DESC, id DESC) 索引：单个用户的关注按关注时间倒序直接顺序读取，
+--    游标条件 (created_at, id) < (?, ?) 从索引位置开始扫描，无需排序和 OFFSET 跳行
+
+UPDATE t_stock_relation SET created_at = COALESCE(updated_at, CURRENT_TIMESTAMP) WHERE created_at IS NULL;
+ALTER TABLE t_stock_relation ALTER COLUMN created_at SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_stock_relation_ref_created
+    ON t_stock_relation(ref_id, ref_type, created_at DESC, id DESC);
+
+COMMENT ON INDEX idx_stock_relation_ref_created IS '用户关注列表按关注时间游标分页';